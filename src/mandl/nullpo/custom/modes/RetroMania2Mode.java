@@ -40,6 +40,7 @@ import mu.nu.nullpo.game.play.GameManager;
 import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.FieldScatter;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 import zeroxfc.nullpo.custom.libs.ScrollingMarqueeText;
 
@@ -363,7 +364,7 @@ public class RetroMania2Mode extends mu.nu.nullpo.game.subsystem.mode.DummyMode
 			if(engine.ctrl.isPush(Controller.BUTTON_A) && (engine.statc[3] >= 5)) {
 				engine.playSE("decide");
 				saveSetting(owner.modeConfig);
-				receiver.saveModeConfig(owner.modeConfig);
+				PropertiesWriter.saveModeConfig(owner.modeConfig);
 				return false;
 			}
 
@@ -921,7 +922,7 @@ public class RetroMania2Mode extends mu.nu.nullpo.game.subsystem.mode.DummyMode
 
 			if(rankingRank != -1) {
 				saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-				receiver.saveModeConfig(owner.modeConfig);
+				PropertiesWriter.saveModeConfig(owner.modeConfig);
 			}
 		}
 	}
@@ -32,14 +32,19 @@
  */
 package zeroxfc.nullpo.custom.libs;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
 import mu.nu.nullpo.gui.swing.ResourceHolderSwing;
 import org.apache.log4j.Logger;
 // import java.util.Iterator;
 // import java.util.List;
 
+/**
+ * Seeded array shuffler.
+ * <p>
+ * Shuffles are Fisher-Yates, drawing from the end of the array in the same order as
+ * <code>Collections.shuffle(list, random)</code>, so a seed gives the same permutation it always has.
+ * Nothing is allocated except by {@link #permute(int[])}, which returns a new array.
+ */
 public class ArrayRandomiser {
     /**
      * Log
@@ -56,20 +61,136 @@ public class ArrayRandomiser {
         randomiser = new Random(seed);
     }
 
+    /**
+     * Resets the randomiser to a seed, as if it had just been created with it.
+     *
+     * @param seed Random seed
+     */
+    public void setSeed(long seed) {
+        randomiser.setSeed(seed);
+    }
+
+    /**
+     * Returns a shuffled copy of an array.
+     *
+     * @param arr Array to copy
+     * @return Shuffled copy
+     */
     public int[] permute(int[] arr) {
-        int[] h = arr.clone();
+        return permute(arr, new int[arr.length]);
+    }
+
+    /**
+     * Copies an array into a buffer and shuffles the buffer.
+     *
+     * @param arr    Source array (left unchanged)
+     * @param buffer Destination, at least as long as <code>arr</code>
+     * @return <code>buffer</code>
+     */
+    public int[] permute(int[] arr, int[] buffer) {
+        System.arraycopy(arr, 0, buffer, 0, arr.length);
+        shuffle(buffer, 0, arr.length);
+        return buffer;
+    }
+
+    /**
+     * Copies an array into a buffer and shuffles the buffer.
+     *
+     * @param arr    Source array (left unchanged)
+     * @param buffer Destination, at least as long as <code>arr</code>
+     * @return <code>buffer</code>
+     */
+    public long[] permute(long[] arr, long[] buffer) {
+        System.arraycopy(arr, 0, buffer, 0, arr.length);
+        shuffle(buffer, 0, arr.length);
+        return buffer;
+    }
+
+    /**
+     * Copies an array into a buffer and shuffles the buffer.
+     *
+     * @param arr    Source array (left unchanged)
+     * @param buffer Destination, at least as long as <code>arr</code>
+     * @return <code>buffer</code>
+     */
+    public <T> T[] permute(T[] arr, T[] buffer) {
+        System.arraycopy(arr, 0, buffer, 0, arr.length);
+        shuffle(buffer, 0, arr.length);
+        return buffer;
+    }
 
-        ArrayList<Integer> copy = new ArrayList<Integer>();
-        for (int integer : arr) {
-            copy.add(integer);
+    /**
+     * Shuffles an array in place.
+     *
+     * @param arr Array to shuffle
+     */
+    public void shuffle(int[] arr) {
+        shuffle(arr, 0, arr.length);
+    }
+
+    /**
+     * Shuffles part of an array in place.
+     *
+     * @param arr    Array to shuffle
+     * @param offset First index shuffled
+     * @param length Number of elements shuffled
+     */
+    public void shuffle(int[] arr, int offset, int length) {
+        for (int i = length; i > 1; i--) {
+            int j = offset + randomiser.nextInt(i);
+            int tmp = arr[offset + i - 1];
+            arr[offset + i - 1] = arr[j];
+            arr[j] = tmp;
         }
+    }
 
-        Collections.shuffle(copy, randomiser);
+    /**
+     * Shuffles an array in place.
+     *
+     * @param arr Array to shuffle
+     */
+    public void shuffle(long[] arr) {
+        shuffle(arr, 0, arr.length);
+    }
 
-        for (int i = 0; i < copy.size(); i++) {
-            h[i] = copy.get(i).intValue();
+    /**
+     * Shuffles part of an array in place.
+     *
+     * @param arr    Array to shuffle
+     * @param offset First index shuffled
+     * @param length Number of elements shuffled
+     */
+    public void shuffle(long[] arr, int offset, int length) {
+        for (int i = length; i > 1; i--) {
+            int j = offset + randomiser.nextInt(i);
+            long tmp = arr[offset + i - 1];
+            arr[offset + i - 1] = arr[j];
+            arr[j] = tmp;
         }
+    }
+
+    /**
+     * Shuffles an array in place.
+     *
+     * @param arr Array to shuffle
+     */
+    public <T> void shuffle(T[] arr) {
+        shuffle(arr, 0, arr.length);
+    }
 
-        return h;
+    /**
+     * Shuffles part of an array in place.
+     *
+     * @param arr    Array to shuffle
+     * @param offset First index shuffled
+     * @param length Number of elements shuffled
+     */
+    public <T> void shuffle(T[] arr, int offset, int length) {
+        for (int i = length; i > 1; i--) {
+            int j = offset + randomiser.nextInt(i);
+            T tmp = arr[offset + i - 1];
+            arr[offset + i - 1] = arr[j];
+            arr[j] = tmp;
+        }
     }
 }
@@ -1,7 +1,7 @@
 package zeroxfc.nullpo.custom.libs;
 
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.Arrays;
 import mu.nu.nullpo.game.event.EventReceiver;
 import mu.nu.nullpo.gui.sdl.RendererSDL;
 import mu.nu.nullpo.gui.slick.RendererSlick;
@@ -18,51 +18,109 @@ public class BufferedPrimitiveDrawingHook {
     private static final Logger log = Logger.getLogger(BufferedPrimitiveDrawingHook.class);
 
     /**
-     * Drawing command queue.
+     * Command types stored in the queue.
      */
-    private final ArrayList<RenderCommand> commandBuffer;
+    private static final int COMMAND_RECTANGLE = 0,
+        COMMAND_ARC = 1,
+        COMMAND_OVAL = 2;
+
+    /**
+     * Number of ints each command takes up in the argument buffer:
+     * x, y, sizeX, sizeY, angleStart, angleSize, packed RGBA colour, fill flag.
+     */
+    private static final int ARGUMENT_STRIDE = 8;
+
+    /**
+     * Default number of commands the queue can hold before it has to grow.
+     */
+    private static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Drawing command queue, stored as parallel primitive arrays so that queueing never boxes.
+     * The arrays are kept between frames and only ever grow.
+     */
+    private int[] commandTypes;
+    private int[] commandArguments;
+    private int commandCount;
 
     /**
      * Create a new queue.
      */
     public BufferedPrimitiveDrawingHook() {
-        commandBuffer = new ArrayList<>();
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new queue.
+     *
+     * @param initialCapacity Number of commands the queue can hold before it has to grow.
+     */
+    public BufferedPrimitiveDrawingHook(int initialCapacity) {
+        if (initialCapacity < 1) initialCapacity = 1;
+        commandTypes = new int[initialCapacity];
+        commandArguments = new int[initialCapacity * ARGUMENT_STRIDE];
+        commandCount = 0;
     }
 
     /**
      * These can be placed in the non-render methods.
      */
     public void drawRectangle(int x, int y, int sizeX, int sizeY, int red, int green, int blue, int alpha, boolean fill) {
-        commandBuffer.add(
-            new RenderCommand(
-                RenderCommand.RenderType.Rectangle,
-                new Object[] { x, y, sizeX, sizeY, red, green, blue, alpha, fill }
-            )
-        );
+        queueCommand(COMMAND_RECTANGLE, x, y, sizeX, sizeY, 0, 0, red, green, blue, alpha, fill);
     }
 
     /**
      * These can be placed in the non-render methods.
      */
     public void drawArc(int x, int y, int sizeX, int sizeY, int angleStart, int angleSize, int red, int green, int blue, int alpha, boolean fill) {
-        commandBuffer.add(
-            new RenderCommand(
-                RenderCommand.RenderType.Arc,
-                new Object[] { x, y, sizeX, sizeY, angleStart, angleSize, red, green, blue, alpha, fill }
-            )
-        );
+        queueCommand(COMMAND_ARC, x, y, sizeX, sizeY, angleStart, angleSize, red, green, blue, alpha, fill);
     }
 
     /**
      * These can be placed in the non-render methods.
      */
     public void drawOval(int x, int y, int sizeX, int sizeY, int red, int green, int blue, int alpha, boolean fill) {
-        commandBuffer.add(
-            new RenderCommand(
-                RenderCommand.RenderType.Rectangle,
-                new Object[] { x, y, sizeX, sizeY, red, green, blue, alpha, fill }
-            )
-        );
+        queueCommand(COMMAND_OVAL, x, y, sizeX, sizeY, 0, 0, red, green, blue, alpha, fill);
+    }
+
+    /**
+     * Gets the number of commands waiting to be drawn.
+     *
+     * @return Number of queued commands.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Discards all queued commands without drawing them. Storage is kept for reuse.
+     */
+    public void clear() {
+        commandCount = 0;
+    }
+
+    private void queueCommand(int type, int x, int y, int sizeX, int sizeY, int angleStart, int angleSize, int red, int green, int blue, int alpha, boolean fill) {
+        if (commandCount >= commandTypes.length) {
+            int newCapacity = commandTypes.length * 2;
+            commandTypes = Arrays.copyOf(commandTypes, newCapacity);
+            commandArguments = Arrays.copyOf(commandArguments, newCapacity * ARGUMENT_STRIDE);
+        }
+
+        commandTypes[commandCount] = type;
+
+        int offset = commandCount * ARGUMENT_STRIDE;
+        commandArguments[offset] = x;
+        commandArguments[offset + 1] = y;
+        commandArguments[offset + 2] = sizeX;
+        commandArguments[offset + 3] = sizeY;
+        commandArguments[offset + 4] = angleStart;
+        commandArguments[offset + 5] = angleSize;
+        // Components are clamped rather than masked so out-of-range values saturate instead of wrapping.
+        commandArguments[offset + 6] = (MathHelper.clamp(red, 0, 255) << 24) | (MathHelper.clamp(green, 0, 255) << 16)
+            | (MathHelper.clamp(blue, 0, 255) << 8) | MathHelper.clamp(alpha, 0, 255);
+        commandArguments[offset + 7] = fill ? 1 : 0;
+
+        commandCount++;
     }
 
     /**
@@ -71,7 +129,7 @@ public class BufferedPrimitiveDrawingHook {
      * @param receiver Renderer to use
      */
     public void renderAll(EventReceiver receiver) {
-        if (commandBuffer.size() <= 0) return;
+        if (commandCount <= 0) return;
 
         try {
             Object graphicsObject = null;
@@ -94,51 +152,47 @@ public class BufferedPrimitiveDrawingHook {
             }
 
             if (graphicsObject == null) return;
-            for (RenderCommand cmd : commandBuffer) {
+            for (int i = 0; i < commandCount; i++) {
+                int offset = i * ARGUMENT_STRIDE;
+                int colour = commandArguments[offset + 6];
+                int red = (colour >>> 24) & 0xFF;
+                int green = (colour >>> 16) & 0xFF;
+                int blue = (colour >>> 8) & 0xFF;
+                int alpha = colour & 0xFF;
+                boolean fill = commandArguments[offset + 7] != 0;
+
                 try {
-                    switch (cmd.renderType) {
-                        case Rectangle:
+                    switch (commandTypes[i]) {
+                        case COMMAND_RECTANGLE:
                             PrimitiveDrawingHook.drawRectangleFast(
                                 graphicsObject,
-                                (int) cmd.args[0],
-                                (int) cmd.args[1],
-                                (int) cmd.args[2],
-                                (int) cmd.args[3],
-                                (int) cmd.args[4],
-                                (int) cmd.args[5],
-                                (int) cmd.args[6],
-                                (int) cmd.args[7],
-                                (boolean) cmd.args[8]
+                                commandArguments[offset],
+                                commandArguments[offset + 1],
+                                commandArguments[offset + 2],
+                                commandArguments[offset + 3],
+                                red, green, blue, alpha, fill
                             );
                             break;
-                        case Arc:
+                        case COMMAND_ARC:
                             PrimitiveDrawingHook.drawArcFast(
                                 graphicsObject,
-                                (int) cmd.args[0],
-                                (int) cmd.args[1],
-                                (int) cmd.args[2],
-                                (int) cmd.args[3],
-                                (int) cmd.args[4],
-                                (int) cmd.args[5],
-                                (int) cmd.args[6],
-                                (int) cmd.args[7],
-                                (int) cmd.args[8],
-                                (int) cmd.args[9],
-                                (boolean) cmd.args[10]
+                                commandArguments[offset],
+                                commandArguments[offset + 1],
+                                commandArguments[offset + 2],
+                                commandArguments[offset + 3],
+                                commandArguments[offset + 4],
+                                commandArguments[offset + 5],
+                                red, green, blue, alpha, fill
                             );
                             break;
-                        case Oval:
+                        case COMMAND_OVAL:
                             PrimitiveDrawingHook.drawOvalFast(
                                 graphicsObject,
-                                (int) cmd.args[0],
-                                (int) cmd.args[1],
-                                (int) cmd.args[2],
-                                (int) cmd.args[3],
-                                (int) cmd.args[4],
-                                (int) cmd.args[5],
-                                (int) cmd.args[6],
-                                (int) cmd.args[7],
-                                (boolean) cmd.args[8]
+                                commandArguments[offset],
+                                commandArguments[offset + 1],
+                                commandArguments[offset + 2],
+                                commandArguments[offset + 3],
+                                red, green, blue, alpha, fill
                             );
                             break;
                         default:
@@ -150,7 +204,7 @@ public class BufferedPrimitiveDrawingHook {
                     break;
                 }
             }
-            commandBuffer.clear();
+            commandCount = 0;
 
             switch (AnimatedBackgroundHook.getResourceHook()) {
                 case AnimatedBackgroundHook.HOLDER_SLICK:
@@ -33,8 +33,16 @@
 package zeroxfc.nullpo.custom.libs;
 
 public class DoubleVector {
+    /**
+     * Number of scratch vectors each thread cycles through in {@link #temp(double, double)}.
+     */
+    private static final int SCRATCH_SIZE = 16;
+    private static final ThreadLocal<ScratchRing> SCRATCH = ThreadLocal.withInitial(ScratchRing::new);
+
     // Fields: X, Y, DIR, MAG
+    // X and Y are always up to date. DIR and MAG are worked out from them the first time they are needed.
     private double x, y, magnitude, direction;
+    private boolean polarValid;
 
     /**
      * Generate a double-container vector for handling directions.
@@ -46,24 +54,10 @@ public class DoubleVector {
     public DoubleVector(double v1, double v2, boolean mode) {
         if (mode) {
             // MAGNITUDE AND DIRECTION
-            magnitude = Math.abs(v1);
-            direction = v2;
-
-            x = (magnitude * Math.cos(direction));
-            if (almostEqual(x, 0, 1E-8)) x = 0;
-
-            y = (magnitude * Math.sin(direction));
-            if (almostEqual(y, 0, 1E-8)) y = 0;
-
+            setPolar(v1, v2);
         } else {
             // CARTESIAN
-            x = v1;
-            y = v2;
-
-            magnitude = Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2));
-            direction = Math.atan2(y, x);
-
-            if (direction < 0) direction += (2.0 * Math.PI);
+            set(v1, v2);
         }
     }
 
@@ -74,6 +68,15 @@ public class DoubleVector {
         this(0, 0, false);
     }
 
+    /**
+     * Copies another vector.
+     *
+     * @param other Vector to copy
+     */
+    public DoubleVector(DoubleVector other) {
+        set(other);
+    }
+
     /**
      * Adds two DoubleVector objects; a and b together.
      */
@@ -151,8 +154,27 @@ public class DoubleVector {
      * @return DoubleVector that treats a as origin and b as end.
      */
     public static double directionBetween(DoubleVector a, DoubleVector b) {
-        DoubleVector pointerVector = DoubleVector.sub(b, a);
-        return pointerVector.getDirection();
+        return normaliseDirection(Math.atan2(b.getY() - a.getY(), b.getX() - a.getX()));
+    }
+
+    /**
+     * Gets a scratch vector for intermediate results inside a single calculation.
+     * Each thread cycles through a small ring of these, so a scratch vector is only valid
+     * until {@value #SCRATCH_SIZE} more have been taken on the same thread.
+     * Never store one in a field or hand it to an object that keeps it.
+     *
+     * @param x X-component
+     * @param y Y-component
+     * @return A scratch vector set to (x, y).
+     */
+    public static DoubleVector temp(double x, double y) {
+        DoubleVector vector = SCRATCH.get().next();
+        vector.set(x, y);
+        return vector;
+    }
+
+    private static double normaliseDirection(double direction) {
+        return (direction < 0) ? direction + (2.0 * Math.PI) : direction;
     }
 
     // Fuzzy equals.
@@ -168,16 +190,14 @@ public class DoubleVector {
      * Adds DoubleVector e to this vector.
      */
     public void add(DoubleVector e) {
-        setX(getX() + e.getX());
-        setY(getY() + e.getY());
+        addInPlace(e);
     }
 
     /**
      * Subtracts DoubleVector e from this vector.
      */
     public void sub(DoubleVector e) {
-        setX(getX() - e.getX());
-        setY(getY() - e.getY());
+        subInPlace(e);
     }
 
     /**
@@ -194,6 +214,43 @@ public class DoubleVector {
         setMagnitude(getMagnitude() / e);
     }
 
+    /**
+     * Adds DoubleVector e to this vector without creating a new one.
+     *
+     * @param e Vector to add
+     */
+    public void addInPlace(DoubleVector e) {
+        set(x + e.x, y + e.y);
+    }
+
+    /**
+     * Adds (dx, dy) to this vector without creating a new one.
+     *
+     * @param dx X-component to add
+     * @param dy Y-component to add
+     */
+    public void addInPlace(double dx, double dy) {
+        set(x + dx, y + dy);
+    }
+
+    /**
+     * Subtracts DoubleVector e from this vector without creating a new one.
+     *
+     * @param e Vector to subtract
+     */
+    public void subInPlace(DoubleVector e) {
+        set(x - e.x, y - e.y);
+    }
+
+    /**
+     * Multiplies both components of this vector by s. A negative s also reverses the direction.
+     *
+     * @param s Scale factor
+     */
+    public void scaleInPlace(double s) {
+        set(x * s, y * s);
+    }
+
     /*
      * Getters / Setters
      */
@@ -211,12 +268,7 @@ public class DoubleVector {
     }
 
     public void setX(double x) {
-        this.x = x;
-
-        magnitude = Math.sqrt(Math.pow(this.x, 2) + Math.pow(y, 2));
-        direction = Math.atan2(y, this.x);
-
-        if (direction < 0) direction += (2.0 * Math.PI);
+        set(x, y);
     }
 
     public double getY() {
@@ -224,39 +276,94 @@ public class DoubleVector {
     }
 
     public void setY(double y) {
+        set(x, y);
+    }
+
+    /**
+     * Sets both components at once. Magnitude and direction are recalculated when next read.
+     *
+     * @param x New x-component
+     * @param y New y-component
+     */
+    public void set(double x, double y) {
+        this.x = x;
         this.y = y;
+        polarValid = false;
+    }
 
-        magnitude = Math.sqrt(Math.pow(x, 2) + Math.pow(this.y, 2));
-        direction = Math.atan2(this.y, x);
+    /**
+     * Copies another vector's state into this one.
+     *
+     * @param other Vector to copy
+     */
+    public void set(DoubleVector other) {
+        x = other.x;
+        y = other.y;
+        magnitude = other.magnitude;
+        direction = other.direction;
+        polarValid = other.polarValid;
+    }
 
-        if (direction < 0) direction += (2.0 * Math.PI);
+    /**
+     * Sets magnitude and direction at once, recalculating the components only once.
+     *
+     * @param magnitude New magnitude
+     * @param direction New direction
+     */
+    public void setPolar(double magnitude, double direction) {
+        this.magnitude = Math.abs(magnitude);
+        this.direction = direction;
+        polarValid = true;
+        updateCartesian();
     }
 
     public double getMagnitude() {
+        if (!polarValid) updatePolar();
         return magnitude;
     }
 
     public void setMagnitude(double magnitude) {
-        this.magnitude = Math.abs(magnitude);
-
-        x = (this.magnitude * Math.cos(direction));
-        if (almostEqual(x, 0, 1E-8)) x = 0;
-
-        y = (this.magnitude * Math.sin(direction));
-        if (almostEqual(y, 0, 1E-8)) y = 0;
+        setPolar(magnitude, getDirection());
     }
 
     public double getDirection() {
+        if (!polarValid) updatePolar();
         return direction;
     }
 
     public void setDirection(double direction) {
-        this.direction = direction;
+        setPolar(getMagnitude(), direction);
+    }
 
-        x = (magnitude * Math.cos(this.direction));
+    private void updatePolar() {
+        magnitude = Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2));
+        direction = normaliseDirection(Math.atan2(y, x));
+        polarValid = true;
+    }
+
+    private void updateCartesian() {
+        x = (magnitude * Math.cos(direction));
         if (almostEqual(x, 0, 1E-8)) x = 0;
 
-        y = (magnitude * Math.sin(this.direction));
+        y = (magnitude * Math.sin(direction));
         if (almostEqual(y, 0, 1E-8)) y = 0;
     }
+
+    /**
+     * Per-thread ring of scratch vectors.
+     */
+    private static final class ScratchRing {
+        private final DoubleVector[] vectors = new DoubleVector[SCRATCH_SIZE];
+        private int index;
+
+        private ScratchRing() {
+            for (int i = 0; i < SCRATCH_SIZE; i++) vectors[i] = new DoubleVector();
+        }
+
+        private DoubleVector next() {
+            DoubleVector vector = vectors[index];
+            index = (index + 1) % SCRATCH_SIZE;
+            return vector;
+        }
+    }
 }
@@ -35,16 +35,17 @@ package zeroxfc.nullpo.custom.libs;
 import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
-import java.util.Arrays;
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import mu.nu.nullpo.gui.sdl.NullpoMinoSDL;
 import mu.nu.nullpo.gui.slick.NullpoMinoSlick;
 import mu.nu.nullpo.gui.swing.ResourceHolderSwing;
 import org.apache.log4j.Logger;
+import org.lwjgl.openal.AL10;
 import org.newdawn.slick.openal.Audio;
 import org.newdawn.slick.openal.AudioLoader;
+import org.newdawn.slick.openal.SoundStore;
 import zeroxfc.nullpo.custom.libs.backgroundtypes.AnimatedBackgroundHook;
 
 @Deprecated
@@ -66,7 +67,50 @@ public class DynamicReactiveSound {
     private static final int SAMPLE_RATE = 32000,
         LENGTH = 48000,
         BIT_DEPTH = 8,
-        CHANNELS = 1;
+        CHANNELS = 1,
+        HEADER_SIZE = 44;
+    /**
+     * Wavetables: one cycle of each wave type, amplitude 127.
+     */
+    private static final int TABLE_BITS = 12,
+        TABLE_SIZE = 1 << TABLE_BITS;
+    private static final byte[][] WAVETABLES = new byte[4][TABLE_SIZE];
+    /**
+     * Number of decoded sounds kept for reuse.
+     */
+    private static final int CACHE_SIZE = 64;
+    /**
+     * Pitches are rounded to this step (Hz) before lookup, so near-identical requests share one clip.
+     */
+    private static final double PITCH_STEP = 0.1;
+    /**
+     * Decoded sounds, least recently played first.
+     * Past {@value #CACHE_SIZE} sounds, the least recently played ones that no source is playing are evicted
+     * and their OpenAL buffers deleted.
+     */
+    private static final LinkedHashMap<SoundKey, Audio> soundCache = new LinkedHashMap<SoundKey, Audio>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SoundKey, Audio> eldest) {
+            // Never the sound that was just added, which is last.
+            int candidates = size() - 1;
+            Iterator<Audio> it = values().iterator();
+            while (size() > CACHE_SIZE && candidates-- > 0) {
+                if (releaseBuffer(it.next())) it.remove();
+            }
+            return false;
+        }
+    };
+
+    static {
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            double phase = (double) i / TABLE_SIZE;
+            WAVETABLES[WAVE_SINUSOIDAL][i] = (byte) Math.round(127d * Math.sin(2 * Math.PI * phase));
+            WAVETABLES[WAVE_SQUARE][i] = (byte) (phase < 0.5 ? 127 : -127);
+            WAVETABLES[WAVE_TRIANGULAR][i] = (byte) Math.round(127d * (phase < 0.25 ? 4 * phase : phase < 0.75 ? 2 - (4 * phase) : (4 * phase) - 4));
+            WAVETABLES[WAVE_SAWTOOTH][i] = (byte) Math.round(127d * (phase < 0.5 ? 2 * phase : (2 * phase) - 2));
+        }
+    }
+
     /**
      * Which sound interface to hook onto.
      */
@@ -97,12 +141,14 @@ public class DynamicReactiveSound {
     }
 
     /**
-     * Generates and plays a sound clip on the fly. Uses unsigned 8-bit PCM.
+     * Generates and plays a sound clip on the fly. Uses unsigned 8-bit PCM.<br />
+     * Sounds are synthesised at full amplitude and played at the requested volume, so a clip can be reused at any
+     * volume; the last {@value #CACHE_SIZE} distinct clips are kept decoded.
      *
      * @param type             Wave type (use internally defined types)
      * @param pitch            Starting pitch of sound, Hz
      * @param endPitch         End pitch of sound, Hz (use null to keep pitch constant)
-     * @param duration         Length in samples (max 12000, min 100, sampleRate = 8 kHz)
+     * @param duration         Length in samples (max 48000, min 100, sampleRate = 32 kHz)
      * @param fadeTime         Length of volume fade
      * @param volumeMultiplier Multiplier of volume relative to given volume
      */
@@ -113,6 +159,11 @@ public class DynamicReactiveSound {
             return;
         }
 
+        if (type < WAVE_SINUSOIDAL || type > WAVE_SAWTOOTH) {
+            log.warn("Invalid type: " + type);
+            return;
+        }
+
         if (endPitch != null) {
             if (endPitch <= 0) {
                 endPitch = pitch;
@@ -127,6 +178,7 @@ public class DynamicReactiveSound {
 
         duration = Math.max(100, duration);
         duration = Math.min(duration, LENGTH);
+        fadeTime = Math.max(0, Math.min(fadeTime, duration));
 
         // Used volume
         float usedVolume = volume * volumeMultiplier;
@@ -140,154 +192,158 @@ public class DynamicReactiveSound {
 
         //endregion INITIALISATION
 
-        //region Wave Data Creation
-        // Create wave function
-        Byte[] data = new Byte[LENGTH];
-        final double TWO_PI = 2 * Math.PI;
-
-        int period = (int) (SAMPLE_RATE / pitch);
-        int endPeriod = (int) (SAMPLE_RATE / endPitch);
-
-        switch (type) {
-            case WAVE_SINUSOIDAL:
-                for (int i = 0; i < data.length; i++) {
-                    if (i < duration) {
-                        double usedPeriod = period;
-                        if (period != endPeriod)
-                            usedPeriod = Interpolation.lerp(period, endPeriod, (double) i / duration);
-                        double dVol = usedVolume;
-
-                        if (i >= duration - fadeTime - 1) {
-                            dVol = Interpolation.lerp(usedVolume, 0, (i - (duration - fadeTime)) / (double) fadeTime);
-                        }
-
-                        double x = TWO_PI * (i / usedPeriod);
-                        byte value = (byte) (Math.round(127d * Math.sin(x) * dVol));
-
-                        data[i] = value;
-                    } else {
-                        data[i] = 0;
-                    }
-                }
-                break;
-            case WAVE_SQUARE:
-            case WAVE_TRIANGULAR:
-            case WAVE_SAWTOOTH:
-                log.debug("Not yet.");
-                return;
-            default:
-                log.warn("Invalid type: " + type);
-                return;
-        }
-
-        log.debug(Arrays.toString(data));
-        //endregion Wave Data Creation
-
-        // Input stream to feed into
-
-        // region HEADER
-        ArrayList<Byte> rawData = new ArrayList<>(Arrays.asList(new Byte[] { 0x52, 0x49, 0x46, 0x46 }));  // "RIFF"
-
-        byte[] temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(44 + LENGTH).array();
-        Byte[] tempObject = new Byte[temp.length];
-        for (int i = 0; i < temp.length; i++) {
-            tempObject[i] = temp[i];
-        }
-        rawData.addAll(Arrays.asList(tempObject));  // File length
-
-        rawData.addAll(Arrays.asList(new Byte[] { 0x57, 0x41, 0x56, 0x45, 0x66, 0x6d, 0x74, 0x20 }));  // "WAVEfmt "
-
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(16).array();
-        tempObject = new Byte[temp.length];
-        for (int i = 0; i < temp.length; i++) {
-            tempObject[i] = temp[i];
+        if (SOUNDMANAAGER_TYPE == AnimatedBackgroundHook.HOLDER_SLICK) {
+            try {
+                Audio sound = getSound(type, pitch, endPitch, duration, fadeTime);
+                sound.playAsSoundEffect(1f, usedVolume, false);
+            } catch (Exception e) {
+                log.error("FAILED TO PLAY SOUND:\n", e);
+            }
+        } else if (SOUNDMANAAGER_TYPE == AnimatedBackgroundHook.HOLDER_SWING) {  // Slick / Swing use 0f-1f
+            log.warn("NO SWING SUPPORT YET");
+        } else if (SOUNDMANAAGER_TYPE == AnimatedBackgroundHook.HOLDER_SDL) {
+            log.warn("NO SDL SUPPORT YET");
         }
-        rawData.addAll(Arrays.asList(tempObject));  // Subchunk Size
+    }
 
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(1).array();
-        tempObject = new Byte[2];
-        for (int i = 0; i < tempObject.length; i++) {
-            tempObject[i] = temp[i];
+    /**
+     * Gets a decoded sound from the cache, synthesising and decoding it on a miss.
+     */
+    private static Audio getSound(int type, double pitch, double endPitch, int duration, int fadeTime) throws Exception {
+        pitch = roundPitch(pitch);
+        endPitch = roundPitch(endPitch);
+
+        SoundKey key = new SoundKey(type, pitch, endPitch, duration, fadeTime);
+        synchronized (soundCache) {
+            Audio sound = soundCache.get(key);
+            if (sound == null) {
+                byte[] wav = createWave(type, pitch, endPitch, duration, fadeTime);
+                sound = AudioLoader.getAudio("WAV", new ByteArrayInputStream(wav));
+                soundCache.put(key, sound);
+            }
+            return sound;
         }
-        rawData.addAll(Arrays.asList(tempObject));  // PCM
+    }
 
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(CHANNELS).array();
-        tempObject = new Byte[2];
-        for (int i = 0; i < tempObject.length; i++) {
-            tempObject[i] = temp[i];
-        }
-        rawData.addAll(Arrays.asList(tempObject));  // Channels
+    /**
+     * Deletes a sound's OpenAL buffer.<br />
+     * Slick leaves a buffer attached to its source after playback ends, and OpenAL will not delete an attached buffer,
+     * so it is detached from every idle source first.
+     *
+     * @param sound Sound to release
+     * @return <code>false</code> if a source is still playing or paused on the sound, so it was kept.
+     */
+    private static boolean releaseBuffer(Audio sound) {
+        final int buffer = sound.getBufferID();
+        final SoundStore store = SoundStore.get();
+        final int sourceCount = store.getSourceCount();
 
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(SAMPLE_RATE).array();
-        tempObject = new Byte[temp.length];
-        for (int i = 0; i < temp.length; i++) {
-            tempObject[i] = temp[i];
-        }
-        rawData.addAll(Arrays.asList(tempObject));  // Sample Rate
+        for (int i = 0; i < sourceCount; i++) {
+            int source = store.getSource(i);
+            if (AL10.alGetSourcei(source, AL10.AL_BUFFER) != buffer) continue;
 
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((BIT_DEPTH * CHANNELS * SAMPLE_RATE) / 8).array();
-        tempObject = new Byte[temp.length];
-        for (int i = 0; i < temp.length; i++) {
-            tempObject[i] = temp[i];
+            int state = AL10.alGetSourcei(source, AL10.AL_SOURCE_STATE);
+            if (state == AL10.AL_PLAYING || state == AL10.AL_PAUSED) return false;
         }
-        rawData.addAll(Arrays.asList(tempObject));  // Byte Rate
 
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(BIT_DEPTH * CHANNELS / 8).array();
-        tempObject = new Byte[2];
-        for (int i = 0; i < tempObject.length; i++) {
-            tempObject[i] = temp[i];
+        for (int i = 0; i < sourceCount; i++) {
+            int source = store.getSource(i);
+            if (AL10.alGetSourcei(source, AL10.AL_BUFFER) == buffer) {
+                AL10.alSourceStop(source);
+                AL10.alSourcei(source, AL10.AL_BUFFER, 0);
+            }
         }
-        rawData.addAll(Arrays.asList(tempObject));  // BlockAlign
 
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(BIT_DEPTH).array();
-        tempObject = new Byte[2];
-        for (int i = 0; i < tempObject.length; i++) {
-            tempObject[i] = temp[i];
-        }
-        rawData.addAll(Arrays.asList(tempObject));  // Bit Depth
+        AL10.alGetError();  // Clear any earlier error so the one below belongs to the delete.
+        AL10.alDeleteBuffers(buffer);
+        int error = AL10.alGetError();
+        if (error != AL10.AL_NO_ERROR) log.warn("Failed to delete sound buffer " + buffer + ", OpenAL error " + error);
+        return true;
+    }
 
-        rawData.addAll(Arrays.asList(new Byte[] { 0x64, 0x61, 0x74, 0x61 }));  // "data"
+    /**
+     * Rounds a pitch to the nearest {@value #PITCH_STEP} Hz, keeping it above zero.
+     */
+    private static double roundPitch(double pitch) {
+        return Math.max(PITCH_STEP, Math.round(pitch / PITCH_STEP) * PITCH_STEP);
+    }
 
-        temp = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(LENGTH).array();
-        tempObject = new Byte[4];
-        for (int i = 0; i < tempObject.length; i++) {
-            tempObject[i] = temp[i];
-        }
-        rawData.addAll(Arrays.asList(tempObject));  // Data length
+    /**
+     * Synthesises a sound into a complete WAV file.
+     *
+     * @return WAV file bytes: header, then unsigned 8-bit mono samples.
+     */
+    private static byte[] createWave(int type, double pitch, double endPitch, int duration, int fadeTime) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + duration).order(ByteOrder.LITTLE_ENDIAN);
 
+        // region HEADER
+        buffer.put(new byte[] { 0x52, 0x49, 0x46, 0x46 });  // "RIFF"
+        buffer.putInt(HEADER_SIZE - 8 + duration);  // File length
+        buffer.put(new byte[] { 0x57, 0x41, 0x56, 0x45, 0x66, 0x6d, 0x74, 0x20 });  // "WAVEfmt "
+        buffer.putInt(16);  // Subchunk Size
+        buffer.putShort((short) 1);  // PCM
+        buffer.putShort((short) CHANNELS);  // Channels
+        buffer.putInt(SAMPLE_RATE);  // Sample Rate
+        buffer.putInt((BIT_DEPTH * CHANNELS * SAMPLE_RATE) / 8);  // Byte Rate
+        buffer.putShort((short) (BIT_DEPTH * CHANNELS / 8));  // BlockAlign
+        buffer.putShort((short) BIT_DEPTH);  // Bit Depth
+        buffer.put(new byte[] { 0x64, 0x61, 0x74, 0x61 });  // "data"
+        buffer.putInt(duration);  // Data length
         // endregion HEADER
 
-        // log.debug(Arrays.toString(rData));
-        // log.debug(Arrays.toString(nData));
+        //region Wave Data Creation
+        // The period is swept linearly from start to end; the phase is accumulated so the sweep has no jumps.
+        final byte[] table = WAVETABLES[type];
+        final double startPeriod = SAMPLE_RATE / pitch;
+        final double endPeriod = SAMPLE_RATE / endPitch;
+        final int fadeStart = duration - fadeTime;
+
+        double phase = 0;
+        for (int i = 0; i < duration; i++) {
+            int sample = table[(int) phase];
+            if (i >= fadeStart) {
+                sample = (int) Math.round(sample * ((double) (duration - i) / fadeTime));
+            }
+            buffer.put((byte) (sample + 128));  // 8-bit WAV is unsigned
 
-        rawData.addAll(Arrays.asList(data));
+            double period = Interpolation.lerp(startPeriod, endPeriod, (double) i / duration);
+            phase += TABLE_SIZE / period;
+            if (phase >= TABLE_SIZE) phase -= TABLE_SIZE * Math.floor(phase / TABLE_SIZE);
+        }
+        //endregion Wave Data Creation
 
-        Object[] finalArray = rawData.toArray();
-        byte[] bytes = new byte[finalArray.length];
+        return buffer.array();
+    }
 
-        for (int i = 0; i < bytes.length; i++) {
-            bytes[i] = (Byte) finalArray[i];
+    /**
+     * Cache key for a synthesised sound.
+     */
+    private static final class SoundKey {
+        private final int type, duration, fadeTime;
+        private final double pitch, endPitch;
+
+        SoundKey(int type, double pitch, double endPitch, int duration, int fadeTime) {
+            this.type = type;
+            this.pitch = pitch;
+            this.endPitch = endPitch;
+            this.duration = duration;
+            this.fadeTime = fadeTime;
         }
 
-        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
-        AudioInputStream AS = new AudioInputStream(stream,
-            new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, SAMPLE_RATE, BIT_DEPTH, CHANNELS, (BIT_DEPTH / 8), SAMPLE_RATE, false),
-            LENGTH);
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SoundKey)) return false;
 
-        if (SOUNDMANAAGER_TYPE == AnimatedBackgroundHook.HOLDER_SLICK) {
-            try {
-                Audio sound = AudioLoader.getAudio("WAV", AS);
-                sound.playAsSoundEffect(1f, usedVolume, false);
+            SoundKey k = (SoundKey) o;
+            return type == k.type && duration == k.duration && fadeTime == k.fadeTime
+                && Double.compare(pitch, k.pitch) == 0 && Double.compare(endPitch, k.endPitch) == 0;
+        }
 
-                stream.close();
-                AS.close();
-            } catch (Exception e) {
-                log.error("FAILED TO PLAY SOUND:\n", e);
-            }
-        } else if (SOUNDMANAAGER_TYPE == AnimatedBackgroundHook.HOLDER_SWING) {  // Slick / Swing use 0f-1f
-            log.warn("NO SWING SUPPORT YET");
-        } else if (SOUNDMANAAGER_TYPE == AnimatedBackgroundHook.HOLDER_SDL) {
-            log.warn("NO SDL SUPPORT YET");
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(pitch) * 31 + Double.doubleToLongBits(endPitch);
+            return (((((type * 31) + duration) * 31) + fadeTime) * 31) + (int) (bits ^ (bits >>> 32));
         }
     }
 }
@@ -259,8 +259,18 @@ public class FieldManipulation {
     public static int[] delColours(Field field, int[] colours) {
         int[] results = new int[colours.length];
 
-        for (int i = 0; i < colours.length; i++) {
-            results[i] = delColour(field, colours[i]);
+        // One walk for every colour; a block counts towards the first entry with its colour.
+        for (int y = (-1 * field.getHiddenHeight()); y < field.getHeight(); y++) {
+            for (int x = 0; x < field.getWidth(); x++) {
+                int c = field.getBlockColor(x, y);
+                for (int i = 0; i < colours.length; i++) {
+                    if (c == colours[i]) {
+                        field.getBlock(x, y).color = Block.BLOCK_COLOR_NONE;
+                        results[i]++;
+                        break;
+                    }
+                }
+            }
         }
 
         return results;
@@ -386,7 +396,7 @@ public class FieldManipulation {
         int[] columns = new int[field.getWidth()];
         for (int i = 0; i < columns.length; i++) columns[i] = i;
 
-        columns = arrayRandomiser.permute(columns);
+        arrayRandomiser.shuffle(columns);
 
         Field nf = new Field(field);
         for (int i = 0; i < columns.length; i++) {
@@ -431,14 +441,13 @@ public class FieldManipulation {
             rows[i] = highestRow + i;
         }
 
-        int[] oldRows = rows.clone();
-        rows = arrayRandomiser.permute(rows);
+        arrayRandomiser.shuffle(rows);
 
         Field nf = new Field(field);
 
         for (int i = 0; i < rows.length; i++) {
             for (int x = 0; x < nf.getWidth(); x++) {
-                nf.getBlock(x, oldRows[i]).copy(field.getBlock(x, rows[i]));
+                nf.getBlock(x, highestRow + i).copy(field.getBlock(x, rows[i]));
             }
         }
 
@@ -558,25 +567,9 @@ public class FieldManipulation {
         } else {
             double finalResult = 0;
 
-            int areaA = 0, areaB = 0;
             int[] topLeftA, topLeftB;
 
-            // Stage 1: area filled
-            for (int y = (-1 * a.getHiddenHeight()); y < a.getHeight(); y++) {
-                for (int x = 0; x < a.getWidth(); x++) {
-                    Block blk = a.getBlock(x, y);
-                    if (blk.color != Block.BLOCK_COLOR_NONE) areaA++;
-                }
-            }
-
-            for (int y = (-1 * b.getHiddenHeight()); y < b.getHeight(); y++) {
-                for (int x = 0; x < b.getWidth(); x++) {
-                    Block blk = b.getBlock(x, y);
-                    if (blk.color != Block.BLOCK_COLOR_NONE) areaB++;
-                }
-            }
-
-            // Stage 2: blocks
+            // Bounding boxes, one scan of each field.
             final int[][] resA = getOpposingCornerCoords(a);
             topLeftA = resA[0];
             // bottomRightA = resA[1];
@@ -585,7 +578,7 @@ public class FieldManipulation {
             topLeftB = resB[0];
             // bottomRightB = resB[1];
 
-            final Integer[] bboxSizeA = getOpposingCornerBoxSize(a), bboxSizeB = getOpposingCornerBoxSize(b);
+            final Integer[] bboxSizeA = getOpposingCornerBoxSize(resA), bboxSizeB = getOpposingCornerBoxSize(resB);
 
             if (bboxSizeA[0] != null && bboxSizeA[1] != null && bboxSizeB[0] != null && bboxSizeB[1] != null) {
                 // log.debug(String.format("%d %d | %d %d", bboxSizeA[0], bboxSizeA[1], bboxSizeB[0], bboxSizeB[1]));
@@ -756,7 +749,7 @@ public class FieldManipulation {
     }
 
     // Method to return LCM of two numbers
-    private static int lcm(int a, int b) {
+    static int lcm(int a, int b) {
         return (a * b) / gcd(a, b);
     }
 
@@ -811,15 +804,31 @@ public class FieldManipulation {
      * @return int[2][2] result: result[0] = top left, result[1] = bottom right. result[i][0] = x, result[i][1] = y.
      */
     public static int[][] getOpposingCornerCoords(Field field) {
-        int[] topLeft = new int[2];
-        int[] bottomRight = new int[2];
+        final int width = field.getWidth();
+        int left = width, right = -1, bottom = field.getHiddenHeight() * -1;
 
-        topLeft[0] = getLeftmostColumn(field);
-        topLeft[1] = field.getHighestBlockY();
-        bottomRight[0] = getRightmostColumn(field);
-        bottomRight[1] = getBottommostRow(field);
+        // One pass over the field instead of separate column and row walks.
+        for (int y = (-1 * field.getHiddenHeight()); y < field.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                Block blk = field.getBlock(x, y);
+                if (blk != null && !blk.isEmpty()) {
+                    if (x < left) left = x;
+                    if (x > right) right = x;
+                    bottom = y;
+                }
+            }
+        }
+
+        // Same fallbacks as getLeftmostColumn and getRightmostColumn on an empty field.
+        if (right == -1) {
+            left = width - 1;
+            right = 0;
+        }
 
-        return new int[][] { topLeft, bottomRight };
+        return new int[][] {
+            new int[] { left, field.getHighestBlockY() },
+            new int[] { right, bottom }
+        };
     }
 
     /**
@@ -829,7 +838,10 @@ public class FieldManipulation {
      * @return int[] results: results[0] = x, results[1] = y.
      */
     public static Integer[] getOpposingCornerBoxSize(Field field) {
-        int[][] bbox = getOpposingCornerCoords(field);
+        return getOpposingCornerBoxSize(getOpposingCornerCoords(field));
+    }
+
+    private static Integer[] getOpposingCornerBoxSize(int[][] bbox) {
         Integer i = bbox[1][0] - bbox[0][0] + 1;
         Integer j = bbox[1][1] - bbox[0][1] + 1;
 
@@ -14,9 +14,9 @@ public class FieldScatter {
     private static final DoubleVector GRAVITY = new DoubleVector(0, 1d / 6d, false);
 
     /**
-     * Blocks to draw
+     * Blocks to draw. They do not collide with each other; the world only moves them.
      */
-    private final ArrayList<PhysicsObject> blocks;
+    private final PhysicsWorld world;
 
     /**
      * Lifetime
@@ -48,24 +48,13 @@ public class FieldScatter {
         lifeTime = 0;
 
         Block eBlock = new Block(0, engine.getSkin());
-        blocks = new ArrayList<>();
+        world = new PhysicsWorld(engine.field.getWidth() * (engine.field.getHeight() + engine.field.getHiddenHeight()));
         for (int i = -1 * engine.field.getHiddenHeight(); i < engine.field.getHeight(); i++) {
             for (int j = 0; j < engine.field.getWidth(); j++) {
                 // Generate object array.
                 Block blk = engine.field.getBlock(j, i);
                 if (blk.color > 0) {
-                    blocks.add(new PhysicsObject(
-
-                        new DoubleVector(
-                            receiver.getFieldDisplayPositionX(engine, playerID) + 4 + j * 16,
-                            receiver.getFieldDisplayPositionY(engine, playerID) + 52 + i * 16,
-                            false
-                        ),
-                        new DoubleVector(
-                            rdm.nextDouble() * 8, rdm.nextDouble() * Math.PI * 2, true
-                        ),
-                        -1, 1, 1, PhysicsObject.ANCHOR_POINT_TL, blk.color
-                    ));
+                    world.add(createBlock(receiver, engine, playerID, rdm, j, i, blk));
 
                     if (clearBlocks) receiver.blockBreak(engine, playerID, j, i, blk);
 
@@ -89,7 +78,7 @@ public class FieldScatter {
         lifeTime = 0;
 
         Block eBlock = new Block(0, engine.getSkin());
-        blocks = new ArrayList<>();
+        world = new PhysicsWorld(fieldBlockLocations.size());
         for (int[] loc : fieldBlockLocations) {
             int j = loc[0];
             int i = loc[1];
@@ -97,18 +86,7 @@ public class FieldScatter {
             // Generate object array.
             Block blk = engine.field.getBlock(j, i);
             if (blk.color > 0) {
-                blocks.add(new PhysicsObject(
-
-                    new DoubleVector(
-                        receiver.getFieldDisplayPositionX(engine, playerID) + 4 + j * 16,
-                        receiver.getFieldDisplayPositionY(engine, playerID) + 52 + i * 16,
-                        false
-                    ),
-                    new DoubleVector(
-                        rdm.nextDouble() * 8, rdm.nextDouble() * Math.PI * 2, true
-                    ),
-                    -1, 1, 1, PhysicsObject.ANCHOR_POINT_TL, blk.color
-                ));
+                world.add(createBlock(receiver, engine, playerID, rdm, j, i, blk));
 
                 receiver.blockBreak(engine, playerID, j, i, blk);
 
@@ -126,7 +104,23 @@ public class FieldScatter {
      * @param fieldBlockLocations Blocck locations.
      */
     public FieldScatter(EventReceiver receiver, GameEngine engine, int playerID, int[][] fieldBlockLocations) {
-        this(receiver, engine, playerID, (ArrayList<int[]>) Arrays.asList(fieldBlockLocations));
+        this(receiver, engine, playerID, new ArrayList<>(Arrays.asList(fieldBlockLocations)));
+    }
+
+    private static PhysicsObject createBlock(EventReceiver receiver, GameEngine engine, int playerID, Random rdm, int x, int y, Block blk) {
+        PhysicsObject block = new PhysicsObject(
+            new DoubleVector(
+                receiver.getFieldDisplayPositionX(engine, playerID) + 4 + x * 16,
+                receiver.getFieldDisplayPositionY(engine, playerID) + 52 + y * 16,
+                false
+            ),
+            new DoubleVector(
+                rdm.nextDouble() * 8, rdm.nextDouble() * Math.PI * 2, true
+            ),
+            -1, 1, 1, PhysicsObject.ANCHOR_POINT_TL, blk.color
+        );
+        block.PROPERTY_Collision = false;
+        return block;
     }
 
     /**
@@ -134,21 +128,17 @@ public class FieldScatter {
      */
     public void update() {
         if (shouldNull()) return;
-        for (PhysicsObject pho /* NOTE: Delicious */ : blocks) {
-//			if ((pho.position.getX() <= -16 || pho.position.getX() > 640)) continue;
-//			if ((pho.position.getY() > 460 && Math.abs(pho.velocity.getMagnitude()) < 0.0001)) continue;
-
-            pho.move();
-
+        world.step();
+        for (PhysicsObject pho /* NOTE: Delicious */ : world.getBodies()) {
             if (pho.position.getY() > 465) {
                 PhysicsObject.reflectVelocityWithRestitution(pho.velocity, true, 0.75);
                 while (pho.position.getY() > 465) pho.move();
             }
-            pho.velocity = DoubleVector.add(pho.velocity, GRAVITY);
+            pho.velocity.addInPlace(GRAVITY);
         }
 
-        blocks.removeIf(block -> (block.position.getX() <= -16 || block.position.getX() > 640));
-        blocks.removeIf(block -> (block.position.getY() > 460 && Math.abs(block.velocity.getMagnitude()) < 0.0001));
+        world.removeIf(block -> (block.position.getX() <= -16 || block.position.getX() > 640)
+            || (block.position.getY() > 460 && Math.abs(block.velocity.getMagnitude()) < 0.0001));
 
         lifeTime++;
     }
@@ -162,10 +152,7 @@ public class FieldScatter {
      */
     public void draw(EventReceiver receiver, GameEngine engine, int playerID) {
         if (shouldNull()) return;
-        for (PhysicsObject pho : blocks) {
-//			if ((pho.position.getX() <= -16 || pho.position.getX() > 640)) continue;
-//			if ((pho.position.getY() > 460 && Math.abs(pho.velocity.getMagnitude()) < 0.0001)) continue;
-
+        for (PhysicsObject pho : world.getBodies()) {
             pho.draw(receiver, engine, playerID);
         }
     }
@@ -119,7 +119,7 @@ public class FlyInOutText {
 
             // letterVelocities[i] = velocity;
             for (int j = 0; j < letterPositions.length; j++) {
-                letterPositions[j][i] = position;
+                letterPositions[j][i] = new DoubleVector(position);
                 startLocation[j][i] = position;
                 destinationLocation[j][i] = new DoubleVector(destinationX + (sMod * i), destinationY, false);
             }
@@ -143,17 +143,17 @@ public class FlyInOutText {
                 for (int j = 0; j < letterPositions[i].length; j++) {
                     int v1 = (int) (Interpolation.lerp(startLocation[i][j].getX(), destinationLocation[i][j].getX(), ((double) (currentLifetime - i) / flyInTime)));
                     int v2 = (int) (Interpolation.lerp(startLocation[i][j].getY(), destinationLocation[i][j].getY(), ((double) (currentLifetime - i) / flyInTime)));
-                    letterPositions[i][j] = new DoubleVector(v1, v2, false);
+                    letterPositions[i][j].set(v1, v2);
                 }
             } else if (currentLifetime - i >= flyInTime + persistTime) {
                 for (int j = 0; j < letterPositions[i].length; j++) {
                     int v1 = (int) (Interpolation.lerp(destinationLocation[i][j].getX(), startLocation[i][j].getX(), ((double) (currentLifetime - i - flyInTime - persistTime) / flyOutTime)));
                     int v2 = (int) (Interpolation.lerp(destinationLocation[i][j].getY(), startLocation[i][j].getY(), ((double) (currentLifetime - i - flyInTime - persistTime) / flyOutTime)));
-                    letterPositions[i][j] = new DoubleVector(v1, v2, false);
+                    letterPositions[i][j].set(v1, v2);
                 }
             } else if (currentLifetime - i == flyInTime) {
                 for (int j = 0; j < letterPositions[i].length; j++) {
-                    letterPositions[i][j] = new DoubleVector(destinationLocation[i][j].getX(), destinationLocation[i][j].getY(), false);
+                    letterPositions[i][j].set(destinationLocation[i][j]);
                 }
             }
         }
@@ -92,8 +92,9 @@ public class PhysicsObject implements Cloneable {
     }
 
     public PhysicsObject(DoubleVector position, DoubleVector velocity, int collisionsToDestroy, int blockSizeX, int blockSizeY, int anchorPoint, int colour) {
-        this.position = position;
-        this.velocity = velocity;
+        // Own copies: move() updates these in place.
+        this.position = new DoubleVector(position);
+        this.velocity = new DoubleVector(velocity);
         this.collisionsToDestroy = collisionsToDestroy;
         this.blockSizeX = blockSizeX;
         this.blockSizeY = blockSizeY;
@@ -118,17 +119,15 @@ public class PhysicsObject implements Cloneable {
         if (!a.PROPERTY_Collision) return false;
         if (!b.PROPERTY_Collision) return false;
 
-        double[][] bboxA = a.getBoundingBox();
-        double aMinX = bboxA[0][0];
-        double aMinY = bboxA[0][1];
-        double aMaxX = bboxA[1][0];
-        double aMaxY = bboxA[1][1];
+        double aMinX = a.getMinX();
+        double aMinY = a.getMinY();
+        double aMaxX = a.getMaxX();
+        double aMaxY = a.getMaxY();
 
-        double[][] bboxB = b.getBoundingBox();
-        double bMinX = bboxB[0][0];
-        double bMinY = bboxB[0][1];
-        double bMaxX = bboxB[1][0];
-        double bMaxY = bboxB[1][1];
+        double bMinX = b.getMinX();
+        double bMinY = b.getMinY();
+        double bMaxX = b.getMaxX();
+        double bMaxY = b.getMaxY();
 
         boolean intersection = false;
 
@@ -183,43 +182,67 @@ public class PhysicsObject implements Cloneable {
      * @return Collision bounding box.
      */
     public double[][] getBoundingBox() {
-        final int baseSize = 16;
+        return new double[][] { { getMinX(), getMinY() }, { getMaxX(), getMaxY() } };
+    }
 
-        int sizeX = blockSizeX * baseSize;
-        int sizeY = blockSizeY * baseSize;
+    /**
+     * Gets the width of the bounding box in pixels.
+     *
+     * @return Width
+     */
+    public int getWidth() {
+        return blockSizeX * 16;
+    }
 
-        double[] anchor = new double[] { 0, 0 };
+    /**
+     * Gets the height of the bounding box in pixels.
+     *
+     * @return Height
+     */
+    public int getHeight() {
+        return blockSizeY * 16;
+    }
+
+    /**
+     * Gets the horizontal distance from the bounding box's left edge to the position, as set by the anchor point.
+     *
+     * @return Anchor x-offset
+     */
+    public double getAnchorOffsetX() {
+        final int sizeX = getWidth();
         switch (anchorPoint) {
-            case ANCHOR_POINT_TL:
-                anchor = new double[] { 0, 0 };
-                break;
             case ANCHOR_POINT_TM:
-                anchor = new double[] { sizeX / 2, 0 };
-                break;
+            case ANCHOR_POINT_MM:
+            case ANCHOR_POINT_LM:
+                return sizeX / 2;
             case ANCHOR_POINT_TR:
-                anchor = new double[] { sizeX - 1, 0 };
-                break;
+            case ANCHOR_POINT_MR:
+            case ANCHOR_POINT_LR:
+                return sizeX - 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the vertical distance from the bounding box's top edge to the position, as set by the anchor point.
+     *
+     * @return Anchor y-offset
+     */
+    public double getAnchorOffsetY() {
+        final int sizeY = getHeight();
+        switch (anchorPoint) {
             case ANCHOR_POINT_ML:
-                anchor = new double[] { 0, sizeY / 2 };
-                break;
             case ANCHOR_POINT_MM:
-                anchor = new double[] { sizeX / 2, sizeY / 2 };
-                break;
             case ANCHOR_POINT_MR:
-                anchor = new double[] { sizeX - 1, sizeY / 2 };
-                break;
+                return sizeY / 2;
             case ANCHOR_POINT_LL:
-                anchor = new double[] { 0, sizeY - 1 };
-                break;
             case ANCHOR_POINT_LM:
-                anchor = new double[] { sizeX / 2, sizeY - 1 };
-                break;
             case ANCHOR_POINT_LR:
-                anchor = new double[] { sizeX - 1, sizeY - 1 };
-                break;
+                return sizeY - 1;
+            default:
+                return 0;
         }
-
-        return new double[][] { { position.getX() - anchor[0], position.getY() - anchor[1] }, { position.getX() + sizeX - anchor[0], position.getY() + sizeY - anchor[1] } };
     }
 
     /**
@@ -228,7 +251,7 @@ public class PhysicsObject implements Cloneable {
      * @return x-coordinate
      */
     public double getMinX() {
-        return getBoundingBox()[0][0];
+        return position.getX() - getAnchorOffsetX();
     }
 
     /**
@@ -237,7 +260,7 @@ public class PhysicsObject implements Cloneable {
      * @return y-coordinate
      */
     public double getMinY() {
-        return getBoundingBox()[0][1];
+        return position.getY() - getAnchorOffsetY();
     }
 
     /**
@@ -246,7 +269,7 @@ public class PhysicsObject implements Cloneable {
      * @return x-coordinate
      */
     public double getMaxX() {
-        return getBoundingBox()[1][0];
+        return getMinX() + getWidth();
     }
 
     /**
@@ -255,7 +278,7 @@ public class PhysicsObject implements Cloneable {
      * @return y-coordinate
      */
     public double getMaxY() {
-        return getBoundingBox()[1][1];
+        return getMinY() + getHeight();
     }
 
     /**
@@ -278,7 +301,7 @@ public class PhysicsObject implements Cloneable {
      * Do one movement tick.
      */
     public void move() {
-        if (!PROPERTY_Static) position = DoubleVector.add(position, velocity);
+        if (!PROPERTY_Static) position.addInPlace(velocity);
     }
 
     /**
@@ -290,14 +313,15 @@ public class PhysicsObject implements Cloneable {
      */
     public boolean move(int subticks, ArrayList<PhysicsObject> obstacles, boolean retract) {
         if (PROPERTY_Static) return false;
-        DoubleVector v = DoubleVector.div(velocity, subticks);
+        final double vx = velocity.getX() / subticks;
+        final double vy = velocity.getY() / subticks;
 
         for (int i = 0; i < subticks; i++) {
-            if (retract) position = DoubleVector.add(position, v);
+            if (retract) position.addInPlace(vx, vy);
 
             for (PhysicsObject obj : obstacles) {
                 if (checkCollision(this, obj)) {
-                    position = DoubleVector.sub(position, v);
+                    position.addInPlace(-vx, -vy);
                     return true;
                 }
             }
@@ -315,14 +339,15 @@ public class PhysicsObject implements Cloneable {
      */
     public boolean move(int subticks, PhysicsObject[] obstacles, boolean retract) {
         if (PROPERTY_Static) return false;
-        DoubleVector v = DoubleVector.div(velocity, subticks);
+        final double vx = velocity.getX() / subticks;
+        final double vy = velocity.getY() / subticks;
 
         for (int i = 0; i < subticks; i++) {
-            position = DoubleVector.add(position, v);
+            position.addInPlace(vx, vy);
 
             for (PhysicsObject obj : obstacles) {
                 if (checkCollision(this, obj)) {
-                    if (retract) position = DoubleVector.sub(position, v);
+                    if (retract) position.addInPlace(-vx, -vy);
                     return true;
                 }
             }
@@ -335,7 +360,7 @@ public class PhysicsObject implements Cloneable {
      * Do one movement tick with a custom velocity.
      */
     public void move(DoubleVector velocity) {
-        if (!PROPERTY_Static) position = DoubleVector.add(position, velocity);
+        if (!PROPERTY_Static) position.addInPlace(velocity);
     }
 
     /**
@@ -348,8 +373,8 @@ public class PhysicsObject implements Cloneable {
         try {
             clone = (PhysicsObject) super.clone();
 
-            clone.position = position;
-            clone.velocity = velocity;
+            clone.position = new DoubleVector(position);
+            clone.velocity = new DoubleVector(velocity);
             clone.collisionsToDestroy = collisionsToDestroy;
             clone.blockSizeX = blockSizeX;
             clone.blockSizeY = blockSizeY;
@@ -374,8 +399,8 @@ public class PhysicsObject implements Cloneable {
      * @param object PhysicsObject to use fields from.
      */
     public void copy(PhysicsObject object) {
-        this.position = object.position;
-        this.velocity = object.velocity;
+        this.position = new DoubleVector(object.position);
+        this.velocity = new DoubleVector(object.velocity);
         this.collisionsToDestroy = object.collisionsToDestroy;
         this.blockSizeX = object.blockSizeX;
         this.blockSizeY = object.blockSizeY;
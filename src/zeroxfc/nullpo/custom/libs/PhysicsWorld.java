@@ -0,0 +1,438 @@
+/*
+ * This library class was created by 0xFC963F18DC21 / Shots243
+ * It is part of an extension library for the game NullpoMino (copyright 2010)
+ *
+ * Herewith shall the term "Library Creator" be given to 0xFC963F18DC21.
+ * Herewith shall the term "Game Creator" be given to the original creator of NullpoMino.
+ *
+ * THIS LIBRARY AND MODE PACK WAS NOT MADE IN ASSOCIATION WITH THE GAME CREATOR.
+ *
+ * Repository: https://github.com/Shots243/ModePile
+ *
+ * When using this library in a mode / library pack of your own, the following
+ * conditions must be satisfied:
+ *     - This license must remain visible at the top of the document, unmodified.
+ *     - You are allowed to use this library for any modding purpose.
+ *         - If this is the case, the Library Creator must be credited somewhere.
+ *             - Source comments only are fine, but in a README is recommended.
+ *     - Modification of this library is allowed, but only in the condition that a
+ *       pull request is made to merge the changes to the repository.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package zeroxfc.nullpo.custom.libs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * PhysicsWorld
+ * <p>
+ * Owns a set of PhysicsObjects and moves them together.
+ * Each step finds the pairs of bodies whose swept bounding boxes overlap with a sort-and-sweep along the x-axis,
+ * then works out exactly when each moving body first touches another (swept AABB).
+ * A body that would hit something is stopped at the point of contact, with its velocity left for the caller to resolve.
+ * Contacts from the last step can be queried afterwards.
+ */
+public class PhysicsWorld {
+    /**
+     * Default number of bodies the world can hold before it has to grow.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final ArrayList<PhysicsObject> bodies;
+    private double gravityX, gravityY;
+
+    /*
+     * Per-body scratch, indexed like bodies. Bounds are the swept box for moving bodies.
+     */
+    private double[] minX, minY, maxX, maxY;
+    private double[] startX, startY, moveX, moveY;
+    private double[] timeOfImpact;
+    private int[] activeList, remap;
+    /*
+     * Indices of the colliding bodies, sorted by minX. Kept between steps so re-sorting is close to linear.
+     * ordered[i] is true while body i is in the list.
+     */
+    private int[] sortOrder;
+    private boolean[] ordered;
+    private int orderCount;
+
+    /*
+     * Candidate pairs from the broadphase and contacts from the narrowphase, packed as (low index << 32) | high index.
+     */
+    private long[] pairs;
+    private int pairCount;
+    private long[] contacts;
+    private int contactCount;
+
+    public PhysicsWorld() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PhysicsWorld(int initialCapacity) {
+        if (initialCapacity < 1) initialCapacity = 1;
+
+        bodies = new ArrayList<>(initialCapacity);
+        allocate(initialCapacity);
+        pairs = new long[initialCapacity * 2];
+        contacts = new long[initialCapacity];
+    }
+
+    private void allocate(int capacity) {
+        minX = new double[capacity];
+        minY = new double[capacity];
+        maxX = new double[capacity];
+        maxY = new double[capacity];
+        startX = new double[capacity];
+        startY = new double[capacity];
+        moveX = new double[capacity];
+        moveY = new double[capacity];
+        timeOfImpact = new double[capacity];
+        activeList = new int[capacity];
+        remap = new int[capacity];
+
+        // The sort order outlives a step, so keep it when growing.
+        sortOrder = (sortOrder == null) ? new int[capacity] : Arrays.copyOf(sortOrder, capacity);
+        ordered = (ordered == null) ? new boolean[capacity] : Arrays.copyOf(ordered, capacity);
+    }
+
+    /**
+     * Adds a body to the world.
+     *
+     * @param body Body to add
+     */
+    public void add(PhysicsObject body) {
+        bodies.add(body);
+        if (bodies.size() > minX.length) allocate(minX.length * 2);
+    }
+
+    /**
+     * Removes a body from the world.
+     *
+     * @param body Body to remove
+     * @return <code>true</code> if the body was in the world.
+     */
+    public boolean remove(PhysicsObject body) {
+        final int index = bodies.indexOf(body);
+        if (index < 0) return false;
+
+        final int n = bodies.size();
+        for (int i = 0; i < n; i++) remap[i] = (i < index) ? i : (i - 1);
+        remap[index] = -1;
+
+        bodies.remove(index);
+        compactOrder(n);
+        contactCount = 0;
+        return true;
+    }
+
+    /**
+     * Removes every body that matches a condition.
+     *
+     * @param filter Condition for removal
+     * @return <code>true</code> if any body was removed.
+     */
+    public boolean removeIf(Predicate<PhysicsObject> filter) {
+        final int n = bodies.size();
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            PhysicsObject body = bodies.get(i);
+            if (filter.test(body)) {
+                remap[i] = -1;
+            } else {
+                remap[i] = kept;
+                bodies.set(kept++, body);
+            }
+        }
+        if (kept == n) return false;
+
+        bodies.subList(kept, n).clear();
+        compactOrder(n);
+        contactCount = 0;
+        return true;
+    }
+
+    /**
+     * Drops removed bodies from the sort order and renumbers the rest, keeping their order.
+     *
+     * @param oldSize Number of bodies before the removal; remap holds each old index's new index, or -1.
+     */
+    private void compactOrder(int oldSize) {
+        int kept = 0;
+        for (int k = 0; k < orderCount; k++) {
+            int i = remap[sortOrder[k]];
+            if (i >= 0) sortOrder[kept++] = i;
+        }
+        orderCount = kept;
+
+        for (int i = 0; i < oldSize; i++) {
+            if (remap[i] >= 0) ordered[remap[i]] = ordered[i];
+        }
+        Arrays.fill(ordered, bodies.size(), oldSize, false);
+    }
+
+    /**
+     * Removes every body.
+     */
+    public void clear() {
+        Arrays.fill(ordered, 0, bodies.size(), false);
+        bodies.clear();
+        orderCount = 0;
+        contactCount = 0;
+    }
+
+    public int size() {
+        return bodies.size();
+    }
+
+    public PhysicsObject get(int index) {
+        return bodies.get(index);
+    }
+
+    /**
+     * Gets the bodies in the world. Do not add or remove bodies through this list.
+     *
+     * @return Bodies
+     */
+    public ArrayList<PhysicsObject> getBodies() {
+        return bodies;
+    }
+
+    /**
+     * Sets the acceleration added to every moving body's velocity after each step.
+     *
+     * @param x X-component
+     * @param y Y-component
+     */
+    public void setGravity(double x, double y) {
+        gravityX = x;
+        gravityY = y;
+    }
+
+    /**
+     * Moves every non-static body by its velocity, stopping it at the first body it would hit,
+     * then applies gravity to its velocity.
+     */
+    public void step() {
+        final int n = bodies.size();
+        contactCount = 0;
+        pairCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            PhysicsObject body = bodies.get(i);
+            double x0 = body.getMinX();
+            double y0 = body.getMinY();
+            double dx = body.PROPERTY_Static ? 0 : body.velocity.getX();
+            double dy = body.PROPERTY_Static ? 0 : body.velocity.getY();
+
+            startX[i] = x0;
+            startY[i] = y0;
+            moveX[i] = dx;
+            moveY[i] = dy;
+            timeOfImpact[i] = 1;
+
+            minX[i] = Math.min(x0, x0 + dx);
+            maxX[i] = Math.max(x0, x0 + dx) + body.getWidth();
+            minY[i] = Math.min(y0, y0 + dy);
+            maxY[i] = Math.max(y0, y0 + dy) + body.getHeight();
+
+            // New bodies, and bodies that have started colliding, join the end of the sort order.
+            if (body.PROPERTY_Collision && !ordered[i]) {
+                ordered[i] = true;
+                sortOrder[orderCount++] = i;
+            }
+        }
+
+        sortAndSweep();
+
+        for (int p = 0; p < pairCount; p++) {
+            int a = (int) (pairs[p] >>> 32);
+            int b = (int) pairs[p];
+            PhysicsObject bodyA = bodies.get(a);
+            PhysicsObject bodyB = bodies.get(b);
+
+            double tA = bodyA.PROPERTY_Static ? Double.NaN : sweep(a, b, bodyA, bodyB);
+            double tB = bodyB.PROPERTY_Static ? Double.NaN : sweep(b, a, bodyB, bodyA);
+            if (!Double.isNaN(tA) || !Double.isNaN(tB)) addContact(pairs[p]);
+            if (!Double.isNaN(tA) && tA < timeOfImpact[a]) timeOfImpact[a] = tA;
+            if (!Double.isNaN(tB) && tB < timeOfImpact[b]) timeOfImpact[b] = tB;
+        }
+
+        for (int i = 0; i < n; i++) {
+            PhysicsObject body = bodies.get(i);
+            if (body.PROPERTY_Static) continue;
+
+            double t = timeOfImpact[i];
+            if (moveX[i] != 0 || moveY[i] != 0) {
+                body.position.set(body.position.getX() + (moveX[i] * t), body.position.getY() + (moveY[i] * t));
+            }
+            if (gravityX != 0 || gravityY != 0) {
+                body.velocity.set(body.velocity.getX() + gravityX, body.velocity.getY() + gravityY);
+            }
+        }
+
+        if (contactCount > 1) Arrays.sort(contacts, 0, contactCount);
+    }
+
+    /**
+     * Sorts colliding bodies by the left edge of their swept boxes and collects every pair whose boxes overlap.
+     */
+    private void sortAndSweep() {
+        // Bodies that no longer collide leave the order, so they cost nothing to sort or sweep.
+        int live = 0;
+        for (int k = 0; k < orderCount; k++) {
+            int i = sortOrder[k];
+            if (bodies.get(i).PROPERTY_Collision) sortOrder[live++] = i;
+            else ordered[i] = false;
+        }
+        orderCount = live;
+        final int n = orderCount;
+
+        // Insertion sort: bodies move a little each step, so the previous order is nearly sorted.
+        for (int i = 1; i < n; i++) {
+            int current = sortOrder[i];
+            double key = minX[current];
+            int j = i - 1;
+            while (j >= 0 && minX[sortOrder[j]] > key) {
+                sortOrder[j + 1] = sortOrder[j];
+                j--;
+            }
+            sortOrder[j + 1] = current;
+        }
+
+        int activeCount = 0;
+        for (int k = 0; k < n; k++) {
+            int i = sortOrder[k];
+            PhysicsObject body = bodies.get(i);
+
+            // Drop bodies that end before this one starts.
+            int kept = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int other = activeList[a];
+                if (maxX[other] >= minX[i]) activeList[kept++] = other;
+            }
+            activeCount = kept;
+
+            for (int a = 0; a < activeCount; a++) {
+                int other = activeList[a];
+                if (maxY[other] < minY[i] || minY[other] > maxY[i]) continue;
+                PhysicsObject otherBody = bodies.get(other);
+                if (body.PROPERTY_Static && otherBody.PROPERTY_Static) continue;
+                addPair(Math.min(i, other), Math.max(i, other));
+            }
+
+            activeList[activeCount++] = i;
+        }
+    }
+
+    /**
+     * Swept AABB test of a moving body against another body's start position.
+     *
+     * @return Fraction of the move at which the bodies first touch, or NaN if they do not.
+     */
+    private double sweep(int a, int b, PhysicsObject bodyA, PhysicsObject bodyB) {
+        final double aMinX = startX[a], aMinY = startY[a];
+        final double aMaxX = aMinX + bodyA.getWidth(), aMaxY = aMinY + bodyA.getHeight();
+        final double bMinX = startX[b], bMinY = startY[b];
+        final double bMaxX = bMinX + bodyB.getWidth(), bMaxY = bMinY + bodyB.getHeight();
+        final double dx = moveX[a], dy = moveY[a];
+
+        double entryX, exitX, entryY, exitY;
+        if (dx > 0) {
+            entryX = (bMinX - aMaxX) / dx;
+            exitX = (bMaxX - aMinX) / dx;
+        } else if (dx < 0) {
+            entryX = (bMaxX - aMinX) / dx;
+            exitX = (bMinX - aMaxX) / dx;
+        } else {
+            if (aMaxX < bMinX || aMinX > bMaxX) return Double.NaN;
+            entryX = Double.NEGATIVE_INFINITY;
+            exitX = Double.POSITIVE_INFINITY;
+        }
+
+        if (dy > 0) {
+            entryY = (bMinY - aMaxY) / dy;
+            exitY = (bMaxY - aMinY) / dy;
+        } else if (dy < 0) {
+            entryY = (bMaxY - aMinY) / dy;
+            exitY = (bMinY - aMaxY) / dy;
+        } else {
+            if (aMaxY < bMinY || aMinY > bMaxY) return Double.NaN;
+            entryY = Double.NEGATIVE_INFINITY;
+            exitY = Double.POSITIVE_INFINITY;
+        }
+
+        final double entry = Math.max(entryX, entryY);
+        final double exit = Math.min(exitX, exitY);
+        if (entry > exit || entry > 1 || exit <= 0) return Double.NaN;
+
+        if (entry < 0) {
+            // Already overlapping. Report the contact but only hold the body if it is pushing further in.
+            // Bodies that only share an edge can slide along it.
+            if (aMaxX <= bMinX || aMinX >= bMaxX || aMaxY <= bMinY || aMinY >= bMaxY) return 1;
+            boolean deeperX = (dx > 0 && aMinX < bMinX) || (dx < 0 && aMaxX > bMaxX);
+            boolean deeperY = (dy > 0 && aMinY < bMinY) || (dy < 0 && aMaxY > bMaxY);
+            return (deeperX || deeperY) ? 0 : 1;
+        }
+        return entry;
+    }
+
+    private void addPair(int a, int b) {
+        if (pairCount >= pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        pairs[pairCount++] = ((long) a << 32) | b;
+    }
+
+    private void addContact(long pair) {
+        if (contactCount >= contacts.length) contacts = Arrays.copyOf(contacts, contacts.length * 2);
+        contacts[contactCount++] = pair;
+    }
+
+    /**
+     * Checks if two bodies touched during the last step.
+     *
+     * @param a First body
+     * @param b Second body
+     * @return <code>true</code> if they touched.
+     */
+    public boolean isInContact(PhysicsObject a, PhysicsObject b) {
+        if (contactCount == 0) return false;
+        int i = bodies.indexOf(a);
+        int j = bodies.indexOf(b);
+        if (i < 0 || j < 0 || i == j) return false;
+        long key = ((long) Math.min(i, j) << 32) | Math.max(i, j);
+        return Arrays.binarySearch(contacts, 0, contactCount, key) >= 0;
+    }
+
+    /**
+     * Gets the number of contacts found in the last step.
+     *
+     * @return Contact count
+     */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    /**
+     * Passes every pair of bodies that touched during the last step to an action.
+     *
+     * @param action Action to run on each pair
+     */
+    public void forEachContact(BiConsumer<PhysicsObject, PhysicsObject> action) {
+        for (int c = 0; c < contactCount; c++) {
+            action.accept(bodies.get((int) (contacts[c] >>> 32)), bodies.get((int) contacts[c]));
+        }
+    }
+}
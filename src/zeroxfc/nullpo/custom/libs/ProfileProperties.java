@@ -41,6 +41,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.HashMap;
 import mu.nu.nullpo.game.component.Controller;
 import mu.nu.nullpo.game.event.EventReceiver;
 import mu.nu.nullpo.game.play.GameEngine;
@@ -69,18 +70,34 @@ public class ProfileProperties {
      */
     private static final String PREFIX_NAME = "profile.name.",
         PREFIX_PASS = "profile.password.";
+    /**
+     * Profile data shared by all instances. Loaded on first use.
+     */
+    private static Store store;
     /**
      * Login screen
      */
     public final LoginScreen loginScreen;
     /**
-     * Profile cfg file
+     * Profile cfg file (shared)
      */
     private final CustomProperties PROP_PROFILE;
+    /**
+     * Journal of profile changes waiting to be written (shared)
+     */
+    private final PropertiesJournal journal;
+    /**
+     * Number of accounts registered under each storage name (shared)
+     */
+    private final HashMap<String, Integer> accountCounts;
     /**
      * Username
      */
     private String nameDisplay, nameProp;
+    /**
+     * Key prefix of the logged in account's properties
+     */
+    private String keyPrefix;
     /**
      * Is it logged in
      */
@@ -94,45 +111,105 @@ public class ProfileProperties {
     }
 
     /**
-     * Create a new profile loader. Use this constructor in a mode.
+     * Create a new profile loader. Use this constructor in a mode.<br />
+     * The profile file is only read the first time a profile loader is created; after that every instance shares
+     * the same parsed properties and journal, so creating one on retries or in menus costs no file access.
+     * Login state belongs to each instance.
      *
      * @param colourHeading Colour of heading. Use values from {@link EventReceiver} class.
      */
     public ProfileProperties(int colourHeading) {
-        PROP_PROFILE = new CustomProperties();
+        Store shared = getStore();
+        PROP_PROFILE = shared.properties;
+        journal = shared.journal;
+        accountCounts = shared.accountCounts;
 
-        try {
-            FileInputStream in = new FileInputStream("config/setting/profile.cfg");
-            PROP_PROFILE.load(in);
-            in.close();
+        nameDisplay = "";
+        nameProp = "";
+        keyPrefix = "";
+        loggedIn = false;
+        loginScreen = new LoginScreen(this, colourHeading);
+    }
 
-            log.info("Profile file \"config/setting/profile.cfg\" loaded and ready.");
-        } catch (IOException e) {
-            if (e instanceof FileNotFoundException) {
-                log.error("Profile file \"config/setting/profile.cfg\" not found. Creating new.\n", e);
+    /**
+     * Gets the shared profile store, loading it on first use.
+     *
+     * @return Profile store
+     */
+    private static synchronized Store getStore() {
+        if (store == null) store = new Store();
+        return store;
+    }
 
-                Writer fileWriter;
-                BufferedWriter outputWriter;
-                try {
-                    fileWriter = new OutputStreamWriter(new FileOutputStream("config/setting/profile.cfg"), StandardCharsets.UTF_8);
-                    outputWriter = new BufferedWriter(fileWriter);
-                    outputWriter.write('\0');
-                    outputWriter.close();
-                    fileWriter.close();
-
-                    log.info("Blank profile file \"config/setting/profile.cfg\" created.\n", e);
-                } catch (Exception e2) {
-                    log.error("Profile file creation failed.\n", e2);
+    /**
+     * Profile data shared by every <code>ProfileProperties</code> instance.
+     */
+    private static final class Store {
+        private final CustomProperties properties;
+        private final PropertiesJournal journal;
+        private final HashMap<String, Integer> accountCounts;
+
+        private Store() {
+            properties = new CustomProperties();
+            journal = new PropertiesJournal("config/setting/profile.cfg", "NullpoMino Player Profile Config");
+
+            try {
+                FileInputStream in = new FileInputStream("config/setting/profile.cfg");
+                properties.load(in);
+                in.close();
+
+                log.info("Profile file \"config/setting/profile.cfg\" loaded and ready.");
+            } catch (IOException e) {
+                if (e instanceof FileNotFoundException) {
+                    log.error("Profile file \"config/setting/profile.cfg\" not found. Creating new.\n", e);
+
+                    Writer fileWriter;
+                    BufferedWriter outputWriter;
+                    try {
+                        fileWriter = new OutputStreamWriter(new FileOutputStream("config/setting/profile.cfg"), StandardCharsets.UTF_8);
+                        outputWriter = new BufferedWriter(fileWriter);
+                        outputWriter.write('\0');
+                        outputWriter.close();
+                        fileWriter.close();
+
+                        log.info("Blank profile file \"config/setting/profile.cfg\" created.\n", e);
+                    } catch (Exception e2) {
+                        log.error("Profile file creation failed.\n", e2);
+                    }
+                } else {
+                    log.error("Profile file \"config/setting/profile.cfg\" is not loadable.\n", e);
                 }
-            } else {
-                log.error("Profile file \"config/setting/profile.cfg\" is not loadable.\n", e);
             }
+
+            journal.replay(properties);
+
+            accountCounts = new HashMap<>();
+            indexAccounts();
         }
 
-        nameDisplay = "";
-        nameProp = "";
-        loggedIn = false;
-        loginScreen = new LoginScreen(this, colourHeading);
+        /**
+         * Builds the account index from the loaded profile file.
+         * Accounts under a name are numbered from 0 upwards, so the index only stores how many there are.
+         */
+        private void indexAccounts() {
+            for (String key : properties.stringPropertyNames()) {
+                if (!key.startsWith(PREFIX_NAME) || !properties.getProperty(key, false)) continue;
+
+                int split = key.lastIndexOf('.');
+                if (split <= PREFIX_NAME.length()) continue;
+
+                String name = key.substring(PREFIX_NAME.length(), split);
+                int number;
+                try {
+                    number = Integer.parseInt(key.substring(split + 1));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+
+                Integer count = accountCounts.get(name);
+                if (count == null || count < number + 1) accountCounts.put(name, number + 1);
+            }
+        }
     }
 
     /**
@@ -184,8 +261,8 @@ public class ProfileProperties {
      * @return Available?
      */
     private boolean testUsernameTaken(String name, long number) {
-        String nCap = getStorageName(name);
-        return PROP_PROFILE.getProperty(PREFIX_NAME + nCap + "." + number, false);
+        Integer count = accountCounts.get(getStorageName(name));
+        return count != null && number < count;
     }
 
     /**
@@ -195,8 +272,7 @@ public class ProfileProperties {
      * @return Available?
      */
     private boolean testUsernameAvailability(String name) {
-        String nCap = getStorageName(name);
-        return !PROP_PROFILE.getProperty(PREFIX_NAME + nCap + "." + 0, false);
+        return !testUsernameTaken(name, 0);
     }
 
     /**
@@ -211,16 +287,13 @@ public class ProfileProperties {
         long number = 0;
 
         while (testUsernameTaken(name, number)) {
-            if (!PROP_PROFILE.getProperty(PREFIX_NAME + nCap + "." + number, false)) return false;
-            else {
-                crash = true;
-                int pass = PROP_PROFILE.getProperty(PREFIX_PASS + nCap + "." + number, 0);
-                for (int i = 0; i < buttonPresses.length; i++) {
-                    int j = 4 * (buttonPresses.length - i - 1);
-                    if (((buttonPresses[i] << j) & pass) == 0) {
-                        crash = false;
-                        break;
-                    }
+            crash = true;
+            int pass = PROP_PROFILE.getProperty(PREFIX_PASS + nCap + "." + number, 0);
+            for (int i = 0; i < buttonPresses.length; i++) {
+                int j = 4 * (buttonPresses.length - i - 1);
+                if (((buttonPresses[i] << j) & pass) == 0) {
+                    crash = false;
+                    break;
                 }
             }
             number++;
@@ -270,6 +343,7 @@ public class ProfileProperties {
 
         this.nameDisplay = nCapDisplay;
         this.nameProp = nCap + "." + number;
+        this.keyPrefix = nameProp + ".";
 
         loggedIn = true;
 
@@ -297,6 +371,7 @@ public class ProfileProperties {
 
         this.nameDisplay = nCapDisplay;
         this.nameProp = nCap + "." + number;
+        this.keyPrefix = nameProp + ".";
 
         int password = new SecureRandom().nextInt(128);
         password <<= 4;
@@ -308,6 +383,9 @@ public class ProfileProperties {
 
         PROP_PROFILE.setProperty(PREFIX_NAME + nameProp, true);
         PROP_PROFILE.setProperty(PREFIX_PASS + nameProp, password);
+        journal.markChanged(PREFIX_NAME + nameProp);
+        journal.markChanged(PREFIX_PASS + nameProp);
+        accountCounts.put(nCap, (int) number + 1);
         loggedIn = true;
 
         log.info("Account " + nameDisplay + " " + number + " created!");
@@ -328,7 +406,7 @@ public class ProfileProperties {
      */
     public byte getProperty(String path, byte def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -343,7 +421,7 @@ public class ProfileProperties {
      */
     public short getProperty(String path, short def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -358,7 +436,7 @@ public class ProfileProperties {
      */
     public int getProperty(String path, int def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -373,7 +451,7 @@ public class ProfileProperties {
      */
     public long getProperty(String path, long def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -388,7 +466,7 @@ public class ProfileProperties {
      */
     public float getProperty(String path, float def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -403,7 +481,7 @@ public class ProfileProperties {
      */
     public double getProperty(String path, double def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -418,7 +496,7 @@ public class ProfileProperties {
      */
     public char getProperty(String path, char def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -433,7 +511,7 @@ public class ProfileProperties {
      */
     public String getProperty(String path, String def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -448,7 +526,7 @@ public class ProfileProperties {
      */
     public boolean getProperty(String path, boolean def) {
         if (loggedIn) {
-            return PROP_PROFILE.getProperty(nameProp + "." + path, def);
+            return PROP_PROFILE.getProperty(keyPrefix + path, def);
         } else {
             return def;
         }
@@ -465,7 +543,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, byte val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -477,7 +557,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, short val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -489,7 +571,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, int val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -501,7 +585,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, long val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -513,7 +599,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, float val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -525,7 +613,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, double val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -537,7 +627,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, char val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -549,7 +641,9 @@ public class ProfileProperties {
      */
     public void setProperty(String path, String val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
 
@@ -561,22 +655,21 @@ public class ProfileProperties {
      */
     public void setProperty(String path, boolean val) {
         if (loggedIn) {
-            PROP_PROFILE.setProperty(nameProp + "." + path, val);
+            String key = keyPrefix + path;
+            PROP_PROFILE.setProperty(key, val);
+            journal.markChanged(key);
         }
     }
     //endregion
 
     /**
-     * Save properties to "config/setting/profile.cfg"
+     * Save changed properties to "config/setting/profile.cfg".<br />
+     * Only the keys changed since the last save are written, as a block appended to the profile journal
+     * and synced to disk before this returns.
+     * The journal is folded back into the main file on the {@link PropertiesWriter} thread once it grows large.
      */
     public void saveProfileConfig() {
-        try {
-            FileOutputStream out = new FileOutputStream("config/setting/profile.cfg");
-            PROP_PROFILE.store(out, "NullpoMino Player Profile Config");
-            out.close();
-        } catch (IOException e) {
-            log.error("Failed to save mode config", e);
-        }
+        if (!journal.commit(PROP_PROFILE)) log.error("Failed to save profile config");
     }
 
     /**
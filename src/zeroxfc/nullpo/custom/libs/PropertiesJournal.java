@@ -0,0 +1,273 @@
+/*
+ * This library class was created by 0xFC963F18DC21 / Shots243
+ * It is part of an extension library for the game NullpoMino (copyright 2010)
+ *
+ * Herewith shall the term "Library Creator" be given to 0xFC963F18DC21.
+ * Herewith shall the term "Game Creator" be given to the original creator of NullpoMino.
+ *
+ * THIS LIBRARY AND MODE PACK WAS NOT MADE IN ASSOCIATION WITH THE GAME CREATOR.
+ *
+ * Repository: https://github.com/Shots243/ModePile
+ *
+ * When using this library in a mode / library pack of your own, the following
+ * conditions must be satisfied:
+ *     - This license must remain visible at the top of the document, unmodified.
+ *     - You are allowed to use this library for any modding purpose.
+ *         - If this is the case, the Library Creator must be credited somewhere.
+ *             - Source comments only are fine, but in a README is recommended.
+ *     - Modification of this library is allowed, but only in the condition that a
+ *       pull request is made to merge the changes to the repository.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package zeroxfc.nullpo.custom.libs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import mu.nu.nullpo.util.CustomProperties;
+import org.apache.log4j.Logger;
+
+/**
+ * Append-only change journal for a properties file.<br />
+ * Instead of rewriting the whole file on every save, only the keys changed since the last commit are
+ * appended to <code>[file].journal</code> and synced to disk. When the journal grows past a size limit it is
+ * folded back into the main file on the {@link PropertiesWriter} thread, using a temporary file and an atomic rename.<br />
+ * Each committed block ends in a marker line; a block cut short by a crash is ignored when the journal is replayed.
+ */
+public class PropertiesJournal {
+    /**
+     * Debug logger
+     */
+    private static final Logger log = Logger.getLogger(PropertiesJournal.class);
+    /**
+     * Line written after every complete block.
+     */
+    private static final String COMMIT_MARKER = "#commit";
+    /**
+     * Default journal size at which the journal is compacted into the main file.
+     */
+    public static final long DEFAULT_COMPACT_THRESHOLD = 64 * 1024;
+    /**
+     * Guards journal appends, set-asides and main file replacement across all instances.
+     */
+    private static final Object FILE_LOCK = new Object();
+    /**
+     * Set while a compaction is running. Only one runs at a time.
+     */
+    private static final AtomicBoolean COMPACTING = new AtomicBoolean(false);
+
+    private final File mainFile;
+    private final File journalFile;
+    private final File rolledJournalFile;
+    private final File temporaryFile;
+    private final String header;
+    private final long compactThreshold;
+    private final LinkedHashSet<String> changedKeys;
+
+    /**
+     * Creates a journal for a properties file with the default compaction threshold.
+     *
+     * @param path   Path of the main properties file
+     * @param header Comment written at the top of the main file when it is compacted
+     */
+    public PropertiesJournal(String path, String header) {
+        this(path, header, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Creates a journal for a properties file.
+     *
+     * @param path             Path of the main properties file
+     * @param header           Comment written at the top of the main file when it is compacted
+     * @param compactThreshold Journal size in bytes at which it is compacted into the main file
+     */
+    public PropertiesJournal(String path, String header, long compactThreshold) {
+        mainFile = new File(path);
+        journalFile = new File(path + ".journal");
+        rolledJournalFile = new File(path + ".journal.old");
+        temporaryFile = new File(path + ".tmp");
+        this.header = header;
+        this.compactThreshold = compactThreshold;
+        changedKeys = new LinkedHashSet<>();
+    }
+
+    /**
+     * Replays any journalled changes on top of properties already loaded from the main file.
+     * A journal left behind by an interrupted compaction is replayed first.
+     *
+     * @param target Properties loaded from the main file
+     */
+    public void replay(CustomProperties target) {
+        synchronized (FILE_LOCK) {
+            replayFile(rolledJournalFile, target);
+            replayFile(journalFile, target);
+        }
+    }
+
+    /**
+     * Records that a key has changed and must be written on the next commit.
+     *
+     * @param key Changed property key
+     */
+    public void markChanged(String key) {
+        synchronized (changedKeys) {
+            changedKeys.add(key);
+        }
+    }
+
+    /**
+     * Checks for changes waiting to be committed.
+     *
+     * @return <code>true</code> if there are uncommitted changes.
+     */
+    public boolean hasChanges() {
+        synchronized (changedKeys) {
+            return !changedKeys.isEmpty();
+        }
+    }
+
+    /**
+     * Appends every changed key and its current value to the journal and syncs it to disk.
+     * Starts a background compaction if the journal has grown past its threshold.
+     *
+     * @param source Properties to read the current values from
+     * @return <code>true</code> if the changes were written (or there were none).
+     */
+    public boolean commit(CustomProperties source) {
+        CustomProperties block = new CustomProperties();
+        synchronized (changedKeys) {
+            if (changedKeys.isEmpty()) return true;
+
+            for (String key : changedKeys) {
+                String value = source.getProperty(key);
+                if (value != null) block.setProperty(key, value);
+            }
+            changedKeys.clear();
+        }
+
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            block.store(buffer, null);
+            buffer.write((COMMIT_MARKER + "\n").getBytes(StandardCharsets.ISO_8859_1));
+
+            synchronized (FILE_LOCK) {
+                FileOutputStream out = new FileOutputStream(journalFile, true);
+                try {
+                    out.write(buffer.toByteArray());
+                    if (PropertiesWriter.isSyncToDisk()) out.getFD().sync();
+                } finally {
+                    out.close();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to append to journal " + journalFile.getPath(), e);
+
+            // Keep the keys so the next commit tries them again.
+            synchronized (changedKeys) {
+                changedKeys.addAll(block.stringPropertyNames());
+            }
+            return false;
+        }
+
+        if (journalFile.length() >= compactThreshold) compact();
+        return true;
+    }
+
+    /**
+     * Folds the journal into the main file on the {@link PropertiesWriter} thread.<br />
+     * The current journal is set aside first so that commits made during compaction go to a fresh one,
+     * then the new main file is built from the old main file plus the set-aside journal. Only files on disk
+     * are read, so changes held by other instances editing the same file are never lost.
+     */
+    public void compact() {
+        if (!COMPACTING.compareAndSet(false, true)) return;
+
+        synchronized (FILE_LOCK) {
+            // A journal left over from an interrupted compaction is folded in first; the current one waits.
+            if (!rolledJournalFile.exists() && !(journalFile.exists() && journalFile.renameTo(rolledJournalFile))) {
+                COMPACTING.set(false);
+                return;
+            }
+        }
+
+        PropertiesWriter.submit("compact:" + mainFile.getPath(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    CustomProperties merged = new CustomProperties();
+                    if (mainFile.exists()) {
+                        FileInputStream in = new FileInputStream(mainFile);
+                        try {
+                            merged.load(in);
+                        } finally {
+                            in.close();
+                        }
+                    }
+                    replayFile(rolledJournalFile, merged);
+
+                    synchronized (FILE_LOCK) {
+                        writeMainFile(merged);
+                        if (!rolledJournalFile.delete()) log.warn("Could not delete " + rolledJournalFile.getPath());
+                    }
+                } catch (IOException e) {
+                    log.error("Failed to compact journal into " + mainFile.getPath(), e);
+                } finally {
+                    COMPACTING.set(false);
+                }
+            }
+        });
+    }
+
+    private void writeMainFile(CustomProperties snapshot) throws IOException {
+        FileOutputStream out = new FileOutputStream(temporaryFile);
+        try {
+            snapshot.store(out, header);
+            if (PropertiesWriter.isSyncToDisk()) out.getFD().sync();
+        } finally {
+            out.close();
+        }
+
+        try {
+            Files.move(temporaryFile.toPath(), mainFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), mainFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void replayFile(File file, CustomProperties target) {
+        if (!file.exists()) return;
+
+        try {
+            byte[] contents = Files.readAllBytes(file.toPath());
+
+            // Only load up to the end of the last complete block.
+            String text = new String(contents, StandardCharsets.ISO_8859_1);
+            int end = text.lastIndexOf(COMMIT_MARKER + "\n");
+            if (end < 0) return;
+
+            target.load(new ByteArrayInputStream(contents, 0, end));
+        } catch (IOException e) {
+            log.error("Failed to replay journal " + file.getPath(), e);
+        }
+    }
+}
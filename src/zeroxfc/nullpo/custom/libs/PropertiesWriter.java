@@ -0,0 +1,244 @@
+/*
+ * This library class was created by 0xFC963F18DC21 / Shots243
+ * It is part of an extension library for the game NullpoMino (copyright 2010)
+ *
+ * Herewith shall the term "Library Creator" be given to 0xFC963F18DC21.
+ * Herewith shall the term "Game Creator" be given to the original creator of NullpoMino.
+ *
+ * THIS LIBRARY AND MODE PACK WAS NOT MADE IN ASSOCIATION WITH THE GAME CREATOR.
+ *
+ * Repository: https://github.com/Shots243/ModePile
+ *
+ * When using this library in a mode / library pack of your own, the following
+ * conditions must be satisfied:
+ *     - This license must remain visible at the top of the document, unmodified.
+ *     - You are allowed to use this library for any modding purpose.
+ *         - If this is the case, the Library Creator must be credited somewhere.
+ *             - Source comments only are fine, but in a README is recommended.
+ *     - Modification of this library is allowed, but only in the condition that a
+ *       pull request is made to merge the changes to the repository.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package zeroxfc.nullpo.custom.libs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import mu.nu.nullpo.util.CustomProperties;
+import org.apache.log4j.Logger;
+
+/**
+ * Write-behind saving for properties files.<br />
+ * Saves are queued and written by one background thread, so the game thread never waits on the disk.
+ * Saves of the same file made before it is written are coalesced into one write of the latest contents.
+ * Files are written to a temporary file and renamed over the original, so a crash never leaves a half-written file.
+ * Anything still queued is written when the game exits.
+ */
+public class PropertiesWriter {
+    /**
+     * Debug logger
+     */
+    private static final Logger log = Logger.getLogger(PropertiesWriter.class);
+    /**
+     * NullpoMino's mode config file, as written by every frontend's <code>saveModeConfig</code>.
+     */
+    private static final String MODE_CONFIG_PATH = "config/setting/mode.cfg",
+        MODE_CONFIG_HEADER = "NullpoMino Mode Config";
+    /**
+     * Maximum number of different files waiting to be written. Past this, saves are written on the calling thread.
+     */
+    public static final int MAX_PENDING = 32;
+
+    /*
+     * Queued writes by key, oldest first. Guarded by LOCK.
+     */
+    private static final Object LOCK = new Object();
+    private static final LinkedHashMap<String, Runnable> pending = new LinkedHashMap<>();
+    private static boolean writing;
+    private static Thread worker;
+    /**
+     * Sync files to disk before renaming them into place.
+     */
+    private static volatile boolean syncToDisk = true;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, "PropertiesWriter-exit"));
+    }
+
+    private PropertiesWriter() {
+    }
+
+    /**
+     * Sets whether files are synced to disk before being renamed into place.
+     * Syncing is safest after a power cut; turning it off makes writes faster.
+     * Applies to every file written through this class and to the profile journal.
+     *
+     * @param sync <code>true</code> to sync (default)
+     */
+    public static void setSyncToDisk(boolean sync) {
+        syncToDisk = sync;
+    }
+
+    /**
+     * Gets whether files are synced to disk before being renamed into place.
+     *
+     * @return <code>true</code> if files are synced
+     */
+    static boolean isSyncToDisk() {
+        return syncToDisk;
+    }
+
+    /**
+     * Queues NullpoMino's mode config for saving. Use in place of <code>receiver.saveModeConfig(...)</code>.<br />
+     * Writes the same file as the frontends do, but like any other {@link #save} it goes through a temporary file
+     * and an atomic rename. Every mode should save the mode config through here, so that two saves of the file
+     * never run at the same time.
+     *
+     * @param modeConfig Mode config (<code>owner.modeConfig</code>)
+     */
+    public static void saveModeConfig(CustomProperties modeConfig) {
+        save(MODE_CONFIG_PATH, modeConfig, MODE_CONFIG_HEADER);
+    }
+
+    /**
+     * Queues a properties file for saving.<br />
+     * The properties are read when the file is written, not now, so later changes made before the write are included.
+     *
+     * @param path       File path
+     * @param properties Properties to save
+     * @param header     Comment written at the top of the file
+     */
+    public static void save(final String path, final CustomProperties properties, final String header) {
+        submit("file:" + path, new Runnable() {
+            @Override
+            public void run() {
+                writeFile(path, properties, header);
+            }
+        });
+    }
+
+    /**
+     * Queues a write. A write already queued under the same key is replaced.
+     *
+     * @param key   Coalescing key
+     * @param write Write to perform
+     */
+    static void submit(String key, Runnable write) {
+        synchronized (LOCK) {
+            if (pending.containsKey(key) || pending.size() < MAX_PENDING) {
+                pending.put(key, write);
+                startWorker();
+                LOCK.notifyAll();
+                return;
+            }
+        }
+
+        log.warn("Write queue full, saving on the calling thread");
+        write.run();
+    }
+
+    /**
+     * Blocks until every queued write has finished.
+     */
+    public static void flush() {
+        synchronized (LOCK) {
+            startWorker();
+            while (!pending.isEmpty() || writing) {
+                try {
+                    LOCK.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void startWorker() {
+        if (worker != null || pending.isEmpty()) return;
+
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    Runnable write;
+                    synchronized (LOCK) {
+                        writing = false;
+                        LOCK.notifyAll();
+                        while (pending.isEmpty()) {
+                            try {
+                                LOCK.wait();
+                            } catch (InterruptedException e) {
+                                worker = null;
+                                return;
+                            }
+                        }
+
+                        Iterator<Map.Entry<String, Runnable>> it = pending.entrySet().iterator();
+                        write = it.next().getValue();
+                        it.remove();
+                        writing = true;
+                    }
+
+                    try {
+                        write.run();
+                    } catch (RuntimeException e) {
+                        log.error("Background write failed", e);
+                    }
+                }
+            }
+        }, "PropertiesWriter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static void writeFile(String path, CustomProperties properties, String header) {
+        // Copy under the properties' own lock so the game thread is only held up for the copy, not the write.
+        CustomProperties snapshot = new CustomProperties();
+        synchronized (properties) {
+            snapshot.putAll(properties);
+        }
+
+        File file = new File(path);
+        File temporaryFile = new File(path + ".tmp");
+        try {
+            FileOutputStream out = new FileOutputStream(temporaryFile);
+            try {
+                snapshot.store(out, header);
+                if (syncToDisk) out.getFD().sync();
+            } finally {
+                out.close();
+            }
+
+            try {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.error("Failed to save " + path, e);
+        }
+    }
+}
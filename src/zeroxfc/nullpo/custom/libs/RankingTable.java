@@ -0,0 +1,402 @@
+/*
+ * This library class was created by 0xFC963F18DC21 / Shots243
+ * It is part of an extension library for the game NullpoMino (copyright 2010)
+ *
+ * Herewith shall the term "Library Creator" be given to 0xFC963F18DC21.
+ * Herewith shall the term "Game Creator" be given to the original creator of NullpoMino.
+ *
+ * THIS LIBRARY AND MODE PACK WAS NOT MADE IN ASSOCIATION WITH THE GAME CREATOR.
+ *
+ * Repository: https://github.com/Shots243/ModePile
+ *
+ * When using this library in a mode / library pack of your own, the following
+ * conditions must be satisfied:
+ *     - This license must remain visible at the top of the document, unmodified.
+ *     - You are allowed to use this library for any modding purpose.
+ *         - If this is the case, the Library Creator must be credited somewhere.
+ *             - Source comments only are fine, but in a README is recommended.
+ *     - Modification of this library is allowed, but only in the condition that a
+ *       pull request is made to merge the changes to the repository.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package zeroxfc.nullpo.custom.libs;
+
+import java.util.Arrays;
+import mu.nu.nullpo.util.CustomProperties;
+
+/**
+ * Ranking tables for a mode.
+ * <p>
+ * Holds one table per game type, each with a fixed number of entries. Every column is a primitive array kept in rank
+ * order, so a new entry's position is found by binary search and inserted with one array shift per column.
+ * <p>
+ * Keys are stored as <code>[prefix][type].[column].[rank]</code> by default, the layout most modes have always used,
+ * so existing rankings load unchanged; modes with another layout supply a {@link KeyFormat}.
+ * Only entries that changed since the last load or save are written back;
+ * with {@link ProfileProperties} this means only those keys go into the profile journal.
+ */
+public class RankingTable {
+    /**
+     * Decides which of two entries ranks higher.
+     */
+    public interface EntryComparator {
+        /**
+         * Compares two entries. Values are in column order.
+         *
+         * @param type Game type
+         * @param a    First entry
+         * @param b    Second entry
+         * @return Negative if <code>a</code> ranks above <code>b</code>, positive if below, 0 if tied.
+         */
+        int compare(int type, double[] a, double[] b);
+    }
+
+    /**
+     * Builds the property key of one value.
+     */
+    public interface KeyFormat {
+        /**
+         * Gets a property key.
+         *
+         * @param prefix Prefix given to load
+         * @param type   Game type
+         * @param column Column name
+         * @param rank   Rank
+         * @return Property key
+         */
+        String getKey(String prefix, int type, String column, int rank);
+    }
+
+    /**
+     * <code>[prefix][type].[column].[rank]</code> (default)
+     */
+    public static final KeyFormat KEYS_TYPED = new KeyFormat() {
+        @Override
+        public String getKey(String prefix, int type, String column, int rank) {
+            return prefix + type + "." + column + "." + rank;
+        }
+    };
+    /**
+     * <code>[prefix][column].[rank]</code>, for modes with a single game type.
+     */
+    public static final KeyFormat KEYS_UNTYPED = new KeyFormat() {
+        @Override
+        public String getKey(String prefix, int type, String column, int rank) {
+            return prefix + column + "." + rank;
+        }
+    };
+
+    /**
+     * A ranking column.
+     */
+    public static final class Column {
+        private static final int ORDER_NONE = 0, ORDER_HIGHEST = 1, ORDER_LOWEST = -1;
+
+        private final String name;
+        private final boolean decimal;
+        private final int order;
+
+        private Column(String name, boolean decimal, int order) {
+            this.name = name;
+            this.decimal = decimal;
+            this.order = order;
+        }
+
+        /**
+         * Integer column where higher values rank higher (score, lines, level...).
+         */
+        public static Column highest(String name) {
+            return new Column(name, false, ORDER_HIGHEST);
+        }
+
+        /**
+         * Integer column where lower values rank higher (time...).
+         */
+        public static Column lowest(String name) {
+            return new Column(name, false, ORDER_LOWEST);
+        }
+
+        /**
+         * Decimal column where higher values rank higher.
+         */
+        public static Column highestDecimal(String name) {
+            return new Column(name, true, ORDER_HIGHEST);
+        }
+
+        /**
+         * Decimal column where lower values rank higher.
+         */
+        public static Column lowestDecimal(String name) {
+            return new Column(name, true, ORDER_LOWEST);
+        }
+
+        /**
+         * Integer column that is stored but not compared.
+         */
+        public static Column info(String name) {
+            return new Column(name, false, ORDER_NONE);
+        }
+
+        /**
+         * Decimal column that is stored but not compared.
+         */
+        public static Column infoDecimal(String name) {
+            return new Column(name, true, ORDER_NONE);
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final int types;
+    private final int size;
+    private final Column[] columns;
+    /*
+     * values[column][type * size + rank]
+     */
+    private final double[][] values;
+    /*
+     * Per type, the first rank changed since the last load or save (size if clean).
+     */
+    private final int[] firstDirtyRank;
+    /*
+     * Scratch entry for comparisons.
+     */
+    private final double[] probe;
+    private EntryComparator comparator;
+    private KeyFormat keyFormat;
+    private String prefix;
+
+    /**
+     * Creates an empty ranking table.
+     * By default entries are compared column by column, in the order given, skipping info columns;
+     * the first column that differs decides. An entry must rank strictly above an existing one to be inserted.
+     *
+     * @param types   Number of game types
+     * @param size    Entries per game type
+     * @param columns Columns
+     */
+    public RankingTable(int types, int size, Column... columns) {
+        this.types = types;
+        this.size = size;
+        this.columns = columns.clone();
+        this.values = new double[columns.length][types * size];
+        this.firstDirtyRank = new int[types];
+        this.probe = new double[columns.length];
+        this.prefix = "";
+        this.keyFormat = KEYS_TYPED;
+        Arrays.fill(firstDirtyRank, size);
+
+        this.comparator = new EntryComparator() {
+            @Override
+            public int compare(int type, double[] a, double[] b) {
+                for (int c = 0; c < RankingTable.this.columns.length; c++) {
+                    int order = RankingTable.this.columns[c].order;
+                    if (order == Column.ORDER_NONE) continue;
+
+                    int result = Double.compare(b[c], a[c]) * order;
+                    if (result != 0) return result;
+                }
+                return 0;
+            }
+        };
+    }
+
+    /**
+     * Replaces the entry comparator.
+     *
+     * @param comparator New comparator
+     */
+    public void setComparator(EntryComparator comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Replaces the property key layout.
+     *
+     * @param keyFormat New key layout
+     */
+    public void setKeyFormat(KeyFormat keyFormat) {
+        this.keyFormat = keyFormat;
+    }
+
+    public int getTypes() {
+        return types;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private int getColumnIndex(String name) {
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c].name.equals(name)) return c;
+        }
+        throw new IllegalArgumentException("No ranking column named " + name);
+    }
+
+    public int getInt(int type, String column, int rank) {
+        return (int) values[getColumnIndex(column)][(type * size) + rank];
+    }
+
+    public double getDouble(int type, String column, int rank) {
+        return values[getColumnIndex(column)][(type * size) + rank];
+    }
+
+    /**
+     * Finds where an entry would be placed.
+     *
+     * @param type  Game type
+     * @param entry Values in column order
+     * @return Rank, or -1 if the entry does not make the table.
+     */
+    public int check(int type, double... entry) {
+        // Entries at or below the new one come first, then those it beats.
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            for (int c = 0; c < columns.length; c++) probe[c] = values[c][(type * size) + mid];
+
+            if (comparator.compare(type, entry, probe) < 0) high = mid;
+            else low = mid + 1;
+        }
+        return low < size ? low : -1;
+    }
+
+    /**
+     * Inserts an entry if it makes the table. Lower entries move down one place and the last one drops off.
+     *
+     * @param type  Game type
+     * @param entry Values in column order
+     * @return Rank, or -1 if the entry does not make the table.
+     */
+    public int insert(int type, double... entry) {
+        int rank = check(type, entry);
+        if (rank == -1) return -1;
+
+        int base = type * size;
+        for (int c = 0; c < columns.length; c++) {
+            System.arraycopy(values[c], base + rank, values[c], base + rank + 1, size - rank - 1);
+            values[c][base + rank] = columns[c].decimal ? entry[c] : (int) entry[c];
+        }
+        firstDirtyRank[type] = Math.min(firstDirtyRank[type], rank);
+        return rank;
+    }
+
+    /**
+     * Checks for changes not yet saved.
+     *
+     * @return <code>true</code> if any entry changed since the last load or save.
+     */
+    public boolean isDirty() {
+        for (int rank : firstDirtyRank) {
+            if (rank < size) return true;
+        }
+        return false;
+    }
+
+    private String getKey(int type, int column, int rank) {
+        return keyFormat.getKey(prefix, type, columns[column].name, rank);
+    }
+
+    /**
+     * Loads every table.
+     *
+     * @param prop   Property file
+     * @param prefix Key prefix, including the trailing dot (e.g. <code>"mode.ranking." + ruleName + "."</code>)
+     */
+    public void load(CustomProperties prop, String prefix) {
+        this.prefix = prefix;
+        for (int type = 0; type < types; type++) {
+            for (int c = 0; c < columns.length; c++) {
+                for (int rank = 0; rank < size; rank++) {
+                    values[c][(type * size) + rank] = columns[c].decimal
+                        ? prop.getProperty(getKey(type, c, rank), 0.0)
+                        : prop.getProperty(getKey(type, c, rank), 0);
+                }
+            }
+        }
+        Arrays.fill(firstDirtyRank, size);
+    }
+
+    /**
+     * Loads every table from a player profile. Does nothing if the player is not logged in.
+     *
+     * @param prop   Profile
+     * @param prefix Key prefix, including the trailing dot
+     */
+    public void load(ProfileProperties prop, String prefix) {
+        if (!prop.isLoggedIn()) return;
+
+        this.prefix = prefix;
+        for (int type = 0; type < types; type++) {
+            for (int c = 0; c < columns.length; c++) {
+                for (int rank = 0; rank < size; rank++) {
+                    values[c][(type * size) + rank] = columns[c].decimal
+                        ? prop.getProperty(getKey(type, c, rank), 0.0)
+                        : prop.getProperty(getKey(type, c, rank), 0);
+                }
+            }
+        }
+        Arrays.fill(firstDirtyRank, size);
+    }
+
+    /**
+     * Writes the entries changed since the last load or save, using the prefix they were loaded with.
+     *
+     * @param prop Property file
+     * @return <code>true</code> if anything was written and the file needs saving.
+     */
+    public boolean save(CustomProperties prop) {
+        boolean written = false;
+        for (int type = 0; type < types; type++) {
+            for (int rank = firstDirtyRank[type]; rank < size; rank++) {
+                for (int c = 0; c < columns.length; c++) {
+                    double value = values[c][(type * size) + rank];
+                    if (columns[c].decimal) prop.setProperty(getKey(type, c, rank), value);
+                    else prop.setProperty(getKey(type, c, rank), (int) value);
+                }
+                written = true;
+            }
+            firstDirtyRank[type] = size;
+        }
+        return written;
+    }
+
+    /**
+     * Writes the entries changed since the last load or save to a player profile.
+     * Does nothing if the player is not logged in.
+     *
+     * @param prop Profile
+     * @return <code>true</code> if anything was written and the profile needs saving.
+     */
+    public boolean save(ProfileProperties prop) {
+        if (!prop.isLoggedIn()) return false;
+
+        boolean written = false;
+        for (int type = 0; type < types; type++) {
+            for (int rank = firstDirtyRank[type]; rank < size; rank++) {
+                for (int c = 0; c < columns.length; c++) {
+                    double value = values[c][(type * size) + rank];
+                    if (columns[c].decimal) prop.setProperty(getKey(type, c, rank), value);
+                    else prop.setProperty(getKey(type, c, rank), (int) value);
+                }
+                written = true;
+            }
+            firstDirtyRank[type] = size;
+        }
+        return written;
+    }
+}
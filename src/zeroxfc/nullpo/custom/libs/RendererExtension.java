@@ -360,43 +360,12 @@ public class RendererExtension {
 
             int size = (int) (16 * scale);
 
-            int srcSize;
-            if (scale <= 0.5f) {
-                srcSize = 8;
-            } else if (scale <= 1.0f) {
-                srcSize = 16;
-            } else {
-                srcSize = 32;
-            }
+            int srcSize = getBlockSourceSize(scale);
 
-            Image img = null;
-            if (scale <= 0.5f)
-                img = ResourceHolder.imgSmallBlockList.get(skin);
-            else if (scale > 1.0f)
-                img = ResourceHolder.imgBigBlockList.get(skin);
-            else
-                img = ResourceHolder.imgNormalBlockList.get(skin);
-
-            int sx = color * srcSize;
-            if (bone) sx += 9 * srcSize;
-            int sy = 0;
-            if (isSpecialBlocks) sx = ((color - Block.BLOCK_COLOR_COUNT) + 18) * srcSize;
+            Image img = getSlickBlockImage(skin, srcSize);
 
-            if (isSticky) {
-                if (isSpecialBlocks) {
-                    sx = (color - Block.BLOCK_COLOR_COUNT) * srcSize;
-                    sy = 18 * srcSize;
-                } else {
-                    sx = 0;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_UP) != 0) sx |= 0x1;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_DOWN) != 0) sx |= 0x2;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_LEFT) != 0) sx |= 0x4;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_RIGHT) != 0) sx |= 0x8;
-                    sx *= srcSize;
-                    sy = color * srcSize;
-                    if (bone) sy += 9 * srcSize;
-                }
-            }
+            int sx = getBlockSourceX(color, bone, attr, isSticky, srcSize);
+            int sy = getBlockSourceY(color, bone, isSticky, srcSize);
 
             int imageWidth = img.getWidth();
             if ((sx >= imageWidth) && (imageWidth != -1)) sx = 0;
@@ -449,14 +418,7 @@ public class RendererExtension {
 
             int size = (int) (16 * scale);
 
-            int srcSize;
-            if (scale <= 0.5f) {
-                srcSize = 8;
-            } else if (scale <= 1.0f) {
-                srcSize = 16;
-            } else {
-                srcSize = 32;
-            }
+            int srcSize = getBlockSourceSize(scale);
 
             java.awt.Image img = null;
             if (scale <= 0.5f)
@@ -466,26 +428,8 @@ public class RendererExtension {
             else
                 img = ResourceHolderSwing.imgNormalBlockList.get(skin);
 
-            int sx = color * srcSize;
-            if (bone) sx += 9 * srcSize;
-            int sy = 0;
-            if (isSpecialBlocks) sx = ((color - Block.BLOCK_COLOR_COUNT) + 18) * srcSize;
-
-            if (isSticky) {
-                if (isSpecialBlocks) {
-                    sx = (color - Block.BLOCK_COLOR_COUNT) * srcSize;
-                    sy = 18 * srcSize;
-                } else {
-                    sx = 0;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_UP) != 0) sx |= 0x1;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_DOWN) != 0) sx |= 0x2;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_LEFT) != 0) sx |= 0x4;
-                    if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_RIGHT) != 0) sx |= 0x8;
-                    sx *= srcSize;
-                    sy = color * srcSize;
-                    if (bone) sy += 9 * srcSize;
-                }
-            }
+            int sx = getBlockSourceX(color, bone, attr, isSticky, srcSize);
+            int sy = getBlockSourceY(color, bone, isSticky, srcSize);
 
             int imageWidth = img.getWidth(null);
             if ((sx >= imageWidth) && (imageWidth != -1)) sx = 0;
@@ -600,14 +544,7 @@ public class RendererExtension {
 
                 int size = (int) (16 * scale);
 
-                int srcSize;
-                if (scale <= 0.5f) {
-                    srcSize = 8;
-                } else if (scale <= 1.0f) {
-                    srcSize = 16;
-                } else {
-                    srcSize = 32;
-                }
+                int srcSize = getBlockSourceSize(scale);
 
                 SDLSurface img = null;
                 if (scale <= 0.5f)
@@ -617,26 +554,8 @@ public class RendererExtension {
                 else
                     img = ResourceHolderSDL.imgNormalBlockList.get(skin);
 
-                int sx = color * srcSize;
-                if (bone) sx += 9 * srcSize;
-                int sy = 0;
-                if (isSpecialBlocks) sx = ((color - Block.BLOCK_COLOR_COUNT) + 18) * srcSize;
-
-                if (isSticky) {
-                    if (isSpecialBlocks) {
-                        sx = (color - Block.BLOCK_COLOR_COUNT) * srcSize;
-                        sy = 18 * srcSize;
-                    } else {
-                        sx = 0;
-                        if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_UP) != 0) sx |= 0x1;
-                        if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_DOWN) != 0) sx |= 0x2;
-                        if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_LEFT) != 0) sx |= 0x4;
-                        if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_RIGHT) != 0) sx |= 0x8;
-                        sx *= srcSize;
-                        sy = color * srcSize;
-                        if (bone) sy += 9 * srcSize;
-                    }
-                }
+                int sx = getBlockSourceX(color, bone, attr, isSticky, srcSize);
+                int sy = getBlockSourceY(color, bone, isSticky, srcSize);
 
                 int imageWidth = img.getWidth();
                 if ((sx >= imageWidth) && (imageWidth != -1)) sx = 0;
@@ -712,6 +631,156 @@ public class RendererExtension {
         }
     }
 
+    /**
+     * Draws a run of blocks of one skin with no connection attributes.<br />
+     * Entries <code>start</code> to <code>end - 1</code> of each array describe one block each.
+     * On Slick, each block sheet the run uses is bound once and all of its blocks are drawn in one
+     * <code>startUse</code>/<code>endUse</code> pass; lightened blocks get their overlay after the sheets are released.
+     * Other renderers draw each block with <code>drawScaledBlock</code>.
+     *
+     * @param receiver Renderer to draw with
+     * @param start    First entry to draw
+     * @param end      Entry after the last one to draw
+     * @param x        X-coordinates of block top-left corners
+     * @param y        Y-coordinates of block top-left corners
+     * @param color    Block colours (use colours in <code>Block</code> class)
+     * @param bone     Use bone block skin?
+     * @param darkness Darkness values (0f = None, negative = lighter, positive = darker)
+     * @param alpha    Alpha values (transparency; 1f = opaque, 0f = transparent)
+     * @param scale    Scales of drawing
+     * @param skin     Block skin shared by every block in the run
+     */
+    public static void drawScaledBlockBatch(EventReceiver receiver, int start, int end, int[] x, int[] y, int[] color, boolean[] bone, float[] darkness, float[] alpha, float[] scale, int skin) {
+        if (start >= end) return;
+
+        if (AnimatedBackgroundHook.getResourceHook() != AnimatedBackgroundHook.HOLDER_SLICK) {
+            for (int i = start; i < end; i++) {
+                drawScaledBlock(receiver, x[i], y[i], color[i], skin, bone[i], darkness[i], alpha[i], scale[i], 0);
+            }
+            return;
+        }
+
+        Graphics graphics = ResourceHolderCustomAssetExtension.getGraphicsSlick((RendererSlick) receiver);
+        if (graphics == null) return;
+
+        if (skin >= ResourceHolder.imgNormalBlockList.size()) skin = 0;
+        final boolean isSticky = ResourceHolder.blockStickyFlagList.get(skin);
+
+        for (int srcSize = 8; srcSize <= 32; srcSize *= 2) {
+            Image img = null;
+            int imageWidth = 0, imageHeight = 0;
+            Color filter = null;
+            float filterDarkness = 0f, filterAlpha = 0f;
+
+            for (int i = start; i < end; i++) {
+                if (color[i] <= Block.BLOCK_COLOR_INVALID || getBlockSourceSize(scale[i]) != srcSize) continue;
+
+                if (img == null) {
+                    img = getSlickBlockImage(skin, srcSize);
+                    imageWidth = img.getWidth();
+                    imageHeight = img.getHeight();
+                    img.startUse();
+                }
+
+                int sx = getBlockSourceX(color[i], bone[i], 0, isSticky, srcSize);
+                int sy = getBlockSourceY(color[i], bone[i], isSticky, srcSize);
+                if ((sx >= imageWidth) && (imageWidth != -1)) sx = 0;
+                if ((sy >= imageHeight) && (imageHeight != -1)) sy = 0;
+
+                if (filter == null || filterDarkness != darkness[i] || filterAlpha != alpha[i]) {
+                    filterDarkness = darkness[i];
+                    filterAlpha = alpha[i];
+                    filter = new Color(Color.white);
+                    filter.a = filterAlpha;
+                    if (filterDarkness > 0) filter = filter.darker(filterDarkness);
+                }
+
+                final int size = (int) (16 * scale[i]);
+                img.drawEmbedded(x[i], y[i], x[i] + size, y[i] + size, sx, sy, sx + srcSize, sy + srcSize, filter);
+            }
+
+            if (img != null) img.endUse();
+        }
+
+        for (int i = start; i < end; i++) {
+            if (color[i] <= Block.BLOCK_COLOR_INVALID || darkness[i] >= 0) continue;
+
+            final int size = (int) (16 * scale[i]);
+            Color brightfilter = new Color(Color.white);
+            brightfilter.a = -darkness[i];
+            graphics.setColor(brightfilter);
+            graphics.fillRect(x[i], y[i], size, size);
+        }
+
+        ResourceHolderCustomAssetExtension.setGraphicsSlick((RendererSlick) receiver, graphics);
+    }
+
+    /**
+     * Gets the source tile size of the block sheet used at a scale.
+     *
+     * @param scale Scale of drawing
+     * @return 8 for the small sheet, 16 for the normal sheet or 32 for the big sheet
+     */
+    private static int getBlockSourceSize(float scale) {
+        if (scale <= 0.5f) return 8;
+        if (scale <= 1.0f) return 16;
+        return 32;
+    }
+
+    /**
+     * Gets the Slick block sheet of a skin with a given tile size.
+     *
+     * @param skin    Block skin
+     * @param srcSize Source tile size (see <code>getBlockSourceSize</code>)
+     * @return Block sheet image
+     */
+    private static Image getSlickBlockImage(int skin, int srcSize) {
+        if (srcSize == 8) return ResourceHolder.imgSmallBlockList.get(skin);
+        if (srcSize == 32) return ResourceHolder.imgBigBlockList.get(skin);
+        return ResourceHolder.imgNormalBlockList.get(skin);
+    }
+
+    /**
+     * Gets the X-coordinate of a block's tile in its sheet.
+     *
+     * @param color    Block colour
+     * @param bone     Use bone block skin?
+     * @param attr     Block attributes
+     * @param isSticky Is the skin a connected (sticky) skin?
+     * @param srcSize  Source tile size
+     * @return Source X-coordinate, before clamping to the sheet width
+     */
+    private static int getBlockSourceX(int color, boolean bone, int attr, boolean isSticky, int srcSize) {
+        final boolean isSpecialBlocks = (color >= Block.BLOCK_COLOR_COUNT);
+        if (isSticky) {
+            if (isSpecialBlocks) return (color - Block.BLOCK_COLOR_COUNT) * srcSize;
+
+            int sx = 0;
+            if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_UP) != 0) sx |= 0x1;
+            if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_DOWN) != 0) sx |= 0x2;
+            if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_LEFT) != 0) sx |= 0x4;
+            if ((attr & Block.BLOCK_ATTRIBUTE_CONNECT_RIGHT) != 0) sx |= 0x8;
+            return sx * srcSize;
+        }
+
+        if (isSpecialBlocks) return ((color - Block.BLOCK_COLOR_COUNT) + 18) * srcSize;
+        return (bone ? color + 9 : color) * srcSize;
+    }
+
+    /**
+     * Gets the Y-coordinate of a block's tile in its sheet.
+     *
+     * @param color    Block colour
+     * @param bone     Use bone block skin?
+     * @param isSticky Is the skin a connected (sticky) skin?
+     * @param srcSize  Source tile size
+     * @return Source Y-coordinate, before clamping to the sheet height
+     */
+    private static int getBlockSourceY(int color, boolean bone, boolean isSticky, int srcSize) {
+        if (!isSticky) return 0;
+        if (color >= Block.BLOCK_COLOR_COUNT) return 18 * srcSize;
+        return (bone ? color + 9 : color) * srcSize;
+    }
     /**
      * Draws a block that can be scaled to a scale that isn't 0.5f, 1f or 2f.<br />
      * <br />
@@ -33,6 +33,8 @@
 package zeroxfc.nullpo.custom.libs;
 
 import java.awt.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.HashMap;
@@ -162,80 +164,92 @@ public class ResourceHolderCustomAssetExtension {
     }
 
     public static SDLSurface getGraphicsSDL(RendererSDL renderer) {
-        Class<RendererSDL> local = RendererSDL.class;
-        Field localField;
         try {
-            localField = local.getDeclaredField("graphics");
-            localField.setAccessible(true);
-            return (SDLSurface) localField.get(renderer);
-        } catch (Exception e) {
+            return (SDLSurface) GraphicsHandleSDL.GETTER.invoke(renderer);
+        } catch (Throwable e) {
             log.error("Failed to extract graphics from SDL renderer.");
             return null;
         }
     }
 
     public static Graphics2D getGraphicsSwing(RendererSwing renderer) {
-        Class<RendererSwing> local = RendererSwing.class;
-        Field localField;
         try {
-            localField = local.getDeclaredField("graphics");
-            localField.setAccessible(true);
-            return (Graphics2D) localField.get(renderer);
-        } catch (Exception e) {
+            return (Graphics2D) GraphicsHandleSwing.GETTER.invoke(renderer);
+        } catch (Throwable e) {
             log.error("Failed to extract graphics from Swing renderer.");
             return null;
         }
     }
 
     public static Graphics getGraphicsSlick(RendererSlick renderer) {
-        Class<RendererSlick> local = RendererSlick.class;
-        Field localField;
         try {
-            localField = local.getDeclaredField("graphics");
-            localField.setAccessible(true);
-            return (Graphics) localField.get(renderer);
-        } catch (Exception e) {
+            return (Graphics) GraphicsHandleSlick.GETTER.invoke(renderer);
+        } catch (Throwable e) {
             log.error("Failed to extract graphics from Slick renderer.");
             return null;
         }
     }
 
     public static void setGraphicsSDL(RendererSDL renderer, SDLSurface grp) {
-        Class<RendererSDL> local = RendererSDL.class;
-        Field localField;
         try {
-            localField = local.getDeclaredField("graphics");
-            localField.setAccessible(true);
-            localField.set(renderer, grp);
-        } catch (Exception e) {
+            GraphicsHandleSDL.SETTER.invoke(renderer, grp);
+        } catch (Throwable e) {
             log.error("Failed to extract graphics from SDL renderer.");
         }
     }
 
     public static void setGraphicsSwing(RendererSwing renderer, Graphics2D grp) {
-        Class<RendererSwing> local = RendererSwing.class;
-        Field localField;
         try {
-            localField = local.getDeclaredField("graphics");
-            localField.setAccessible(true);
-            localField.set(renderer, grp);
-        } catch (Exception e) {
+            GraphicsHandleSwing.SETTER.invoke(renderer, grp);
+        } catch (Throwable e) {
             log.error("Failed to extract graphics from Swing renderer.");
         }
     }
 
     public static void setGraphicsSlick(RendererSlick renderer, Graphics grp) {
-        Class<RendererSlick> local = RendererSlick.class;
-        Field localField;
         try {
-            localField = local.getDeclaredField("graphics");
+            GraphicsHandleSlick.SETTER.invoke(renderer, grp);
+        } catch (Throwable e) {
+            log.error("Failed to extract graphics from Slick renderer.");
+        }
+    }
+
+    /**
+     * Resolves the private <code>graphics</code> field of a renderer class into a getter and setter handle pair.
+     * Each engine's pair lives in its own holder class so that it is looked up once, on first use,
+     * and never for engines that are not running.
+     *
+     * @param renderer Renderer class to resolve the field on
+     * @param setter   <code>true</code> for the setter handle, <code>false</code> for the getter handle
+     * @return Handle for the field, or <code>null</code> if it could not be resolved.
+     */
+    private static MethodHandle resolveGraphicsHandle(Class<?> renderer, boolean setter) {
+        try {
+            Field localField = renderer.getDeclaredField("graphics");
             localField.setAccessible(true);
-            localField.set(renderer, grp);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return setter ? lookup.unreflectSetter(localField) : lookup.unreflectGetter(localField);
         } catch (Exception e) {
-            log.error("Failed to extract graphics from Slick renderer.");
+            log.error("Failed to resolve graphics field of " + renderer.getSimpleName() + ".");
+            return null;
         }
     }
 
+    private static final class GraphicsHandleSlick {
+        private static final MethodHandle GETTER = resolveGraphicsHandle(RendererSlick.class, false);
+        private static final MethodHandle SETTER = resolveGraphicsHandle(RendererSlick.class, true);
+    }
+
+    private static final class GraphicsHandleSwing {
+        private static final MethodHandle GETTER = resolveGraphicsHandle(RendererSwing.class, false);
+        private static final MethodHandle SETTER = resolveGraphicsHandle(RendererSwing.class, true);
+    }
+
+    private static final class GraphicsHandleSDL {
+        private static final MethodHandle GETTER = resolveGraphicsHandle(RendererSDL.class, false);
+        private static final MethodHandle SETTER = resolveGraphicsHandle(RendererSDL.class, true);
+    }
+
     /**
      * Adds an image to the custom image library
      *
@@ -256,6 +270,69 @@ public class ResourceHolderCustomAssetExtension {
         }
     }
 
+    /**
+     * Decodes an image for the current renderer without adding it to the library.
+     * Use <code>putImageAt</code> to add it afterwards.
+     *
+     * @param filePath Path of image file
+     * @return Decoded image, or <code>null</code> if it could not be loaded.
+     */
+    public Object readImage(String filePath) {
+        try {
+            switch (holderType) {
+                case HOLDER_SLICK:
+                    return ResourceHolder.loadImage(filePath);
+                case HOLDER_SWING:
+                    return ResourceHolderSwing.loadImage(ResourceHolderSwing.getURL(filePath));
+                case HOLDER_SDL:
+                    return ResourceHolderSDL.loadImage(filePath);
+                default:
+                    return null;
+            }
+        } catch (Exception e) {
+            log.error("Unable to read image " + filePath);
+            return null;
+        }
+    }
+
+    /**
+     * Checks if <code>readImage</code> may be called from a thread other than the render thread.
+     * Slick and SDL images belong to the renderer's context, so only Swing images can be decoded elsewhere.
+     *
+     * @return <code>true</code> if images can be decoded off the render thread.
+     */
+    public boolean canReadImagesAsync() {
+        return holderType == HOLDER_SWING;
+    }
+
+    /**
+     * Removes an image from the library and frees any renderer resources it holds.
+     *
+     * @param name Image name
+     */
+    public void removeImage(String name) {
+        try {
+            switch (holderType) {
+                case HOLDER_SLICK:
+                    org.newdawn.slick.Image slickImage = slickImages.remove(name);
+                    if (slickImage != null) slickImage.destroy();
+                    break;
+                case HOLDER_SWING:
+                    java.awt.Image swingImage = swingImages.remove(name);
+                    if (swingImage != null) swingImage.flush();
+                    break;
+                case HOLDER_SDL:
+                    SDLSurface sdlImage = sdlImages.remove(name);
+                    if (sdlImage != null) sdlImage.freeSurface();
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception e) {
+            log.error("Unable to free image " + name);
+        }
+    }
+
     /**
      * Copies an image from the HashMap key to another key.
      *
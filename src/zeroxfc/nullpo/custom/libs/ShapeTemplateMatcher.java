@@ -0,0 +1,332 @@
+/*
+ * This library class was created by 0xFC963F18DC21 / Shots243
+ * It is part of an extension library for the game NullpoMino (copyright 2010)
+ *
+ * Herewith shall the term "Library Creator" be given to 0xFC963F18DC21.
+ * Herewith shall the term "Game Creator" be given to the original creator of NullpoMino.
+ *
+ * THIS LIBRARY AND MODE PACK WAS NOT MADE IN ASSOCIATION WITH THE GAME CREATOR.
+ *
+ * Repository: https://github.com/Shots243/ModePile
+ *
+ * When using this library in a mode / library pack of your own, the following
+ * conditions must be satisfied:
+ *     - This license must remain visible at the top of the document, unmodified.
+ *     - You are allowed to use this library for any modding purpose.
+ *         - If this is the case, the Library Creator must be credited somewhere.
+ *             - Source comments only are fine, but in a README is recommended.
+ *     - Modification of this library is allowed, but only in the condition that a
+ *       pull request is made to merge the changes to the repository.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package zeroxfc.nullpo.custom.libs;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import mu.nu.nullpo.game.component.Block;
+import mu.nu.nullpo.game.component.Field;
+
+/**
+ * ShapeTemplateMatcher
+ * <p>
+ * Finds the shape template that best matches the blocks in a field.
+ * Gives the same results as calling {@link FieldManipulation#fieldCompare(Field, Field)} against every template
+ * and taking the first highest value, but each template is only read once when the matcher is made.
+ * <p>
+ * Templates are stored as bitmasks cropped to their bounding boxes. The live field is cropped to its own
+ * bounding box once per search, then compared against each template on the scaled grid that
+ * <code>fieldCompare</code> uses, one run of identical cells at a time instead of one cell at a time.
+ * Templates that cannot beat the best match so far are skipped or abandoned part-way through.
+ * Large template sets are split across the common fork-join pool.
+ */
+public class ShapeTemplateMatcher {
+    /**
+     * Template count at which searches are split across threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 128;
+    /**
+     * Most templates compared by a single fork-join task.
+     */
+    private static final int TASK_SIZE = 32;
+
+    private final int[] templateWidth, templateHeight;
+    private final long[][] templateBits;
+
+    /**
+     * Compiles a set of template fields.
+     *
+     * @param templates Template fields. Each one should contain at least one block.
+     */
+    public ShapeTemplateMatcher(List<Field> templates) {
+        final int count = templates.size();
+        templateWidth = new int[count];
+        templateHeight = new int[count];
+        templateBits = new long[count][];
+
+        for (int i = 0; i < count; i++) {
+            Field template = templates.get(i);
+            int[][] corners = FieldManipulation.getOpposingCornerCoords(template);
+            templateWidth[i] = corners[1][0] - corners[0][0] + 1;
+            templateHeight[i] = corners[1][1] - corners[0][1] + 1;
+            templateBits[i] = crop(template, corners[0][0], corners[0][1], templateWidth[i], templateHeight[i]);
+        }
+    }
+
+    /**
+     * Compiles a set of shapes given as block colours, indexed [y][x].
+     *
+     * @param shapes Shapes to compile
+     * @return A matcher for the shapes.
+     */
+    public static ShapeTemplateMatcher fromShapes(int[][][] shapes) {
+        Field[] fields = new Field[shapes.length];
+        for (int i = 0; i < shapes.length; i++) {
+            int[][] shape = shapes[i];
+            int dimX = shape[0].length;
+            int dimY = shape.length;
+
+            fields[i] = new Field(dimX, dimY, 0);
+            for (int y = 0; y < dimY; y++) {
+                for (int x = 0; x < dimX; x++) {
+                    fields[i].getBlock(x, y).copy(new Block(shape[y][x], 0));
+                }
+            }
+        }
+        return new ShapeTemplateMatcher(Arrays.asList(fields));
+    }
+
+    private static long[] crop(Field field, int left, int top, int width, int height) {
+        if (width <= 0 || height <= 0) return new long[0];
+
+        long[] bits = new long[((width * height) + 63) >>> 6];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Block blk = field.getBlock(left + x, top + y);
+                if (blk != null && !blk.isEmpty()) {
+                    int i = (y * width) + x;
+                    bits[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        return bits;
+    }
+
+    private static boolean isSet(long[] bits, int width, int x, int y) {
+        int i = (y * width) + x;
+        return ((bits[i >>> 6] >>> i) & 1L) != 0;
+    }
+
+    /**
+     * Splits an axis of the scaled grid into runs where both sides read the same source cell.
+     *
+     * @return Number of runs written.
+     */
+    private static int buildRuns(int sizeA, int sizeB, int[] lengths, int[] indexA, int[] indexB) {
+        final int total = FieldManipulation.lcm(sizeA, sizeB);
+        final int stepA = total / sizeA, stepB = total / sizeB;
+
+        int runs = 0, position = 0, a = 0, b = 0, nextA = stepA, nextB = stepB;
+        while (position < total) {
+            int end = Math.min(nextA, nextB);
+            lengths[runs] = end - position;
+            indexA[runs] = a;
+            indexB[runs] = b;
+            runs++;
+
+            position = end;
+            if (end == nextA) {
+                a++;
+                nextA += stepA;
+            }
+            if (end == nextB) {
+                b++;
+                nextB += stepB;
+            }
+        }
+        return runs;
+    }
+
+    private static double closeness(int sizeA, int sizeB) {
+        double closeness = ((double) sizeA / sizeB);
+        if (closeness > 1) closeness = 1 - (closeness - 1);
+        if (closeness < 0) closeness = 0;
+        return closeness;
+    }
+
+    /**
+     * Gets the number of templates.
+     *
+     * @return Template count
+     */
+    public int size() {
+        return templateBits.length;
+    }
+
+    /**
+     * Finds the template that best matches the blocks in a field.
+     * Ties go to the template with the lowest index.
+     *
+     * @param field Field to match
+     * @return The best match. Its index is 0 with a value of 0 if nothing matches at all.
+     */
+    public Match findBestMatch(Field field) {
+        if (size() == 0) return new Match(-1, 0d);
+
+        final Snapshot snapshot = new Snapshot(field);
+        if (!snapshot.valid) return new Match(0, 0d);
+
+        if (size() >= PARALLEL_THRESHOLD) {
+            return ForkJoinPool.commonPool().invoke(new SearchTask(snapshot, 0, size()));
+        }
+        return search(snapshot, 0, size());
+    }
+
+    /**
+     * Compares a field against a single template.
+     *
+     * @param field Field to match
+     * @param index Template index
+     * @return The same value as {@link FieldManipulation#fieldCompare(Field, Field)}.
+     */
+    public double compare(Field field, int index) {
+        final Snapshot snapshot = new Snapshot(field);
+        if (!snapshot.valid) return 0d;
+        return compare(snapshot, index, Double.NEGATIVE_INFINITY);
+    }
+
+    private Match search(Snapshot snapshot, int from, int to) {
+        int bestIndex = from;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double value = compare(snapshot, i, bestValue);
+            if (value > bestValue) {
+                bestValue = value;
+                bestIndex = i;
+            }
+        }
+        return new Match(bestIndex, Math.max(bestValue, 0d));
+    }
+
+    /**
+     * Scores one template. Returns NEGATIVE_INFINITY as soon as it is clear the template cannot beat
+     * <code>best</code>.
+     */
+    private double compare(Snapshot snapshot, int index, double best) {
+        final int widthB = templateWidth[index], heightB = templateHeight[index];
+        if (widthB <= 0 || heightB <= 0) return 0d;
+
+        final double closeness = (closeness(snapshot.width, widthB) + closeness(snapshot.height, heightB)) / 2;
+        // The best possible score is a perfect match scaled by closeness.
+        if (closeness <= best) return Double.NEGATIVE_INFINITY;
+
+        final int lcmWidth = FieldManipulation.lcm(snapshot.width, widthB);
+        final int lcmHeight = FieldManipulation.lcm(snapshot.height, heightB);
+        final int maxArea = lcmHeight * lcmWidth * 2;
+
+        final int[] colLength = new int[snapshot.width + widthB], colA = new int[colLength.length], colB = new int[colLength.length];
+        final int[] rowLength = new int[snapshot.height + heightB], rowA = new int[rowLength.length], rowB = new int[rowLength.length];
+        final int cols = buildRuns(snapshot.width, widthB, colLength, colA, colB);
+        final int rows = buildRuns(snapshot.height, heightB, rowLength, rowA, rowB);
+
+        final long[] bitsB = templateBits[index];
+        int total = 0, remainingHeight = lcmHeight;
+        for (int r = 0; r < rows; r++) {
+            int rowTotal = 0;
+            for (int c = 0; c < cols; c++) {
+                boolean filledA = isSet(snapshot.bits, snapshot.width, colA[c], rowA[r]);
+                boolean filledB = isSet(bitsB, widthB, colB[c], rowB[r]);
+
+                if (!filledA) {
+                    if (!filledB) rowTotal += 2 * colLength[c];
+                } else {
+                    rowTotal += (filledB ? 2 : -6) * colLength[c];
+                }
+            }
+            total += rowTotal * rowLength[r];
+            remainingHeight -= rowLength[r];
+
+            // Every remaining cell scores at most 2.
+            if ((((double) (total + (2 * lcmWidth * remainingHeight)) / (double) maxArea) * closeness) <= best) {
+                return Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        double res = ((double) total / (double) maxArea) * closeness;
+        if (res < 0) res = 0;
+        return res;
+    }
+
+    /**
+     * Result of a search.
+     */
+    public static final class Match {
+        /**
+         * Index of the best template.
+         */
+        public final int index;
+        /**
+         * Match value of the best template (0 <= value <= 1).
+         */
+        public final double value;
+
+        private Match(int index, double value) {
+            this.index = index;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Live field cropped to its bounding box.
+     */
+    private static final class Snapshot {
+        private final int width, height;
+        private final long[] bits;
+        private final boolean valid;
+
+        private Snapshot(Field field) {
+            int[][] corners = FieldManipulation.getOpposingCornerCoords(field);
+            width = corners[1][0] - corners[0][0] + 1;
+            height = corners[1][1] - corners[0][1] + 1;
+            valid = width > 0 && height > 0;
+            bits = valid ? crop(field, corners[0][0], corners[0][1], width, height) : null;
+        }
+    }
+
+    private final class SearchTask extends RecursiveTask<Match> {
+        private final Snapshot snapshot;
+        private final int from, to;
+
+        private SearchTask(Snapshot snapshot, int from, int to) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Match compute() {
+            if (to - from <= TASK_SIZE) return search(snapshot, from, to);
+
+            int middle = (from + to) >>> 1;
+            SearchTask left = new SearchTask(snapshot, from, middle);
+            left.fork();
+            Match right = new SearchTask(snapshot, middle, to).compute();
+            Match leftResult = left.join();
+
+            // Lower index wins ties, same as a serial search.
+            return (right.value > leftResult.value) ? right : leftResult;
+        }
+    }
+}
@@ -82,7 +82,7 @@ public class SideWaveText {
 
         xOffset = offsetMax * Math.sin(sinPhase);
 
-        position = DoubleVector.add(position, VerticalVelocity);
+        position.addInPlace(VerticalVelocity);
 
         lifeTime++;
     }
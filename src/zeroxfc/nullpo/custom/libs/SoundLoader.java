@@ -32,10 +32,23 @@
  */
 package zeroxfc.nullpo.custom.libs;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
+import javax.sound.sampled.DataLine;
 import mu.nu.nullpo.gui.sdl.ResourceHolderSDL;
 import mu.nu.nullpo.gui.sdl.SoundManagerSDL;
 import mu.nu.nullpo.gui.slick.ResourceHolder;
@@ -64,51 +77,211 @@ public class SoundLoader {
         HOLDER_SWING = 1,
         HOLDER_SDL = 2;
 
+    /**
+     * Sound names in each soundpack, indexed by soundpack ID.
+     */
+    private static final String[][] SOUNDSETS = {
+        { "fireworklaunch", "fireworkexplode" },
+        { "linescanned", "linescannermove" },
+        { "explosion1", "explosion2", "explosion3", "explosion4" },
+        { "bombexplode", "landing", "rise", "bonus", "bigclear", "normalclear", "nolanding", "noclear" },
+        { "horn", "timeincrease", "timereduce" }
+    };
+    /**
+     * Number of threads decoding sound files.
+     */
+    private static final int LOADER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    /**
+     * Background sound decoders. Created on first use.
+     */
+    private static ExecutorService loader;
+    /**
+     * Soundpack loads, by soundpack ID. Reused while the sound manager stays the same.
+     */
+    private static final SoundsetLoad[] soundsetLoads = new SoundsetLoad[SOUNDSETS.length];
+    /**
+     * Skin directory, resolved once.
+     */
+    private static String skinDirectory;
+
+    /**
+     * Loads a soundpack and waits for it to finish. Call from the game thread.
+     *
+     * @param loadType Soundpack ID
+     */
     public static void loadSoundset(int loadType) {
-        switch (loadType) {
-            case LOADTYPE_FIREWORKS:
-                importSound("fireworklaunch");
-                importSound("fireworkexplode");
-                break;
-            case LOADTYPE_SCANNER:
-                importSound("linescanned");
-                importSound("linescannermove");
-                break;
-            case LOADTYPE_MINESWEEPER:
-                importSound("explosion1");
-                importSound("explosion2");
-                importSound("explosion3");
-                importSound("explosion4");
-                break;
-            case LOADTYPE_COLLAPSE:
-                importSound("bombexplode");
-                importSound("landing");
-                importSound("rise");
-                importSound("bonus");
-                importSound("bigclear");
-                importSound("normalclear");
-                importSound("nolanding");
-                importSound("noclear");
-                break;
-            case LOADTYPE_CONSTANTRIS:
-                importSound("horn");
-                importSound("timeincrease");
-                importSound("timereduce");
-                break;
-            default:
-                break;
+        loadSoundsetAsync(loadType).join();
+        pollSoundset(loadType);
+    }
+
+    /**
+     * Starts decoding a soundpack in the background and returns straight away.<br />
+     * Files are read and decoded in parallel into memory owned by this class; the sound manager is not touched.
+     * The decoded sounds are added to the sound manager by {@link #pollSoundset(int)}, which must be called from
+     * the game thread (e.g. every frame of the mode's ready state) until it returns <code>true</code>.<br />
+     * A soundpack that is already loaded (or loading) into the current sound manager is not loaded again.
+     *
+     * @param loadType Soundpack ID
+     * @return Completes when every sound in the pack has been decoded (not yet added).
+     */
+    public static synchronized CompletableFuture<?> loadSoundsetAsync(int loadType) {
+        if (loadType < 0 || loadType >= SOUNDSETS.length) return CompletableFuture.completedFuture(null);
+
+        Object manager = getSoundManager();
+        if (soundsetLoads[loadType] != null && soundsetLoads[loadType].manager == manager) return soundsetLoads[loadType].decoded;
+
+        final int holderType = getSoundManagerType();
+        final String directory = getSkinDirectory() + "/se/zeroxfc/";
+        final String[] names = SOUNDSETS[loadType];
+        final ConcurrentLinkedQueue<DecodedSound> ready = new ConcurrentLinkedQueue<>();
+        CompletableFuture<?>[] decodes = new CompletableFuture<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final String soundName = names[i];
+            decodes[i] = CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    ready.add(decode(holderType, soundName, directory + soundName + ".wav"));
+                }
+            }, getLoader());
         }
+
+        soundsetLoads[loadType] = new SoundsetLoad(manager, CompletableFuture.allOf(decodes), ready, names.length);
+        return soundsetLoads[loadType].decoded;
     }
 
     /**
-     * Private sound import method for use with soundpacks.<br />
-     * <br />
-     * Credit goes to <code>GlitchyPSI</code> for the base of this code snippet.
+     * Adds every sound of a soundpack that has finished decoding to the sound manager, and checks if the whole pack
+     * is in. Must be called from the game thread, as the sound managers are not thread-safe.<br />
+     * Starts loading the pack if it has not been started for the current sound manager.
      *
-     * @param soundName Name of sound in pack
+     * @param loadType Soundpack ID
+     * @return <code>true</code> if every sound in the pack has been added.
+     */
+    public static synchronized boolean pollSoundset(int loadType) {
+        if (loadType < 0 || loadType >= SOUNDSETS.length) return false;
+
+        if (soundsetLoads[loadType] == null || soundsetLoads[loadType].manager != getSoundManager()) loadSoundsetAsync(loadType);
+        SoundsetLoad load = soundsetLoads[loadType];
+
+        DecodedSound sound;
+        while ((sound = load.ready.poll()) != null) {
+            register(sound);
+            load.remaining--;
+        }
+        return load.remaining == 0;
+    }
+
+    /**
+     * Reads and decodes one sound file. Runs on a loader thread, so it must not touch the sound managers.
+     * Sounds that cannot be decoded here are returned without data and loaded by the sound manager instead.
      */
-    private static void importSound(String soundName) {
-        String skindir = null;
+    private static DecodedSound decode(int holderType, String soundName, String filePath) {
+        try {
+            byte[] file = Files.readAllBytes(Paths.get(filePath));
+            switch (holderType) {
+                case HOLDER_SWING:
+                    // Decode to PCM the way WaveEngine does, so only the clip needs opening on the game thread.
+                    AudioInputStream stream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(file));
+                    AudioFormat format = stream.getFormat();
+                    if (format.getEncoding() == AudioFormat.Encoding.ULAW || format.getEncoding() == AudioFormat.Encoding.ALAW) {
+                        stream = AudioSystem.getAudioInputStream(AudioFormat.Encoding.PCM_SIGNED, stream);
+                        format = stream.getFormat();
+                    }
+
+                    ByteArrayOutputStream pcm = new ByteArrayOutputStream(file.length);
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = stream.read(buffer)) > 0) pcm.write(buffer, 0, read);
+                    stream.close();
+                    return new DecodedSound(soundName, filePath, pcm.toByteArray(), format);
+                case HOLDER_SLICK:
+                    // Slick builds its sounds from a stream, so keep the file in memory and skip the disk later.
+                    return new DecodedSound(soundName, filePath, file, null);
+                default:
+                    return new DecodedSound(soundName, filePath, null, null);
+            }
+        } catch (Exception e) {
+            log.warn("Could not decode sound " + filePath + ", leaving it to the sound manager", e);
+            return new DecodedSound(soundName, filePath, null, null);
+        }
+    }
+
+    /**
+     * Adds a decoded sound to the current sound manager. Game thread only.
+     */
+    private static void register(DecodedSound sound) {
+        if (sound.data != null) {
+            try {
+                if (ResourceHolderSwing.soundManager != null && sound.format != null) {
+                    Clip clip = (Clip) AudioSystem.getLine(new DataLine.Info(Clip.class, sound.format, sound.data.length));
+                    clip.open(sound.format, sound.data, 0, sound.data.length);
+
+                    HashMap<String, Clip> clipMap = getClipMap(WaveEngine.class, ResourceHolderSwing.soundManager);
+                    Clip old = clipMap.put(sound.name, clip);
+                    if (old != null) old.close();
+                    return;
+                } else if (ResourceHolder.soundManager != null && sound.format == null) {
+                    // Keyed on the file path, as a Sound loaded from the file would be.
+                    Sound slickSound = new Sound(new ByteArrayInputStream(sound.data), sound.filePath);
+
+                    HashMap<String, Sound> clipMap = getClipMap(SoundManager.class, ResourceHolder.soundManager);
+                    clipMap.put(sound.name, slickSound);
+                    return;
+                }
+            } catch (Exception e) {
+                log.warn("Could not add decoded sound " + sound.name + ", loading it from file", e);
+            }
+        }
+
+        importSound(sound.filePath, sound.name);
+    }
+
+    /**
+     * Gets the sound map of a sound manager.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> HashMap<String, T> getClipMap(Class<?> managerClass, Object manager) throws ReflectiveOperationException {
+        Field localField = managerClass.getDeclaredField("clipMap");
+        localField.setAccessible(true);
+        return (HashMap<String, T>) localField.get(manager);
+    }
+
+    private static ExecutorService getLoader() {
+        if (loader == null) {
+            loader = Executors.newFixedThreadPool(LOADER_THREADS, new ThreadFactory() {
+                private int count = 0;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "SoundLoader-" + (count++));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return loader;
+    }
+
+    private static Object getSoundManager() {
+        if (ResourceHolderSwing.soundManager != null) return ResourceHolderSwing.soundManager;
+        if (ResourceHolder.soundManager != null) return ResourceHolder.soundManager;
+        return ResourceHolderSDL.soundManager;
+    }
+
+    private static int getSoundManagerType() {
+        if (ResourceHolderSwing.soundManager != null) return HOLDER_SWING;
+        if (ResourceHolder.soundManager != null) return HOLDER_SLICK;
+        return HOLDER_SDL;
+    }
+
+    /**
+     * Gets the custom skin directory of the running frontend. Resolved on first use.
+     *
+     * @return Skin directory
+     */
+    private static synchronized String getSkinDirectory() {
+        if (skinDirectory != null) return skinDirectory;
+
         int holderType = -1;
 
         String mainClass = ResourceHolderCustomAssetExtension.getMainClassName();
@@ -119,23 +292,18 @@ public class SoundLoader {
 
         switch (holderType) {
             case HOLDER_SLICK:
-                skindir = mu.nu.nullpo.gui.slick.NullpoMinoSlick.propConfig.getProperty("custom.skin.directory", "res");
+                skinDirectory = mu.nu.nullpo.gui.slick.NullpoMinoSlick.propConfig.getProperty("custom.skin.directory", "res");
                 break;
             case HOLDER_SWING:
-                skindir = mu.nu.nullpo.gui.swing.NullpoMinoSwing.propConfig.getProperty("custom.skin.directory", "res");
+                skinDirectory = mu.nu.nullpo.gui.swing.NullpoMinoSwing.propConfig.getProperty("custom.skin.directory", "res");
                 break;
             case HOLDER_SDL:
-                skindir = mu.nu.nullpo.gui.sdl.NullpoMinoSDL.propConfig.getProperty("custom.skin.directory", "res");
+                skinDirectory = mu.nu.nullpo.gui.sdl.NullpoMinoSDL.propConfig.getProperty("custom.skin.directory", "res");
                 break;
+            default:
+                return null;
         }
-
-        if (ResourceHolderSwing.soundManager != null) {
-            ResourceHolderSwing.soundManager.load(soundName, skindir + "/se/zeroxfc/" + soundName + ".wav");
-        } else if (ResourceHolder.soundManager != null) {
-            ResourceHolder.soundManager.load(soundName, skindir + "/se/zeroxfc/" + soundName + ".wav");
-        } else if (ResourceHolderSDL.soundManager != null) {
-            ResourceHolderSDL.soundManager.load(soundName, skindir + "/se/zeroxfc/" + soundName + ".wav");
-        }
+        return skinDirectory;
     }
 
     /**
@@ -238,4 +406,46 @@ public class SoundLoader {
 
         return soundList;
     }
+
+    /**
+     * A sound decoded on a loader thread, waiting to be added to the sound manager.
+     */
+    private static final class DecodedSound {
+        private final String name, filePath;
+        /**
+         * PCM samples (Swing), whole file (Slick) or <code>null</code> if the sound manager must load the file itself.
+         */
+        private final byte[] data;
+        /**
+         * Sample format of the PCM data (Swing only).
+         */
+        private final AudioFormat format;
+
+        DecodedSound(String name, String filePath, byte[] data, AudioFormat format) {
+            this.name = name;
+            this.filePath = filePath;
+            this.data = data;
+            this.format = format;
+        }
+    }
+
+    /**
+     * One soundpack load into one sound manager.
+     */
+    private static final class SoundsetLoad {
+        private final Object manager;
+        private final CompletableFuture<?> decoded;
+        private final ConcurrentLinkedQueue<DecodedSound> ready;
+        /**
+         * Sounds not yet added to the sound manager. Game thread only.
+         */
+        private int remaining;
+
+        SoundsetLoad(Object manager, CompletableFuture<?> decoded, ConcurrentLinkedQueue<DecodedSound> ready, int remaining) {
+            this.manager = manager;
+            this.decoded = decoded;
+            this.ready = ready;
+            this.remaining = remaining;
+        }
+    }
 }
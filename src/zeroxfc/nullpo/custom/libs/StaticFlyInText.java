@@ -104,7 +104,7 @@ public class StaticFlyInText {
 
             position = new DoubleVector(startX, startY, false);
 
-            letterPositions[i] = position;
+            letterPositions[i] = new DoubleVector(position);
             startLocation[i] = position;
             destinationLocation[i] = new DoubleVector(destinationX + (sMod * i), destinationY, false);
         }
@@ -130,7 +130,7 @@ public class StaticFlyInText {
             for (int i = 0; i < letterPositions.length; i++) {
                 int v1 = (int) (Interpolation.lerp(startLocation[i].getX(), destinationLocation[i].getX(), ((double) (currentLifetime) / flyInTime)));
                 int v2 = (int) (Interpolation.lerp(startLocation[i].getY(), destinationLocation[i].getY(), ((double) (currentLifetime) / flyInTime)));
-                letterPositions[i] = new DoubleVector(v1, v2, false);
+                letterPositions[i].set(v1, v2);
             }
         }
     }
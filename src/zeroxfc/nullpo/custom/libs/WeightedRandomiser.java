@@ -32,36 +32,56 @@
  */
 package zeroxfc.nullpo.custom.libs;
 
+import java.util.Arrays;
 import java.util.Random;
 
+/**
+ * Seeded weighted random number generator.
+ * <p>
+ * Draws are O(1). By default each draw makes exactly the same call to the underlying {@link Random} as a cumulative
+ * weight scan would, and maps it to the same result through a guide table, so existing replays stay valid.
+ * Alias sampling (Walker / Vose) can be chosen instead; it is also exact and seeded, but makes two draws per result
+ * and so gives a different sequence for the same seed.
+ * <p>
+ * Tables are rebuilt lazily on the first draw after the weights change.
+ */
 public class WeightedRandomiser {
     private final Random localRandom;
+    private final boolean aliasSampling;
     private int[] results;
-    private int[] cumulativeWeightList;
+    private int[] weights;
     private int maxWeight;
+    private boolean dirty;
 
-    public WeightedRandomiser(int[] weightArr, long seed) {
-        int numberOfZeroes = 0;
-        for (int i : weightArr) {
-            if (i == 0) numberOfZeroes++;
-        }
-
-        cumulativeWeightList = new int[weightArr.length - numberOfZeroes];
-        results = new int[weightArr.length - numberOfZeroes];
-        maxWeight = 0;
+    /*
+     * Cumulative sampling: running weight totals, and for each of results.length equal slices of [1, maxWeight] the
+     * first index that can hold a value from that slice.
+     */
+    private int[] cumulativeWeightList;
+    private int[] guideTable;
 
-        int ctr = 0;
-        for (int i = 0; i < weightArr.length; i++) {
-            if (weightArr[i] != 0) {
-                maxWeight += weightArr[i];
-                cumulativeWeightList[ctr] = maxWeight;
-                results[ctr] = i;
+    /*
+     * Alias sampling: a column is kept if a draw in [0, maxWeight) falls under its threshold, otherwise its alias is used.
+     */
+    private int[] aliasThresholds;
+    private int[] aliases;
 
-                ctr++;
-            }
-        }
+    public WeightedRandomiser(int[] weightArr, long seed) {
+        this(weightArr, seed, false);
+    }
 
+    /**
+     * Creates a weighted randomiser.
+     *
+     * @param weightArr     Weight of each result. Results with weight 0 are never drawn.
+     * @param seed          Random seed
+     * @param aliasSampling <code>true</code> to use alias sampling. This changes the results drawn for a seed, so
+     *                      only use it in modes without older replays to keep in sync.
+     */
+    public WeightedRandomiser(int[] weightArr, long seed, boolean aliasSampling) {
+        this.aliasSampling = aliasSampling;
         localRandom = new Random(seed);
+        setWeights(weightArr);
     }
 
     public void setWeights(int[] weightArr) {
@@ -70,20 +90,27 @@ public class WeightedRandomiser {
             if (i == 0) numberOfZeroes++;
         }
 
-        cumulativeWeightList = new int[weightArr.length - numberOfZeroes];
-        results = new int[weightArr.length - numberOfZeroes];
-        maxWeight = 0;
+        int[] newResults = new int[weightArr.length - numberOfZeroes];
+        int[] newWeights = new int[newResults.length];
 
         int ctr = 0;
         for (int i = 0; i < weightArr.length; i++) {
             if (weightArr[i] != 0) {
-                maxWeight += weightArr[i];
-                cumulativeWeightList[ctr] = maxWeight;
-                results[ctr] = i;
+                newWeights[ctr] = weightArr[i];
+                newResults[ctr] = i;
 
                 ctr++;
             }
         }
+
+        // Levels often set the same table again.
+        if (Arrays.equals(newResults, results) && Arrays.equals(newWeights, weights)) return;
+
+        results = newResults;
+        weights = newWeights;
+        maxWeight = 0;
+        for (int w : weights) maxWeight += w;
+        dirty = true;
     }
 
     public int getMax() {
@@ -91,15 +118,83 @@ public class WeightedRandomiser {
     }
 
     public int nextInt() {
-        int gVal = localRandom.nextInt(maxWeight) + 1;
-        int result = 0;
-        for (int i = 0; i < cumulativeWeightList.length; i++) {
-            if (cumulativeWeightList[i] >= gVal) {
-                result = i;
-                break;
-            }
+        if (dirty) rebuild();
+
+        if (aliasSampling) {
+            int column = localRandom.nextInt(results.length);
+            return localRandom.nextInt(maxWeight) < aliasThresholds[column] ? results[column] : results[aliases[column]];
         }
 
+        int gVal = localRandom.nextInt(maxWeight) + 1;
+        int result = guideTable[(int) (((long) (gVal - 1) * results.length) / maxWeight)];
+        while (cumulativeWeightList[result] < gVal) result++;
+
         return results[result];
     }
+
+    private void rebuild() {
+        dirty = false;
+        if (aliasSampling) buildAliasTable();
+        else buildGuideTable();
+    }
+
+    private void buildGuideTable() {
+        int n = results.length;
+        cumulativeWeightList = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            total += weights[i];
+            cumulativeWeightList[i] = total;
+        }
+
+        guideTable = new int[n];
+        int index = 0;
+        for (int slice = 0; slice < n; slice++) {
+            // Smallest value that falls in this slice.
+            long first = (((long) slice * maxWeight) + n - 1) / n + 1;
+            while (index < n - 1 && cumulativeWeightList[index] < first) index++;
+            guideTable[slice] = index;
+        }
+    }
+
+    /*
+     * Vose's alias method in integer arithmetic: every weight is scaled by n, so the average column holds exactly
+     * maxWeight and no rounding is involved.
+     */
+    private void buildAliasTable() {
+        int n = results.length;
+        aliasThresholds = new int[n];
+        aliases = new int[n];
+
+        long[] scaled = new long[n];
+        int[] small = new int[n], large = new int[n];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (long) weights[i] * n;
+            if (scaled[i] < maxWeight) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount], l = large[--largeCount];
+            aliasThresholds[s] = (int) scaled[s];
+            aliases[s] = l;
+
+            scaled[l] -= maxWeight - scaled[s];
+            if (scaled[l] < maxWeight) small[smallCount++] = l;
+            else large[largeCount++] = l;
+        }
+
+        // Whatever is left holds exactly maxWeight.
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            aliasThresholds[l] = maxWeight;
+            aliases[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            aliasThresholds[s] = maxWeight;
+            aliases[s] = s;
+        }
+    }
 }
@@ -33,7 +33,9 @@
 package zeroxfc.nullpo.custom.libs.backgroundtypes;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import mu.nu.nullpo.game.play.GameEngine;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 
@@ -48,11 +50,23 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
     private static final float DEF_WAVELENGTH = 80;
     private static final float BASE_SCALE = 1f;
     private static final float SCALE_VARIANCE = 1f;
+    private static final int MAX_CACHED_FIELDS = 16;
 
-    private ImageChunk[][] chunkGrid;
+    private ImageChunkGrid chunks;
     private int pulseTimerMax, currentPulseTimer;
     private ArrayList<Integer> pulseRadii;
-    private ArrayList<int[]> pulseCentres;
+    private ArrayList<DistanceField> pulseCentres;
+    /*
+     * Distance fields by packed pulse centre, least recently used first.
+     */
+    private Map<Long, DistanceField> distanceFields;
+    /*
+     * Chunks that may be away from the base scale. Only these need resetting once they leave a pulse.
+     */
+    private int[] scaledChunks;
+    private boolean[] chunkScaled;
+    private int scaledChunkCount;
+    private float appliedBaseScale;
     private Float pulseBaseScale, pulseScaleVariance;
     private Float wavelength;
     private Integer centreX, centreY;
@@ -62,6 +76,12 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
         ID = AnimatedBackgroundHook.ANIMATION_CIRCULAR_RIPPLE;
         pulseRadii = new ArrayList<>();
         pulseCentres = new ArrayList<>();
+        distanceFields = new LinkedHashMap<Long, DistanceField>(MAX_CACHED_FIELDS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DistanceField> eldest) {
+                return size() > MAX_CACHED_FIELDS;
+            }
+        };
         setImageName("localBG");
     }
 
@@ -107,12 +127,7 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
         currentPulseTimer = pulseTimerMax;
 
         if (pulseBaseScale == null || pulseScaleVariance == null || pulseCentreX == null || pulseCentreY == null || wavelength == null || waveSpeed == null || cellWidth == null || cellHeight == null) {
-            chunkGrid = new ImageChunk[DEF_GRID_HEIGHT][DEF_GRID_WIDTH];
-            for (int y = 0; y < DEF_GRID_HEIGHT; y++) {
-                for (int x = 0; x < DEF_GRID_WIDTH; x++) {
-                    chunkGrid[y][x] = new ImageChunk(ImageChunk.ANCHOR_POINT_MM, new int[] { (DEF_FIELD_DIM * x) + (DEF_FIELD_DIM / 2), (DEF_FIELD_DIM * y) + (DEF_FIELD_DIM / 2) }, new int[] { (DEF_FIELD_DIM * x), (DEF_FIELD_DIM * y) }, new int[] { DEF_FIELD_DIM, DEF_FIELD_DIM }, new float[] { BASE_SCALE, BASE_SCALE });
-                }
-            }
+            chunks = ImageChunkGrid.createCentredGrid(DEF_GRID_WIDTH, DEF_GRID_HEIGHT, DEF_FIELD_DIM, DEF_FIELD_DIM, BASE_SCALE);
         } else {
             if (wavelength <= 0) wavelength = DEF_WAVELENGTH;
             if (waveSpeed <= 0) waveSpeed = DEF_WAVESPEED;
@@ -132,14 +147,42 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
             if (480 % cellHeight != 0) h = 8;
             else h = 480 / cellHeight;
 
-            chunkGrid = new ImageChunk[h][w];
-            for (int y = 0; y < h; y++) {
-                for (int x = 0; x < w; x++) {
-                    chunkGrid[y][x] = new ImageChunk(ImageChunk.ANCHOR_POINT_MM, new int[] { (cellWidth * x) + (cellWidth / 2), (cellHeight * y) + (cellHeight / 2) }, new int[] { (cellWidth * x), (cellHeight * y) }, new int[] { cellWidth, cellHeight }, new float[] { pulseBaseScale, pulseBaseScale });
-                }
-            }
+            chunks = ImageChunkGrid.createCentredGrid(w, h, cellWidth, cellHeight, pulseBaseScale);
         }
 
+        scaledChunks = new int[chunks.size()];
+        chunkScaled = new boolean[chunks.size()];
+        scaledChunkCount = 0;
+        appliedBaseScale = chunks.size() > 0 ? chunks.getScaleX(0) : BASE_SCALE;
+        distanceFields.clear();
+    }
+
+    /**
+     * Gets the distance field for a pulse centre, building it if it is not cached.
+     *
+     * @param cx Pulse centre X
+     * @param cy Pulse centre Y
+     * @return Distance field around the centre
+     */
+    private DistanceField getDistanceField(int cx, int cy) {
+        Long key = ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+        DistanceField field = distanceFields.get(key);
+        if (field == null) {
+            field = new DistanceField(chunks, cx, cy);
+            distanceFields.put(key, field);
+        }
+        return field;
+    }
+
+    /**
+     * Sets a chunk's scale and remembers whether it has to be reset later.
+     */
+    private void setChunkScale(int index, float scale, float baseScale) {
+        chunks.setScale(index, scale, scale);
+        if (scale != baseScale && !chunkScaled[index]) {
+            chunkScaled[index] = true;
+            scaledChunks[scaledChunkCount++] = index;
+        }
     }
 
     @Override
@@ -148,7 +191,7 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
         if (currentPulseTimer >= pulseTimerMax && pulseTimerMax >= 0) {
             currentPulseTimer = 0;
             pulseRadii.add(0);
-            pulseCentres.add(new int[] { (centreX == null) ? DEF_PULSE_CENTRE_X : centreX, (centreY == null) ? DEF_PULSE_CENTRE_Y : centreY });
+            pulseCentres.add(getDistanceField((centreX == null) ? DEF_PULSE_CENTRE_X : centreX, (centreY == null) ? DEF_PULSE_CENTRE_Y : centreY));
         }
 
         int ws;
@@ -159,33 +202,51 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
         float scaleVariance = (pulseScaleVariance == null) ? SCALE_VARIANCE : pulseScaleVariance;
         float wl = (wavelength == null) ? DEF_WAVELENGTH : wavelength;
 
+        if (baseScale != appliedBaseScale) {
+            // Every chunk is still on the old base scale, so all of them need to be reset.
+            for (int i = 0; i < chunks.size(); i++) {
+                if (!chunkScaled[i]) {
+                    chunkScaled[i] = true;
+                    scaledChunks[scaledChunkCount++] = i;
+                }
+            }
+            appliedBaseScale = baseScale;
+        }
+
         if (pulseRadii.size() > 0) {
             for (int i = 0; i < pulseRadii.size(); i++) {
                 pulseRadii.set(i, pulseRadii.get(i) + ws);
-                int cx = pulseCentres.get(i)[0];
-                int cy = pulseCentres.get(i)[1];
+                DistanceField field = pulseCentres.get(i);
 
                 int cr = pulseRadii.get(i);
-                for (ImageChunk[] imageChunks : chunkGrid) {
-                    for (ImageChunk imageChunk : imageChunks) {
-                        int[] anch = imageChunk.getAnchorLocation();
-                        int cellAnchorX = anch[0];
-                        int cellAnchorY = anch[1];
-
-                        double distanceX = Math.abs(cellAnchorX - cx);
-                        double distanceY = Math.abs(cellAnchorY - cy);
-                        double dTotal = Math.sqrt((distanceX * distanceX) + (distanceY * distanceY));
-                        if (almostEqual(dTotal, cr, wl) && dTotal >= 0) {
-                            double usedDistance = dTotal - cr;
-                            double sinVal = Math.sin(Math.PI * (usedDistance / wl));
-                            double newScale = imageChunk.getScale()[0] + (sinVal * scaleVariance);
-                            if (newScale < 1d) newScale = 1d;
-
-                            imageChunk.setScale(new float[] { (float) newScale, (float) newScale });
-                        } else if (pulseRadii.size() <= 1) {
-                            imageChunk.setScale(new float[] { baseScale, baseScale });
+                int start = field.firstAtLeast(cr - wl);
+                for (int j = start; j < field.order.length; j++) {
+                    double dTotal = field.distances[j];
+                    if (dTotal - cr >= wl) break;
+                    if (!almostEqual(dTotal, cr, wl)) continue;
+
+                    int index = field.order[j];
+                    double usedDistance = dTotal - cr;
+                    double sinVal = Math.sin(Math.PI * (usedDistance / wl));
+                    double newScale = chunks.getScaleX(index) + (sinVal * scaleVariance);
+                    if (newScale < 1d) newScale = 1d;
+
+                    setChunkScale(index, (float) newScale, baseScale);
+                }
+
+                if (pulseRadii.size() <= 1) {
+                    // Only one pulse: anything it is not currently touching goes back to the base scale.
+                    int kept = 0;
+                    for (int k = 0; k < scaledChunkCount; k++) {
+                        int index = scaledChunks[k];
+                        if (almostEqual(field.distanceOf(index), cr, wl)) {
+                            scaledChunks[kept++] = index;
+                        } else {
+                            chunks.setScale(index, baseScale, baseScale);
+                            chunkScaled[index] = false;
                         }
                     }
+                    scaledChunkCount = kept;
                 }
             }
         }
@@ -201,7 +262,7 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
 
     public void manualRipple(int x, int y) {
         pulseRadii.add(0);
-        pulseCentres.add(new int[] { x, y });
+        pulseCentres.add(getDistanceField(x, y));
     }
 
     @Override
@@ -214,23 +275,15 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
 
     @Override
     public void draw(GameEngine engine, int playerID) {
-        ArrayList<ImageChunk> priorityList = new ArrayList<>();
-        for (ImageChunk[] imageChunks : chunkGrid) {
-            Collections.addAll(priorityList, imageChunks);
-        }
-        priorityList.sort((c1, c2) -> Float.compare(c1.getScale()[0], c2.getScale()[0]));
+        int[] priorityList = chunks.getDrawOrderByScale(false);
 
         float baseScale = (pulseBaseScale == null) ? BASE_SCALE : pulseBaseScale;
-        if (almostEqual(baseScale, 1, 0.005)) {
-            customHolder.drawImage(engine, imageName, 0, 0);
-            priorityList.removeIf(imageChunk -> almostEqual(imageChunk.getScale()[0], 1, 0.005));
-        }
-        for (ImageChunk i : priorityList) {
-            int[] pos = i.getDrawLocation();
-            int[] ddim = i.getDrawDimensions();
-            int[] sloc = i.getSourceLocation();
-            int[] sdim = i.getSourceDimensions();
-            customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], 255, 255, 255, 255, 0);
+        boolean skipUnscaled = almostEqual(baseScale, 1, 0.005);
+        if (skipUnscaled) customHolder.drawImage(engine, imageName, 0, 0);
+
+        for (int i : priorityList) {
+            if (skipUnscaled && almostEqual(chunks.getScaleX(i), 1, 0.005)) continue;
+            chunks.draw(customHolder, engine, imageName, i, 255, 255, 255, 255);
         }
     }
 
@@ -268,4 +321,63 @@ public class BackgroundCircularRipple extends AnimatedBackgroundHook {
     public int getID() {
         return ID;
     }
+
+    /**
+     * Distances from one pulse centre to every chunk anchor, sorted so that the chunks inside a ring can be found with
+     * a binary search instead of checking the whole grid.
+     */
+    private static final class DistanceField {
+        /**
+         * Chunk indices, nearest first
+         */
+        private final int[] order;
+        /**
+         * Distance of each chunk in <code>order</code>
+         */
+        private final double[] distances;
+        /**
+         * Distance by chunk index
+         */
+        private final double[] byChunk;
+
+        private DistanceField(ImageChunkGrid chunks, int cx, int cy) {
+            byChunk = new double[chunks.size()];
+            for (int i = 0; i < byChunk.length; i++) {
+                double distanceX = Math.abs(chunks.getAnchorX(i) - cx);
+                double distanceY = Math.abs(chunks.getAnchorY(i) - cy);
+                byChunk[i] = Math.sqrt((distanceX * distanceX) + (distanceY * distanceY));
+            }
+
+            Integer[] boxed = new Integer[byChunk.length];
+            for (int i = 0; i < boxed.length; i++) boxed[i] = i;
+            Arrays.sort(boxed, (a, b) -> Double.compare(byChunk[a], byChunk[b]));
+
+            order = new int[byChunk.length];
+            distances = new double[byChunk.length];
+            for (int i = 0; i < boxed.length; i++) {
+                order[i] = boxed[i];
+                distances[i] = byChunk[boxed[i]];
+            }
+        }
+
+        private double distanceOf(int chunk) {
+            return byChunk[chunk];
+        }
+
+        /**
+         * Finds the first position in <code>order</code> whose distance is not below a value.
+         *
+         * @param distance Lower bound
+         * @return Position, or <code>order.length</code> if every chunk is closer
+         */
+        private int firstAtLeast(double distance) {
+            int low = 0, high = distances.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (distances[mid] < distance) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
 }
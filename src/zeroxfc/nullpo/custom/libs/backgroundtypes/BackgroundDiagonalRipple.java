@@ -32,8 +32,6 @@
  */
 package zeroxfc.nullpo.custom.libs.backgroundtypes;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import mu.nu.nullpo.game.play.GameEngine;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 
@@ -45,7 +43,7 @@ public class BackgroundDiagonalRipple extends AnimatedBackgroundHook {
     private static final float BASE_SCALE = 1f;
     private static final float SCALE_VARIANCE = 1f;
 
-    private ImageChunk[][] chunkGrid;
+    private ImageChunkGrid chunks;
     private boolean reverse;
     private boolean reverseSlant;
     private int pulsePhaseMax, currentPulsePhase;
@@ -98,12 +96,7 @@ public class BackgroundDiagonalRipple extends AnimatedBackgroundHook {
         currentPulsePhase = pulsePhaseMax;
 
         if (pulseBaseScale == null || pulseScaleVariance == null || cellWidth == null || cellHeight == null) {
-            chunkGrid = new ImageChunk[DEF_GRID_HEIGHT][DEF_GRID_WIDTH];
-            for (int y = 0; y < DEF_GRID_HEIGHT; y++) {
-                for (int x = 0; x < DEF_GRID_WIDTH; x++) {
-                    chunkGrid[y][x] = new ImageChunk(ImageChunk.ANCHOR_POINT_MM, new int[] { (DEF_FIELD_DIM * x) + (DEF_FIELD_DIM / 2), (DEF_FIELD_DIM * y) + (DEF_FIELD_DIM / 2) }, new int[] { (DEF_FIELD_DIM * x), (DEF_FIELD_DIM * y) }, new int[] { DEF_FIELD_DIM, DEF_FIELD_DIM }, new float[] { BASE_SCALE, BASE_SCALE });
-                }
-            }
+            chunks = ImageChunkGrid.createCentredGrid(DEF_GRID_WIDTH, DEF_GRID_HEIGHT, DEF_FIELD_DIM, DEF_FIELD_DIM, BASE_SCALE);
         } else {
             this.pulseBaseScale = pulseBaseScale;
             this.pulseScaleVariance = pulseScaleVariance;
@@ -116,12 +109,7 @@ public class BackgroundDiagonalRipple extends AnimatedBackgroundHook {
             if (480 % cellHeight != 0) h = 8;
             else h = 480 / cellHeight;
 
-            chunkGrid = new ImageChunk[h][w];
-            for (int y = 0; y < h; y++) {
-                for (int x = 0; x < w; x++) {
-                    chunkGrid[y][x] = new ImageChunk(ImageChunk.ANCHOR_POINT_MM, new int[] { (cellWidth * x) + (cellWidth / 2), (cellHeight * y) + (cellHeight / 2) }, new int[] { (cellWidth * x), (cellHeight * y) }, new int[] { cellWidth, cellHeight }, new float[] { pulseBaseScale, pulseBaseScale });
-                }
-            }
+            chunks = ImageChunkGrid.createCentredGrid(w, h, cellWidth, cellHeight, pulseBaseScale);
         }
 
     }
@@ -130,8 +118,8 @@ public class BackgroundDiagonalRipple extends AnimatedBackgroundHook {
     public void update() {
         currentPulsePhase = (currentPulsePhase + 1) % pulsePhaseMax;
 
-        for (int y = 0; y < chunkGrid.length; y++) {
-            for (int x = 0; x < chunkGrid[y].length; x++) {
+        for (int y = 0; y < chunks.getRows(); y++) {
+            for (int x = 0; x < chunks.getColumns(); x++) {
                 int j = currentPulsePhase;
                 if (reverse) j = pulsePhaseMax - currentPulsePhase - 1;
 
@@ -150,7 +138,7 @@ public class BackgroundDiagonalRipple extends AnimatedBackgroundHook {
                 double newScale = baseScale + (Math.sin(TWO_PI * ((double) ppu / pulsePhaseMax)) * scaleVariance);
                 if (newScale < 1d) newScale = 1d;
 
-                chunkGrid[y][x].setScale(new float[] { (float) newScale, (float) newScale });
+                chunks.setScale(chunks.indexOf(x, y), (float) newScale, (float) newScale);
             }
         }
     }
@@ -163,23 +151,15 @@ public class BackgroundDiagonalRipple extends AnimatedBackgroundHook {
 
     @Override
     public void draw(GameEngine engine, int playerID) {
-        ArrayList<ImageChunk> priorityList = new ArrayList<>();
-        for (ImageChunk[] imageChunks : chunkGrid) {
-            Collections.addAll(priorityList, imageChunks);
-        }
-        priorityList.sort((c1, c2) -> Float.compare(c1.getScale()[0], c2.getScale()[0]));
+        int[] priorityList = chunks.getDrawOrderByScale(false);
 
         float baseScale = (pulseBaseScale == null) ? BASE_SCALE : pulseBaseScale;
-        if (almostEqual(baseScale, 1, 0.005)) {
-            customHolder.drawImage(engine, imageName, 0, 0);
-            priorityList.removeIf(imageChunk -> almostEqual(imageChunk.getScale()[0], 1, 0.005));
-        }
-        for (ImageChunk i : priorityList) {
-            int[] pos = i.getDrawLocation();
-            int[] ddim = i.getDrawDimensions();
-            int[] sloc = i.getSourceLocation();
-            int[] sdim = i.getSourceDimensions();
-            customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], 255, 255, 255, 255, 0);
+        boolean skipUnscaled = almostEqual(baseScale, 1, 0.005);
+        if (skipUnscaled) customHolder.drawImage(engine, imageName, 0, 0);
+
+        for (int i : priorityList) {
+            if (skipUnscaled && almostEqual(chunks.getScaleX(i), 1, 0.005)) continue;
+            chunks.draw(customHolder, engine, imageName, i, 255, 255, 255, 255);
         }
     }
 
@@ -11,7 +11,7 @@ public class BackgroundFakeScanlines extends AnimatedBackgroundHook {
 
     // private ResourceHolderCustomAssetExtension customHolder;
     private Random colourRandom;
-    private ImageChunk[] chunks;
+    private ImageChunkGrid chunks;
     private int phase;
 
     {
@@ -67,9 +67,9 @@ public class BackgroundFakeScanlines extends AnimatedBackgroundHook {
         colourRandom = new Random();
 
         // Generate chunks
-        chunks = new ImageChunk[AMT];
-        for (int i = 0; i < chunks.length; i++) {
-            chunks[i] = new ImageChunk(ImageChunk.ANCHOR_POINT_TL, new int[] { 0, ((480 / AMT) * i) + ((480 / AMT) / 2) }, new int[] { 0, (480 / AMT) * i }, new int[] { 640, (480 / AMT) }, new float[] { 1f, 1f });
+        chunks = new ImageChunkGrid(AMT);
+        for (int i = 0; i < AMT; i++) {
+            chunks.add(ImageChunk.ANCHOR_POINT_TL, 0, ((480 / AMT) * i) + ((480 / AMT) / 2), 0, (480 / AMT) * i, 640, (480 / AMT), 1f, 1f);
         }
 
         phase = 0;
@@ -78,9 +78,9 @@ public class BackgroundFakeScanlines extends AnimatedBackgroundHook {
     @Override
     public void update() {
         if (colourRandom == null) return;
-        for (ImageChunk chunk : chunks) {
+        for (int i = 0; i < chunks.size(); i++) {
             float newScale = (float) (0.01f * colourRandom.nextDouble()) + 0.995f;
-            chunk.setScale(new float[] { newScale, 1f });
+            chunks.setScale(i, newScale, 1f);
         }
 
         phase = (phase + 1) % PERIOD;
@@ -94,7 +94,7 @@ public class BackgroundFakeScanlines extends AnimatedBackgroundHook {
 
     @Override
     public void draw(GameEngine engine, int playerID) {
-        for (int id = 0; id < chunks.length; id++) {
+        for (int id = 0; id < chunks.size(); id++) {
             float col = 1f - BASE_LUMINANCE_OFFSET;
             if ((id & 2) == 0) col -= BASE_LUMINANCE_OFFSET;
 
@@ -106,11 +106,7 @@ public class BackgroundFakeScanlines extends AnimatedBackgroundHook {
             col -= (0.025 * colourRandom.nextDouble());
             int colour = (int) (255 * col);
 
-            int[] pos = chunks[id].getDrawLocation();
-            int[] ddim = chunks[id].getDrawDimensions();
-            int[] sloc = chunks[id].getSourceLocation();
-            int[] sdim = chunks[id].getSourceDimensions();
-            customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], colour, colour, colour, 255, 0);
+            chunks.draw(customHolder, engine, imageName, id, colour, colour, colour, 255);
         }
     }
 
@@ -41,7 +41,7 @@ public class BackgroundFrameAnim extends AnimatedBackgroundHook {
     public static final int SEQUENCE_GRID_HFTV = 2;
     public static final int SEQUENCE_GRID_VFTH = 3;
     private final int type;
-    private ImageChunk[] chunkSequence;
+    private ImageChunkGrid chunkSequence;
     // private ResourceHolderCustomAssetExtension customHolder;
     private int frameTime;
     private int currentTick;
@@ -77,9 +77,9 @@ public class BackgroundFrameAnim extends AnimatedBackgroundHook {
                 int[] hDim = customHolder.getImageDimensions(imageName);
                 int hAmount = hDim[0] / 640;
 
-                chunkSequence = new ImageChunk[hAmount];
+                chunkSequence = new ImageChunkGrid(hAmount);
                 for (int i = 0; i < hAmount; i++) {
-                    chunkSequence[i] = new ImageChunk(ImageChunk.ANCHOR_POINT_TL, new int[] { 0, 0 }, new int[] { i * 640, 0 }, new int[] { 640, 480 }, new float[] { 1f, 1f });
+                    chunkSequence.add(ImageChunk.ANCHOR_POINT_TL, 0, 0, i * 640, 0, 640, 480, 1f, 1f);
                 }
 
                 frameCount = hAmount;
@@ -88,9 +88,9 @@ public class BackgroundFrameAnim extends AnimatedBackgroundHook {
                 int[] vDim = customHolder.getImageDimensions(imageName);
                 int vAmount = vDim[1] / 480;
 
-                chunkSequence = new ImageChunk[vAmount];
+                chunkSequence = new ImageChunkGrid(vAmount);
                 for (int i = 0; i < vAmount; i++) {
-                    chunkSequence[i] = new ImageChunk(ImageChunk.ANCHOR_POINT_TL, new int[] { 0, 0 }, new int[] { 0, i * 480 }, new int[] { 640, 480 }, new float[] { 1f, 1f });
+                    chunkSequence.add(ImageChunk.ANCHOR_POINT_TL, 0, 0, 0, i * 480, 640, 480, 1f, 1f);
                 }
 
                 frameCount = vAmount;
@@ -100,11 +100,10 @@ public class BackgroundFrameAnim extends AnimatedBackgroundHook {
                 int hCells1 = gDim1[0] / 640;
                 int vCells1 = gDim1[1] / 480;
 
-                chunkSequence = new ImageChunk[vCells1 * hCells1];
+                chunkSequence = new ImageChunkGrid(vCells1 * hCells1);
                 for (int y = 0; y < vCells1; y++) {
                     for (int x = 0; x < hCells1; x++) {
-                        int chunk = (y * vCells1) + hCells1;
-                        chunkSequence[chunk] = new ImageChunk(ImageChunk.ANCHOR_POINT_TL, new int[] { 0, 0 }, new int[] { 640 * x, 480 * x }, new int[] { 640, 480 }, new float[] { 1f, 1f });
+                        chunkSequence.add(ImageChunk.ANCHOR_POINT_TL, 0, 0, 640 * x, 480 * y, 640, 480, 1f, 1f);
                     }
                 }
 
@@ -115,11 +114,10 @@ public class BackgroundFrameAnim extends AnimatedBackgroundHook {
                 int hCells2 = gDim2[0] / 640;
                 int vCells2 = gDim2[1] / 480;
 
-                chunkSequence = new ImageChunk[vCells2 * hCells2];
+                chunkSequence = new ImageChunkGrid(vCells2 * hCells2);
                 for (int x = 0; x < hCells2; x++) {
                     for (int y = 0; y < vCells2; y++) {
-                        int chunk = (y * hCells2) + vCells2;
-                        chunkSequence[chunk] = new ImageChunk(ImageChunk.ANCHOR_POINT_TL, new int[] { 0, 0 }, new int[] { 640 * x, 480 * x }, new int[] { 640, 480 }, new float[] { 1f, 1f });
+                        chunkSequence.add(ImageChunk.ANCHOR_POINT_TL, 0, 0, 640 * x, 480 * y, 640, 480, 1f, 1f);
                     }
                 }
 
@@ -172,12 +170,7 @@ public class BackgroundFrameAnim extends AnimatedBackgroundHook {
 
     @Override
     public void draw(GameEngine engine, int playerID) {
-        ImageChunk i = chunkSequence[currentFrame];
-        int[] pos = i.getDrawLocation();
-        int[] ddim = i.getDrawDimensions();
-        int[] sloc = i.getSourceLocation();
-        int[] sdim = i.getSourceDimensions();
-        customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], 255, 255, 255, 255, 0);
+        chunkSequence.draw(customHolder, engine, imageName, currentFrame, 255, 255, 255, 255);
     }
 
     @Override
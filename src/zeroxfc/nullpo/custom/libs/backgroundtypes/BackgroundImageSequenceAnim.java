@@ -1,9 +1,32 @@
 package zeroxfc.nullpo.custom.libs.backgroundtypes;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import mu.nu.nullpo.game.play.GameEngine;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 
 public class BackgroundImageSequenceAnim extends AnimatedBackgroundHook {
+    /**
+     * Number of update ticks of playback to keep decoded ahead of the current frame while streaming.
+     */
+    private static final int PREFETCH_TICKS = 30;
+    /**
+     * Smallest frame cache allowed while streaming: the current frame, one prefetched frame and one spare.
+     */
+    private static final int MIN_CACHE_FRAMES = 3;
+    /**
+     * Decoder thread shared by every streaming background. It is a daemon so it never keeps the game open.
+     */
+    private static final ExecutorService DECODER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ImageSequenceDecoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final int frameTime;
     private final int frameCount;
     private final boolean pingPong;
@@ -11,6 +34,19 @@ public class BackgroundImageSequenceAnim extends AnimatedBackgroundHook {
     private int currentFrame;
     private boolean forward;
 
+    /*
+     * Streaming state. Unused when every frame is preloaded.
+     */
+    private final boolean streaming;
+    private String[] filePaths;
+    private int prefetchDepth;
+    private int[] slotFrame, frameSlot;
+    private long[] slotLastUse;
+    private long useCounter;
+    private int lastDrawnSlot;
+    private Map<Integer, Object> decodedFrames;
+    private Set<Integer> pendingFrames;
+
     {
         ID = AnimatedBackgroundHook.ANIMATION_IMAGE_SEQUENCE_ANIM;
     }
@@ -29,12 +65,55 @@ public class BackgroundImageSequenceAnim extends AnimatedBackgroundHook {
         this.frameTime = frameTime;
         this.pingPong = pingPong;
         this.frameCount = filePaths.length;
+        this.streaming = false;
 
         setup();
 
         log.debug("Sequence frame animation background created (Frames: " + filePaths.length + ").");
     }
 
+    /**
+     * Creates a streaming image sequence background.<br />
+     * No frames are loaded up front. Frames are decoded shortly before they are shown and kept in a cache of
+     * <code>cacheFrames</code> images, dropping the least recently shown one when full.
+     * How far ahead frames are decoded depends on <code>frameTime</code>, so that roughly half a second of playback
+     * is always ready.<br />
+     * On Swing, decoding happens on a background thread. Slick and SDL images must be created on the render thread,
+     * so on those renderers at most one frame is decoded per update.
+     *
+     * @param filePaths   Paths of every frame, in order
+     * @param frameTime   Update ticks each frame is shown for
+     * @param pingPong    Play forwards then backwards instead of looping
+     * @param cacheFrames Maximum number of decoded frames kept at once
+     */
+    public BackgroundImageSequenceAnim(String[] filePaths, int frameTime, boolean pingPong, int cacheFrames) {
+        customHolder = new ResourceHolderCustomAssetExtension();
+
+        this.frameTime = frameTime;
+        this.pingPong = pingPong;
+        this.frameCount = filePaths.length;
+        this.streaming = true;
+        this.filePaths = filePaths.clone();
+
+        int cacheSize = Math.min(Math.max(cacheFrames, MIN_CACHE_FRAMES), Math.max(frameCount, 1));
+        int ticksPerFrame = Math.max(frameTime, 1);
+        prefetchDepth = (PREFETCH_TICKS + ticksPerFrame - 1) / ticksPerFrame;
+        prefetchDepth = Math.max(1, Math.min(prefetchDepth, cacheSize - 2));
+
+        slotFrame = new int[cacheSize];
+        slotLastUse = new long[cacheSize];
+        frameSlot = new int[frameCount];
+        Arrays.fill(slotFrame, -1);
+        Arrays.fill(frameSlot, -1);
+        lastDrawnSlot = -1;
+        decodedFrames = new ConcurrentHashMap<>();
+        pendingFrames = ConcurrentHashMap.newKeySet();
+
+        setup();
+
+        log.debug("Streaming sequence frame animation background created (Frames: " + filePaths.length + ", Cache: " + cacheSize + ", Prefetch: " + prefetchDepth + ").");
+    }
+
     private void setup() {
         forward = true;
         currentFrame = 0;
@@ -66,6 +145,116 @@ public class BackgroundImageSequenceAnim extends AnimatedBackgroundHook {
                 currentFrame = (currentFrame + 1) % frameCount;
             }
         }
+
+        if (streaming && frameCount > 0) prefetch();
+    }
+
+    /**
+     * Moves finished background decodes into the cache and requests the frames that will be shown next.
+     */
+    private void prefetch() {
+        if (!decodedFrames.isEmpty()) {
+            for (Integer frame : decodedFrames.keySet()) {
+                Object image = decodedFrames.remove(frame);
+                pendingFrames.remove(frame);
+                if (image != null && frameSlot[frame] == -1 && isUpcoming(frame)) storeFrame(frame, image);
+            }
+        }
+
+        boolean async = customHolder.canReadImagesAsync();
+        int frame = currentFrame;
+        boolean dir = forward;
+        for (int i = 0; i <= prefetchDepth; i++) {
+            if (frameSlot[frame] != -1) {
+                slotLastUse[frameSlot[frame]] = useCounter;
+            } else if (async) {
+                requestDecode(frame);
+            } else {
+                // Render-thread decoding: spread the cost out to one frame per update.
+                storeFrame(frame, customHolder.readImage(filePaths[frame]));
+                break;
+            }
+
+            if (frameCount <= 1) break;
+            if (pingPong) {
+                int next = dir ? frame + 1 : frame - 1;
+                if (next >= frameCount) {
+                    next = frame - 1;
+                    dir = false;
+                } else if (next < 0) {
+                    next = frame + 1;
+                    dir = true;
+                }
+                frame = next;
+            } else {
+                frame = (frame + 1) % frameCount;
+            }
+        }
+    }
+
+    private void requestDecode(int frame) {
+        if (!pendingFrames.add(frame)) return;
+
+        final String path = filePaths[frame];
+        final ResourceHolderCustomAssetExtension holder = customHolder;
+        DECODER.execute(() -> {
+            Object image = holder.readImage(path);
+            if (image != null) decodedFrames.put(frame, image);
+            else pendingFrames.remove(frame);
+        });
+    }
+
+    /**
+     * Checks if a frame is within the prefetch window of the current frame.
+     */
+    private boolean isUpcoming(int frame) {
+        int distance;
+        if (pingPong) {
+            distance = Math.abs(frame - currentFrame);
+        } else {
+            distance = (frame - currentFrame + frameCount) % frameCount;
+        }
+        return distance <= prefetchDepth;
+    }
+
+    /**
+     * Puts a decoded frame into the cache, evicting the least recently used frame if it is full.
+     *
+     * @param frame Frame number
+     * @param image Decoded image
+     * @return Cache slot used, or -1 if the image was <code>null</code>.
+     */
+    private int storeFrame(int frame, Object image) {
+        if (image == null) return -1;
+
+        int slot = 0;
+        for (int i = 0; i < slotFrame.length; i++) {
+            if (slotFrame[i] == -1) {
+                slot = i;
+                break;
+            }
+            if (slotLastUse[i] < slotLastUse[slot]) slot = i;
+        }
+
+        if (slotFrame[slot] != -1) {
+            frameSlot[slotFrame[slot]] = -1;
+            customHolder.removeImage(slotName(slot));
+            if (lastDrawnSlot == slot) lastDrawnSlot = -1;
+        }
+
+        customHolder.putImageAt(image, slotName(slot));
+        slotFrame[slot] = frame;
+        frameSlot[frame] = slot;
+        slotLastUse[slot] = useCounter;
+
+        int[] dim = customHolder.getImageDimensions(slotName(slot));
+        if (dim[0] != 640 || dim[1] != 480)
+            log.warn("Image at " + filePaths[frame] + " is not 640x480. It may not render correctly.");
+        return slot;
+    }
+
+    private static String slotName(int slot) {
+        return "streamFrame" + slot;
     }
 
     /**
@@ -84,8 +273,28 @@ public class BackgroundImageSequenceAnim extends AnimatedBackgroundHook {
      */
     @Override
     public void draw(GameEngine engine, int playerID) {
-        String i = "frame" + currentFrame;
-        customHolder.drawImage(engine, i, 0, 0, 640, 480, 0, 0, 640, 480, 255, 255, 255, 255, 0);
+        if (!streaming) {
+            String i = "frame" + currentFrame;
+            customHolder.drawImage(engine, i, 0, 0, 640, 480, 0, 0, 640, 480, 255, 255, 255, 255, 0);
+            return;
+        }
+
+        if (frameCount <= 0) return;
+        useCounter++;
+        int slot = frameSlot[currentFrame];
+        if (slot == -1) {
+            if (lastDrawnSlot != -1 && pendingFrames.contains(currentFrame)) {
+                // Still decoding in the background; hold the previous frame rather than stall.
+                slot = lastDrawnSlot;
+            } else {
+                slot = storeFrame(currentFrame, customHolder.readImage(filePaths[currentFrame]));
+                if (slot == -1) return;
+            }
+        }
+
+        slotLastUse[slot] = useCounter;
+        lastDrawnSlot = slot;
+        customHolder.drawImage(engine, slotName(slot), 0, 0, 640, 480, 0, 0, 640, 480, 255, 255, 255, 255, 0);
     }
 
     /**
@@ -12,7 +12,7 @@ public class BackgroundInterlaceHorizontal extends AnimatedBackgroundHook {
     private static final float BASE_SCALE = 1f;
     private static final float SCALE_VARIANCE = 0.1f;
 
-    private ImageChunk[] chunks;
+    private ImageChunkGrid chunks;
     private int pulseTimer, pulseTimerMax, rowHeight;
     private float baseScale, scaleVariance;
     private boolean leftOdd, reverse;
@@ -48,7 +48,7 @@ public class BackgroundInterlaceHorizontal extends AnimatedBackgroundHook {
         if (leftOdd == null) leftOdd = LEFT_ODD_DEFAULT;
         if (reverse == null) reverse = false;
 
-        this.chunks = new ImageChunk[SCREEN_HEIGHT / rowHeight];
+        this.chunks = new ImageChunkGrid(SCREEN_HEIGHT / rowHeight);
         this.leftOdd = !leftOdd;
         this.pulseTimerMax = pulseTimerFrames;
         this.baseScale = pulseBaseScale;
@@ -57,12 +57,10 @@ public class BackgroundInterlaceHorizontal extends AnimatedBackgroundHook {
         this.reverse = reverse;
         this.rowHeight = rowHeight;
 
-        for (int i = 0; i < chunks.length; i++) {
+        for (int i = 0; i < SCREEN_HEIGHT / rowHeight; i++) {
             final boolean left = leftOdd && (i % 2 == 1);
             final int anchorType = left ? ImageChunk.ANCHOR_POINT_TR : ImageChunk.ANCHOR_POINT_TL;
-            final int[] anchorLocation = new int[] { left ? SCREEN_WIDTH : 0, i * rowHeight };
-            final int[] srcLocation = new int[] { 0, i * rowHeight };
-            chunks[i] = new ImageChunk(anchorType, anchorLocation, srcLocation, new int[] { 640, rowHeight }, new float[] { baseScale, 1f });
+            chunks.add(anchorType, left ? SCREEN_WIDTH : 0, i * rowHeight, 0, i * rowHeight, 640, rowHeight, baseScale, 1f);
         }
     }
 
@@ -76,15 +74,15 @@ public class BackgroundInterlaceHorizontal extends AnimatedBackgroundHook {
             pulseTimer = 0;
         }
 
-        for (int i = 0; i < chunks.length; i++) {
+        for (int i = 0; i < chunks.size(); i++) {
             int j = i;
-            if (reverse) j = chunks.length - 1 - i;
+            if (reverse) j = chunks.size() - 1 - i;
 
             int ppu = (pulseTimer + i) % pulseTimerMax;
             double s = Math.sin(Math.PI * ((double) ppu / pulseTimerMax));
             double scale = baseScale + (scaleVariance * s);
             if (scale < 1d) scale = 1d;
-            chunks[j].setScale(new float[] { (float) scale, 1f });
+            chunks.setScale(j, (float) scale, 1f);
         }
     }
 
@@ -114,12 +112,8 @@ public class BackgroundInterlaceHorizontal extends AnimatedBackgroundHook {
      */
     @Override
     public void draw(GameEngine engine, int playerID) {
-        for (ImageChunk i : chunks) {
-            int[] pos = i.getDrawLocation();
-            int[] ddim = i.getDrawDimensions();
-            int[] sloc = i.getSourceLocation();
-            int[] sdim = i.getSourceDimensions();
-            customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], 255, 255, 255, 255, 0);
+        for (int i = 0; i < chunks.size(); i++) {
+            chunks.draw(customHolder, engine, imageName, i, 255, 255, 255, 255);
         }
     }
 
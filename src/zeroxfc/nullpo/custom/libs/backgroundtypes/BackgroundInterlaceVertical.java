@@ -12,7 +12,7 @@ public class BackgroundInterlaceVertical extends AnimatedBackgroundHook {
     private static final float BASE_SCALE = 1f;
     private static final float SCALE_VARIANCE = 0.1f;
 
-    private ImageChunk[] chunks;
+    private ImageChunkGrid chunks;
     private int pulseTimer, pulseTimerMax, columnWidth;
     private float baseScale, scaleVariance;
     private boolean upOdd, reverse;
@@ -48,7 +48,7 @@ public class BackgroundInterlaceVertical extends AnimatedBackgroundHook {
         if (upOdd == null) upOdd = UP_ODD_DEFAULT;
         if (reverse == null) reverse = false;
 
-        this.chunks = new ImageChunk[SCREEN_WIDTH / columnWidth];
+        this.chunks = new ImageChunkGrid(SCREEN_WIDTH / columnWidth);
         this.upOdd = !upOdd;
         this.pulseTimerMax = pulseTimerFrames;
         this.baseScale = pulseBaseScale;
@@ -57,12 +57,10 @@ public class BackgroundInterlaceVertical extends AnimatedBackgroundHook {
         this.reverse = reverse;
         this.columnWidth = columnWidth;
 
-        for (int i = 0; i < chunks.length; i++) {
+        for (int i = 0; i < SCREEN_WIDTH / columnWidth; i++) {
             final boolean up = upOdd && (i % 2 == 1);
             final int anchorType = up ? ImageChunk.ANCHOR_POINT_LL : ImageChunk.ANCHOR_POINT_TL;
-            final int[] anchorLocation = new int[] { i * columnWidth, up ? SCREEN_HEIGHT : 0 };
-            final int[] srcLocation = new int[] { i * columnWidth, 0 };
-            chunks[i] = new ImageChunk(anchorType, anchorLocation, srcLocation, new int[] { columnWidth, 480 }, new float[] { 1f, baseScale });
+            chunks.add(anchorType, i * columnWidth, up ? SCREEN_HEIGHT : 0, i * columnWidth, 0, columnWidth, 480, 1f, baseScale);
         }
     }
 
@@ -76,15 +74,15 @@ public class BackgroundInterlaceVertical extends AnimatedBackgroundHook {
             pulseTimer = 0;
         }
 
-        for (int i = 0; i < chunks.length; i++) {
+        for (int i = 0; i < chunks.size(); i++) {
             int j = i;
-            if (reverse) j = chunks.length - 1 - i;
+            if (reverse) j = chunks.size() - 1 - i;
 
             int ppu = (pulseTimer + i) % pulseTimerMax;
             double s = Math.sin(Math.PI * ((double) ppu / pulseTimerMax));
             double scale = baseScale + (scaleVariance * s);
             if (scale < 1d) scale = 1d;
-            chunks[j].setScale(new float[] { 1f, (float) scale });
+            chunks.setScale(j, 1f, (float) scale);
         }
     }
 
@@ -114,12 +112,8 @@ public class BackgroundInterlaceVertical extends AnimatedBackgroundHook {
      */
     @Override
     public void draw(GameEngine engine, int playerID) {
-        for (ImageChunk i : chunks) {
-            int[] pos = i.getDrawLocation();
-            int[] ddim = i.getDrawDimensions();
-            int[] sloc = i.getSourceLocation();
-            int[] sdim = i.getSourceDimensions();
-            customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], 255, 255, 255, 255, 0);
+        for (int i = 0; i < chunks.size(); i++) {
+            chunks.draw(customHolder, engine, imageName, i, 255, 255, 255, 255);
         }
     }
 
@@ -43,7 +43,7 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
     private static final int DIRECTION_LEFT = 0;
     private static final int DIRECTIONS = 2;
 
-    private ImageChunk[][] gridChunks;
+    private ImageChunkGrid gridChunks;
     private int[][] colours;
     private Integer skin;
     private Integer size;
@@ -129,13 +129,14 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
             if (sh * dim[1] < 480) sh++;
             sh += 2;
 
-            gridChunks = new ImageChunk[sh][sw];
+            gridChunks = new ImageChunkGrid(sh * sw);
 
-            for (int y = 0; y < gridChunks.length; y++) {
-                for (int x = 0; x < gridChunks[y].length; x++) {
-                    gridChunks[y][x] = new ImageChunk(ImageChunk.ANCHOR_POINT_TL, new int[] { (x - 1) * dim[0], (y - 1) * dim[1] }, new int[] { 0, 0 }, new int[] { dim[0], dim[1] }, new float[] { 1f, 1f });
+            for (int y = 0; y < sh; y++) {
+                for (int x = 0; x < sw; x++) {
+                    gridChunks.add(ImageChunk.ANCHOR_POINT_TL, (x - 1) * dim[0], (y - 1) * dim[1], 0, 0, dim[0], dim[1], 1f, 1f);
                 }
             }
+            gridChunks.setGridDimensions(sw, sh);
         } else {
             int s = 16;
             if (size < 0) s = 8;
@@ -144,12 +145,12 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
             width = s;
             height = s;
 
-            gridChunks = new ImageChunk[(480 / s) + 2][(640 / s) + 2];
+            gridChunks = new ImageChunkGrid(((480 / s) + 2) * ((640 / s) + 2));
             colours = new int[(480 / s) + 2][(640 / s) + 2];
 
-            for (int y = 0; y < gridChunks.length; y++) {
-                for (int x = 0; x < gridChunks[y].length; x++) {
-                    gridChunks[y][x] = new ImageChunk(ImageChunk.ANCHOR_POINT_TL, new int[] { (x - 1) * s, (y - 1) * s }, new int[] { 0, 0 }, new int[] { s, s }, new float[] { 1f, 1f });
+            for (int y = 0; y < colours.length; y++) {
+                for (int x = 0; x < colours[y].length; x++) {
+                    gridChunks.add(ImageChunk.ANCHOR_POINT_TL, (x - 1) * s, (y - 1) * s, 0, 0, s, s, 1f, 1f);
 
                     if (colour != null) {
                         colours[y][x] = colour;
@@ -158,6 +159,7 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
                     }
                 }
             }
+            gridChunks.setGridDimensions(colours[0].length, colours.length);
         }
     }
 
@@ -167,22 +169,24 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
             move = false;
 
             if (horizontal) {
-                for (int y = 0; y < gridChunks.length; y++) {
-                    for (int x = 0; x < gridChunks[y].length; x++) {
-                        int[] locOld = gridChunks[y][x].getAnchorLocation();
-                        int yMod = Math.abs(locOld[1] / width);
+                for (int y = 0; y < gridChunks.getRows(); y++) {
+                    for (int x = 0; x < gridChunks.getColumns(); x++) {
+                        int i = gridChunks.indexOf(x, y);
+                        int oldX = gridChunks.getAnchorX(i);
+                        int oldY = gridChunks.getAnchorY(i);
+                        int yMod = Math.abs(oldY / width);
                         int dir = (direction + yMod) % DIRECTIONS;
                         int xNew;
                         switch (dir) {
                             case DIRECTION_LEFT:
-                                xNew = locOld[0] - 1;
-                                if (xNew <= (width * -2)) xNew = (gridChunks[0].length - 2) * width;
-                                gridChunks[y][x].setAnchorLocation(new int[] { xNew, locOld[1] });
+                                xNew = oldX - 1;
+                                if (xNew <= (width * -2)) xNew = (gridChunks.getColumns() - 2) * width;
+                                gridChunks.setAnchorLocation(i, xNew, oldY);
                                 break;
                             case DIRECTION_RIGHT:
-                                xNew = locOld[0] + 1;
-                                if (xNew >= (gridChunks[0].length - 1) * width) xNew = width * -1;
-                                gridChunks[y][x].setAnchorLocation(new int[] { xNew, locOld[1] });
+                                xNew = oldX + 1;
+                                if (xNew >= (gridChunks.getColumns() - 1) * width) xNew = width * -1;
+                                gridChunks.setAnchorLocation(i, xNew, oldY);
                                 break;
                             default:
                                 break;
@@ -192,22 +196,24 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
 
                 currentMovement++;
             } else {
-                for (int x = 0; x < gridChunks[0].length; x++) {
-                    for (int y = 0; y < gridChunks.length; y++) {
-                        int[] locOld = gridChunks[y][x].getAnchorLocation();
-                        int xMod = Math.abs(locOld[0] / width);
+                for (int x = 0; x < gridChunks.getColumns(); x++) {
+                    for (int y = 0; y < gridChunks.getRows(); y++) {
+                        int i = gridChunks.indexOf(x, y);
+                        int oldX = gridChunks.getAnchorX(i);
+                        int oldY = gridChunks.getAnchorY(i);
+                        int xMod = Math.abs(oldX / width);
                         int dir2 = (direction + xMod) % DIRECTIONS;
                         int yNew;
                         switch (dir2) {
                             case DIRECTION_UP:
-                                yNew = locOld[1] - 1;
-                                if (yNew <= (height * -2)) yNew = (gridChunks.length - 2) * height;
-                                gridChunks[y][x].setAnchorLocation(new int[] { locOld[0], yNew });
+                                yNew = oldY - 1;
+                                if (yNew <= (height * -2)) yNew = (gridChunks.getRows() - 2) * height;
+                                gridChunks.setAnchorLocation(i, oldX, yNew);
                                 break;
                             case DIRECTION_DOWN:
-                                yNew = locOld[1] + 1;
-                                if (yNew >= (gridChunks.length - 1) * height) yNew = height * -1;
-                                gridChunks[y][x].setAnchorLocation(new int[] { locOld[0], yNew });
+                                yNew = oldY + 1;
+                                if (yNew >= (gridChunks.getRows() - 1) * height) yNew = height * -1;
+                                gridChunks.setAnchorLocation(i, oldX, yNew);
                                 break;
                             default:
                                 break;
@@ -236,12 +242,6 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
         }
     }
 
-    private void swap(int x, int y, int x2, int y2) {
-        ImageChunk ic = gridChunks[y][x];
-        gridChunks[y][x] = gridChunks[y2][x2];
-        gridChunks[y][x] = ic;
-    }
-
     @Override
     public void reset() {
         setup();
@@ -253,21 +253,17 @@ public class BackgroundSlidingTiles extends AnimatedBackgroundHook {
     @Override
     public void draw(GameEngine engine, int playerID) {
         customHolder.drawImage(engine, "blackBG", 0, 0);
-        for (int y = 0; y < gridChunks.length; y++) {
-            for (int x = 0; x < gridChunks[y].length; x++) {
-                ImageChunk i = gridChunks[y][x];
-                int[] pos = i.getDrawLocation();
-                int[] ddim = i.getDrawDimensions();
-                int[] sloc = i.getSourceLocation();
-                int[] sdim = i.getSourceDimensions();
+        for (int y = 0; y < gridChunks.getRows(); y++) {
+            for (int x = 0; x < gridChunks.getColumns(); x++) {
+                int i = gridChunks.indexOf(x, y);
 
                 if (custom) {
-                    customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], 255, 255, 255, 255, 0);
+                    gridChunks.draw(customHolder, engine, imageName, i, 255, 255, 255, 255);
                 } else {
                     float s = 1f;
                     if (size < 0) s = 0.5f;
                     if (size > 0) s = 2f;
-                    engine.owner.receiver.drawSingleBlock(engine, playerID, pos[0], pos[1], colours[y][x], skin, false, darkness, 1f, s);
+                    engine.owner.receiver.drawSingleBlock(engine, playerID, gridChunks.getDrawX(i), gridChunks.getDrawY(i), colours[y][x], skin, false, darkness, 1f, s);
                 }
             }
         }
@@ -32,8 +32,6 @@
  */
 package zeroxfc.nullpo.custom.libs.backgroundtypes;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import mu.nu.nullpo.game.play.GameEngine;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 
@@ -44,7 +42,7 @@ public class BackgroundVerticalBars extends AnimatedBackgroundHook {
     private static final float SCALE_VARIANCE = 1f;
 
     // private ResourceHolderCustomAssetExtension customHolder;
-    private ImageChunk[] chunks;
+    private ImageChunkGrid chunks;
     private int pulsePhaseMax;
     private int currentPulsePhase;
     private Float pulseBaseScale, pulseScaleVariance;
@@ -101,9 +99,9 @@ public class BackgroundVerticalBars extends AnimatedBackgroundHook {
 
     private void setup(int pulseFrames, Integer sliceSize, Float pulseBaseScale, Float pulseScaleVariance, boolean reverse) {
         if (pulseBaseScale == null || pulseScaleVariance == null || sliceSize == null) {
-            chunks = new ImageChunk[AMT];
-            for (int i = 0; i < chunks.length; i++) {
-                chunks[i] = new ImageChunk(ImageChunk.ANCHOR_POINT_TM, new int[] { ((640 / AMT) * i) + ((640 / AMT) / 2), 0 }, new int[] { (640 / AMT) * i, 0 }, new int[] { (640 / AMT), 480 }, new float[] { BASE_SCALE, 1f });
+            chunks = new ImageChunkGrid(AMT);
+            for (int i = 0; i < AMT; i++) {
+                chunks.add(ImageChunk.ANCHOR_POINT_TM, ((640 / AMT) * i) + ((640 / AMT) / 2), 0, (640 / AMT) * i, 0, (640 / AMT), 480, BASE_SCALE, 1f);
             }
 
             this.reverse = reverse;
@@ -113,9 +111,9 @@ public class BackgroundVerticalBars extends AnimatedBackgroundHook {
             this.pulseBaseScale = pulseBaseScale;
             this.pulseScaleVariance = pulseScaleVariance;
 
-            chunks = new ImageChunk[sliceSize];
-            for (int i = 0; i < chunks.length; i++) {
-                chunks[i] = new ImageChunk(ImageChunk.ANCHOR_POINT_TM, new int[] { ((640 / sliceSize) * i) + ((640 / sliceSize) / 2), 0 }, new int[] { (640 / sliceSize) * i, 0 }, new int[] { (640 / sliceSize), 480 }, new float[] { pulseBaseScale, 1f });
+            chunks = new ImageChunkGrid(sliceSize);
+            for (int i = 0; i < sliceSize; i++) {
+                chunks.add(ImageChunk.ANCHOR_POINT_TM, ((640 / sliceSize) * i) + ((640 / sliceSize) / 2), 0, (640 / sliceSize) * i, 0, (640 / sliceSize), 480, pulseBaseScale, 1f);
             }
 
             this.reverse = reverse;
@@ -143,9 +141,9 @@ public class BackgroundVerticalBars extends AnimatedBackgroundHook {
     public void update() {
         currentPulsePhase = (currentPulsePhase + 1) % pulsePhaseMax;
 
-        for (int i = 0; i < chunks.length; i++) {
+        for (int i = 0; i < chunks.size(); i++) {
             int j = i;
-            if (reverse) j = chunks.length - i - 1;
+            if (reverse) j = chunks.size() - i - 1;
 
             int ppu = (currentPulsePhase + i) % pulsePhaseMax;
 
@@ -155,7 +153,7 @@ public class BackgroundVerticalBars extends AnimatedBackgroundHook {
             double newScale = baseScale + (Math.sin(TWO_PI * ((double) ppu / pulsePhaseMax)) * scaleVariance);
             if (newScale < 1d) newScale = 1d;
 
-            chunks[j].setScale(new float[] { (float) newScale, 1f });
+            chunks.setScale(j, (float) newScale, 1f);
         }
     }
 
@@ -167,21 +165,15 @@ public class BackgroundVerticalBars extends AnimatedBackgroundHook {
 
     @Override
     public void draw(GameEngine engine, int playerID) {
-        ArrayList<ImageChunk> priorityList = new ArrayList<>();
-        Collections.addAll(priorityList, chunks);
-        priorityList.sort((c1, c2) -> Float.compare(c1.getScale()[0], c2.getScale()[0]));
+        int[] priorityList = chunks.getDrawOrderByScale(false);
 
         float baseScale = (pulseBaseScale == null) ? BASE_SCALE : pulseBaseScale;
-        if (almostEqual(baseScale, 1, 0.005)) {
-            customHolder.drawImage(engine, imageName, 0, 0);
-            priorityList.removeIf(imageChunk -> almostEqual(imageChunk.getScale()[0], 1, 0.005));
-        }
-        for (ImageChunk i : priorityList) {
-            int[] pos = i.getDrawLocation();
-            int[] ddim = i.getDrawDimensions();
-            int[] sloc = i.getSourceLocation();
-            int[] sdim = i.getSourceDimensions();
-            customHolder.drawImage(engine, imageName, pos[0], pos[1], ddim[0], ddim[1], sloc[0], sloc[1], sdim[0], sdim[1], 255, 255, 255, 255, 0);
+        boolean skipUnscaled = almostEqual(baseScale, 1, 0.005);
+        if (skipUnscaled) customHolder.drawImage(engine, imageName, 0, 0);
+
+        for (int i : priorityList) {
+            if (skipUnscaled && almostEqual(chunks.getScaleX(i), 1, 0.005)) continue;
+            chunks.draw(customHolder, engine, imageName, i, 255, 255, 255, 255);
         }
     }
 
@@ -56,37 +56,52 @@ public class ImageChunk {
     }
 
     private void calibrateDrawLocation() {
-        int[] ddim = getDrawDimensions();
+        int dw = (int) (sourceDimensions[0] * scale[0]);
+        int dh = (int) (sourceDimensions[1] * scale[1]);
+        int dx, dy;
 
         switch (anchorType) {
             case ANCHOR_POINT_TM:
-                drawLocation = new int[] { anchorLocation[0] - (ddim[0] / 2), anchorLocation[1] };
+                dx = anchorLocation[0] - (dw / 2);
+                dy = anchorLocation[1];
                 break;
             case ANCHOR_POINT_TR:
-                drawLocation = new int[] { anchorLocation[0] - ddim[0], anchorLocation[1] };
+                dx = anchorLocation[0] - dw;
+                dy = anchorLocation[1];
                 break;
             case ANCHOR_POINT_ML:
-                drawLocation = new int[] { anchorLocation[0], anchorLocation[1] - (ddim[1] / 2) };
+                dx = anchorLocation[0];
+                dy = anchorLocation[1] - (dh / 2);
                 break;
             case ANCHOR_POINT_MM:
-                drawLocation = new int[] { anchorLocation[0] - (ddim[0] / 2), anchorLocation[1] - (ddim[1] / 2) };
+                dx = anchorLocation[0] - (dw / 2);
+                dy = anchorLocation[1] - (dh / 2);
                 break;
             case ANCHOR_POINT_MR:
-                drawLocation = new int[] { anchorLocation[0] - ddim[0], anchorLocation[1] - (ddim[1] / 2) };
+                dx = anchorLocation[0] - dw;
+                dy = anchorLocation[1] - (dh / 2);
                 break;
             case ANCHOR_POINT_LL:
-                drawLocation = new int[] { anchorLocation[0], anchorLocation[1] - ddim[1] };
+                dx = anchorLocation[0];
+                dy = anchorLocation[1] - dh;
                 break;
             case ANCHOR_POINT_LM:
-                drawLocation = new int[] { anchorLocation[0] - (ddim[0] / 2), anchorLocation[1] - ddim[1] };
+                dx = anchorLocation[0] - (dw / 2);
+                dy = anchorLocation[1] - dh;
                 break;
             case ANCHOR_POINT_LR:
-                drawLocation = new int[] { anchorLocation[0] - ddim[0], anchorLocation[1] - ddim[1] };
+                dx = anchorLocation[0] - dw;
+                dy = anchorLocation[1] - dh;
                 break;
             default:
-                drawLocation = new int[] { anchorLocation[0], anchorLocation[1] };
+                dx = anchorLocation[0];
+                dy = anchorLocation[1];
                 break;
         }
+
+        if (drawLocation == null) drawLocation = new int[2];
+        drawLocation[0] = dx;
+        drawLocation[1] = dy;
     }
 
     public int getAnchorType() {
@@ -116,6 +131,19 @@ public class ImageChunk {
         calibrateDrawLocation();
     }
 
+    /**
+     * Sets the scale by writing into the existing scale array instead of replacing it.
+     *
+     * @param scaleX Horizontal scale
+     * @param scaleY Vertical scale
+     */
+    public void setScale(float scaleX, float scaleY) {
+        if (scale[0] == scaleX && scale[1] == scaleY) return;
+        scale[0] = scaleX;
+        scale[1] = scaleY;
+        calibrateDrawLocation();
+    }
+
     public int[] getSourceLocation() {
         return sourceLocation;
     }
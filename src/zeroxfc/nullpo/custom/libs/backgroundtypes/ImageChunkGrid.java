@@ -0,0 +1,388 @@
+/*
+ * This library class was created by 0xFC963F18DC21 / Shots243
+ * It is part of an extension library for the game NullpoMino (copyright 2010)
+ *
+ * Herewith shall the term "Library Creator" be given to 0xFC963F18DC21.
+ * Herewith shall the term "Game Creator" be given to the original creator of NullpoMino.
+ *
+ * THIS LIBRARY AND MODE PACK WAS NOT MADE IN ASSOCIATION WITH THE GAME CREATOR.
+ *
+ * Repository: https://github.com/Shots243/ModePile
+ *
+ * When using this library in a mode / library pack of your own, the following
+ * conditions must be satisfied:
+ *     - This license must remain visible at the top of the document, unmodified.
+ *     - You are allowed to use this library for any modding purpose.
+ *         - If this is the case, the Library Creator must be credited somewhere.
+ *             - Source comments only are fine, but in a README is recommended.
+ *     - Modification of this library is allowed, but only in the condition that a
+ *       pull request is made to merge the changes to the repository.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package zeroxfc.nullpo.custom.libs.backgroundtypes;
+
+import java.util.Arrays;
+import mu.nu.nullpo.game.play.GameEngine;
+import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
+
+/**
+ * A set of image chunks stored as flat primitive arrays.<br />
+ * Chunks are referred to by index and changed in place, so animating a background does not create any objects.
+ * Draw positions and sizes are recalculated only when a chunk's anchor or scale changes.
+ */
+public class ImageChunkGrid {
+    /**
+     * Default number of chunks the grid can hold before it has to grow.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] anchorType;
+    private int[] anchorX, anchorY;
+    private int[] sourceX, sourceY, sourceWidth, sourceHeight;
+    private float[] scaleX, scaleY;
+    private int[] drawX, drawY, drawWidth, drawHeight;
+    private int[] drawOrder;
+    private int chunkCount;
+    /*
+     * Grid dimensions when the chunks were laid out as rows and columns; 0 otherwise.
+     */
+    private int columns, rows;
+
+    /**
+     * Creates an empty chunk set with the default capacity.
+     */
+    public ImageChunkGrid() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty chunk set.
+     *
+     * @param initialCapacity Number of chunks the set can hold before it has to grow.
+     */
+    public ImageChunkGrid(int initialCapacity) {
+        if (initialCapacity < 1) initialCapacity = 1;
+
+        anchorType = new int[initialCapacity];
+        anchorX = new int[initialCapacity];
+        anchorY = new int[initialCapacity];
+        sourceX = new int[initialCapacity];
+        sourceY = new int[initialCapacity];
+        sourceWidth = new int[initialCapacity];
+        sourceHeight = new int[initialCapacity];
+        scaleX = new float[initialCapacity];
+        scaleY = new float[initialCapacity];
+        drawX = new int[initialCapacity];
+        drawY = new int[initialCapacity];
+        drawWidth = new int[initialCapacity];
+        drawHeight = new int[initialCapacity];
+        drawOrder = new int[0];
+        chunkCount = 0;
+    }
+
+    /**
+     * Creates a grid of <code>columns * rows</code> equally sized cells, indexed row by row.
+     * Each cell's source is the matching area of the image and is anchored at its middle.
+     *
+     * @param columns    Number of columns
+     * @param rows       Number of rows
+     * @param cellWidth  Cell width
+     * @param cellHeight Cell height
+     * @param scale      Starting scale of every cell
+     * @return New grid
+     */
+    public static ImageChunkGrid createCentredGrid(int columns, int rows, int cellWidth, int cellHeight, float scale) {
+        ImageChunkGrid grid = new ImageChunkGrid(columns * rows);
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                grid.add(ImageChunk.ANCHOR_POINT_MM, (cellWidth * x) + (cellWidth / 2), (cellHeight * y) + (cellHeight / 2), cellWidth * x, cellHeight * y, cellWidth, cellHeight, scale, scale);
+            }
+        }
+        grid.columns = columns;
+        grid.rows = rows;
+        return grid;
+    }
+
+    /**
+     * Adds a chunk.
+     *
+     * @param anchorType   Anchor type, one of the <code>ImageChunk.ANCHOR_POINT_</code> constants
+     * @param anchorX      Anchor X
+     * @param anchorY      Anchor Y
+     * @param sourceX      Source X in the image
+     * @param sourceY      Source Y in the image
+     * @param sourceWidth  Source width
+     * @param sourceHeight Source height
+     * @param scaleX       Horizontal scale
+     * @param scaleY       Vertical scale
+     * @return Index of the new chunk
+     */
+    public int add(int anchorType, int anchorX, int anchorY, int sourceX, int sourceY, int sourceWidth, int sourceHeight, float scaleX, float scaleY) {
+        if (chunkCount >= this.anchorType.length) ensureCapacity(this.anchorType.length * 2);
+
+        int i = chunkCount++;
+        this.anchorType[i] = anchorType;
+        this.anchorX[i] = anchorX;
+        this.anchorY[i] = anchorY;
+        this.sourceX[i] = sourceX;
+        this.sourceY[i] = sourceY;
+        this.sourceWidth[i] = sourceWidth;
+        this.sourceHeight[i] = sourceHeight;
+        this.scaleX[i] = scaleX;
+        this.scaleY[i] = scaleY;
+        calibrateDrawLocation(i);
+
+        columns = 0;
+        rows = 0;
+        return i;
+    }
+
+    /**
+     * Marks the chunks as a grid so they can be looked up by cell. Chunks must have been added row by row.
+     *
+     * @param columns Number of columns
+     * @param rows    Number of rows
+     */
+    public void setGridDimensions(int columns, int rows) {
+        if (columns * rows != chunkCount) throw new IllegalArgumentException("Grid of " + columns + "x" + rows + " does not match " + chunkCount + " chunks.");
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Grows the storage so it can hold at least <code>capacity</code> chunks.
+     *
+     * @param capacity Required capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= anchorType.length) return;
+
+        anchorType = Arrays.copyOf(anchorType, capacity);
+        anchorX = Arrays.copyOf(anchorX, capacity);
+        anchorY = Arrays.copyOf(anchorY, capacity);
+        sourceX = Arrays.copyOf(sourceX, capacity);
+        sourceY = Arrays.copyOf(sourceY, capacity);
+        sourceWidth = Arrays.copyOf(sourceWidth, capacity);
+        sourceHeight = Arrays.copyOf(sourceHeight, capacity);
+        scaleX = Arrays.copyOf(scaleX, capacity);
+        scaleY = Arrays.copyOf(scaleY, capacity);
+        drawX = Arrays.copyOf(drawX, capacity);
+        drawY = Arrays.copyOf(drawY, capacity);
+        drawWidth = Arrays.copyOf(drawWidth, capacity);
+        drawHeight = Arrays.copyOf(drawHeight, capacity);
+    }
+
+    /**
+     * Removes all chunks. Storage is kept for reuse.
+     */
+    public void clear() {
+        chunkCount = 0;
+        columns = 0;
+        rows = 0;
+    }
+
+    private void calibrateDrawLocation(int i) {
+        int dw = (int) (sourceWidth[i] * scaleX[i]);
+        int dh = (int) (sourceHeight[i] * scaleY[i]);
+        int ax = anchorX[i];
+        int ay = anchorY[i];
+
+        drawWidth[i] = dw;
+        drawHeight[i] = dh;
+        switch (anchorType[i]) {
+            case ImageChunk.ANCHOR_POINT_TM:
+                drawX[i] = ax - (dw / 2);
+                drawY[i] = ay;
+                break;
+            case ImageChunk.ANCHOR_POINT_TR:
+                drawX[i] = ax - dw;
+                drawY[i] = ay;
+                break;
+            case ImageChunk.ANCHOR_POINT_ML:
+                drawX[i] = ax;
+                drawY[i] = ay - (dh / 2);
+                break;
+            case ImageChunk.ANCHOR_POINT_MM:
+                drawX[i] = ax - (dw / 2);
+                drawY[i] = ay - (dh / 2);
+                break;
+            case ImageChunk.ANCHOR_POINT_MR:
+                drawX[i] = ax - dw;
+                drawY[i] = ay - (dh / 2);
+                break;
+            case ImageChunk.ANCHOR_POINT_LL:
+                drawX[i] = ax;
+                drawY[i] = ay - dh;
+                break;
+            case ImageChunk.ANCHOR_POINT_LM:
+                drawX[i] = ax - (dw / 2);
+                drawY[i] = ay - dh;
+                break;
+            case ImageChunk.ANCHOR_POINT_LR:
+                drawX[i] = ax - dw;
+                drawY[i] = ay - dh;
+                break;
+            default:
+                drawX[i] = ax;
+                drawY[i] = ay;
+                break;
+        }
+    }
+
+    public int size() {
+        return chunkCount;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the index of a grid cell.
+     *
+     * @param x Column
+     * @param y Row
+     * @return Chunk index
+     */
+    public int indexOf(int x, int y) {
+        return (y * columns) + x;
+    }
+
+    public int getAnchorType(int i) {
+        return anchorType[i];
+    }
+
+    public void setAnchorType(int i, int anchorType) {
+        this.anchorType[i] = anchorType;
+        calibrateDrawLocation(i);
+    }
+
+    public int getAnchorX(int i) {
+        return anchorX[i];
+    }
+
+    public int getAnchorY(int i) {
+        return anchorY[i];
+    }
+
+    public void setAnchorLocation(int i, int x, int y) {
+        if (anchorX[i] == x && anchorY[i] == y) return;
+        anchorX[i] = x;
+        anchorY[i] = y;
+        calibrateDrawLocation(i);
+    }
+
+    public float getScaleX(int i) {
+        return scaleX[i];
+    }
+
+    public float getScaleY(int i) {
+        return scaleY[i];
+    }
+
+    public void setScale(int i, float x, float y) {
+        if (scaleX[i] == x && scaleY[i] == y) return;
+        scaleX[i] = x;
+        scaleY[i] = y;
+        calibrateDrawLocation(i);
+    }
+
+    public int getSourceX(int i) {
+        return sourceX[i];
+    }
+
+    public int getSourceY(int i) {
+        return sourceY[i];
+    }
+
+    public int getSourceWidth(int i) {
+        return sourceWidth[i];
+    }
+
+    public int getSourceHeight(int i) {
+        return sourceHeight[i];
+    }
+
+    public void setSourceDimensions(int i, int width, int height) {
+        sourceWidth[i] = width;
+        sourceHeight[i] = height;
+        calibrateDrawLocation(i);
+    }
+
+    public int getDrawX(int i) {
+        return drawX[i];
+    }
+
+    public int getDrawY(int i) {
+        return drawY[i];
+    }
+
+    public int getDrawWidth(int i) {
+        return drawWidth[i];
+    }
+
+    public int getDrawHeight(int i) {
+        return drawHeight[i];
+    }
+
+    /**
+     * Gets the chunk indices sorted by scale, smallest first, so that larger chunks are drawn over smaller ones.
+     * Chunks of equal scale keep their index order.<br />
+     * The returned array is reused by the next call and holds exactly <code>size()</code> entries.
+     * Scales change a little each frame, so the previous order is kept and fixed up with an insertion sort,
+     * which is close to linear in that case.
+     *
+     * @param vertical <code>true</code> to sort by vertical scale, <code>false</code> for horizontal scale
+     * @return Draw order
+     */
+    public int[] getDrawOrderByScale(boolean vertical) {
+        if (drawOrder.length != chunkCount) {
+            drawOrder = new int[chunkCount];
+            for (int i = 0; i < chunkCount; i++) drawOrder[i] = i;
+        }
+
+        float[] keys = vertical ? scaleY : scaleX;
+        for (int i = 1; i < chunkCount; i++) {
+            int current = drawOrder[i];
+            float key = keys[current];
+            int j = i - 1;
+            while (j >= 0 && (keys[drawOrder[j]] > key || (keys[drawOrder[j]] == key && drawOrder[j] > current))) {
+                drawOrder[j + 1] = drawOrder[j];
+                j--;
+            }
+            drawOrder[j + 1] = current;
+        }
+        return drawOrder;
+    }
+
+    /**
+     * Draws one chunk.
+     *
+     * @param holder Holder containing the image
+     * @param engine Current GameEngine
+     * @param name   Image name
+     * @param i      Chunk index
+     * @param red    Red component of the tint
+     * @param green  Green component of the tint
+     * @param blue   Blue component of the tint
+     * @param alpha  Alpha component of the tint
+     */
+    public void draw(ResourceHolderCustomAssetExtension holder, GameEngine engine, String name, int i, int red, int green, int blue, int alpha) {
+        holder.drawImage(engine, name, drawX[i], drawY[i], drawWidth[i], drawHeight[i], sourceX[i], sourceY[i], sourceWidth[i], sourceHeight[i], red, green, blue, alpha, 0);
+    }
+}
@@ -68,7 +68,7 @@ public class BlockParticle {
     public BlockParticle(Block block, DoubleVector position, double maxVelocity, int timeToLive, boolean flash, Random randomiser) {
         objectTexture = new Block();
         objectTexture.copy(block);
-        this.position = position;
+        this.position = new DoubleVector(position);
 
         double speed = randomiser.nextDouble() * maxVelocity;
         double angle = randomiser.nextDouble() * Math.PI * 2;
@@ -84,8 +84,8 @@ public class BlockParticle {
         objectTexture = new Block();
         objectTexture.copy(block);
 
-        this.position = position;
-        this.velocity = velocity;
+        this.position = new DoubleVector(position);
+        this.velocity = new DoubleVector(velocity);
 
         maxLifetime = timeToLive;
         currentLifetime = 0;
@@ -96,7 +96,7 @@ public class BlockParticle {
      * Update position and lifetime data.
      */
     public void update(int animType) {
-        position = DoubleVector.add(position, velocity);
+        position.addInPlace(velocity);
 
         switch (animType) {
             case BlockParticleCollection.ANIMATION_DTET:
@@ -105,7 +105,7 @@ public class BlockParticle {
                 }
                 break;
             case BlockParticleCollection.ANIMATION_TGM:
-                velocity = DoubleVector.add(velocity, new DoubleVector(0, 0.980665 / 2.25, false));
+                velocity.addInPlace(0, 0.980665 / 2.25);
                 size += (1f / 60f);
                 break;
         }
@@ -37,7 +37,7 @@ import java.util.Random;
 import mu.nu.nullpo.game.component.Block;
 import mu.nu.nullpo.game.event.EventReceiver;
 import mu.nu.nullpo.game.play.GameEngine;
-import zeroxfc.nullpo.custom.libs.DoubleVector;
+import zeroxfc.nullpo.custom.libs.RendererExtension;
 
 public class BlockParticleCollection {
     // Animation types:
@@ -45,10 +45,39 @@ public class BlockParticleCollection {
         ANIMATION_TGM = 1;
     // Number of anim types
     public static final int ANIMATION_TYPES = 2;
-    // Block particles in collection
-    private final BlockParticle[] collectionBlockParticles;
+    // Gravity applied each frame in the TGM animation
+    private static final double TGM_GRAVITY = 0.980665 / 2.25;
+    // Draw layers: shadows go under every block
+    private static final int LAYER_SHADOW = 0, LAYER_BLOCK = 1;
     // Animation type
     private final int animationType;
+    // Maximum particle count
+    private final int capacity;
+
+    /*
+     * Particle storage, one entry per slot. A slot is in use while alive[slot] is set.
+     * Free slots are kept on a stack so adding a particle never has to search for one.
+     */
+    private final double[] positionX, positionY, velocityX, velocityY, speed, direction;
+    private final float[] size;
+    private final int[] lifetime, maxLifetime, colour, skin;
+    private final boolean[] bone, flashing, alive;
+    private final int[] freeSlots;
+    private int freeCount;
+    // One past the highest slot in use. Slots above it are never visited.
+    private int slotLimit;
+    private int particleCount;
+
+    /*
+     * Draw buffers, refilled every frame. Each particle can add a shadow and a block.
+     */
+    private final long[] drawKeys;
+    private final int[] drawX, drawY, drawColour, drawSkin;
+    private final boolean[] drawBone;
+    private final float[] drawDarkness, drawAlpha, drawScale;
+    private final int[] sortedX, sortedY, sortedColour;
+    private final boolean[] sortedBone;
+    private final float[] sortedDarkness, sortedAlpha, sortedScale;
 
     /**
      * Creates a new collection of particles.
@@ -56,79 +85,216 @@ public class BlockParticleCollection {
      * @param length Maximum particle count.
      */
     public BlockParticleCollection(int length, int animType) {
-        collectionBlockParticles = new BlockParticle[length];
         animationType = animType;
-        Arrays.fill(collectionBlockParticles, null);
+        capacity = Math.max(length, 0);
+
+        positionX = new double[capacity];
+        positionY = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        speed = new double[capacity];
+        direction = new double[capacity];
+        size = new float[capacity];
+        lifetime = new int[capacity];
+        maxLifetime = new int[capacity];
+        colour = new int[capacity];
+        skin = new int[capacity];
+        bone = new boolean[capacity];
+        flashing = new boolean[capacity];
+        alive = new boolean[capacity];
+
+        // Hand out low slots first.
+        freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) freeSlots[i] = capacity - 1 - i;
+        freeCount = capacity;
+        slotLimit = 0;
+        particleCount = 0;
+
+        int drawCapacity = capacity * 2;
+        drawKeys = new long[drawCapacity];
+        drawX = new int[drawCapacity];
+        drawY = new int[drawCapacity];
+        drawColour = new int[drawCapacity];
+        drawSkin = new int[drawCapacity];
+        drawBone = new boolean[drawCapacity];
+        drawDarkness = new float[drawCapacity];
+        drawAlpha = new float[drawCapacity];
+        drawScale = new float[drawCapacity];
+        sortedX = new int[drawCapacity];
+        sortedY = new int[drawCapacity];
+        sortedColour = new int[drawCapacity];
+        sortedBone = new boolean[drawCapacity];
+        sortedDarkness = new float[drawCapacity];
+        sortedAlpha = new float[drawCapacity];
+        sortedScale = new float[drawCapacity];
     }
 
     public void update() {
-        for (int i = 0; i < collectionBlockParticles.length; i++) {
-            if (collectionBlockParticles[i] != null) {
-                collectionBlockParticles[i].update(animationType);
+        for (int i = 0; i < slotLimit; i++) {
+            if (!alive[i]) continue;
+
+            positionX[i] += velocityX[i];
+            positionY[i] += velocityY[i];
 
-                if (collectionBlockParticles[i].getCurrentLifetime() >= collectionBlockParticles[i].getMaxLifetime()) {
-                    collectionBlockParticles[i] = null;
-                }
+            switch (animationType) {
+                case ANIMATION_DTET:
+                    if (lifetime[i] < (maxLifetime[i] * 0.75)) {
+                        direction[i] += (Math.PI / maxLifetime[i]);
+                        velocityX[i] = snap(speed[i] * Math.cos(direction[i]));
+                        velocityY[i] = snap(speed[i] * Math.sin(direction[i]));
+                    }
+                    break;
+                case ANIMATION_TGM:
+                    velocityY[i] += TGM_GRAVITY;
+                    size[i] += (1f / 60f);
+                    break;
             }
+
+            if (++lifetime[i] >= maxLifetime[i]) freeSlot(i);
         }
+
+        while (slotLimit > 0 && !alive[slotLimit - 1]) slotLimit--;
     }
 
+    /**
+     * Draws every particle. Particles are grouped by skin and block sheet so each group is drawn in one batch,
+     * with all TGM shadows drawn before any block.
+     */
     public void drawAll(GameEngine engine, EventReceiver receiver, int playerID) {
-        for (BlockParticle collectionBlockParticle : collectionBlockParticles) {
-            if (collectionBlockParticle != null) {
-                collectionBlockParticle.draw(engine, receiver, playerID, animationType);
+        if (engine.displaysize == -1 || particleCount == 0) return;
+
+        final float baseScale = (engine.displaysize == 0) ? 1f : 2f;
+        final int shadowOffset = (engine.displaysize == 0) ? 2 : 4;
+        final float alpha = (animationType == ANIMATION_DTET) ? 0.667f : 1f;
+
+        int n = 0;
+        for (int i = 0; i < slotLimit; i++) {
+            if (!alive[i]) continue;
+
+            final int x = (int) positionX[i];
+            final int y = (int) positionY[i];
+            final float scale = baseScale * size[i];
+
+            if (animationType == ANIMATION_TGM) {
+                n = queueBlock(n, LAYER_SHADOW, x + (int) (shadowOffset * size[i]), y + shadowOffset, i, 0.5f, 1f, scale);
             }
+            final float darkness = (flashing[i] && ((lifetime[i] / 2) % 2 == 0)) ? -0.8f : 0f;
+            n = queueBlock(n, LAYER_BLOCK, x, y, i, darkness, alpha, scale);
         }
-    }
 
-    public void addBlock(GameEngine engine, EventReceiver receiver, int playerID, Block block, int x, int y, double maxVelocity, int timeToLive, boolean isFlashing, Random randomiser) {
-        int i = 0;
-        try {
-            while (collectionBlockParticles[i] != null) i++;
-        } catch (IndexOutOfBoundsException e) {
-            return;  // Do not add block if full.
+        // Order by layer, skin, then sheet; the low bits keep queue order within a group.
+        Arrays.sort(drawKeys, 0, n);
+        for (int k = 0; k < n; k++) {
+            int j = (int) (drawKeys[k] & 0xFFFFFFFFL);
+            sortedX[k] = drawX[j];
+            sortedY[k] = drawY[j];
+            sortedColour[k] = drawColour[j];
+            sortedBone[k] = drawBone[j];
+            sortedDarkness[k] = drawDarkness[j];
+            sortedAlpha[k] = drawAlpha[j];
+            sortedScale[k] = drawScale[j];
+        }
+
+        int start = 0;
+        while (start < n) {
+            long group = drawKeys[start] >>> 32;
+            int end = start + 1;
+            while (end < n && (drawKeys[end] >>> 32) == group) end++;
+
+            int groupSkin = drawSkin[(int) (drawKeys[start] & 0xFFFFFFFFL)];
+            RendererExtension.drawScaledBlockBatch(receiver, start, end, sortedX, sortedY, sortedColour, sortedBone, sortedDarkness, sortedAlpha, sortedScale, groupSkin);
+            start = end;
         }
+    }
+
+    private int queueBlock(int n, int layer, int x, int y, int slot, float darkness, float alpha, float scale) {
+        int sheet = (scale <= 0.5f) ? 0 : ((scale <= 1.0f) ? 1 : 2);
+        long group = ((long) layer << 30) | ((long) (skin[slot] & 0xFFFFFFF) << 2) | sheet;
+        drawKeys[n] = (group << 32) | n;
+        drawX[n] = x;
+        drawY[n] = y;
+        drawColour[n] = colour[slot];
+        drawSkin[n] = skin[slot];
+        drawBone[n] = bone[slot];
+        drawDarkness[n] = darkness;
+        drawAlpha[n] = alpha;
+        drawScale[n] = scale;
+        return n + 1;
+    }
 
-        Block k = new Block();
-        k.copy(block);
+    public void addBlock(GameEngine engine, EventReceiver receiver, int playerID, Block block, int x, int y, double maxVelocity, int timeToLive, boolean isFlashing, Random randomiser) {
+        if (freeCount == 0) return;  // Do not add block if full.
 
         int v1 = receiver.getFieldDisplayPositionX(engine, playerID) + (engine.displaysize == 0 ? 4 : 8) + (x * (engine.displaysize == 0 ? 16 : 32));
         int v2 = receiver.getFieldDisplayPositionY(engine, playerID) + (engine.displaysize == 0 ? 52 : 104) + (y * (engine.displaysize == 0 ? 16 : 32));
-        DoubleVector position = new DoubleVector(v1, v2, false);
 
         timeToLive += (randomiser.nextInt(5) - 2);
 
-        collectionBlockParticles[i] = new BlockParticle(k, position, maxVelocity, timeToLive, isFlashing, randomiser);
+        double s = randomiser.nextDouble() * maxVelocity;
+        double angle = randomiser.nextDouble() * Math.PI * 2;
+
+        int i = claimSlot(block, v1, v2, timeToLive);
+        flashing[i] = isFlashing;
+        setPolarVelocity(i, s, angle);
     }
 
     public void addBlock(GameEngine engine, EventReceiver receiver, int playerID, Block block, int x, int y, int maxX, int yMod, int maxYMod, int timeToLive) {
-        int i = 0;
-        try {
-            while (collectionBlockParticles[i] != null) i++;
-        } catch (IndexOutOfBoundsException e) {
-            return;  // Do not add block if full.
-        }
-
-        Block k = new Block();
-        k.copy(block);
+        if (freeCount == 0) return;  // Do not add block if full.
 
         int v1 = receiver.getFieldDisplayPositionX(engine, playerID) + (engine.displaysize == 0 ? 4 : 8) + (x * (engine.displaysize == 0 ? 16 : 32));
         int v2 = receiver.getFieldDisplayPositionY(engine, playerID) + (engine.displaysize == 0 ? 52 : 104) + (y * (engine.displaysize == 0 ? 16 : 32));
-        DoubleVector position = new DoubleVector(v1, v2, false);
 
         double xU = (x - (maxX / 2d));
         if (maxX % 2 == 0) xU += 0.5;
         double mod = (1.0 / 3.0) * xU;
-        DoubleVector velocity = new DoubleVector(mod * 1.1d, -4.8 * (0.5 + (0.5 * ((double) (maxYMod - yMod) / maxYMod))), false);
+        double vx = mod * 1.1d;
+        double vy = -4.8 * (0.5 + (0.5 * ((double) (maxYMod - yMod) / maxYMod)));
 
-        collectionBlockParticles[i] = new BlockParticle(k, position, velocity, timeToLive);
+        int i = claimSlot(block, v1, v2, timeToLive);
+        flashing[i] = false;
+        velocityX[i] = vx;
+        velocityY[i] = vy;
+        speed[i] = Math.sqrt((vx * vx) + (vy * vy));
+        direction[i] = Math.atan2(vy, vx);
+        if (direction[i] < 0) direction[i] += (2.0 * Math.PI);
     }
 
     public int getCount() {
-        int g = 0;
-        for (BlockParticle collectionBlockParticle : collectionBlockParticles) {
-            if (collectionBlockParticle != null) g++;
-        }
-        return g;
+        return particleCount;
+    }
+
+    private int claimSlot(Block block, int x, int y, int timeToLive) {
+        int i = freeSlots[--freeCount];
+        alive[i] = true;
+        particleCount++;
+        if (i >= slotLimit) slotLimit = i + 1;
+
+        positionX[i] = x;
+        positionY[i] = y;
+        colour[i] = block.color;
+        skin[i] = block.skin;
+        bone[i] = block.getAttribute(Block.BLOCK_ATTRIBUTE_BONE);
+        lifetime[i] = 0;
+        maxLifetime[i] = timeToLive;
+        size[i] = 1;
+        return i;
+    }
+
+    private void freeSlot(int i) {
+        alive[i] = false;
+        freeSlots[freeCount++] = i;
+        particleCount--;
+    }
+
+    private void setPolarVelocity(int i, double magnitude, double angle) {
+        speed[i] = Math.abs(magnitude);
+        direction[i] = angle;
+        velocityX[i] = snap(speed[i] * Math.cos(angle));
+        velocityY[i] = snap(speed[i] * Math.sin(angle));
+    }
+
+    // Matches the rounding DoubleVector applies to near-zero components.
+    private static double snap(double value) {
+        return (Math.abs(value) < 1E-8) ? 0 : value;
     }
 }
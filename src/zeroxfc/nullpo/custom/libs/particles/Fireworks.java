@@ -1,7 +1,6 @@
 package zeroxfc.nullpo.custom.libs.particles;
 
 import java.util.Random;
-import zeroxfc.nullpo.custom.libs.DoubleVector;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 
 public class Fireworks extends ParticleEmitterBase {
@@ -84,7 +83,8 @@ public class Fireworks extends ParticleEmitterBase {
             maxLifeTime = (int) params[11];
 
             for (int i = 0; i < num; ++i) {
-                DoubleVector origin = new DoubleVector(Interpolation.lerp(minX, maxX, randomiser.nextDouble()), Interpolation.lerp(minY, maxY, randomiser.nextDouble()), false);
+                double originX = Interpolation.lerp(minX, maxX, randomiser.nextDouble());
+                double originY = Interpolation.lerp(minY, maxY, randomiser.nextDouble());
                 for (int j = 0; j < randomiser.nextInt(121) + 120; ++j) {
                     int ured, ugreen, ublue, ualpha;
                     ured = red + (int) (2 * randomiser.nextDouble() * variance - variance);
@@ -93,27 +93,28 @@ public class Fireworks extends ParticleEmitterBase {
                     ualpha = alpha + (int) (2 * randomiser.nextDouble() * variance - variance);
 
                     int s = 1 + randomiser.nextInt(3);
-                    DoubleVector v = new DoubleVector(2 * randomiser.nextDouble() * maxVelocity - maxVelocity, 2 * randomiser.nextDouble() * Math.PI, true);
+                    double magnitude = Math.abs(2 * randomiser.nextDouble() * maxVelocity - maxVelocity);
+                    double direction = 2 * randomiser.nextDouble() * Math.PI;
+                    double vx = magnitude * Math.cos(direction);
+                    double vy = magnitude * Math.sin(direction);
 
-                    Particle particle = new Particle(
+                    addParticle(
                         Particle.ParticleShape.Rectangle,
                         Interpolation.lerp(minLifeTime, maxLifeTime, randomiser.nextDouble()),
-                        origin,
-                        v,
-                        new DoubleVector(0, GRAVITY, false),
+                        originX, originY,
+                        vx, vy,
+                        0, GRAVITY,
                         s, s,
                         ured, ugreen, ublue, ualpha,
                         (int) (ured / 1.5), (int) (ugreen / 1.5), (int) (ublue / 1.5), 64
                     );
 
-                    particles.add(particle);
-
-                    Particle particle2 = new Particle(
+                    addParticle(
                         Particle.ParticleShape.Rectangle,
                         Interpolation.lerp(minLifeTime, maxLifeTime, randomiser.nextDouble()),
-                        origin,
-                        v,
-                        new DoubleVector(0, GRAVITY, false),
+                        originX, originY,
+                        vx, vy,
+                        0, GRAVITY,
                         1, 1,
                         Interpolation.lerp(ured, 255, 0.9),
                         Interpolation.lerp(ugreen, 255, 0.9),
@@ -121,8 +122,6 @@ public class Fireworks extends ParticleEmitterBase {
                         Interpolation.lerp(ualpha, 255, 0.9),
                         (int) (ured / 1.25), (int) (ugreen / 1.25), (int) (ublue / 1.25), 64
                     );
-
-                    particles.add(particle2);
                 }
             }
         } catch (ClassCastException ce) {
@@ -1,7 +1,6 @@
 package zeroxfc.nullpo.custom.libs.particles;
 
 import java.util.Random;
-import zeroxfc.nullpo.custom.libs.DoubleVector;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 
 public class LandingParticles extends ParticleEmitterBase {
@@ -85,30 +84,20 @@ public class LandingParticles extends ParticleEmitterBase {
                 ublue = blue + (int) (2 * randomiser.nextDouble() * variance - variance);
                 ualpha = alpha + (int) (2 * randomiser.nextDouble() * variance - variance);
 
-                DoubleVector p = new DoubleVector(
-                    Interpolation.lerp(minX, maxX, randomiser.nextDouble()),
-                    Interpolation.lerp(startY - yVar, startY + yVar, randomiser.nextDouble()),
-                    false
-                );
-
-                DoubleVector v = new DoubleVector(
-                    0,
-                    Interpolation.lerp(0, maxVel, randomiser.nextDouble()) * (randomiser.nextDouble() < upChance ? -0.5 : 1),
-                    false
-                );
+                double x = Interpolation.lerp(minX, maxX, randomiser.nextDouble());
+                double y = Interpolation.lerp(startY - yVar, startY + yVar, randomiser.nextDouble());
+                double vy = Interpolation.lerp(0, maxVel, randomiser.nextDouble()) * (randomiser.nextDouble() < upChance ? -0.5 : 1);
 
-                Particle particle = new Particle(
+                addParticle(
                     Particle.ParticleShape.Rectangle,
                     Interpolation.lerp(DEF_MIN_LIFE, DEF_MAX_LIFE, randomiser.nextDouble()),
-                    p,
-                    v,
-                    DoubleVector.zero(),
+                    x, y,
+                    0, vy,
+                    0, 0,
                     2, 2,
                     ured, ugreen, ublue, ualpha,
                     (int) (ured / 1.5), (int) (ugreen / 1.5), (int) (ublue / 1.5), 64
                 );
-
-                particles.add(particle);
             }
         } catch (ClassCastException ce) {
             log.error("LandingParticles.addNumber: Invalid argument in params.", ce);
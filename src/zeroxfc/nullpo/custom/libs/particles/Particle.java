@@ -12,35 +12,35 @@ public class Particle {
     /**
      * Lifetime
      */
-    private final int particleMaxLifetime;
+    final int particleMaxLifetime;
     /**
      * Particle shape
      */
-    private final ParticleShape shape;
+    final ParticleShape shape;
     /**
      * X size
      */
-    private final int sizeX;
+    final int sizeX;
     /**
      * Y size
      */
-    private final int sizeY;
+    final int sizeY;
     /**
      * Red colour component
      */
-    private final int red;
+    final int red;
     /**
      * Green colour component
      */
-    private final int green;
+    final int green;
     /**
      * Blue colour component
      */
-    private final int blue;
+    final int blue;
     /**
      * Alpha component
      */
-    private final int alpha;
+    final int alpha;
 
     /*
      * Colour variables.
@@ -49,19 +49,19 @@ public class Particle {
     /**
      * Red colour component at end
      */
-    private final int redEnd;
+    final int redEnd;
     /**
      * Green colour component at end
      */
-    private final int greenEnd;
+    final int greenEnd;
     /**
      * Blue colour component at end
      */
-    private final int blueEnd;
+    final int blueEnd;
     /**
      * Alpha component at end
      */
-    private final int alphaEnd;
+    final int alphaEnd;
     /**
      * Position vector
      */
@@ -107,8 +107,9 @@ public class Particle {
                     int redEnd, int greenEnd, int blueEnd, int alphaEnd) {
         this.shape = shape;
         particleMaxLifetime = maxLifeTime;
-        this.position = position;
-        this.velocity = velocity;
+        // Own copies of the vectors update() changes in place.
+        this.position = new DoubleVector(position);
+        this.velocity = new DoubleVector(velocity);
         this.acceleration = acceleration;
         this.sizeX = sizeX;
         this.sizeY = sizeY;
@@ -203,8 +204,8 @@ public class Particle {
      * @return <code>true</code> if the particle needs to be destroyed, else <code>false</code>.
      */
     public boolean update() {
-        velocity = DoubleVector.add(velocity, acceleration);
-        position = DoubleVector.add(position, velocity);
+        velocity.addInPlace(acceleration);
+        position.addInPlace(velocity);
 
         ur = Interpolation.lerp(red, redEnd, (double) particleLifetime / particleMaxLifetime);
         ug = Interpolation.lerp(green, greenEnd, (double) particleLifetime / particleMaxLifetime);
@@ -1,9 +1,10 @@
 package zeroxfc.nullpo.custom.libs.particles;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import mu.nu.nullpo.game.event.EventReceiver;
 import org.apache.log4j.Logger;
 import zeroxfc.nullpo.custom.libs.BufferedPrimitiveDrawingHook;
+import zeroxfc.nullpo.custom.libs.Interpolation;
 
 public abstract class ParticleEmitterBase {
     /**
@@ -26,24 +27,80 @@ public abstract class ParticleEmitterBase {
      */
     protected static final Logger log = Logger.getLogger(ParticleEmitterBase.class);
     /**
-     * Particle container
+     * Default number of particles the emitter can hold before it has to grow.
      */
-    protected ArrayList<Particle> particles = new ArrayList<>();
+    private static final int DEFAULT_CAPACITY = 512;
+    /**
+     * Number of ints each particle takes up in the colour buffer: start RGBA, then end RGBA.
+     */
+    private static final int COLOUR_STRIDE = 8;
+    /**
+     * Shape IDs stored in the shape buffer.
+     */
+    private static final byte SHAPE_RECTANGLE = 0, SHAPE_CIRCLE = 1;
+
+    /*
+     * Particle storage.
+     * Live particles always occupy indices 0 to particleCount - 1. A dead particle is replaced by the last live one,
+     * so every slot from particleCount onwards is free and gets reused by the next add without any allocation.
+     * The storage is private: subclasses add particles with addParticle, or addSpecific for an existing Particle.
+     */
+    private double[] positionX, positionY, velocityX, velocityY, accelerationX, accelerationY;
+    private int[] sizeX, sizeY, lifetime, maxLifetime, colours;
+    private byte[] shapes;
+    private int particleCount;
 
     /**
      * Drawing buffer
      */
     protected BufferedPrimitiveDrawingHook drawingQueue = new BufferedPrimitiveDrawingHook();
 
+    /**
+     * Creates an emitter with the default initial capacity.
+     */
+    protected ParticleEmitterBase() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an emitter.
+     *
+     * @param initialCapacity Number of particles the emitter can hold before it has to grow.
+     */
+    protected ParticleEmitterBase(int initialCapacity) {
+        if (initialCapacity < 1) initialCapacity = 1;
+
+        positionX = new double[initialCapacity];
+        positionY = new double[initialCapacity];
+        velocityX = new double[initialCapacity];
+        velocityY = new double[initialCapacity];
+        accelerationX = new double[initialCapacity];
+        accelerationY = new double[initialCapacity];
+        sizeX = new int[initialCapacity];
+        sizeY = new int[initialCapacity];
+        lifetime = new int[initialCapacity];
+        maxLifetime = new int[initialCapacity];
+        colours = new int[initialCapacity * COLOUR_STRIDE];
+        shapes = new byte[initialCapacity];
+        particleCount = 0;
+    }
+
     /**
      * Update method. Used to update all partcles.
      */
     public void update() {
-        if (particles.size() <= 0) return;
-        for (int i = particles.size() - 1; i >= 0; i--) {
-            boolean res = particles.get(i).update();
-            if (res) {
-                particles.remove(i);
+        int i = 0;
+        while (i < particleCount) {
+            velocityX[i] += accelerationX[i];
+            velocityY[i] += accelerationY[i];
+            positionX[i] += velocityX[i];
+            positionY[i] += velocityY[i];
+
+            if (++lifetime[i] > maxLifetime[i]) {
+                // Move the last live particle into this slot and check it on this same index.
+                moveParticle(--particleCount, i);
+            } else {
+                i++;
             }
         }
     }
@@ -54,23 +111,153 @@ public abstract class ParticleEmitterBase {
      * @param receiver Renderer to use
      */
     public void draw(EventReceiver receiver) {
-        if (particles.size() <= 0) return;
-        for (Particle p : particles) {
-            if (p.position.getX() < 0 || p.position.getX() > 640) continue;
-            if (p.position.getY() < 0 || p.position.getY() > 480) continue;
+        if (particleCount <= 0) return;
+        for (int i = 0; i < particleCount; i++) {
+            // Not updated yet: the colour has not been set, so there is nothing to see.
+            if (lifetime[i] == 0) continue;
+            if (positionX[i] < 0 || positionX[i] > 640) continue;
+            if (positionY[i] < 0 || positionY[i] > 480) continue;
 
-            p.draw(drawingQueue);
+            // The colour is the one for the frame the last update started on, before it advanced the lifetime.
+            double t = (double) (lifetime[i] - 1) / maxLifetime[i];
+            int offset = i * COLOUR_STRIDE;
+            int red = Interpolation.lerp(colours[offset], colours[offset + 4], t);
+            int green = Interpolation.lerp(colours[offset + 1], colours[offset + 5], t);
+            int blue = Interpolation.lerp(colours[offset + 2], colours[offset + 6], t);
+            int alpha = Interpolation.lerp(colours[offset + 3], colours[offset + 7], t);
+
+            int x = (int) positionX[i] - (sizeX[i] / 2);
+            int y = (int) positionY[i] - (sizeY[i] / 2);
+            if (shapes[i] == SHAPE_CIRCLE) {
+                drawingQueue.drawOval(x, y, sizeX[i], sizeY[i], red, green, blue, alpha, true);
+            } else {
+                drawingQueue.drawRectangle(x, y, sizeX[i], sizeY[i], red, green, blue, alpha, true);
+            }
         }
         drawingQueue.renderAll(receiver);
     }
 
+    /**
+     * Gets the number of live particles.
+     *
+     * @return Live particle count.
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * Removes all particles. Storage is kept for reuse.
+     */
+    public void clear() {
+        particleCount = 0;
+    }
+
     /**
      * Add particles directly to the collection.
+     * The particle's current state is copied into the emitter; later changes to the object are not seen.
      *
      * @param particle Particle to add
      */
     public void addSpecific(Particle particle) {
-        particles.add(particle);
+        addParticle(particle.shape, particle.particleMaxLifetime,
+            particle.position.getX(), particle.position.getY(),
+            particle.velocity.getX(), particle.velocity.getY(),
+            particle.acceleration.getX(), particle.acceleration.getY(),
+            particle.sizeX, particle.sizeY,
+            particle.red, particle.green, particle.blue, particle.alpha,
+            particle.redEnd, particle.greenEnd, particle.blueEnd, particle.alphaEnd);
+    }
+
+    /**
+     * Add a particle without creating any objects.
+     *
+     * @param shape         The shape of the particle. Warning: SDL cannot draw circular particles.
+     * @param maxLifeTime   The maximum frame lifetime of the particle.
+     * @param x             X-coordinate of the particle.
+     * @param y             Y-coordinate of the particle.
+     * @param vx            X-component of the particle's velocity.
+     * @param vy            Y-component of the particle's velocity.
+     * @param ax            X-component of the particle's acceleration.
+     * @param ay            Y-component of the particle's acceleration.
+     * @param sizeX         Horizontal size of the particle.
+     * @param sizeY         Vertical size of the particle.
+     * @param red           Red component of colour.
+     * @param green         Green component of colour.
+     * @param blue          Blue component of colour.
+     * @param alpha         Alpha component of colour.
+     * @param redEnd        Red component of colour at particle death.
+     * @param greenEnd      Green component of colour at particle death.
+     * @param blueEnd       Blue component of colour at particle death.
+     * @param alphaEnd      Alpha component of colour at particle death.
+     */
+    protected void addParticle(Particle.ParticleShape shape, int maxLifeTime, double x, double y, double vx, double vy,
+                               double ax, double ay, int sizeX, int sizeY, int red, int green, int blue, int alpha,
+                               int redEnd, int greenEnd, int blueEnd, int alphaEnd) {
+        if (particleCount >= shapes.length) ensureCapacity(shapes.length * 2);
+
+        int i = particleCount++;
+        shapes[i] = (shape == Particle.ParticleShape.Circle) ? SHAPE_CIRCLE : SHAPE_RECTANGLE;
+        lifetime[i] = 0;
+        maxLifetime[i] = maxLifeTime;
+        positionX[i] = x;
+        positionY[i] = y;
+        velocityX[i] = vx;
+        velocityY[i] = vy;
+        accelerationX[i] = ax;
+        accelerationY[i] = ay;
+        this.sizeX[i] = sizeX;
+        this.sizeY[i] = sizeY;
+
+        int offset = i * COLOUR_STRIDE;
+        colours[offset] = red;
+        colours[offset + 1] = green;
+        colours[offset + 2] = blue;
+        colours[offset + 3] = alpha;
+        colours[offset + 4] = redEnd;
+        colours[offset + 5] = greenEnd;
+        colours[offset + 6] = blueEnd;
+        colours[offset + 7] = alphaEnd;
+    }
+
+    /**
+     * Grows the particle storage so it can hold at least <code>capacity</code> particles.
+     * Call this before a large burst to avoid growing several times while adding.
+     *
+     * @param capacity Required capacity
+     */
+    protected void ensureCapacity(int capacity) {
+        if (capacity <= shapes.length) return;
+
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        accelerationX = Arrays.copyOf(accelerationX, capacity);
+        accelerationY = Arrays.copyOf(accelerationY, capacity);
+        sizeX = Arrays.copyOf(sizeX, capacity);
+        sizeY = Arrays.copyOf(sizeY, capacity);
+        lifetime = Arrays.copyOf(lifetime, capacity);
+        maxLifetime = Arrays.copyOf(maxLifetime, capacity);
+        colours = Arrays.copyOf(colours, capacity * COLOUR_STRIDE);
+        shapes = Arrays.copyOf(shapes, capacity);
+    }
+
+    private void moveParticle(int from, int to) {
+        if (from == to) return;
+
+        shapes[to] = shapes[from];
+        lifetime[to] = lifetime[from];
+        maxLifetime[to] = maxLifetime[from];
+        positionX[to] = positionX[from];
+        positionY[to] = positionY[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        accelerationX[to] = accelerationX[from];
+        accelerationY[to] = accelerationY[from];
+        sizeX[to] = sizeX[from];
+        sizeY[to] = sizeY[from];
+        System.arraycopy(colours, from * COLOUR_STRIDE, colours, to * COLOUR_STRIDE, COLOUR_STRIDE);
     }
 
     /**
@@ -81,4 +268,4 @@ public abstract class ParticleEmitterBase {
      * @param params Parameters to pass onto the particles.
      */
     public abstract void addNumber(int num, Object[] params);
-}
\ No newline at end of file
+}
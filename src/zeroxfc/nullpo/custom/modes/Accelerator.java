@@ -12,6 +12,8 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 
 public class Accelerator extends MarathonModeBase {
@@ -31,10 +33,6 @@ public class Accelerator extends MarathonModeBase {
 
     // Maximum bonusbar charge
     private static final double MAX_BONUS_CHARGE = 360;
-    /**
-     * Rankings' pts counts
-     */
-    public double[][] rankingLines;
     /**
      * Profile loader
      * Use for setting and score loading
@@ -42,8 +40,7 @@ public class Accelerator extends MarathonModeBase {
     private ProfileProperties playerProperties;
     private boolean showPlayerStats;
     private int rankingRankPlayer;
-    private int[][] rankingScorePlayer, rankingTimePlayer;
-    private double[][] rankingLinesPlayer;
+    private RankingTable rankingPlayer;
     // Current bonusbar charge
     private double currentBonusCharge;
     // is bonus active?
@@ -102,14 +99,10 @@ public class Accelerator extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLinesPlayer = new double[RANKING_TYPE][RANKING_MAX];
-        rankingTimePlayer = new int[RANKING_TYPE][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLines = new double[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -225,7 +218,7 @@ public class Accelerator extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -451,10 +444,10 @@ public class Accelerator extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScorePlayer[goaltype][i]);
+                        String s = String.valueOf(rankingPlayer.getInt(goaltype, "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRankPlayer), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.format("%.1f", rankingLinesPlayer[goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(rankingTimePlayer[goaltype][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.format("%.1f", rankingPlayer.getDouble(goaltype, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(goaltype, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -464,10 +457,10 @@ public class Accelerator extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScore[goaltype][i]);
+                        String s = String.valueOf(ranking.getInt(goaltype, "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRank), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.format("%.1f", rankingLines[goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(rankingTime[goaltype][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.format("%.1f", ranking.getDouble(goaltype, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(ranking.getInt(goaltype, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -927,36 +920,24 @@ public class Accelerator extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then speed points, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScore[j][i] = prop.getProperty("accelerator.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("accelerator.ranking." + ruleName + "." + j + ".lines." + i, 0.0);
-                rankingTime[j][i] = prop.getProperty("accelerator.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highestDecimal("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("accelerator.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("accelerator.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("accelerator.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "accelerator.ranking." + ruleName + ".");
     }
 
     /**
@@ -966,31 +947,7 @@ public class Accelerator extends MarathonModeBase {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScorePlayer[j][i] = prop.getProperty("accelerator.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLinesPlayer[j][i] = prop.getProperty("accelerator.ranking." + ruleName + "." + j + ".lines." + i, 0.0);
-                rankingTimePlayer[j][i] = prop.getProperty("accelerator.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("accelerator.ranking." + ruleName + "." + j + ".score." + i, rankingScorePlayer[j][i]);
-                prop.setProperty("accelerator.ranking." + ruleName + "." + j + ".lines." + i, rankingLinesPlayer[j][i]);
-                prop.setProperty("accelerator.ranking." + ruleName + "." + j + ".time." + i, rankingTimePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "accelerator.ranking." + ruleName + ".");
     }
 
     /*
@@ -1013,13 +970,11 @@ public class Accelerator extends MarathonModeBase {
                 prop.setProperty("accelerator.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1033,82 +988,10 @@ public class Accelerator extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, double li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(type, sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[type][i] = rankingScorePlayer[type][i - 1];
-                    rankingLinesPlayer[type][i] = rankingLinesPlayer[type][i - 1];
-                    rankingTimePlayer[type][i] = rankingTimePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[type][rankingRankPlayer] = li;
-                rankingTimePlayer[type][rankingRankPlayer] = time;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, sc, li, time);
         }
     }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, double li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li == rankingLines[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, double li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li > rankingLinesPlayer[type][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li == rankingLinesPlayer[type][i]) && (time < rankingTimePlayer[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
 }
@@ -16,11 +16,12 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 import zeroxfc.nullpo.custom.libs.SideWaveText;
 import zeroxfc.nullpo.custom.libs.SoundLoader;
-import zeroxfc.nullpo.custom.libs.ValueWrapper;
 import zeroxfc.nullpo.custom.libs.WeightedRandomiser;
+import zeroxfc.nullpo.custom.modes.objects.collapse.GroupIndex;
 
 public class Collapse extends DummyMode {
     // Hey, have any of you played any of the Super Collapse games?
@@ -160,6 +161,8 @@ public class Collapse extends DummyMode {
     private int[][] rankingLevelPlayer;
     private int rankingRankPlayer;
     private boolean showPlayerStats;
+    private GroupIndex groupIndex;
+    private int[] groupCells;
 
     /*
      * ------ MAIN METHODS ------
@@ -172,7 +175,7 @@ public class Collapse extends DummyMode {
 
     @Override
     public void playerInit(GameEngine engine, int playerID) {
-        SoundLoader.loadSoundset(SoundLoader.LOADTYPE_COLLAPSE);
+        SoundLoader.loadSoundsetAsync(SoundLoader.LOADTYPE_COLLAPSE);
 
         owner = engine.owner;
         receiver = engine.owner.receiver;
@@ -306,7 +309,7 @@ public class Collapse extends DummyMode {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
                 return false;
             }
@@ -357,6 +360,12 @@ public class Collapse extends DummyMode {
             engine.dasRedirect();
         }
 
+        // Hold the countdown until the sounds are in. Replays wait here so their timing is unchanged.
+        if (engine.statc[0] == 0 && !SoundLoader.pollSoundset(SoundLoader.LOADTYPE_COLLAPSE)) {
+            if (owner.replayMode) SoundLoader.loadSoundset(SoundLoader.LOADTYPE_COLLAPSE);
+            else return true;
+        }
+
         // Initialization
         if (engine.statc[0] == 0) {
             engine.ruleopt.fieldWidth = 12;
@@ -385,6 +394,8 @@ public class Collapse extends DummyMode {
             engine.fieldHeight = engine.ruleopt.fieldHeight;
             engine.fieldHiddenHeight = engine.ruleopt.fieldHiddenHeight;
             engine.field = new Field(engine.fieldWidth, engine.fieldHeight, engine.fieldHiddenHeight, engine.ruleopt.fieldCeiling);
+            groupIndex = new GroupIndex();
+            groupCells = new int[engine.field.getWidth() * engine.field.getHeight()];
             engine.field.setAllAttribute(Block.BLOCK_ATTRIBUTE_OUTLINE, true);
             engine.field.setAllAttribute(Block.BLOCK_ATTRIBUTE_VISIBLE, true);
 
@@ -513,17 +524,17 @@ public class Collapse extends DummyMode {
         boolean fromBomb = false;
 
         if (engine.field.getBlock(fieldX, fieldY).color < 8 && engine.field.getBlock(fieldX, fieldY).color != Block.BLOCK_COLOR_GRAY) {
-            squares = getSquares(engine, fieldX, fieldY);
+            groupIndex.update(engine.field);
+            squares = groupIndex.getGroupSize(fieldX, fieldY);
 
             if (squares >= 3) {
                 score = getClearScore(engine, squares);
 
-                for (int y = 0; y < engine.field.getHeight(); y++) {
-                    for (int x = 0; x < engine.field.getWidth(); x++) {
-                        if (engine.field.getBlock(x, y).color == Block.BLOCK_COLOR_PURPLE) {
-                            engine.field.getBlock(x, y).setAttribute(Block.BLOCK_ATTRIBUTE_ERASE, true);
-                        }
-                    }
+                int count = groupIndex.getGroupCells(fieldX, fieldY, groupCells);
+                for (int i = 0; i < count; i++) {
+                    Block blk = engine.field.getBlock(groupCells[i] % groupIndex.getWidth(), groupCells[i] / groupIndex.getWidth());
+                    blk.secondaryColor = blk.color;
+                    blk.setAttribute(Block.BLOCK_ATTRIBUTE_ERASE, true);
                 }
 
                 int u = 0;
@@ -531,13 +542,6 @@ public class Collapse extends DummyMode {
                 engine.playSE(u == 1 ? "bigclear" : "normalclear");
             } else {
                 engine.playSE("noclear");
-                for (int y = 0; y < engine.field.getHeight(); y++) {
-                    for (int x = 0; x < engine.field.getWidth(); x++) {
-                        if (engine.field.getBlock(x, y).color == Block.BLOCK_COLOR_PURPLE) {
-                            engine.field.getBlock(x, y).color = engine.field.getBlock(x, y).secondaryColor;
-                        }
-                    }
-                }
             }
         } else if (engine.field.getBlock(fieldX, fieldY).color != Block.BLOCK_COLOR_GRAY) {
             fromBomb = true;
@@ -558,17 +562,13 @@ public class Collapse extends DummyMode {
 
                 score = (int) (getClearScore(engine, squares) * 0.75);
             } else {
-                squares = 0;
+                groupIndex.update(engine.field);
+                squares = groupIndex.getCellsInRadius(fieldX, fieldY, 4.5, groupCells);
 
-                for (int y = 0; y < engine.field.getHeight(); y++) {
-                    for (int x = 0; x < engine.field.getWidth(); x++) {
-                        if (isCoordWithinRadius(fieldX, fieldY, x, y, 4.5) && !engine.field.getBlockEmpty(x, y)) {
-                            engine.field.getBlock(x, y).secondaryColor = engine.field.getBlock(x, y).color;
-                            engine.field.getBlock(x, y).setAttribute(Block.BLOCK_ATTRIBUTE_ERASE, true);
-
-                            squares++;
-                        }
-                    }
+                for (int i = 0; i < squares; i++) {
+                    Block blk = engine.field.getBlock(groupCells[i] % groupIndex.getWidth(), groupCells[i] / groupIndex.getWidth());
+                    blk.secondaryColor = blk.color;
+                    blk.setAttribute(Block.BLOCK_ATTRIBUTE_ERASE, true);
                 }
 
                 score = (int) (getClearScore(engine, squares) * 0.5);
@@ -632,6 +632,7 @@ public class Collapse extends DummyMode {
         }
 
         if (brk > 0) {
+            groupIndex.invalidate();
             if (engine.field.freeFall()) engine.playSE("landing");
             else engine.playSE("nolanding");
             for (int i = 0; i < 6; i++) {
@@ -814,6 +815,7 @@ public class Collapse extends DummyMode {
                         if (blk.color > Block.BLOCK_COLOR_NONE) {
                             receiver.blockBreak(engine, playerID, x, y, blk);
                             engine.field.getBlock(x, y).copy(nblk);
+                            groupIndex.invalidate();
                         }
                     }
                 }
@@ -843,33 +845,6 @@ public class Collapse extends DummyMode {
         return index;
     }
 
-    private int getSquares(GameEngine engine, int x, int y) {
-        ValueWrapper wrapper = new ValueWrapper();
-
-        flagSquares(engine, wrapper, x, y, engine.field.getBlockColor(x, y));
-
-        return wrapper.valueInt;
-    }
-
-    private void flagSquares(GameEngine engine, ValueWrapper counter, int x, int y, int color) {
-        if (x >= 0 && x < 12 && y >= 0 && y < 16) {
-            if (engine.field.getBlockColor(x, y) == color || engine.field.getBlockColor(x, y) == 35 || engine.field.getBlockColor(x, y) == (7 + color)) {
-                counter.valueInt++;
-                engine.field.getBlock(x, y).secondaryColor = engine.field.getBlock(x, y).color;
-                engine.field.getBlock(x, y).color = Block.BLOCK_COLOR_PURPLE;
-
-                flagSquares(engine, counter, x + 1, y, color);
-                flagSquares(engine, counter, x - 1, y, color);
-                flagSquares(engine, counter, x, y + 1, color);
-                flagSquares(engine, counter, x, y - 1, color);
-            } else {
-                return;
-            }
-        } else {
-            return;
-        }
-    }
-
     private void resetBlockArray(GameEngine engine) {
         for (int i = 0; i < nextBlocks.length; i++) {
             nextBlocks[i] = new Block(Block.BLOCK_COLOR_NONE);
@@ -879,6 +854,7 @@ public class Collapse extends DummyMode {
     }
 
     private void incrementField(GameEngine engine) {
+        groupIndex.invalidate();
         for (int y = -1; y < engine.field.getHeight() - 1; y++) {
             for (int x = 0; x < engine.field.getWidth(); x++) {
                 engine.field.getBlock(x, y).copy(engine.field.getBlock(x, y + 1));
@@ -1170,7 +1146,7 @@ public class Collapse extends DummyMode {
                     saveRankingPlayer(playerProperties);
                     playerProperties.saveProfileConfig();
                 }
-                receiver.saveModeConfig(owner.modeConfig);
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
 
                 for (int i = 0; i < owner.getPlayers(); i++) {
                     if ((i == playerID) || (engine.gameoverAll)) {
@@ -1611,24 +1587,6 @@ public class Collapse extends DummyMode {
         return getClearScore(engine, s) / 48;
     }
 
-    /**
-     * Checks if a coordinate is within a certain radius.
-     *
-     * @param x      X-coordinate of circle's centre.
-     * @param y      Y-coordinate of circle's centre.
-     * @param xTest  X-coordinate of test square.
-     * @param yTest  Y-coordinate of test square.
-     * @param radius The testing radius
-     * @return The result of the check. true: within. false: not within.
-     */
-    private boolean isCoordWithinRadius(int x, int y, int xTest, int yTest, double radius) {
-        int dX = xTest - x;
-        int dY = yTest - y;
-
-        double distance = Math.sqrt((dX * dX) + (dY * dY));
-        return (distance <= radius);
-    }
-
     private void explode(GameEngine engine) {
         engine.playSE("bombexplode");
     }
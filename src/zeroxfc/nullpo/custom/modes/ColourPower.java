@@ -18,6 +18,8 @@ import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.FieldManipulation;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 
 public class ColourPower extends MarathonModeBase {
@@ -58,6 +60,13 @@ public class ColourPower extends MarathonModeBase {
         EventReceiver.COLOR_DARKBLUE,
         EventReceiver.COLOR_PURPLE,
     };
+    // Ranking keys: [prefix][rulebound].[game type].[column].[rank]
+    private static final RankingTable.KeyFormat RANKING_KEYS = new RankingTable.KeyFormat() {
+        @Override
+        public String getKey(String prefix, int type, String column, int rank) {
+            return prefix + (type / RANKING_TYPE) + "." + (type % RANKING_TYPE) + "." + column + "." + rank;
+        }
+    };
     int l;
     // Power meter values
     private int[] meterValues;
@@ -83,18 +92,6 @@ public class ColourPower extends MarathonModeBase {
     private boolean preset;
     // LastScore
     private int scoreBeforeIncrease;
-    /**
-     * Rankings' scores
-     */
-    private int[][][] rankingScore;
-    /**
-     * Rankings' line counts
-     */
-    private int[][][] rankingLines;
-    /**
-     * Rankings' times
-     */
-    private int[][][] rankingTime;
     /**
      * Player profile
      */
@@ -104,17 +101,9 @@ public class ColourPower extends MarathonModeBase {
      */
     private int rankingRankPlayer;
     /**
-     * Rankings' scores
+     * Player rankings: score, line count and time
      */
-    private int[][][] rankingScorePlayer;
-    /**
-     * Rankings' line counts
-     */
-    private int[][][] rankingLinesPlayer;
-    /**
-     * Rankings' times
-     */
-    private int[][][] rankingTimePlayer;
+    private RankingTable rankingPlayer;
     private boolean showPlayerStats;
     /**
      * The good hard drop effect
@@ -167,14 +156,10 @@ public class ColourPower extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[2][RANKING_TYPE][RANKING_MAX];
-        rankingLinesPlayer = new int[2][RANKING_TYPE][RANKING_MAX];
-        rankingTimePlayer = new int[2][RANKING_TYPE][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         rankingRank = -1;
-        rankingScore = new int[2][RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[2][RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[2][RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -286,7 +271,7 @@ public class ColourPower extends MarathonModeBase {
             if (engine.ctrl.isPush(Controller.BUTTON_A) && (engine.statc[3] >= 5)) {
                 engine.playSE("decide");
                 saveSetting(owner.modeConfig);
-                receiver.saveModeConfig(owner.modeConfig);
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
 
                 // NET: Signal start of the game
                 if (netIsNetPlay) netLobby.netPlayerClient.send("start1p\n");
@@ -571,10 +556,10 @@ public class ColourPower extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScorePlayer[ruleboundMode ? 1 : 0][goaltype][i]);
+                        String s = String.valueOf(rankingPlayer.getInt(getRankingType(ruleboundMode ? 1 : 0, goaltype), "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRankPlayer), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[ruleboundMode ? 1 : 0][goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[ruleboundMode ? 1 : 0][goaltype][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(getRankingType(ruleboundMode ? 1 : 0, goaltype), "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(getRankingType(ruleboundMode ? 1 : 0, goaltype), "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -584,10 +569,10 @@ public class ColourPower extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScore[ruleboundMode ? 1 : 0][goaltype][i]);
+                        String s = String.valueOf(ranking.getInt(getRankingType(ruleboundMode ? 1 : 0, goaltype), "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRank), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[ruleboundMode ? 1 : 0][goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[ruleboundMode ? 1 : 0][goaltype][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(getRankingType(ruleboundMode ? 1 : 0, goaltype), "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(getRankingType(ruleboundMode ? 1 : 0, goaltype), "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -1157,13 +1142,11 @@ public class ColourPower extends MarathonModeBase {
                 prop.setProperty("colourpower.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1250,40 +1233,27 @@ public class ColourPower extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table, one game type per rulebound setting and goal.
+     * Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int h = 0; h < 2; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    rankingScore[h][j][i] = prop.getProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".score." + i, 0);
-                    rankingLines[h][j][i] = prop.getProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".lines." + i, 0);
-                    rankingTime[h][j][i] = prop.getProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".time." + i, 0);
-                }
-            }
-        }
+    private static RankingTable createRankingTable() {
+        RankingTable table = new RankingTable(2 * RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
+        table.setKeyFormat(RANKING_KEYS);
+        return table;
     }
 
     /**
-     * Save rankings to property file
+     * Gets the ranking table type of a rulebound setting and goal.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @param rulebound 1 if rulebound, 0 otherwise
+     * @param goal      Goal type
+     * @return Ranking table type
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int h = 0; h < 2; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    prop.setProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".score." + i, rankingScore[h][j][i]);
-                    prop.setProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".lines." + i, rankingLines[h][j][i]);
-                    prop.setProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".time." + i, rankingTime[h][j][i]);
-                }
-            }
-        }
+    private static int getRankingType(int rulebound, int goal) {
+        return (rulebound * RANKING_TYPE) + goal;
     }
 
     /**
@@ -1292,36 +1262,19 @@ public class ColourPower extends MarathonModeBase {
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int h = 0; h < 2; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    rankingScorePlayer[h][j][i] = prop.getProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".score." + i, 0);
-                    rankingLinesPlayer[h][j][i] = prop.getProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".lines." + i, 0);
-                    rankingTimePlayer[h][j][i] = prop.getProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".time." + i, 0);
-                }
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "colourpower.ranking." + ruleName + ".");
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int h = 0; h < 2; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    prop.setProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".score." + i, rankingScorePlayer[h][j][i]);
-                    prop.setProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".lines." + i, rankingLinesPlayer[h][j][i]);
-                    prop.setProperty("colourpower.ranking." + ruleName + "." + h + "." + j + ".time." + i, rankingTimePlayer[h][j][i]);
-                }
-            }
-        }
+    private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
+        rankingPlayer.load(prop, "colourpower.ranking." + ruleName + ".");
     }
 
     /**
@@ -1332,83 +1285,11 @@ public class ColourPower extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[ruleboundMode ? 1 : 0][type][i] = rankingScore[ruleboundMode ? 1 : 0][type][i - 1];
-                rankingLines[ruleboundMode ? 1 : 0][type][i] = rankingLines[ruleboundMode ? 1 : 0][type][i - 1];
-                rankingTime[ruleboundMode ? 1 : 0][type][i] = rankingTime[ruleboundMode ? 1 : 0][type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[ruleboundMode ? 1 : 0][type][rankingRank] = sc;
-            rankingLines[ruleboundMode ? 1 : 0][type][rankingRank] = li;
-            rankingTime[ruleboundMode ? 1 : 0][type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(getRankingType(ruleboundMode ? 1 : 0, type), sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[ruleboundMode ? 1 : 0][type][i] = rankingScorePlayer[ruleboundMode ? 1 : 0][type][i - 1];
-                    rankingLinesPlayer[ruleboundMode ? 1 : 0][type][i] = rankingLinesPlayer[ruleboundMode ? 1 : 0][type][i - 1];
-                    rankingTimePlayer[ruleboundMode ? 1 : 0][type][i] = rankingTimePlayer[ruleboundMode ? 1 : 0][type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[ruleboundMode ? 1 : 0][type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[ruleboundMode ? 1 : 0][type][rankingRankPlayer] = li;
-                rankingTimePlayer[ruleboundMode ? 1 : 0][type][rankingRankPlayer] = time;
-            }
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[ruleboundMode ? 1 : 0][type][i]) {
-                return i;
-            } else if ((sc == rankingScore[ruleboundMode ? 1 : 0][type][i]) && (li > rankingLines[ruleboundMode ? 1 : 0][type][i])) {
-                return i;
-            } else if ((sc == rankingScore[ruleboundMode ? 1 : 0][type][i]) && (li == rankingLines[ruleboundMode ? 1 : 0][type][i]) && (time < rankingTime[ruleboundMode ? 1 : 0][type][i])) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(getRankingType(ruleboundMode ? 1 : 0, type), sc, li, time);
         }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[ruleboundMode ? 1 : 0][type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[ruleboundMode ? 1 : 0][type][i]) && (li > rankingLinesPlayer[ruleboundMode ? 1 : 0][type][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[ruleboundMode ? 1 : 0][type][i]) && (li == rankingLinesPlayer[ruleboundMode ? 1 : 0][type][i]) && (time < rankingTimePlayer[ruleboundMode ? 1 : 0][type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
     }
 
     // Add to meter at specific index
@@ -11,6 +11,8 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.GameTextUtilities;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.libs.SoundLoader;
 
@@ -89,9 +91,7 @@ public class Constantris extends MarathonModeBase {
     private int honkTimer;
 
     private ProfileProperties playerProperties;
-    private int[][] rankingScorePlayer;
-    private int[][] rankingLinesPlayer;
-    private int[][] rankingTimePlayer;
+    private RankingTable rankingPlayer;
     private int rankingRankPlayer;
     private boolean showPlayerStats;
     private String PLAYER_NAME;
@@ -163,14 +163,10 @@ public class Constantris extends MarathonModeBase {
         hasPenalised = false;
 
         rankingRank = -1;
-        rankingScore = new int[DIFFICULTIES][RANKING_MAX];
-        rankingLines = new int[DIFFICULTIES][RANKING_MAX];
-        rankingTime = new int[DIFFICULTIES][RANKING_MAX];
+        ranking = createRankingTable();
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[DIFFICULTIES][RANKING_MAX];
-        rankingLinesPlayer = new int[DIFFICULTIES][RANKING_MAX];
-        rankingTimePlayer = new int[DIFFICULTIES][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         unfair = false;
         honkTimer = 0;
@@ -274,7 +270,7 @@ public class Constantris extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -598,9 +594,9 @@ public class Constantris extends MarathonModeBase {
 
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScorePlayer[difficulty][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[difficulty][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[difficulty][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingPlayer.getInt(difficulty, "score", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(difficulty, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(difficulty, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -614,9 +610,9 @@ public class Constantris extends MarathonModeBase {
 
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScore[difficulty][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[difficulty][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[difficulty][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(ranking.getInt(difficulty, "score", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(difficulty, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(difficulty, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -1032,13 +1028,11 @@ public class Constantris extends MarathonModeBase {
                 prop.setProperty("constantris.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1123,36 +1117,24 @@ public class Constantris extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < DIFFICULTIES; j++) {
-                rankingScore[j][i] = prop.getProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(DIFFICULTIES, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < DIFFICULTIES; j++) {
-                prop.setProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "constantris.ranking." + CURRENT_VERSION + "." + ruleName + ".");
     }
 
     /**
@@ -1162,29 +1144,7 @@ public class Constantris extends MarathonModeBase {
      * @param ruleName Rule name
      */
     protected void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < DIFFICULTIES; j++) {
-                rankingScorePlayer[j][i] = prop.getProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".score." + i, 0);
-                rankingLinesPlayer[j][i] = prop.getProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTimePlayer[j][i] = prop.getProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < DIFFICULTIES; j++) {
-                prop.setProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("constantris.ranking." + CURRENT_VERSION + "." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "constantris.ranking." + CURRENT_VERSION + "." + ruleName + ".");
     }
 
     /**
@@ -1195,83 +1155,11 @@ public class Constantris extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(type, sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[type][i] = rankingScorePlayer[type][i - 1];
-                    rankingLinesPlayer[type][i] = rankingLinesPlayer[type][i - 1];
-                    rankingTimePlayer[type][i] = rankingTimePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[type][rankingRankPlayer] = li;
-                rankingTimePlayer[type][rankingRankPlayer] = time;
-            }
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li == rankingLines[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, sc, li, time);
         }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li > rankingLinesPlayer[type][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li == rankingLinesPlayer[type][i]) && (time < rankingTimePlayer[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
     }
 
     // endregion
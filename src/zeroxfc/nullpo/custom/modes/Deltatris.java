@@ -12,6 +12,8 @@ import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.GameTextUtilities;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.libs.ShakingText;
 
@@ -81,16 +83,11 @@ public class Deltatris extends MarathonModeBase {
     private int scorebefore;
     // GENERIC
     private int rankingRank;
-    private int[][] rankingScore;
-    private int[][] rankingTime;
-    private int[][] rankingLines;
     // PROFILE
     private ProfileProperties playerProperties = null;
     private boolean showPlayerStats;
     private int rankingRankPlayer;
-    private int[][] rankingScorePlayer;
-    private int[][] rankingTimePlayer;
-    private int[][] rankingLinesPlayer;
+    private RankingTable rankingPlayer;
     private String PLAYER_NAME;
 
     /**
@@ -133,9 +130,7 @@ public class Deltatris extends MarathonModeBase {
         difficulty = 1;
 
         rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         while (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -144,9 +139,7 @@ public class Deltatris extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLinesPlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTimePlayer = new int[RANKING_TYPE][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         pCoordList = new ArrayList<>();
         cPiece = null;
@@ -265,7 +258,7 @@ public class Deltatris extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -448,9 +441,9 @@ public class Deltatris extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScorePlayer[difficulty][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[difficulty][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[difficulty][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingPlayer.getInt(difficulty, "score", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(difficulty, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(difficulty, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -460,9 +453,9 @@ public class Deltatris extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScore[difficulty][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[difficulty][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[difficulty][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(ranking.getInt(difficulty, "score", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(difficulty, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(difficulty, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -946,13 +939,11 @@ public class Deltatris extends MarathonModeBase {
                 prop.setProperty("deltatris.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1030,36 +1021,24 @@ public class Deltatris extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScore[j][i] = prop.getProperty("deltatris.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("deltatris.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("deltatris.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("deltatris.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("deltatris.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("deltatris.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "deltatris.ranking." + ruleName + ".");
     }
 
     /**
@@ -1069,31 +1048,7 @@ public class Deltatris extends MarathonModeBase {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScorePlayer[j][i] = prop.getProperty("deltatris.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLinesPlayer[j][i] = prop.getProperty("deltatris.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTimePlayer[j][i] = prop.getProperty("deltatris.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("deltatris.ranking." + ruleName + "." + j + ".score." + i, rankingScorePlayer[j][i]);
-                prop.setProperty("deltatris.ranking." + ruleName + "." + j + ".lines." + i, rankingLinesPlayer[j][i]);
-                prop.setProperty("deltatris.ranking." + ruleName + "." + j + ".time." + i, rankingTimePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "deltatris.ranking." + ruleName + ".");
     }
 
     /**
@@ -1104,82 +1059,10 @@ public class Deltatris extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(type, sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[type][i] = rankingScorePlayer[type][i - 1];
-                    rankingLinesPlayer[type][i] = rankingLinesPlayer[type][i - 1];
-                    rankingTimePlayer[type][i] = rankingTimePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[type][rankingRankPlayer] = li;
-                rankingTimePlayer[type][rankingRankPlayer] = time;
-            }
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li == rankingLines[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, sc, li, time);
         }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li > rankingLinesPlayer[type][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li == rankingLinesPlayer[type][i]) && (time < rankingTimePlayer[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
     }
 }
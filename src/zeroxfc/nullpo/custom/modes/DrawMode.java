@@ -1,7 +1,6 @@
 package zeroxfc.nullpo.custom.modes;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
 import mu.nu.nullpo.game.component.Block;
 import mu.nu.nullpo.game.component.Field;
@@ -9,7 +8,9 @@ import mu.nu.nullpo.game.component.Piece;
 import mu.nu.nullpo.game.play.GameEngine;
 import mu.nu.nullpo.util.CustomProperties;
 import org.apache.log4j.Logger;
-import zeroxfc.nullpo.custom.libs.FieldManipulation;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
+import zeroxfc.nullpo.custom.libs.ShapeTemplateMatcher;
 
 public class DrawMode extends MarathonModeBase {
     /**
@@ -151,7 +152,7 @@ public class DrawMode extends MarathonModeBase {
 
     // region SHAPES
     // Aww s#/t! Here we go again...
-    private static final ArrayList<Field> SHAPE_FIELDS = new ArrayList<>();
+    private static final ShapeTemplateMatcher SHAPE_MATCHER = ShapeTemplateMatcher.fromShapes(SHAPES);
     private static final int[] SHAPE_TO_PIECE_ID = {
         0, 0, 1, 1, 1, 1, 2, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 6, 6
     };
@@ -171,28 +172,8 @@ public class DrawMode extends MarathonModeBase {
 //
 //	};
 
-    static {
-        for (int i = 0; i < SHAPES.length; i++) {
-            int[][] shape = SHAPES[i];
-            int dimX = shape[0].length;
-            int dimY = shape.length;
-
-            SHAPE_FIELDS.add(new Field(dimX, dimY, 0));
-
-            for (int y = 0; y < dimY; y++) {
-                for (int x = 0; x < dimX; x++) {
-                    SHAPE_FIELDS.get(i).getBlock(x, y).copy(new Block(shape[y][x], 0));
-                }
-            }
-        }
-    }
-
     // endregion SHAPES
 
-    /**
-     * The match confidence of the field to each piece.
-     */
-    private ArrayList<Double> matchConfidences;
 
     /**
      * Default Pieces
@@ -247,7 +228,6 @@ public class DrawMode extends MarathonModeBase {
         lastpiece = 0;
         bgmlv = 0;
 
-        matchConfidences = new ArrayList<>();
 
         pieceSet = new ArrayList<>();
 
@@ -256,9 +236,7 @@ public class DrawMode extends MarathonModeBase {
         pieceStartX = 0;
 
         rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         placementRandomiser = null;
 
@@ -412,9 +390,8 @@ public class DrawMode extends MarathonModeBase {
         if ((owner.replayMode == false) && (big == false) && (engine.ai == null)) {
             updateRanking(engine.statistics.score, engine.statistics.lines, engine.statistics.time, goaltype);
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
         }
     }
@@ -458,36 +435,24 @@ public class DrawMode extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScore[j][i] = prop.getProperty("drawMode.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("drawMode.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("drawMode.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("drawMode.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("drawMode.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("drawMode.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "drawMode.ranking." + ruleName + ".");
     }
 
     /**
@@ -498,43 +463,7 @@ public class DrawMode extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li == rankingLines[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
+        rankingRank = ranking.insert(type, sc, li, time);
     }
 
     // endregion
@@ -545,16 +474,7 @@ public class DrawMode extends MarathonModeBase {
      * @param engine
      */
     private void parseMatches(GameEngine engine) {
-        matchConfidences.clear();
-        int index = 0;
-        for (Field field : SHAPE_FIELDS) {
-            // log.debug("INDEX " + index + ":");
-            matchConfidences.add(FieldManipulation.fieldCompare(engine.field, field));
-            index++;
-        }
-
-        double currentMaxMatchValue = Collections.max(matchConfidences);
-        currentMaxIndex = matchConfidences.indexOf(currentMaxMatchValue);
+        currentMaxIndex = SHAPE_MATCHER.findBestMatch(engine.field).index;
         currentPieceID = SHAPE_TO_PIECE_ID[currentMaxIndex];
     }
 }
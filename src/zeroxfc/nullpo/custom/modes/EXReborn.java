@@ -14,6 +14,8 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.wallkick.TetrisEXWallkick;
 
@@ -61,17 +63,9 @@ public class EXReborn extends DummyMode {
     private static final int CURRENT_VERSION = 2;
     private static final int headerColour = EventReceiver.COLOR_BLUE;
     /**
-     * Rankings' scores
+     * Rankings: score, level and time
      */
-    private int[] rankingScore;
-    /**
-     * Rankings' level
-     */
-    private int[] rankingLevel;
-    /**
-     * Rankings' times
-     */
-    private int[] rankingTime;
+    private RankingTable ranking;
     /**
      * The good hard drop effect
      */
@@ -92,19 +86,9 @@ public class EXReborn extends DummyMode {
     private int rankingRankPlayer;
 
     /**
-     * Rankings' scores
+     * Player rankings: score, level and time
      */
-    private int[] rankingScorePlayer;
-
-    /**
-     * Rankings' level
-     */
-    private int[] rankingLevelPlayer;
-
-    /**
-     * Rankings' times
-     */
-    private int[] rankingTimePlayer;
+    private RankingTable rankingPlayer;
 
     /**
      * Mode name
@@ -126,13 +110,9 @@ public class EXReborn extends DummyMode {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[RANKING_MAX];
-        rankingLevelPlayer = new int[RANKING_MAX];
-        rankingTimePlayer = new int[RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
-        rankingScore = new int[RANKING_MAX];
-        rankingLevel = new int[RANKING_MAX];
-        rankingTime = new int[RANKING_MAX];
+        ranking = createRankingTable();
 
         engine.speed.denominator = gravityDenominator;
         engine.speed.gravity = 2;
@@ -204,7 +184,7 @@ public class EXReborn extends DummyMode {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 return false;
@@ -1254,9 +1234,9 @@ public class EXReborn extends DummyMode {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScorePlayer[i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, getLevelName(rankingLevelPlayer[i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(rankingTimePlayer[i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingPlayer.getInt(0, "score", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, getLevelName(rankingPlayer.getInt(0, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(0, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -1266,9 +1246,9 @@ public class EXReborn extends DummyMode {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScore[i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, getLevelName(rankingLevel[i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(rankingTime[i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(ranking.getInt(0, "score", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, getLevelName(ranking.getInt(0, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 16, topY + i, GeneralUtil.getTime(ranking.getInt(0, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -1416,13 +1396,11 @@ public class EXReborn extends DummyMode {
                 prop.setProperty("exreborn.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1477,31 +1455,26 @@ public class EXReborn extends DummyMode {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then level, then time.
+     * Levels are kept under the <code>lines</code> key, as they always have been.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            rankingScore[i] = prop.getProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".score." + i, 0);
-            rankingLevel[i] = prop.getProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".lines." + i, 0);
-            rankingTime[i] = prop.getProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".time." + i, 0);
-        }
+    private static RankingTable createRankingTable() {
+        RankingTable table = new RankingTable(1, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
+        table.setKeyFormat(RankingTable.KEYS_UNTYPED);
+        return table;
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            prop.setProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".score." + i, rankingScore[i]);
-            prop.setProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".lines." + i, rankingLevel[i]);
-            prop.setProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".time." + i, rankingTime[i]);
-        }
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".");
     }
 
     /**
@@ -1511,27 +1484,7 @@ public class EXReborn extends DummyMode {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            rankingScorePlayer[i] = prop.getProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".score." + i, 0);
-            rankingLevelPlayer[i] = prop.getProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".lines." + i, 0);
-            rankingTimePlayer[i] = prop.getProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".time." + i, 0);
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            prop.setProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".score." + i, rankingScorePlayer[i]);
-            prop.setProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".lines." + i, rankingLevelPlayer[i]);
-            prop.setProperty("exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".time." + i, rankingTimePlayer[i]);
-        }
+        rankingPlayer.load(prop, "exreborn.ranking." + CURRENT_VERSION + "." + ruleName + ".");
     }
 
     /**
@@ -1542,83 +1495,11 @@ public class EXReborn extends DummyMode {
      * @param time Time
      */
     private void updateRanking(int sc, int lv, int time) {
-        rankingRank = checkRanking(sc, lv, time);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[i] = rankingScore[i - 1];
-                rankingLevel[i] = rankingLevel[i - 1];
-                rankingTime[i] = rankingTime[i - 1];
-            }
-
-            // Add new data
-            rankingScore[rankingRank] = sc;
-            rankingLevel[rankingRank] = lv;
-            rankingTime[rankingRank] = time;
-        }
+        rankingRank = ranking.insert(0, sc, lv, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, lv, time);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[i] = rankingScorePlayer[i - 1];
-                    rankingLevelPlayer[i] = rankingLevelPlayer[i - 1];
-                    rankingTimePlayer[i] = rankingTimePlayer[i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[rankingRankPlayer] = sc;
-                rankingLevelPlayer[rankingRankPlayer] = lv;
-                rankingTimePlayer[rankingRankPlayer] = time;
-            }
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param lv   Level
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int lv, int time) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[i]) {
-                return i;
-            } else if ((sc == rankingScore[i]) && (lv > rankingLevel[i])) {
-                return i;
-            } else if ((sc == rankingScore[i]) && (lv == rankingLevel[i]) && (time < rankingTime[i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param lv   Level
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int lv, int time) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[i]) && (lv > rankingLevelPlayer[i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[i]) && (lv == rankingLevelPlayer[i]) && (time < rankingTimePlayer[i])) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(0, sc, lv, time);
         }
-
-        return -1;
     }
 
     /**
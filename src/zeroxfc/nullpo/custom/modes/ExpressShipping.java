@@ -227,7 +227,7 @@ public class ExpressShipping extends PuzzleGameEngine {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
                 return false;
             }
@@ -524,7 +524,7 @@ public class ExpressShipping extends PuzzleGameEngine {
             if (engine.stat == GameEngine.STAT_GAMEOVER) {
                 updateRanking(engine.statistics.score, engine.statistics.level);
                 if (rankingRank != -1) saveRanking(owner.modeConfig);
-                if (rankingRank != -1) receiver.saveModeConfig(owner.modeConfig);
+                if (rankingRank != -1) PropertiesWriter.saveModeConfig(owner.modeConfig);
                 if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) saveRankingPlayer(playerProperties);
                 if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) playerProperties.saveProfileConfig();
             }
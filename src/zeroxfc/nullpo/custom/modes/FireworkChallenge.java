@@ -21,6 +21,7 @@ import org.apache.log4j.Logger;
 import zeroxfc.nullpo.custom.libs.ArrayRandomiser;
 import zeroxfc.nullpo.custom.libs.FieldManipulation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.libs.ScrollingMarqueeText;
 import zeroxfc.nullpo.custom.libs.SoundLoader;
@@ -441,7 +442,7 @@ public class FireworkChallenge extends DummyMode {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
                 showBests = false;
                 sectionsComplete = 0;
@@ -1575,7 +1576,7 @@ public class FireworkChallenge extends DummyMode {
 
             if ((rankingRank != -1) || (sectionPBGet)) {
                 saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
             if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
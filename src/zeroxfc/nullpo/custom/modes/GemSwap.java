@@ -13,6 +13,7 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import org.apache.log4j.Logger;
 import zeroxfc.nullpo.custom.libs.MouseParser;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 import zeroxfc.nullpo.custom.modes.objects.gemswap.Effect;
 import zeroxfc.nullpo.custom.modes.objects.gemswap.GemField;
@@ -152,7 +153,7 @@ public class GemSwap extends DummyMode {
             if (engine.ctrl.isPush(Controller.BUTTON_A) && (engine.statc[3] >= 5)) {
                 engine.playSE("decide");
                 saveSetting(owner.modeConfig);
-                receiver.saveModeConfig(owner.modeConfig);
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
                 return false;
             }
 
@@ -290,7 +291,7 @@ public class GemSwap extends DummyMode {
             } else {
                 // if (enableBombs) updateRanking(engine.statistics.score, difficulty, engine.statistics.level + 1);
                 // if (rankingRank != -1) saveRanking(owner.modeConfig);
-                // receiver.saveModeConfig(owner.modeConfig);
+                // PropertiesWriter.saveModeConfig(owner.modeConfig);
 
                 for (int i = 0; i < owner.getPlayers(); i++) {
                     if ((i == playerID) || (engine.gameoverAll)) {
@@ -18,6 +18,8 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.ArrayRandomiser;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.libs.ScrollingMarqueeText;
 
@@ -227,6 +229,13 @@ public class IdiotMode extends DummyMode {
     private static final int GAMETYPE_MAX = 5;
     // Game Type Names
     private static final String[] GAMETYPE_NAMES = { "DEATH", "OMEN", "MASTERY", "ABSOLUTE", "SHORT" };
+    // Ranking keys: [prefix][column].[game type name].[rank]
+    private static final RankingTable.KeyFormat RANKING_KEYS = new RankingTable.KeyFormat() {
+        @Override
+        public String getKey(String prefix, int type, String column, int rank) {
+            return prefix + column + "." + GAMETYPE_NAMES[type] + "." + rank;
+        }
+    };
     // Spin chain bonus values, for use with PositiveClamp()
     private static final int[] SPIN_CHAIN_LEVELBONUS = { 0, 0, 1, 1, 2, 2, 3 };
     // Scoring event constants
@@ -330,10 +339,7 @@ public class IdiotMode extends DummyMode {
     private boolean showGrade;        // Show grade in-game?
     private int version;              // Current mode version
     private int currentGameRank;      // Current attempt's rank
-    private int[][] rankingGrade;     // Grade rankings
-    private int[][] rankingLevel;     // Level rankings
-    private int[][] rankingTime;      // Time rankings
-    private int[][] rollClear;        // Has roll been cleared?
+    private RankingTable ranking;     // Roll clear, grade, level and time rankings
     private int[][] sectionBests;     // Best section times
     private int tspinEnableType;      // Which? 0 = disabled, 1 = t, 2 = all
     private boolean enableTSpinKick;  // Allow kick-spin?
@@ -354,14 +360,11 @@ public class IdiotMode extends DummyMode {
     private String PLAYER_NAME;
     private boolean showPlayerStats;
     private int currentGameRankPlayer;      // Current attempt's rank
-    private int[][] rankingGradePlayer;     // Grade rankings
-    private int[][] rankingLevelPlayer;     // Level rankings
+    private RankingTable rankingPlayer;     // Roll clear, grade, level and time rankings
 
     /*
      * [--- OVERRIDE METHOD BLOCK ---]
      */
-    private int[][] rankingTimePlayer;      // Time rankings
-    private int[][] rollClearPlayer;        // Has roll been cleared?
 
     // Mode Name
     @Override
@@ -434,10 +437,7 @@ public class IdiotMode extends DummyMode {
 
         currentGameRank = -1;
 
-        rankingGrade = new int[GAMETYPE_MAX][RANKING_MAX];
-        rankingLevel = new int[GAMETYPE_MAX][RANKING_MAX];
-        rankingTime = new int[GAMETYPE_MAX][RANKING_MAX];
-        rollClear = new int[GAMETYPE_MAX][RANKING_MAX];
+        ranking = createRankingTable();
 
         if (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -446,10 +446,7 @@ public class IdiotMode extends DummyMode {
         }
 
         currentGameRankPlayer = -1;
-        rankingGradePlayer = new int[GAMETYPE_MAX][RANKING_MAX];
-        rankingLevelPlayer = new int[GAMETYPE_MAX][RANKING_MAX];
-        rankingTimePlayer = new int[GAMETYPE_MAX][RANKING_MAX];
-        rollClearPlayer = new int[GAMETYPE_MAX][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         sectionBests = new int[GAMETYPE_MAX][];
         sectionBests[0] = new int[SECTION_MAX[0]];
@@ -708,7 +705,7 @@ public class IdiotMode extends DummyMode {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig, engine.ruleopt.strRuleName);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 sectionCount = 0;
@@ -936,13 +933,13 @@ public class IdiotMode extends DummyMode {
                         if (showPlayerStats) {
                             for (int i = 0; i < RANKING_MAX; i++) {
                                 int gcolor = EventReceiver.COLOR_WHITE;
-                                if (rollClearPlayer[gameType][i] == 1) gcolor = EventReceiver.COLOR_GREEN;
-                                if (rollClearPlayer[gameType][i] == 2) gcolor = EventReceiver.COLOR_ORANGE;
+                                if (rankingPlayer.getInt(gameType, "rollclear", i) == 1) gcolor = EventReceiver.COLOR_GREEN;
+                                if (rankingPlayer.getInt(gameType, "rollclear", i) == 2) gcolor = EventReceiver.COLOR_ORANGE;
 
                                 receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                                receiver.drawScoreFont(engine, playerID, 3, topY + i, getShortGradeNames()[gameType][rankingGradePlayer[gameType][i]], gcolor, scale);
-                                receiver.drawScoreFont(engine, playerID, 9, topY + i, String.valueOf(rankingLevelPlayer[gameType][i]), (i == currentGameRankPlayer), scale);
-                                receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[gameType][i]), (i == currentGameRankPlayer), scale);
+                                receiver.drawScoreFont(engine, playerID, 3, topY + i, getShortGradeNames()[gameType][rankingPlayer.getInt(gameType, "grade", i)], gcolor, scale);
+                                receiver.drawScoreFont(engine, playerID, 9, topY + i, String.valueOf(rankingPlayer.getInt(gameType, "level", i)), (i == currentGameRankPlayer), scale);
+                                receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(gameType, "time", i)), (i == currentGameRankPlayer), scale);
                             }
 
                             receiver.drawScoreFont(engine, playerID, 0, 17, "F:VIEW SECTION TIME", EventReceiver.COLOR_GREEN);
@@ -953,13 +950,13 @@ public class IdiotMode extends DummyMode {
                         } else {
                             for (int i = 0; i < RANKING_MAX; i++) {
                                 int gcolor = EventReceiver.COLOR_WHITE;
-                                if (rollClear[gameType][i] == 1) gcolor = EventReceiver.COLOR_GREEN;
-                                if (rollClear[gameType][i] == 2) gcolor = EventReceiver.COLOR_ORANGE;
+                                if (ranking.getInt(gameType, "rollclear", i) == 1) gcolor = EventReceiver.COLOR_GREEN;
+                                if (ranking.getInt(gameType, "rollclear", i) == 2) gcolor = EventReceiver.COLOR_ORANGE;
 
                                 receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                                receiver.drawScoreFont(engine, playerID, 3, topY + i, getShortGradeNames()[gameType][rankingGrade[gameType][i]], gcolor, scale);
-                                receiver.drawScoreFont(engine, playerID, 9, topY + i, String.valueOf(rankingLevel[gameType][i]), (i == currentGameRank), scale);
-                                receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[gameType][i]), (i == currentGameRank), scale);
+                                receiver.drawScoreFont(engine, playerID, 3, topY + i, getShortGradeNames()[gameType][ranking.getInt(gameType, "grade", i)], gcolor, scale);
+                                receiver.drawScoreFont(engine, playerID, 9, topY + i, String.valueOf(ranking.getInt(gameType, "level", i)), (i == currentGameRank), scale);
+                                receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(gameType, "time", i)), (i == currentGameRank), scale);
                             }
 
                             receiver.drawScoreFont(engine, playerID, 0, 17, "F:VIEW SECTION TIME", EventReceiver.COLOR_GREEN);
@@ -1783,13 +1780,13 @@ public class IdiotMode extends DummyMode {
                 prop.setProperty("idiotmode.playerName", playerProperties.getNameDisplay());
             }
 
-            if ((currentGameRank != -1) || (medalST == 3)) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (medalST == 3) saveBestSectionTime(owner.modeConfig, engine.ruleopt.strRuleName);
+
+            if (ranking.save(owner.modeConfig) || (medalST == 3)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (currentGameRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1867,15 +1864,18 @@ public class IdiotMode extends DummyMode {
         prop.setProperty("idiotmode.version.daredevil." + strRuleName, daredevil);
     }
 
+    // Create an empty ranking table - roll clear first, then grade, then level, then time
+    private static RankingTable createRankingTable() {
+        RankingTable table = new RankingTable(GAMETYPE_MAX, RANKING_MAX,
+            RankingTable.Column.highest("rollclear"), RankingTable.Column.highest("grade"), RankingTable.Column.highest("level"), RankingTable.Column.lowest("time"));
+        table.setKeyFormat(RANKING_KEYS);
+        return table;
+    }
+
     // Load rankings
     private void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "idiotmode.ranking." + ruleName + ".");
         for (int t = 0; t < GAMETYPE_MAX; t++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                rankingGrade[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".grade." + GAMETYPE_NAMES[t] + "." + i, 0);
-                rankingLevel[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".level." + GAMETYPE_NAMES[t] + "." + i, 0);
-                rankingTime[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".time." + GAMETYPE_NAMES[t] + "." + i, 0);
-                rollClear[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".rollclear." + GAMETYPE_NAMES[t] + "." + i, 0);
-            }
             for (int i = 0; i < SECTION_MAX[t]; i++) {
                 switch (t) {
                     case GAMETYPE_ABSOLUTE:
@@ -1894,15 +1894,9 @@ public class IdiotMode extends DummyMode {
         }
     }
 
-    // Save rankings
-    private void saveRanking(CustomProperties prop, String ruleName) {
+    // Save best section times
+    private void saveBestSectionTime(CustomProperties prop, String ruleName) {
         for (int t = 0; t < GAMETYPE_MAX; t++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                prop.setProperty("idiotmode.ranking." + ruleName + ".grade." + GAMETYPE_NAMES[t] + "." + i, rankingGrade[t][i]);
-                prop.setProperty("idiotmode.ranking." + ruleName + ".level." + GAMETYPE_NAMES[t] + "." + i, rankingLevel[t][i]);
-                prop.setProperty("idiotmode.ranking." + ruleName + ".time." + GAMETYPE_NAMES[t] + "." + i, rankingTime[t][i]);
-                prop.setProperty("idiotmode.ranking." + ruleName + ".rollclear." + GAMETYPE_NAMES[t] + "." + i, rollClear[t][i]);
-            }
             for (int i = 0; i < SECTION_MAX[t]; i++) {
                 prop.setProperty("idiotmode.bestSectionTime." + ruleName + "." + GAMETYPE_NAMES[t] + "." + i, sectionBests[t][i]);
             }
@@ -1911,62 +1905,7 @@ public class IdiotMode extends DummyMode {
 
     // Load rankings
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int t = 0; t < GAMETYPE_MAX; t++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                rankingGradePlayer[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".grade." + GAMETYPE_NAMES[t] + "." + i, 0);
-                rankingLevelPlayer[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".level." + GAMETYPE_NAMES[t] + "." + i, 0);
-                rankingTimePlayer[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".time." + GAMETYPE_NAMES[t] + "." + i, 0);
-                rollClearPlayer[t][i] = prop.getProperty("idiotmode.ranking." + ruleName + ".rollclear." + GAMETYPE_NAMES[t] + "." + i, 0);
-            }
-        }
-    }
-
-    // Save rankings
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int t = 0; t < GAMETYPE_MAX; t++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                prop.setProperty("idiotmode.ranking." + ruleName + ".grade." + GAMETYPE_NAMES[t] + "." + i, rankingGradePlayer[t][i]);
-                prop.setProperty("idiotmode.ranking." + ruleName + ".level." + GAMETYPE_NAMES[t] + "." + i, rankingLevelPlayer[t][i]);
-                prop.setProperty("idiotmode.ranking." + ruleName + ".time." + GAMETYPE_NAMES[t] + "." + i, rankingTimePlayer[t][i]);
-                prop.setProperty("idiotmode.ranking." + ruleName + ".rollclear." + GAMETYPE_NAMES[t] + "." + i, rollClearPlayer[t][i]);
-            }
-        }
-    }
-
-    // Compare Rankings - gt: gameType
-    private int checkRanking(int gt, int gr, int lv, int time, int clear) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (clear > rollClear[gt][i]) {
-                return i;
-            } else if ((clear == rollClear[gt][i]) && (gr > rankingGrade[gt][i])) {
-                return i;
-            } else if ((clear == rollClear[gt][i]) && (gr == rankingGrade[gt][i]) && (lv > rankingLevel[gt][i])) {
-                return i;
-            } else if ((clear == rollClear[gt][i]) && (gr == rankingGrade[gt][i]) && (lv == rankingLevel[gt][i]) && (time < rankingTime[gt][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    // Compare Rankings - gt: gameType
-    private int checkRankingPlayer(int gt, int gr, int lv, int time, int clear) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (clear > rollClearPlayer[gt][i]) {
-                return i;
-            } else if ((clear == rollClearPlayer[gt][i]) && (gr > rankingGradePlayer[gt][i])) {
-                return i;
-            } else if ((clear == rollClearPlayer[gt][i]) && (gr == rankingGradePlayer[gt][i]) && (lv > rankingLevelPlayer[gt][i])) {
-                return i;
-            } else if ((clear == rollClearPlayer[gt][i]) && (gr == rankingGradePlayer[gt][i]) && (lv == rankingLevelPlayer[gt][i]) && (time < rankingTimePlayer[gt][i])) {
-                return i;
-            }
-        }
-
-        return -1;
+        rankingPlayer.load(prop, "idiotmode.ranking." + ruleName + ".");
     }
 
     /*
@@ -1975,42 +1914,10 @@ public class IdiotMode extends DummyMode {
 
     // Update rankings - gt: gameType
     private void updateRanking(int gt, int gr, int lv, int time, int clear) {
-        currentGameRank = checkRanking(gt, gr, lv, time, clear);
-
-        if (currentGameRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > currentGameRank; i--) {
-                rankingGrade[gt][i] = rankingGrade[gt][i - 1];
-                rankingLevel[gt][i] = rankingLevel[gt][i - 1];
-                rankingTime[gt][i] = rankingTime[gt][i - 1];
-                rollClear[gt][i] = rollClear[gt][i - 1];
-            }
-
-            // Add new data
-            rankingGrade[gt][currentGameRank] = gr;
-            rankingLevel[gt][currentGameRank] = lv;
-            rankingTime[gt][currentGameRank] = time;
-            rollClear[gt][currentGameRank] = clear;
-        }
+        currentGameRank = ranking.insert(gt, clear, gr, lv, time);
 
         if (playerProperties.isLoggedIn()) {
-            currentGameRankPlayer = checkRankingPlayer(gt, gr, lv, time, clear);
-
-            if (currentGameRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > currentGameRankPlayer; i--) {
-                    rankingGradePlayer[gt][i] = rankingGradePlayer[gt][i - 1];
-                    rankingLevelPlayer[gt][i] = rankingLevelPlayer[gt][i - 1];
-                    rankingTimePlayer[gt][i] = rankingTimePlayer[gt][i - 1];
-                    rollClearPlayer[gt][i] = rollClearPlayer[gt][i - 1];
-                }
-
-                // Add new data
-                rankingGradePlayer[gt][currentGameRankPlayer] = gr;
-                rankingLevelPlayer[gt][currentGameRankPlayer] = lv;
-                rankingTimePlayer[gt][currentGameRankPlayer] = time;
-                rollClearPlayer[gt][currentGameRankPlayer] = clear;
-            }
+            currentGameRankPlayer = rankingPlayer.insert(gt, clear, gr, lv, time);
         }
     }
 
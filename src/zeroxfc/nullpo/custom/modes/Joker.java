@@ -10,6 +10,8 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.FlyInOutText;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 import zeroxfc.nullpo.custom.libs.backgroundtypes.AnimatedBackgroundHook;
 import zeroxfc.nullpo.custom.libs.backgroundtypes.BackgroundDiagonalRipple;
@@ -61,10 +63,6 @@ public class Joker extends MarathonModeBase {
     private int stock;
     // starting stock
     private int startingStock;
-    // Ranking stuff
-    private int[] rankingLevel;
-    private int[] rankingTime;
-    private int[] rankingLines;
     // time score
     private int timeScore;
     // Local randomiser
@@ -87,9 +85,7 @@ public class Joker extends MarathonModeBase {
     private ProfileProperties playerProperties;
     private boolean showPlayerStats;
     private int rankingRankPlayer;
-    private int[] rankingLevelPlayer;
-    private int[] rankingTimePlayer;
-    private int[] rankingLinesPlayer;
+    private RankingTable rankingPlayer;
     private String PLAYER_NAME;
 
     // Last amount of lines cleared;
@@ -141,9 +137,7 @@ public class Joker extends MarathonModeBase {
         warningTextSecondLine = null;
 
         rankingRank = -1;
-        rankingLevel = new int[RANKING_MAX];
-        rankingLines = new int[RANKING_MAX];
-        rankingTime = new int[RANKING_MAX];
+        ranking = createRankingTable();
 
         if (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -152,9 +146,7 @@ public class Joker extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingLevelPlayer = new int[RANKING_MAX];
-        rankingLinesPlayer = new int[RANKING_MAX];
-        rankingTimePlayer = new int[RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -282,7 +274,7 @@ public class Joker extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
 
@@ -473,10 +465,10 @@ public class Joker extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingLevelPlayer[i]);
+                        String s = String.valueOf(rankingPlayer.getInt(0, "level", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRankPlayer), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(0, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(0, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -486,10 +478,10 @@ public class Joker extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingLevel[i]);
+                        String s = String.valueOf(ranking.getInt(0, "level", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRank), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(0, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(0, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -1109,13 +1101,11 @@ public class Joker extends MarathonModeBase {
                 prop.setProperty("joker.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1182,32 +1172,26 @@ public class Joker extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by level, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            rankingLevel[i] = prop.getProperty("joker.ranking." + ruleName + ".level." + i, 0);
-            rankingLines[i] = prop.getProperty("joker.ranking." + ruleName + ".lines." + i, 0);
-            rankingTime[i] = prop.getProperty("joker.ranking." + ruleName + ".time." + i, 0);
-        }
+    private static RankingTable createRankingTable() {
+        RankingTable table = new RankingTable(1, RANKING_MAX,
+            RankingTable.Column.highest("level"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
+        table.setKeyFormat(RankingTable.KEYS_UNTYPED);
+        return table;
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            prop.setProperty("joker.ranking." + ruleName + ".level." + i, rankingLevel[i]);
-            prop.setProperty("joker.ranking." + ruleName + ".lines." + i, rankingLines[i]);
-            prop.setProperty("joker.ranking." + ruleName + ".time." + i, rankingTime[i]);
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "joker.ranking." + ruleName + ".");
     }
 
     /**
@@ -1217,110 +1201,21 @@ public class Joker extends MarathonModeBase {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            rankingLevelPlayer[i] = prop.getProperty("joker.ranking." + ruleName + ".level." + i, 0);
-            rankingLinesPlayer[i] = prop.getProperty("joker.ranking." + ruleName + ".lines." + i, 0);
-            rankingTimePlayer[i] = prop.getProperty("joker.ranking." + ruleName + ".time." + i, 0);
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            prop.setProperty("joker.ranking." + ruleName + ".level." + i, rankingLevelPlayer[i]);
-            prop.setProperty("joker.ranking." + ruleName + ".lines." + i, rankingLinesPlayer[i]);
-            prop.setProperty("joker.ranking." + ruleName + ".time." + i, rankingTimePlayer[i]);
-        }
+        rankingPlayer.load(prop, "joker.ranking." + ruleName + ".");
     }
 
     /**
      * Update rankings
      *
+     * @param lv   Level
      * @param li   Lines
      * @param time Time
      */
     private void updateRanking(int lv, int li, int time) {
-        rankingRank = checkRanking(lv, li, time);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingLevel[i] = rankingLevel[i - 1];
-                rankingLines[i] = rankingLines[i - 1];
-                rankingTime[i] = rankingTime[i - 1];
-            }
-
-            // Add new data
-            rankingLevel[rankingRank] = lv;
-            rankingLines[rankingRank] = li;
-            rankingTime[rankingRank] = time;
-        }
+        rankingRank = ranking.insert(0, lv, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(lv, li, time);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingLevelPlayer[i] = rankingLevelPlayer[i - 1];
-                    rankingLinesPlayer[i] = rankingLinesPlayer[i - 1];
-                    rankingTimePlayer[i] = rankingTimePlayer[i - 1];
-                }
-
-                // Add new data
-                rankingLevelPlayer[rankingRankPlayer] = lv;
-                rankingLinesPlayer[rankingRankPlayer] = li;
-                rankingTimePlayer[rankingRankPlayer] = time;
-            }
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int lv, int li, int time) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (lv > rankingLevel[i]) {
-                return i;
-            } else if ((lv == rankingLevel[i]) && (li > rankingLines[i])) {
-                return i;
-            } else if ((lv == rankingLevel[i]) && (li == rankingLines[i]) && (time < rankingTime[i])) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(0, lv, li, time);
         }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int lv, int li, int time) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (lv > rankingLevelPlayer[i]) {
-                return i;
-            } else if ((lv == rankingLevelPlayer[i]) && (li > rankingLinesPlayer[i])) {
-                return i;
-            } else if ((lv == rankingLevelPlayer[i]) && (li == rankingLinesPlayer[i]) && (time < rankingTimePlayer[i])) {
-                return i;
-            }
-        }
-
-        return -1;
     }
 }
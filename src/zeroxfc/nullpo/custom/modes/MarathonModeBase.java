@@ -37,6 +37,8 @@ import mu.nu.nullpo.game.play.GameEngine;
 import mu.nu.nullpo.game.subsystem.mode.NetDummyMode;
 import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 
 /**
  * MARATHON Mode
@@ -200,19 +202,9 @@ public class MarathonModeBase extends NetDummyMode {
     public int rankingRank;
 
     /**
-     * Rankings' scores
+     * Rankings: score, line count and time
      */
-    public int[][] rankingScore;
-
-    /**
-     * Rankings' line counts
-     */
-    public int[][] rankingLines;
-
-    /**
-     * Rankings' times
-     */
-    public int[][] rankingTime;
+    protected RankingTable ranking;
 
     /*
      * Mode name
@@ -238,9 +230,7 @@ public class MarathonModeBase extends NetDummyMode {
         bgmlv = 0;
 
         rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -353,7 +343,7 @@ public class MarathonModeBase extends NetDummyMode {
             if (engine.ctrl.isPush(Controller.BUTTON_A) && (engine.statc[3] >= 5)) {
                 engine.playSE("decide");
                 saveSetting(owner.modeConfig);
-                receiver.saveModeConfig(owner.modeConfig);
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
 
                 // NET: Signal start of the game
                 if (netIsNetPlay) netLobby.netPlayerClient.send("start1p\n");
@@ -477,9 +467,9 @@ public class MarathonModeBase extends NetDummyMode {
 
                 for (int i = 0; i < RANKING_MAX; i++) {
                     receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                    receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScore[goaltype][i]), (i == rankingRank), scale);
-                    receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[goaltype][i]), (i == rankingRank), scale);
-                    receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[goaltype][i]), (i == rankingRank), scale);
+                    receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(ranking.getInt(goaltype, "score", i)), (i == rankingRank), scale);
+                    receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(goaltype, "lines", i)), (i == rankingRank), scale);
+                    receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(goaltype, "time", i)), (i == rankingRank), scale);
                 }
             }
         } else {
@@ -798,11 +788,10 @@ public class MarathonModeBase extends NetDummyMode {
 
         // Update rankings
         if ((owner.replayMode == false) && (big == false) && (engine.ai == null)) {
-            updateRanking(engine.statistics.score, engine.statistics.lines, engine.statistics.time, goaltype);
+            rankingRank = ranking.insert(goaltype, engine.statistics.score, engine.statistics.lines, engine.statistics.time);
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
         }
     }
@@ -846,83 +835,24 @@ public class MarathonModeBase extends NetDummyMode {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScore[j][i] = prop.getProperty("marathon.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("marathon.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("marathon.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("marathon.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("marathon.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("marathon.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
-    }
-
-    /**
-     * Update rankings
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     */
-    private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li == rankingLines[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "marathon.ranking." + ruleName + ".");
     }
 
     /**
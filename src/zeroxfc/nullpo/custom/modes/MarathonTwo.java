@@ -30,6 +30,8 @@ import zeroxfc.nullpo.custom.libs.FieldScatter;
 import zeroxfc.nullpo.custom.libs.GameTextUtilities;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 import zeroxfc.nullpo.custom.libs.SoundLoader;
@@ -224,20 +226,8 @@ public class MarathonTwo extends MarathonModeBase {
      * Current round's ranking rank
      */
     private int rankingRank;
-    /**
-     * Rankings' scores
-     */
-    private int[][] rankingScore;
-    /**
-     * Rankings' line counts
-     */
-    private int[][] rankingLines;
 
     // endregion Static Final Fields
-    /**
-     * Rankings' times
-     */
-    private int[][] rankingTime;
     // region Private Fields
     private GameManager owner;
     private EventReceiver receiver;
@@ -258,9 +248,7 @@ public class MarathonTwo extends MarathonModeBase {
     private ProfileProperties playerProperties;
     private boolean showPlayerStats;
     private int rankingRankPlayer;
-    private int[][] rankingScorePlayer;
-    private int[][] rankingTimePlayer;
-    private int[][] rankingLinesPlayer;
+    private RankingTable rankingPlayer;
     private String PLAYER_NAME;
 
     /**
@@ -301,9 +289,7 @@ public class MarathonTwo extends MarathonModeBase {
         prevScore = 0;
 
         rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         if (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -312,9 +298,7 @@ public class MarathonTwo extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLinesPlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTimePlayer = new int[RANKING_TYPE][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         pCoordList = new ArrayList<>();
         cPiece = null;
@@ -648,7 +632,7 @@ public class MarathonTwo extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -924,9 +908,9 @@ public class MarathonTwo extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScorePlayer[goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[goaltype][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingPlayer.getInt(goaltype, "score", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(goaltype, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(goaltype, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -936,9 +920,9 @@ public class MarathonTwo extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScore[goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[goaltype][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(ranking.getInt(goaltype, "score", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(goaltype, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(goaltype, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -1689,13 +1673,11 @@ public class MarathonTwo extends MarathonModeBase {
                 prop.setProperty("marathon2.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1782,36 +1764,24 @@ public class MarathonTwo extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScore[j][i] = prop.getProperty("marathon2.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("marathon2.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("marathon2.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("marathon2.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("marathon2.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("marathon2.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "marathon2.ranking." + ruleName + ".");
     }
 
     /**
@@ -1821,31 +1791,7 @@ public class MarathonTwo extends MarathonModeBase {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScorePlayer[j][i] = prop.getProperty("marathon2.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLinesPlayer[j][i] = prop.getProperty("marathon2.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTimePlayer[j][i] = prop.getProperty("marathon2.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("marathon2.ranking." + ruleName + "." + j + ".score." + i, rankingScorePlayer[j][i]);
-                prop.setProperty("marathon2.ranking." + ruleName + "." + j + ".lines." + i, rankingLinesPlayer[j][i]);
-                prop.setProperty("marathon2.ranking." + ruleName + "." + j + ".time." + i, rankingTimePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "marathon2.ranking." + ruleName + ".");
     }
 
     /**
@@ -1856,82 +1802,10 @@ public class MarathonTwo extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(type, sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[type][i] = rankingScorePlayer[type][i - 1];
-                    rankingLinesPlayer[type][i] = rankingLinesPlayer[type][i - 1];
-                    rankingTimePlayer[type][i] = rankingTimePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[type][rankingRankPlayer] = li;
-                rankingTimePlayer[type][rankingRankPlayer] = time;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, sc, li, time);
         }
     }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li == rankingLines[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li > rankingLinesPlayer[type][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li == rankingLinesPlayer[type][i]) && (time < rankingTimePlayer[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
 }
@@ -12,6 +12,7 @@ import mu.nu.nullpo.game.subsystem.mode.DummyMode;
 import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
 import zeroxfc.nullpo.custom.libs.SoundLoader;
 import zeroxfc.nullpo.custom.modes.objects.minesweeper.GameGrid;
 
@@ -44,7 +45,7 @@ public class Minesweeper extends DummyMode {
 
     @Override
     public void playerInit(GameEngine engine, int playerID) {
-        SoundLoader.loadSoundset(SoundLoader.LOADTYPE_MINESWEEPER);
+        SoundLoader.loadSoundsetAsync(SoundLoader.LOADTYPE_MINESWEEPER);
 
         owner = engine.owner;
         receiver = engine.owner.receiver;
@@ -147,7 +148,7 @@ public class Minesweeper extends DummyMode {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
                 return false;
             }
@@ -209,6 +210,12 @@ public class Minesweeper extends DummyMode {
             engine.dasRedirect();
         }
 
+        // Hold the countdown until the sounds are in. Replays wait here so their timing is unchanged.
+        if (engine.statc[0] == 0 && !SoundLoader.pollSoundset(SoundLoader.LOADTYPE_MINESWEEPER)) {
+            if (owner.replayMode) SoundLoader.loadSoundset(SoundLoader.LOADTYPE_MINESWEEPER);
+            else return true;
+        }
+
         // Initialization
         if (engine.statc[0] == 0) {
             // fieldInitialization
@@ -850,7 +857,7 @@ public class Minesweeper extends DummyMode {
         saveSetting(prop);
 
         if ((owner.replayMode == false)) {
-            receiver.saveModeConfig(owner.modeConfig);
+            PropertiesWriter.saveModeConfig(owner.modeConfig);
         }
     }
 
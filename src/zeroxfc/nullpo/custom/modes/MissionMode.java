@@ -11,6 +11,8 @@ import mu.nu.nullpo.game.play.GameEngine;
 import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 
 public class MissionMode extends MarathonModeBase {
@@ -102,7 +104,7 @@ public class MissionMode extends MarathonModeBase {
     private ProfileProperties playerProperties;
     private String PLAYER_NAME;
     private boolean showPlayerStats;
-    private int[][] rankingScorePlayer, rankingTimePlayer;
+    private RankingTable rankingPlayer;
     private int rankingRankPlayer;
 
     @Override
@@ -139,8 +141,7 @@ public class MissionMode extends MarathonModeBase {
         specificPieceName = "";
 
         rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         if (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -148,9 +149,8 @@ public class MissionMode extends MarathonModeBase {
             showPlayerStats = false;
         }
 
-        rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        rankingRankPlayer = -1;
+        rankingPlayer = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -225,7 +225,7 @@ public class MissionMode extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -358,8 +358,8 @@ public class MissionMode extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScorePlayer[goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 9, topY + i, GeneralUtil.getTime(rankingTimePlayer[goaltype][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingPlayer.getInt(goaltype, "score", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 9, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(goaltype, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -369,8 +369,8 @@ public class MissionMode extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScore[goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 9, topY + i, GeneralUtil.getTime(rankingTime[goaltype][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(ranking.getInt(goaltype, "score", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 9, topY + i, GeneralUtil.getTime(ranking.getInt(goaltype, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -792,13 +792,11 @@ public class MissionMode extends MarathonModeBase {
                 prop.setProperty("missionmode.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -849,35 +847,24 @@ public class MissionMode extends MarathonModeBase {
 
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScore[j][i] = prop.getProperty("missionmode.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingTime[j][i] = prop.getProperty("missionmode.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.lowest("time"));
     }
 
-
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("missionmode.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("missionmode.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "missionmode.ranking." + ruleName + ".");
     }
 
     /**
@@ -887,33 +874,9 @@ public class MissionMode extends MarathonModeBase {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScorePlayer[j][i] = prop.getProperty("missionmode.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingTimePlayer[j][i] = prop.getProperty("missionmode.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("missionmode.ranking." + ruleName + "." + j + ".score." + i, rankingScorePlayer[j][i]);
-                prop.setProperty("missionmode.ranking." + ruleName + "." + j + ".time." + i, rankingTimePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "missionmode.ranking." + ruleName + ".");
     }
 
-
     /**
      * Update rankings
      *
@@ -921,76 +884,13 @@ public class MissionMode extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int time, int type) {
-        rankingRank = checkRanking(sc, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingTime[type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(type, sc, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[type][i] = rankingScorePlayer[type][i - 1];
-                    rankingTimePlayer[type][i] = rankingTimePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[type][rankingRankPlayer] = sc;
-                rankingTimePlayer[type][rankingRankPlayer] = time;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, sc, time);
         }
     }
 
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (time < rankingTimePlayer[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
     /*
      * Render results screen
      */
@@ -11,7 +11,9 @@ import mu.nu.nullpo.game.play.GameManager;
 import mu.nu.nullpo.util.CustomProperties;
 import zeroxfc.nullpo.custom.libs.DoubleVector;
 import zeroxfc.nullpo.custom.libs.PhysicsObject;
+import zeroxfc.nullpo.custom.libs.PhysicsWorld;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
 
 public class Pong extends PuzzleGameEngine {
     // private static Logger log = Logger.getLogger(Pong.class);
@@ -55,11 +57,12 @@ public class Pong extends PuzzleGameEngine {
     private static final double MAXIMUM_SPEED = 24.0;
     private static final double SPEED_MULTIPLIER = 1.25;
 
-    private static final int VERSION = 1;
+    private static final int VERSION = 2;
     private static final int headerColour = EventReceiver.COLOR_PINK;
     private GameManager owner;
     private EventReceiver receiver;
     private PhysicsObject paddlePlayer, paddleComputer, ball;
+    private PhysicsWorld world;
     private Random initialDirectionRandomiser, computerActionRandomiser;
     private int fieldBoxMinX, fieldBoxMinY, fieldBoxMaxX, fieldBoxMaxY;  // FIELD COLLISION BOUNDS.
     private int bg, bgm, difficulty;
@@ -156,7 +159,7 @@ public class Pong extends PuzzleGameEngine {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
                 return false;
             }
@@ -295,6 +298,12 @@ public class Pong extends PuzzleGameEngine {
 
             computerRange = computerActionRandomiser.nextDouble() * 32;
         }
+
+        if (world == null) world = new PhysicsWorld(3);
+        world.clear();
+        world.add(ball);
+        world.add(paddlePlayer);
+        world.add(paddleComputer);
     }
 
     private void setBallRandomDirection() {
@@ -411,7 +420,7 @@ public class Pong extends PuzzleGameEngine {
         saveSetting(prop);
 
         if ((!owner.replayMode)) {
-            receiver.saveModeConfig(owner.modeConfig);
+            PropertiesWriter.saveModeConfig(owner.modeConfig);
 
             if (playerProperties.isLoggedIn()) {
                 prop.setProperty("pong.playerName", playerProperties.getNameDisplay());
@@ -426,7 +435,7 @@ public class Pong extends PuzzleGameEngine {
             // Override this.
 
             // Player movement.
-            final DoubleVector playerVelocity = new DoubleVector(0, 0, false);
+            final DoubleVector playerVelocity = DoubleVector.temp(0, 0);
             if (engine.ctrl.isPress(Controller.BUTTON_UP)) {
                 playerVelocity.setY(-1 * PLAYER_PADDLE_VELOCITY);
                 paddlePlayer.move(playerVelocity);
@@ -441,7 +450,7 @@ public class Pong extends PuzzleGameEngine {
 
             // Computer movement.
             // Use an approx. equal for this.
-            final DoubleVector computerVelocity = new DoubleVector(0, 0, false);
+            final DoubleVector computerVelocity = DoubleVector.temp(0, 0);
             if (!almostEqual(ball.position.getY(), paddleComputer.position.getY(), computerRange)) {
                 if (ball.position.getY() > paddleComputer.position.getY()) {
                     computerVelocity.setY(COMPUTER_PADDLE_VELOCITY[difficulty]);
@@ -576,13 +585,23 @@ public class Pong extends PuzzleGameEngine {
 			}
 		}
 		*/
-        ball.move();
+        // Version 2 onwards sweeps the ball so it stops on the paddle instead of passing through it at high speed.
+        final boolean hitPlayer, hitComputer;
+        if (version >= 2) {
+            world.step();
+            hitPlayer = world.isInContact(ball, paddlePlayer);
+            hitComputer = world.isInContact(ball, paddleComputer);
+        } else {
+            ball.move();
+            hitPlayer = PhysicsObject.checkCollision(ball, paddlePlayer);
+            hitComputer = PhysicsObject.checkCollision(ball, paddleComputer);
+        }
 
-        if (PhysicsObject.checkCollision(ball, paddlePlayer) && lastCollision == COLLISION_NONE) {
+        if (hitPlayer && lastCollision == COLLISION_NONE) {
             recentCollision = COLLISION_PADDLE_PLAYER;
             lastCollision = COLLISION_PADDLE_PLAYER;
             playerPowerhit = engine.ctrl.isPress(Controller.BUTTON_A);
-        } else if (PhysicsObject.checkCollision(ball, paddleComputer) && lastCollision == COLLISION_NONE) {
+        } else if (hitComputer && lastCollision == COLLISION_NONE) {
             recentCollision = COLLISION_PADDLE_COMPUTER;
             lastCollision = COLLISION_PADDLE_COMPUTER;
             computerPowerhit = computerActionRandomiser.nextDouble() < COMPUTER_POWER_HIT_CHANCE[difficulty];
@@ -772,7 +791,7 @@ public class Pong extends PuzzleGameEngine {
         prop.setProperty("pong.bg", bg);
         prop.setProperty("pong.bgm", bgm);
         prop.setProperty("pong.difficulty", difficulty);
-        prop.getProperty("pong.version", version);
+        prop.setProperty("pong.version", version);
     }
 
     /**
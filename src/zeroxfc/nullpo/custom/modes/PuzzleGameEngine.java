@@ -9,6 +9,7 @@ import mu.nu.nullpo.game.play.GameEngine;
 import mu.nu.nullpo.game.play.GameManager;
 import mu.nu.nullpo.game.subsystem.mode.DummyMode;
 import mu.nu.nullpo.util.CustomProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
 
 public abstract class PuzzleGameEngine extends DummyMode {
     // XXX: PLEASE OVERRIDE ALL OF THESE AND ADD MORE AS NECESSARY!
@@ -190,7 +191,7 @@ public abstract class PuzzleGameEngine extends DummyMode {
 
             if (rankingRank != -1) {
                 saveRanking(owner.modeConfig);
-                receiver.saveModeConfig(owner.modeConfig);
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
         }
     }
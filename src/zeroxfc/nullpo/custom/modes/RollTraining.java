@@ -9,6 +9,8 @@ import mu.nu.nullpo.game.play.GameEngine;
 import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 
 public class RollTraining extends MarathonModeBase {
     /**
@@ -67,18 +69,6 @@ public class RollTraining extends MarathonModeBase {
         SPEED_SETTINGS[1].das = 8;
     }
 
-    /**
-     * Rankings' scores
-     */
-    public double[][] rankingGrade;
-    /**
-     * Rankings' line counts
-     */
-    public int[][] rankingLines;
-    /**
-     * Rankings' times
-     */
-    public int[][] rankingTime;
     private boolean useMRoll;
     private int usedSpeed;
     private boolean endless;
@@ -87,9 +77,7 @@ public class RollTraining extends MarathonModeBase {
     private int lastGrade;
     private int timer;
     private ProfileProperties playerProperties;
-    private double[][] rankingGradePlayer;
-    private int[][] rankingLinesPlayer;
-    private int[][] rankingTimePlayer;
+    private RankingTable rankingPlayer;
     private int rankingRankPlayer;
     private boolean showPlayerStats;
     private String PLAYER_NAME;
@@ -137,14 +125,10 @@ public class RollTraining extends MarathonModeBase {
         lastGrade = 0;
 
         rankingRank = -1;
-        rankingGrade = new double[RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         rankingRankPlayer = -1;
-        rankingGradePlayer = new double[RANKING_TYPE][RANKING_MAX];
-        rankingLinesPlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTimePlayer = new int[RANKING_TYPE][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         showPlayerStats = false;
 
@@ -244,7 +228,7 @@ public class RollTraining extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -403,22 +387,22 @@ public class RollTraining extends MarathonModeBase {
                         if (rankingRankPlayer == i) color = EventReceiver.COLOR_RED;
                         else {
                             if (usedSpeed == SPEED_TAP) {
-                                color = ((!useMRoll && rankingTimePlayer[getRankIndex()][i] >= TIME_LIMITS[0]) || (useMRoll && rankingLinesPlayer[getRankIndex()][i] >= 32)) ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
+                                color = ((!useMRoll && rankingPlayer.getInt(getRankIndex(), "time", i) >= TIME_LIMITS[0]) || (useMRoll && rankingPlayer.getInt(getRankIndex(), "lines", i) >= 32)) ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
                             } else {
-                                color = rankingTimePlayer[getRankIndex()][i] >= TIME_LIMITS[1] ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
+                                color = rankingPlayer.getInt(getRankIndex(), "time", i) >= TIME_LIMITS[1] ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
                             }
                         }
 
                         String gText;
                         if (usedSpeed == SPEED_TAP) {
-                            gText = !useMRoll ? "S9" : (rankingGradePlayer[getRankIndex()][i] >= 1.0 ? "GM" : "M");
+                            gText = !useMRoll ? "S9" : (rankingPlayer.getDouble(getRankIndex(), "grade", i) >= 1.0 ? "GM" : "M");
                         } else {
-                            gText = "+" + String.format("%.2f", rankingGradePlayer[getRankIndex()][i]);
+                            gText = "+" + String.format("%.2f", rankingPlayer.getDouble(getRankIndex(), "grade", i));
                         }
 
                         receiver.drawScoreFont(engine, playerID, 3, topY + i, gText, color, scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[getRankIndex()][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[getRankIndex()][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(getRankIndex(), "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(getRankIndex(), "time", i)), (i == rankingRankPlayer), scale);
 
                         receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
                         receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 2, playerProperties.getNameDisplay(), EventReceiver.COLOR_WHITE, 2f);
@@ -437,22 +421,22 @@ public class RollTraining extends MarathonModeBase {
                         if (rankingRank == i) color = EventReceiver.COLOR_RED;
                         else {
                             if (usedSpeed == SPEED_TAP) {
-                                color = ((!useMRoll && rankingTime[getRankIndex()][i] >= TIME_LIMITS[0]) || (useMRoll && rankingLines[getRankIndex()][i] >= 32)) ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
+                                color = ((!useMRoll && ranking.getInt(getRankIndex(), "time", i) >= TIME_LIMITS[0]) || (useMRoll && ranking.getInt(getRankIndex(), "lines", i) >= 32)) ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
                             } else {
-                                color = rankingTime[getRankIndex()][i] >= TIME_LIMITS[1] ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
+                                color = ranking.getInt(getRankIndex(), "time", i) >= TIME_LIMITS[1] ? EventReceiver.COLOR_ORANGE : EventReceiver.COLOR_GREEN;
                             }
                         }
 
                         String gText;
                         if (usedSpeed == SPEED_TAP) {
-                            gText = !useMRoll ? "S9" : (rankingGrade[getRankIndex()][i] >= 1.0 ? "GM" : "M");
+                            gText = !useMRoll ? "S9" : (ranking.getDouble(getRankIndex(), "grade", i) >= 1.0 ? "GM" : "M");
                         } else {
-                            gText = "+" + String.format("%.2f", rankingGrade[getRankIndex()][i]);
+                            gText = "+" + String.format("%.2f", ranking.getDouble(getRankIndex(), "grade", i));
                         }
 
                         receiver.drawScoreFont(engine, playerID, 3, topY + i, gText, color, scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[getRankIndex()][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[getRankIndex()][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(getRankIndex(), "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(getRankIndex(), "time", i)), (i == rankingRank), scale);
 
                         receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
                         if (!playerProperties.isLoggedIn())
@@ -734,13 +718,11 @@ public class RollTraining extends MarathonModeBase {
                 prop.setProperty("rollTraining.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -797,36 +779,40 @@ public class RollTraining extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Cleared runs rank first, then by grade, then longer time, then more lines.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingGrade[j][i] = prop.getProperty("rollTraining.ranking." + ruleName + "." + j + ".grade." + i, 0.0);
-                rankingLines[j][i] = prop.getProperty("rollTraining.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("rollTraining.ranking." + ruleName + "." + j + ".time." + i, 0);
+    private RankingTable createRankingTable() {
+        RankingTable table = new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highestDecimal("grade"), RankingTable.Column.highest("lines"), RankingTable.Column.highest("time"));
+        table.setComparator(new RankingTable.EntryComparator() {
+            @Override
+            public int compare(int type, double[] a, double[] b) {
+                int result = Integer.compare(getClear(type, (int) b[2], (int) b[1]), getClear(type, (int) a[2], (int) a[1]));
+                if (result != 0) return result;
+
+                result = Double.compare(b[0], a[0]);
+                if (result != 0) return result;
+
+                result = Double.compare(b[2], a[2]);
+                if (result != 0) return result;
+
+                return Double.compare(b[1], a[1]);
             }
-        }
+        });
+        return table;
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("rollTraining.ranking." + ruleName + "." + j + ".grade." + i, rankingGrade[j][i]);
-                prop.setProperty("rollTraining.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("rollTraining.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "rollTraining.ranking." + ruleName + ".");
     }
 
     /**
@@ -836,29 +822,7 @@ public class RollTraining extends MarathonModeBase {
      * @param ruleName Rule name
      */
     protected void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingGradePlayer[j][i] = prop.getProperty("rollTraining.ranking." + ruleName + "." + j + ".grade." + i, 0.0);
-                rankingLinesPlayer[j][i] = prop.getProperty("rollTraining.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTimePlayer[j][i] = prop.getProperty("rollTraining.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("rollTraining.ranking." + ruleName + "." + j + ".grade." + i, rankingGradePlayer[j][i]);
-                prop.setProperty("rollTraining.ranking." + ruleName + "." + j + ".lines." + i, rankingLinesPlayer[j][i]);
-                prop.setProperty("rollTraining.ranking." + ruleName + "." + j + ".time." + i, rankingTimePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "rollTraining.ranking." + ruleName + ".");
     }
 
     /**
@@ -869,38 +833,10 @@ public class RollTraining extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(double sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingGrade[type][i] = rankingGrade[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingGrade[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(type, sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingGradePlayer[type][i] = rankingGradePlayer[type][i - 1];
-                    rankingLinesPlayer[type][i] = rankingLinesPlayer[type][i - 1];
-                    rankingTimePlayer[type][i] = rankingTimePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingGradePlayer[type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[type][rankingRankPlayer] = li;
-                rankingTimePlayer[type][rankingRankPlayer] = time;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, sc, li, time);
         }
     }
 
@@ -908,52 +844,4 @@ public class RollTraining extends MarathonModeBase {
         if (!useMRoll || (type & 1) == 1) return (time >= TIME_LIMITS[type & 1]) ? 1 : 0;
         else return lines >= 32 ? 1 : 0;
     }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(double sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (getClear(type, time, li) > getClear(type, rankingTime[type][i], rankingLines[type][i])) {
-                return i;
-            } else if (getClear(type, time, li) == getClear(type, rankingTime[type][i], rankingLines[type][i]) && sc > rankingGrade[type][i]) {
-                return i;
-            } else if (getClear(type, time, li) == getClear(type, rankingTime[type][i], rankingLines[type][i]) && (sc == rankingGrade[type][i]) && (time > rankingTime[type][i])) {
-                return i;
-            } else if (getClear(type, time, li) == getClear(type, rankingTime[type][i], rankingLines[type][i]) && (sc == rankingGrade[type][i]) && (time == rankingTime[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(double sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (getClear(type, time, li) > getClear(type, rankingTimePlayer[type][i], rankingLinesPlayer[type][i])) {
-                return i;
-            } else if (getClear(type, time, li) == getClear(type, rankingTimePlayer[type][i], rankingLinesPlayer[type][i]) && sc > rankingGradePlayer[type][i]) {
-                return i;
-            } else if (getClear(type, time, li) == getClear(type, rankingTimePlayer[type][i], rankingLinesPlayer[type][i]) && (sc == rankingGradePlayer[type][i]) && (time > rankingTimePlayer[type][i])) {
-                return i;
-            } else if (getClear(type, time, li) == getClear(type, rankingTimePlayer[type][i], rankingLinesPlayer[type][i]) && (sc == rankingGradePlayer[type][i]) && (time == rankingTimePlayer[type][i]) && (li > rankingLinesPlayer[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
 }
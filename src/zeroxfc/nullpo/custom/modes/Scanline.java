@@ -11,6 +11,8 @@ import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.FieldManipulation;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.libs.ResourceHolderCustomAssetExtension;
 import zeroxfc.nullpo.custom.libs.SoundLoader;
@@ -39,17 +41,14 @@ public class Scanline extends MarathonModeBase {
     private static final int SCANNER_ADVANCE_DELAY = 4;
     private static final int headerColour = EventReceiver.COLOR_CYAN;
     /**
-     * Rankings' scores
+     * Ranking keys: <code>[prefix][scan speed].[game type].[column].[rank]</code>
      */
-    public int[][][] rankingScore;
-    /**
-     * Rankings' line counts
-     */
-    public int[][][] rankingLines;
-    /**
-     * Rankings' times
-     */
-    public int[][][] rankingTime;
+    private static final RankingTable.KeyFormat RANKING_KEYS = new RankingTable.KeyFormat() {
+        @Override
+        public String getKey(String prefix, int type, String column, int rank) {
+            return prefix + (type / RANKING_TYPE) + "." + (type % RANKING_TYPE) + "." + column + "." + rank;
+        }
+    };
     // Scan speed setting
     private int scanSpeed;
     // Current scan timer
@@ -76,9 +75,7 @@ public class Scanline extends MarathonModeBase {
     private Piece cPiece;
     private ProfileProperties playerProperties;
     private int rankingRankPlayer;
-    private int[][][] rankingScorePlayer;
-    private int[][][] rankingLinesPlayer;
-    private int[][][] rankingTimePlayer;
+    private RankingTable rankingPlayer;
     private boolean showPlayerStats;
     private String PLAYER_NAME;
 
@@ -124,9 +121,7 @@ public class Scanline extends MarathonModeBase {
         cPiece = null;
 
         rankingRank = -1;
-        rankingScore = new int[MAX_SCANSPEEDS][RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[MAX_SCANSPEEDS][RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[MAX_SCANSPEEDS][RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         if (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -135,9 +130,7 @@ public class Scanline extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[MAX_SCANSPEEDS][RANKING_TYPE][RANKING_MAX];
-        rankingLinesPlayer = new int[MAX_SCANSPEEDS][RANKING_TYPE][RANKING_MAX];
-        rankingTimePlayer = new int[MAX_SCANSPEEDS][RANKING_TYPE][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -282,10 +275,10 @@ public class Scanline extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScorePlayer[scanSpeed][goaltype][i]);
+                        String s = String.valueOf(rankingPlayer.getInt(getRankingType(scanSpeed, goaltype), "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRankPlayer), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[scanSpeed][goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[scanSpeed][goaltype][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(getRankingType(scanSpeed, goaltype), "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(getRankingType(scanSpeed, goaltype), "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -295,10 +288,10 @@ public class Scanline extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScore[scanSpeed][goaltype][i]);
+                        String s = String.valueOf(ranking.getInt(getRankingType(scanSpeed, goaltype), "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRank), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[scanSpeed][goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[scanSpeed][goaltype][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(getRankingType(scanSpeed, goaltype), "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(getRankingType(scanSpeed, goaltype), "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -674,7 +667,7 @@ public class Scanline extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -738,13 +731,11 @@ public class Scanline extends MarathonModeBase {
                 prop.setProperty("scanline.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -758,83 +749,11 @@ public class Scanline extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[scanSpeed][type][i] = rankingScore[scanSpeed][type][i - 1];
-                rankingLines[scanSpeed][type][i] = rankingLines[scanSpeed][type][i - 1];
-                rankingTime[scanSpeed][type][i] = rankingTime[scanSpeed][type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[scanSpeed][type][rankingRank] = sc;
-            rankingLines[scanSpeed][type][rankingRank] = li;
-            rankingTime[scanSpeed][type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(getRankingType(scanSpeed, type), sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[scanSpeed][type][i] = rankingScorePlayer[scanSpeed][type][i - 1];
-                    rankingLinesPlayer[scanSpeed][type][i] = rankingLinesPlayer[scanSpeed][type][i - 1];
-                    rankingTimePlayer[scanSpeed][type][i] = rankingTimePlayer[scanSpeed][type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[scanSpeed][type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[scanSpeed][type][rankingRankPlayer] = li;
-                rankingTimePlayer[scanSpeed][type][rankingRankPlayer] = time;
-            }
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[scanSpeed][type][i]) {
-                return i;
-            } else if ((sc == rankingScore[scanSpeed][type][i]) && (li > rankingLines[scanSpeed][type][i])) {
-                return i;
-            } else if ((sc == rankingScore[scanSpeed][type][i]) && (li == rankingLines[scanSpeed][type][i]) && (time < rankingTime[scanSpeed][type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[scanSpeed][type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[scanSpeed][type][i]) && (li > rankingLinesPlayer[scanSpeed][type][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[scanSpeed][type][i]) && (li == rankingLinesPlayer[scanSpeed][type][i]) && (time < rankingTimePlayer[scanSpeed][type][i])) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(getRankingType(scanSpeed, type), sc, li, time);
         }
-
-        return -1;
     }
 
     /**
@@ -898,40 +817,26 @@ public class Scanline extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table, one game type per scan speed and goal. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int h = 0; h < MAX_SCANSPEEDS; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    rankingScore[h][j][i] = prop.getProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".score." + i, 0);
-                    rankingLines[h][j][i] = prop.getProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".lines." + i, 0);
-                    rankingTime[h][j][i] = prop.getProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".time." + i, 0);
-                }
-            }
-        }
+    private static RankingTable createRankingTable() {
+        RankingTable table = new RankingTable(MAX_SCANSPEEDS * RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
+        table.setKeyFormat(RANKING_KEYS);
+        return table;
     }
 
     /**
-     * Save rankings to property file
+     * Gets the ranking table type of a scan speed and goal.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @param speed Scan speed
+     * @param goal  Goal type
+     * @return Ranking table type
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int h = 0; h < MAX_SCANSPEEDS; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    prop.setProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".score." + i, rankingScore[h][j][i]);
-                    prop.setProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".lines." + i, rankingLines[h][j][i]);
-                    prop.setProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".time." + i, rankingTime[h][j][i]);
-                }
-            }
-        }
+    private static int getRankingType(int speed, int goal) {
+        return (speed * RANKING_TYPE) + goal;
     }
 
     /**
@@ -940,36 +845,19 @@ public class Scanline extends MarathonModeBase {
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int h = 0; h < MAX_SCANSPEEDS; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    rankingScorePlayer[h][j][i] = prop.getProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".score." + i, 0);
-                    rankingLinesPlayer[h][j][i] = prop.getProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".lines." + i, 0);
-                    rankingTimePlayer[h][j][i] = prop.getProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".time." + i, 0);
-                }
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "scanline.ranking." + ruleName + ".");
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int h = 0; h < MAX_SCANSPEEDS; h++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                for (int j = 0; j < GAMETYPE_MAX; j++) {
-                    prop.setProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".score." + i, rankingScorePlayer[h][j][i]);
-                    prop.setProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".lines." + i, rankingLinesPlayer[h][j][i]);
-                    prop.setProperty("scanline.ranking." + ruleName + "." + h + "." + j + ".time." + i, rankingTimePlayer[h][j][i]);
-                }
-            }
-        }
+    private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
+        rankingPlayer.load(prop, "scanline.ranking." + ruleName + ".");
     }
 
     /*
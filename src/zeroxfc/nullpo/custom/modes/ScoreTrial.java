@@ -13,6 +13,8 @@ import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.FlyInOutText;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
 import zeroxfc.nullpo.custom.libs.particles.BlockParticleCollection;
 
@@ -68,10 +70,6 @@ public class ScoreTrial extends MarathonModeBase {
     private static final int headerColour = EventReceiver.COLOR_PINK;
     // Ingame Timer
     private int mainTimer;
-    // Ranking stuff
-    private int[][] rankingScore;
-    private int[][] rankingLines;
-    private int[][] rankingTime;
     // Lives added/removed
     private int lifeOffset;
     // Score before increase;
@@ -106,9 +104,7 @@ public class ScoreTrial extends MarathonModeBase {
     private boolean showPlayerStats;
     private String PLAYER_NAME;
     private int rankingRankPlayer;
-    private int[][] rankingScorePlayer;
-    private int[][] rankingLinesPlayer;
-    private int[][] rankingTimePlayer;
+    private RankingTable rankingPlayer;
 
     // Mode name
     public String getName() {
@@ -149,9 +145,7 @@ public class ScoreTrial extends MarathonModeBase {
         livesStartedWith = 0;
 
         rankingRank = -1;
-        rankingScore = new int[MAX_DIFFICULTIES][RANKING_MAX];
-        rankingLines = new int[MAX_DIFFICULTIES][RANKING_MAX];
-        rankingTime = new int[MAX_DIFFICULTIES][RANKING_MAX];
+        ranking = createRankingTable();
 
         if (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -160,9 +154,7 @@ public class ScoreTrial extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[MAX_DIFFICULTIES][RANKING_MAX];
-        rankingLinesPlayer = new int[MAX_DIFFICULTIES][RANKING_MAX];
-        rankingTimePlayer = new int[MAX_DIFFICULTIES][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -280,7 +272,7 @@ public class ScoreTrial extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -498,10 +490,10 @@ public class ScoreTrial extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScorePlayer[difficultySelected][i]);
+                        String s = String.valueOf(rankingPlayer.getInt(difficultySelected, "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRankPlayer), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[difficultySelected][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[difficultySelected][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(difficultySelected, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(difficultySelected, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -511,10 +503,10 @@ public class ScoreTrial extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        String s = String.valueOf(rankingScore[difficultySelected][i]);
+                        String s = String.valueOf(ranking.getInt(difficultySelected, "score", i));
                         receiver.drawScoreFont(engine, playerID, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? 6 : 3, (s.length() > 6 && receiver.getNextDisplayType() != 2) ? (topY + i) * 2 : (topY + i), s, (i == rankingRank), (s.length() > 6 && receiver.getNextDisplayType() != 2) ? scale * 0.5f : scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[difficultySelected][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[difficultySelected][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(difficultySelected, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(difficultySelected, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -1173,13 +1165,11 @@ public class ScoreTrial extends MarathonModeBase {
                 prop.setProperty("scoretrial.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -1242,36 +1232,24 @@ public class ScoreTrial extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int j = 0; j < MAX_DIFFICULTIES; j++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                rankingScore[j][i] = prop.getProperty("scoretrial.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("scoretrial.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("scoretrial.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(MAX_DIFFICULTIES, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int j = 0; j < MAX_DIFFICULTIES; j++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                prop.setProperty("scoretrial.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("scoretrial.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("scoretrial.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "scoretrial.ranking." + ruleName + ".");
     }
 
     /**
@@ -1281,31 +1259,7 @@ public class ScoreTrial extends MarathonModeBase {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int j = 0; j < MAX_DIFFICULTIES; j++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                rankingScorePlayer[j][i] = prop.getProperty("scoretrial.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLinesPlayer[j][i] = prop.getProperty("scoretrial.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTimePlayer[j][i] = prop.getProperty("scoretrial.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        if (!prop.isLoggedIn()) return;
-        for (int j = 0; j < MAX_DIFFICULTIES; j++) {
-            for (int i = 0; i < RANKING_MAX; i++) {
-                prop.setProperty("scoretrial.ranking." + ruleName + "." + j + ".score." + i, rankingScorePlayer[j][i]);
-                prop.setProperty("scoretrial.ranking." + ruleName + "." + j + ".lines." + i, rankingLinesPlayer[j][i]);
-                prop.setProperty("scoretrial.ranking." + ruleName + "." + j + ".time." + i, rankingTimePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "scoretrial.ranking." + ruleName + ".");
     }
 
     /**
@@ -1316,82 +1270,10 @@ public class ScoreTrial extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int diff) {
-        rankingRank = checkRanking(sc, li, time, diff);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[diff][i] = rankingScore[diff][i - 1];
-                rankingLines[diff][i] = rankingLines[diff][i - 1];
-                rankingTime[diff][i] = rankingTime[diff][i - 1];
-            }
-
-            // Add new data
-            rankingScore[diff][rankingRank] = sc;
-            rankingLines[diff][rankingRank] = li;
-            rankingTime[diff][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(diff, sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, diff);
-
-            if (rankingRank != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[diff][i] = rankingScorePlayer[diff][i - 1];
-                    rankingLinesPlayer[diff][i] = rankingLinesPlayer[diff][i - 1];
-                    rankingTimePlayer[diff][i] = rankingTimePlayer[diff][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[diff][rankingRankPlayer] = sc;
-                rankingLinesPlayer[diff][rankingRankPlayer] = li;
-                rankingTimePlayer[diff][rankingRankPlayer] = time;
-            }
-        }
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int diff) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[diff][i]) {
-                return i;
-            } else if ((sc == rankingScore[diff][i]) && (li > rankingLines[diff][i])) {
-                return i;
-            } else if ((sc == rankingScore[diff][i]) && (li == rankingLines[diff][i]) && (time < rankingTime[diff][i])) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(diff, sc, li, time);
         }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int li, int time, int diff) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[diff][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[diff][i]) && (li > rankingLinesPlayer[diff][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[diff][i]) && (li == rankingLinesPlayer[diff][i]) && (time < rankingTimePlayer[diff][i])) {
-                return i;
-            }
-        }
-
-        return -1;
     }
 }
@@ -1,7 +1,6 @@
 package zeroxfc.nullpo.custom.modes;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
 import mu.nu.nullpo.game.component.Block;
 import mu.nu.nullpo.game.component.Controller;
@@ -14,11 +13,13 @@ import mu.nu.nullpo.game.play.GameEngine;
 import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import org.apache.log4j.Logger;
-import zeroxfc.nullpo.custom.libs.FieldManipulation;
 import zeroxfc.nullpo.custom.libs.GameTextUtilities;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.RendererExtension;
+import zeroxfc.nullpo.custom.libs.ShapeTemplateMatcher;
 
 public class ShadowMarathon extends MarathonModeBase {
     /**
@@ -628,7 +629,7 @@ public class ShadowMarathon extends MarathonModeBase {
         // endregion 2x
     };
 
-    private static final ArrayList<Field> SHAPE_FIELDS = new ArrayList<>();
+    private static final ShapeTemplateMatcher SHAPE_MATCHER = ShapeTemplateMatcher.fromShapes(SHAPES);
     private static final int[] SHAPE_TO_PIECE_ID = {
         0, 0, 1, 1, 1, 1, 2, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 6, 6,
         0, 0, 1, 1, 1, 1, 2, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 6, 6,
@@ -651,24 +652,6 @@ public class ShadowMarathon extends MarathonModeBase {
     private static final double END_MULTIPLIER_MIN = 0.01;
     private static final int headerColour = EventReceiver.COLOR_ORANGE;
 
-    // Static initialiser for shape fields.
-    // NOTE: in-game during calcScore, if the shadow field is being used, calculate the match % for all fields then specify the most likely.
-    static {
-        for (int i = 0; i < SHAPES.length; i++) {
-            int[][] shape = SHAPES[i];
-            int dimX = shape[0].length;
-            int dimY = shape.length;
-
-            SHAPE_FIELDS.add(new Field(dimX, dimY, 0));
-
-            for (int y = 0; y < dimY; y++) {
-                for (int x = 0; x < dimX; x++) {
-                    SHAPE_FIELDS.get(i).getBlock(x, y).copy(new Block(shape[y][x], 0));
-                }
-            }
-        }
-    }
-
     /**
      * Shadow Field = field for building pieces in.
      * Main Field = field that main marathon game happens in.
@@ -678,10 +661,6 @@ public class ShadowMarathon extends MarathonModeBase {
      * Is the current field the shadow field or the main field? (Used for disabling/enabling scoring).
      */
     private boolean onShadow;
-    /**
-     * The match confidence of the field to each piece.
-     */
-    private ArrayList<Double> matchConfidences;
     /**
      * Current piece set given by rule.
      */
@@ -728,9 +707,7 @@ public class ShadowMarathon extends MarathonModeBase {
     private boolean showPlayerStats;
     private String PLAYER_NAME;
     private int rankingRankPlayer;
-    private int[][] rankingScorePlayer;
-    private int[][] rankingLinesPlayer;
-    private int[][] rankingTimePlayer;
+    private RankingTable rankingPlayer;
 
     @Override
     public String getName() {
@@ -756,7 +733,6 @@ public class ShadowMarathon extends MarathonModeBase {
         pCoordList = new ArrayList<>();
         cPiece = null;
 
-        matchConfidences = new ArrayList<>();
         lastIDs = new ArrayList<>();
         lastMatchPercentages = new ArrayList<>();
 
@@ -769,9 +745,7 @@ public class ShadowMarathon extends MarathonModeBase {
         pieceSet = new ArrayList<>();
 
         rankingRank = -1;
-        rankingScore = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLines = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTime = new int[RANKING_TYPE][RANKING_MAX];
+        ranking = createRankingTable();
 
         if (playerProperties == null) {
             playerProperties = new ProfileProperties(headerColour);
@@ -780,9 +754,7 @@ public class ShadowMarathon extends MarathonModeBase {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingLinesPlayer = new int[RANKING_TYPE][RANKING_MAX];
-        rankingTimePlayer = new int[RANKING_TYPE][RANKING_MAX];
+        rankingPlayer = createRankingTable();
 
         netPlayerInit(engine, playerID);
 
@@ -895,7 +867,7 @@ public class ShadowMarathon extends MarathonModeBase {
                     playerProperties.saveProfileConfig();
                 } else {
                     saveSetting(owner.modeConfig);
-                    receiver.saveModeConfig(owner.modeConfig);
+                    PropertiesWriter.saveModeConfig(owner.modeConfig);
                 }
 
                 // NET: Signal start of the game
@@ -1014,7 +986,6 @@ public class ShadowMarathon extends MarathonModeBase {
             onShadow = true;
             capLines = false;
             multiplierScore = 1d;
-            matchConfidences.clear();
 
             lastIDs.clear();
             lastMatchPercentages.clear();
@@ -2174,9 +2145,9 @@ public class ShadowMarathon extends MarathonModeBase {
                 if (showPlayerStats) {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScorePlayer[goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLinesPlayer[goaltype][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTimePlayer[goaltype][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingPlayer.getInt(goaltype, "score", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingPlayer.getInt(goaltype, "lines", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingPlayer.getInt(goaltype, "time", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -2186,9 +2157,9 @@ public class ShadowMarathon extends MarathonModeBase {
                 } else {
                     for (int i = 0; i < RANKING_MAX; i++) {
                         receiver.drawScoreFont(engine, playerID, 0, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(rankingScore[goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(rankingLines[goaltype][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(rankingTime[goaltype][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 3, topY + i, String.valueOf(ranking.getInt(goaltype, "score", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 10, topY + i, String.valueOf(ranking.getInt(goaltype, "lines", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, 15, topY + i, GeneralUtil.getTime(ranking.getInt(goaltype, "time", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, 0, topY + RANKING_MAX + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -2364,16 +2335,9 @@ public class ShadowMarathon extends MarathonModeBase {
      * @param engine
      */
     private void parseMatches(GameEngine engine) {
-        matchConfidences.clear();
-        int index = 0;
-        for (Field field : SHAPE_FIELDS) {
-            // log.debug("INDEX " + index + ":");
-            matchConfidences.add(FieldManipulation.fieldCompare(engine.field, field));
-            index++;
-        }
-
-        currentMaxMatchValue = Collections.max(matchConfidences);
-        currentMaxIndex = matchConfidences.indexOf(currentMaxMatchValue);
+        ShapeTemplateMatcher.Match match = SHAPE_MATCHER.findBestMatch(engine.field);
+        currentMaxMatchValue = match.value;
+        currentMaxIndex = match.index;
         currentPieceID = SHAPE_TO_PIECE_ID[currentMaxIndex];
     }
 
@@ -2399,13 +2363,11 @@ public class ShadowMarathon extends MarathonModeBase {
                 prop.setProperty("shadowMarathon.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig, engine.ruleopt.strRuleName);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties, engine.ruleopt.strRuleName);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -2490,36 +2452,24 @@ public class ShadowMarathon extends MarathonModeBase {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Ranked by score, then lines, then time.
      *
-     * @param prop     Property file
-     * @param ruleName Rule name
+     * @return Ranking table
      */
-    @Override
-    protected void loadRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScore[j][i] = prop.getProperty("shadowMarathon.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLines[j][i] = prop.getProperty("shadowMarathon.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTime[j][i] = prop.getProperty("shadowMarathon.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(RANKING_TYPE, RANKING_MAX,
+            RankingTable.Column.highest("score"), RankingTable.Column.highest("lines"), RankingTable.Column.lowest("time"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop     Property file
      * @param ruleName Rule name
      */
-    private void saveRanking(CustomProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("shadowMarathon.ranking." + ruleName + "." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("shadowMarathon.ranking." + ruleName + "." + j + ".lines." + i, rankingLines[j][i]);
-                prop.setProperty("shadowMarathon.ranking." + ruleName + "." + j + ".time." + i, rankingTime[j][i]);
-            }
-        }
+    @Override
+    protected void loadRanking(CustomProperties prop, String ruleName) {
+        ranking.load(prop, "shadowMarathon.ranking." + ruleName + ".");
     }
 
     /**
@@ -2529,29 +2479,7 @@ public class ShadowMarathon extends MarathonModeBase {
      * @param ruleName Rule name
      */
     private void loadRankingPlayer(ProfileProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                rankingScorePlayer[j][i] = prop.getProperty("shadowMarathon.ranking." + ruleName + "." + j + ".score." + i, 0);
-                rankingLinesPlayer[j][i] = prop.getProperty("shadowMarathon.ranking." + ruleName + "." + j + ".lines." + i, 0);
-                rankingTimePlayer[j][i] = prop.getProperty("shadowMarathon.ranking." + ruleName + "." + j + ".time." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop     Property file
-     * @param ruleName Rule name
-     */
-    private void saveRankingPlayer(ProfileProperties prop, String ruleName) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            for (int j = 0; j < GAMETYPE_MAX; j++) {
-                prop.setProperty("shadowMarathon.ranking." + ruleName + "." + j + ".score." + i, rankingScorePlayer[j][i]);
-                prop.setProperty("shadowMarathon.ranking." + ruleName + "." + j + ".lines." + i, rankingLinesPlayer[j][i]);
-                prop.setProperty("shadowMarathon.ranking." + ruleName + "." + j + ".time." + i, rankingTimePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "shadowMarathon.ranking." + ruleName + ".");
     }
 
     /**
@@ -2562,85 +2490,13 @@ public class ShadowMarathon extends MarathonModeBase {
      * @param time Time
      */
     private void updateRanking(int sc, int li, int time, int type) {
-        rankingRank = checkRanking(sc, li, time, type);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = RANKING_MAX - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingLines[type][i] = rankingLines[type][i - 1];
-                rankingTime[type][i] = rankingTime[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingLines[type][rankingRank] = li;
-            rankingTime[type][rankingRank] = time;
-        }
+        rankingRank = ranking.insert(type, sc, li, time);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(sc, li, time, type);
-
-            if (rankingRank != -1) {
-                // Shift down ranking entries
-                for (int i = RANKING_MAX - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[type][i] = rankingScorePlayer[type][i - 1];
-                    rankingLinesPlayer[type][i] = rankingLinesPlayer[type][i - 1];
-                    rankingTimePlayer[type][i] = rankingTimePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[type][rankingRankPlayer] = sc;
-                rankingLinesPlayer[type][rankingRankPlayer] = li;
-                rankingTimePlayer[type][rankingRankPlayer] = time;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, sc, li, time);
         }
     }
 
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRanking(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScore[type][i]) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li > rankingLines[type][i])) {
-                return i;
-            } else if ((sc == rankingScore[type][i]) && (li == rankingLines[type][i]) && (time < rankingTime[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    /**
-     * Calculate ranking position
-     *
-     * @param sc   Score
-     * @param li   Lines
-     * @param time Time
-     * @return Position (-1 if unranked)
-     */
-    private int checkRankingPlayer(int sc, int li, int time, int type) {
-        for (int i = 0; i < RANKING_MAX; i++) {
-            if (sc > rankingScorePlayer[type][i]) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li > rankingLinesPlayer[type][i])) {
-                return i;
-            } else if ((sc == rankingScorePlayer[type][i]) && (li == rankingLinesPlayer[type][i]) && (time < rankingTimePlayer[type][i])) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
 
     // endregion Replay and Score
 }
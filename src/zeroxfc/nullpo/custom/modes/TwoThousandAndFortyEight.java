@@ -12,6 +12,8 @@ import mu.nu.nullpo.util.CustomProperties;
 import mu.nu.nullpo.util.GeneralUtil;
 import zeroxfc.nullpo.custom.libs.Interpolation;
 import zeroxfc.nullpo.custom.libs.ProfileProperties;
+import zeroxfc.nullpo.custom.libs.PropertiesWriter;
+import zeroxfc.nullpo.custom.libs.RankingTable;
 import zeroxfc.nullpo.custom.libs.ValueWrapper;
 import zeroxfc.nullpo.custom.modes.objects.twothousandandfortyeight.NumberGrid;
 
@@ -28,16 +30,17 @@ public class TwoThousandAndFortyEight extends DummyMode {
     private static final int MAX_GAMETYPE = 2;
 
     private static final int FIELD_DIMENSION = 4;
+    private static final String[] DIRECTION_NAMES = { "UP", "DOWN", "LEFT", "RIGHT" };
     private static final int headerColour = EventReceiver.COLOR_CYAN;
     private GameManager owner;
     private EventReceiver receiver;
     private NumberGrid mainGrid;
     private boolean endless;
+    private boolean hint;
     private int bgm;
     private int bg;
     private int rankingRank;
-    private int[][] rankingTile;
-    private int[][] rankingScore;
+    private RankingTable ranking;
     private int localState;
     private int lastMove;
     private ValueWrapper score;
@@ -48,8 +51,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
     private boolean showPlayerStats;
     private String PLAYER_NAME;
     private int rankingRankPlayer;
-    private int[][] rankingScorePlayer;
-    private int[][] rankingTilePlayer;
+    private RankingTable rankingPlayer;
 
     private static int log2nlz(int bits) {
         if (bits == 0)
@@ -71,13 +73,13 @@ public class TwoThousandAndFortyEight extends DummyMode {
         bgm = -1;
         bg = 0;
         endless = false;
+        hint = false;
         mainGrid = null;
         localState = CUSTOMSTATE_IDLE;
         lastScoreTime = 0;
         lastScore = 0;
 
-        rankingTile = new int[MAX_GAMETYPE][MAX_RANKING];
-        rankingScore = new int[MAX_GAMETYPE][MAX_RANKING];
+        ranking = createRankingTable();
         rankingRank = -1;
 
         if (playerProperties == null) {
@@ -87,8 +89,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
         }
 
         rankingRankPlayer = -1;
-        rankingScorePlayer = new int[MAX_GAMETYPE][MAX_RANKING];
-        rankingTilePlayer = new int[MAX_GAMETYPE][MAX_RANKING];
+        rankingPlayer = createRankingTable();
 
         engine.framecolor = GameEngine.FRAME_COLOR_YELLOW;
         engine.blockOutlineType = GameEngine.BLOCK_OUTLINE_NONE;
@@ -118,7 +119,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
         // Menu
         if (engine.owner.replayMode == false) {
             // Configuration changes
-            int change = updateCursor(engine, 2, playerID);
+            int change = updateCursor(engine, 3, playerID);
 
             if (change != 0) {
                 engine.playSE("change");
@@ -139,6 +140,9 @@ public class TwoThousandAndFortyEight extends DummyMode {
 
                         engine.owner.backgroundStatus.bg = bg;
                         break;
+                    case 3:
+                        hint = !hint;
+                        break;
                 }
             }
 
@@ -148,7 +152,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
             if (engine.ctrl.isPush(Controller.BUTTON_A) && (engine.statc[3] >= 5)) {
                 engine.playSE("decide");
                 saveSetting(owner.modeConfig);
-                receiver.saveModeConfig(owner.modeConfig);
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
                 return false;
             }
 
@@ -185,7 +189,8 @@ public class TwoThousandAndFortyEight extends DummyMode {
         drawMenu(engine, playerID, receiver, 0, EventReceiver.COLOR_BLUE, 0,
             "ENDLESS", GeneralUtil.getONorOFF(endless),
             "BGM", (bgm >= 0) ? String.valueOf(bgm) : "DISABLED",
-            "BG", String.valueOf(bg));
+            "BG", String.valueOf(bg),
+            "HINT", GeneralUtil.getONorOFF(hint));
     }
 
     @Override
@@ -227,6 +232,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
             }
 
             rankingRank = -1;
+            rankingRankPlayer = -1;
         }
 
         // READY音
@@ -468,11 +474,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
             moves = 0;
             score = new ValueWrapper(0);
 
-            for (int y = 0; y < FIELD_DIMENSION; y++) {
-                for (int x = 0; x < FIELD_DIMENSION; x++) {
-                    mainGrid.grid[y][x].setMerged(false);
-                }
-            }
+            mainGrid.clearMerged();
         }
 
         if (engine.statc[0] % 3 == 0) {
@@ -527,8 +529,8 @@ public class TwoThousandAndFortyEight extends DummyMode {
                 if (showPlayerStats) {
                     for (int i = 0; i < MAX_RANKING; i++) {
                         receiver.drawScoreFont(engine, playerID, base, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, base + 3, topY + i, String.valueOf(rankingTilePlayer[endless ? 1 : 0][i]), (i == rankingRankPlayer), scale);
-                        receiver.drawScoreFont(engine, playerID, base + 11, topY + i, String.valueOf(rankingScorePlayer[endless ? 1 : 0][i]), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, base + 3, topY + i, String.valueOf(rankingPlayer.getInt(endless ? 1 : 0, "maxTile", i)), (i == rankingRankPlayer), scale);
+                        receiver.drawScoreFont(engine, playerID, base + 11, topY + i, String.valueOf(rankingPlayer.getInt(endless ? 1 : 0, "score", i)), (i == rankingRankPlayer), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, base, topY + MAX_RANKING + 1, "PLAYER SCORES", EventReceiver.COLOR_BLUE);
@@ -538,8 +540,8 @@ public class TwoThousandAndFortyEight extends DummyMode {
                 } else {
                     for (int i = 0; i < MAX_RANKING; i++) {
                         receiver.drawScoreFont(engine, playerID, base, topY + i, String.format("%2d", i + 1), EventReceiver.COLOR_YELLOW, scale);
-                        receiver.drawScoreFont(engine, playerID, base + 3, topY + i, String.valueOf(rankingTile[endless ? 1 : 0][i]), (i == rankingRank), scale);
-                        receiver.drawScoreFont(engine, playerID, base + 11, topY + i, String.valueOf(rankingScore[endless ? 1 : 0][i]), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, base + 3, topY + i, String.valueOf(ranking.getInt(endless ? 1 : 0, "maxTile", i)), (i == rankingRank), scale);
+                        receiver.drawScoreFont(engine, playerID, base + 11, topY + i, String.valueOf(ranking.getInt(endless ? 1 : 0, "score", i)), (i == rankingRank), scale);
                     }
 
                     receiver.drawScoreFont(engine, playerID, base, topY + MAX_RANKING + 1, "LOCAL SCORES", EventReceiver.COLOR_BLUE);
@@ -590,10 +592,18 @@ public class TwoThousandAndFortyEight extends DummyMode {
                 if (mainGrid.getMaxSquare() >= 256) engine.meterColor = GameEngine.METER_COLOR_YELLOW;
                 if (mainGrid.getMaxSquare() >= 1024) engine.meterColor = GameEngine.METER_COLOR_GREEN;
 
+                if (hint && localState == CUSTOMSTATE_CONTROL && engine.stat == GameEngine.STAT_CUSTOM) {
+                    int direction = mainGrid.getHint();
+                    if (direction >= 0) {
+                        receiver.drawScoreFont(engine, playerID, base, 15, "HINT", EventReceiver.COLOR_BLUE);
+                        receiver.drawScoreFont(engine, playerID, base, 16, DIRECTION_NAMES[direction]);
+                    }
+                }
+
                 if (engine.stat != GameEngine.STAT_RESULT) {
                     for (int y = 0; y < FIELD_DIMENSION; y++) {
                         for (int x = 0; x < FIELD_DIMENSION; x++) {
-                            int value = mainGrid.getCell(x, y).getValue();
+                            int value = mainGrid.getValue(x, y);
 
                             if (value > 0) {
                                 String str = String.valueOf(value);
@@ -641,31 +651,22 @@ public class TwoThousandAndFortyEight extends DummyMode {
     }
 
     /**
-     * Read rankings from property file
+     * Creates an empty ranking table. Higher tiles rank first, then higher scores.
      *
-     * @param prop Property file
+     * @return Ranking table
      */
-    protected void loadRanking(CustomProperties prop) {
-        for (int i = 0; i < MAX_RANKING; i++) {
-            for (int j = 0; j < MAX_GAMETYPE; j++) {
-                rankingScore[j][i] = prop.getProperty("2048.ranking." + j + ".score." + i, 0);
-                rankingTile[j][i] = prop.getProperty("2048.ranking." + j + ".maxTile." + i, 0);
-            }
-        }
+    private static RankingTable createRankingTable() {
+        return new RankingTable(MAX_GAMETYPE, MAX_RANKING,
+            RankingTable.Column.highest("maxTile"), RankingTable.Column.highest("score"));
     }
 
     /**
-     * Save rankings to property file
+     * Read rankings from property file
      *
      * @param prop Property file
      */
-    private void saveRanking(CustomProperties prop) {
-        for (int i = 0; i < MAX_RANKING; i++) {
-            for (int j = 0; j < MAX_GAMETYPE; j++) {
-                prop.setProperty("2048.ranking." + j + ".score." + i, rankingScore[j][i]);
-                prop.setProperty("2048.ranking." + j + ".maxTile." + i, rankingTile[j][i]);
-            }
-        }
+    protected void loadRanking(CustomProperties prop) {
+        ranking.load(prop, "2048.ranking.");
     }
 
     /**
@@ -674,84 +675,15 @@ public class TwoThousandAndFortyEight extends DummyMode {
      * @param prop Property file
      */
     protected void loadRankingPlayer(ProfileProperties prop) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < MAX_RANKING; i++) {
-            for (int j = 0; j < MAX_GAMETYPE; j++) {
-                rankingScorePlayer[j][i] = prop.getProperty("2048.ranking." + j + ".score." + i, 0);
-                rankingTilePlayer[j][i] = prop.getProperty("2048.ranking." + j + ".maxTile." + i, 0);
-            }
-        }
-    }
-
-    /**
-     * Save rankings to property file
-     *
-     * @param prop Property file
-     */
-    private void saveRankingPlayer(ProfileProperties prop) {
-        if (!prop.isLoggedIn()) return;
-        for (int i = 0; i < MAX_RANKING; i++) {
-            for (int j = 0; j < MAX_GAMETYPE; j++) {
-                prop.setProperty("2048.ranking." + j + ".score." + i, rankingScorePlayer[j][i]);
-                prop.setProperty("2048.ranking." + j + ".maxTile." + i, rankingTilePlayer[j][i]);
-            }
-        }
+        rankingPlayer.load(prop, "2048.ranking.");
     }
 
     private void updateRanking(int sc, int type, int tile) {
-        rankingRank = checkRanking(tile, type, sc);
-
-        if (rankingRank != -1) {
-            // Shift down ranking entries
-            for (int i = MAX_RANKING - 1; i > rankingRank; i--) {
-                rankingScore[type][i] = rankingScore[type][i - 1];
-                rankingTile[type][i] = rankingTile[type][i - 1];
-            }
-
-            // Add new data
-            rankingScore[type][rankingRank] = sc;
-            rankingTile[type][rankingRank] = tile;
-        }
+        rankingRank = ranking.insert(type, tile, sc);
 
         if (playerProperties.isLoggedIn()) {
-            rankingRankPlayer = checkRankingPlayer(tile, type, sc);
-
-            if (rankingRankPlayer != -1) {
-                // Shift down ranking entries
-                for (int i = MAX_RANKING - 1; i > rankingRankPlayer; i--) {
-                    rankingScorePlayer[type][i] = rankingScorePlayer[type][i - 1];
-                    rankingTilePlayer[type][i] = rankingTilePlayer[type][i - 1];
-                }
-
-                // Add new data
-                rankingScorePlayer[type][rankingRankPlayer] = sc;
-                rankingTilePlayer[type][rankingRankPlayer] = tile;
-            }
-        }
-    }
-
-    private int checkRanking(int tile, int type, int sc) {
-        for (int i = 0; i < MAX_RANKING; i++) {
-            if (tile > rankingTile[type][i]) {
-                return i;
-            } else if (tile == rankingTile[type][i] && sc > rankingScore[type][i]) {
-                return i;
-            }
+            rankingRankPlayer = rankingPlayer.insert(type, tile, sc);
         }
-
-        return -1;
-    }
-
-    private int checkRankingPlayer(int tile, int type, int sc) {
-        for (int i = 0; i < MAX_RANKING; i++) {
-            if (tile > rankingTilePlayer[type][i]) {
-                return i;
-            } else if (tile == rankingTilePlayer[type][i] && sc > rankingScorePlayer[type][i]) {
-                return i;
-            }
-        }
-
-        return -1;
     }
 
     /*
@@ -762,19 +694,18 @@ public class TwoThousandAndFortyEight extends DummyMode {
         saveSetting(prop);
 
         if ((!owner.replayMode)) {
-            updateRanking(engine.statistics.score, endless ? 1 : 0, mainGrid.getMaxSquare());
+            // Games played with the move hint shown are not ranked.
+            if (!hint) updateRanking(engine.statistics.score, endless ? 1 : 0, mainGrid.getMaxSquare());
 
             if (playerProperties.isLoggedIn()) {
                 prop.setProperty("2048.playerName", playerProperties.getNameDisplay());
             }
 
-            if (rankingRank != -1) {
-                saveRanking(owner.modeConfig);
-                receiver.saveModeConfig(owner.modeConfig);
+            if (ranking.save(owner.modeConfig)) {
+                PropertiesWriter.saveModeConfig(owner.modeConfig);
             }
 
-            if (rankingRankPlayer != -1 && playerProperties.isLoggedIn()) {
-                saveRankingPlayer(playerProperties);
+            if (rankingPlayer.save(playerProperties)) {
                 playerProperties.saveProfileConfig();
             }
         }
@@ -789,6 +720,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
         endless = prop.getProperty("2048.endless", false);
         bgm = prop.getProperty("2048.bgm", 0);
         bg = prop.getProperty("2048.bg", 0);
+        hint = prop.getProperty("2048.hint", false);
     }
 
     /**
@@ -800,6 +732,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
         prop.setProperty("2048.endless", endless);
         prop.setProperty("2048.bgm", bgm);
         prop.setProperty("2048.bg", bg);
+        prop.setProperty("2048.hint", hint);
     }
 
     /**
@@ -812,6 +745,7 @@ public class TwoThousandAndFortyEight extends DummyMode {
         endless = prop.getProperty("2048.endless", false);
         bgm = prop.getProperty("2048.bgm", 0);
         bg = prop.getProperty("2048.bg", 0);
+        hint = prop.getProperty("2048.hint", false);
     }
 
     /**
@@ -824,5 +758,6 @@ public class TwoThousandAndFortyEight extends DummyMode {
         prop.setProperty("2048.endless", endless);
         prop.setProperty("2048.bgm", bgm);
         prop.setProperty("2048.bg", bg);
+        prop.setProperty("2048.hint", hint);
     }
 }
@@ -0,0 +1,221 @@
+package zeroxfc.nullpo.custom.modes.objects.collapse;
+
+import java.util.Arrays;
+import mu.nu.nullpo.game.component.Block;
+import mu.nu.nullpo.game.component.Field;
+
+/**
+ * Connected-group index for Collapse.
+ * <p>
+ * A normal block joins with neighbouring blocks of the same colour, bombs of that colour and rainbow bombs.
+ * Because a rainbow bomb joins every colour, groups are found separately for each colour with a union-find,
+ * once per field change. Group sizes and membership are then plain array lookups.
+ * <p>
+ * Call {@link #invalidate()} whenever the field changes and {@link #update(Field)} before querying.
+ */
+public class GroupIndex {
+    /**
+     * Colour of the rainbow bomb, which joins groups of every colour.
+     */
+    public static final int COLOR_RAINBOW_BOMB = 35;
+    /**
+     * Distance from a normal colour to the bomb of that colour.
+     */
+    public static final int BOMB_OFFSET = 7;
+    /**
+     * Normal colours that form groups.
+     */
+    private static final int FIRST_COLOR = Block.BLOCK_COLOR_RED, LAST_COLOR = Block.BLOCK_COLOR_BLUE;
+    private static final int LAYERS = LAST_COLOR - FIRST_COLOR + 1;
+
+    private int width, height, cells;
+    private int[] colours;
+    /*
+     * Per colour layer: root cell of each cell's group (-1 if not in the layer), and the size of each root's group.
+     */
+    private int[] root, size;
+    private boolean dirty;
+
+    /*
+     * Offsets for the last radius asked for.
+     */
+    private double cachedRadius = Double.NaN;
+    private int[] radiusX, radiusY;
+
+    public GroupIndex() {
+        dirty = true;
+    }
+
+    /**
+     * Marks the index as out of date. The next {@link #update(Field)} rebuilds it.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Rebuilds the index if the field has changed since the last build.
+     *
+     * @param field Field to index
+     */
+    public void update(Field field) {
+        if (!dirty && field.getWidth() == width && field.getHeight() == height) return;
+
+        if (field.getWidth() != width || field.getHeight() != height || colours == null) {
+            width = field.getWidth();
+            height = field.getHeight();
+            cells = width * height;
+            colours = new int[cells];
+            root = new int[cells * LAYERS];
+            size = new int[cells * LAYERS];
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                colours[(y * width) + x] = field.getBlockColor(x, y);
+            }
+        }
+
+        for (int layer = 0; layer < LAYERS; layer++) {
+            final int colour = FIRST_COLOR + layer;
+            final int base = layer * cells;
+
+            for (int i = 0; i < cells; i++) {
+                if (!joins(colours[i], colour)) {
+                    root[base + i] = -1;
+                    continue;
+                }
+                root[base + i] = i;
+                size[base + i] = 1;
+
+                int x = i % width;
+                if (x > 0 && root[base + i - 1] != -1) union(base, i, i - 1);
+                if (i >= width && root[base + i - width] != -1) union(base, i, i - width);
+            }
+
+            // Point every cell straight at its root so queries never have to walk.
+            for (int i = 0; i < cells; i++) {
+                if (root[base + i] != -1) root[base + i] = find(base, i);
+            }
+        }
+
+        dirty = false;
+    }
+
+    private static boolean joins(int cellColour, int colour) {
+        return cellColour == colour || cellColour == COLOR_RAINBOW_BOMB || cellColour == (colour + BOMB_OFFSET);
+    }
+
+    private int find(int base, int i) {
+        int r = i;
+        while (root[base + r] != r) r = root[base + r];
+        while (root[base + i] != r) {
+            int next = root[base + i];
+            root[base + i] = r;
+            i = next;
+        }
+        return r;
+    }
+
+    private void union(int base, int a, int b) {
+        int ra = find(base, a), rb = find(base, b);
+        if (ra == rb) return;
+        if (size[base + ra] < size[base + rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        root[base + rb] = ra;
+        size[base + ra] += size[base + rb];
+    }
+
+    private int layerOf(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return -1;
+        int colour = colours[(y * width) + x];
+        if (colour < FIRST_COLOR || colour > LAST_COLOR) return -1;
+        return colour - FIRST_COLOR;
+    }
+
+    /**
+     * Gets the size of the group a normal block belongs to.
+     *
+     * @param x X-coordinate
+     * @param y Y-coordinate
+     * @return Group size, or 0 if the cell does not hold a normal coloured block.
+     */
+    public int getGroupSize(int x, int y) {
+        int layer = layerOf(x, y);
+        if (layer == -1) return 0;
+        int base = layer * cells;
+        return size[base + root[base + (y * width) + x]];
+    }
+
+    /**
+     * Writes the cells of the group a normal block belongs to, as y * width + x.
+     *
+     * @param x   X-coordinate
+     * @param y   Y-coordinate
+     * @param out Buffer of at least width * height cells
+     * @return Number of cells written.
+     */
+    public int getGroupCells(int x, int y, int[] out) {
+        int layer = layerOf(x, y);
+        if (layer == -1) return 0;
+        final int base = layer * cells;
+        final int target = root[base + (y * width) + x];
+
+        int count = 0;
+        for (int i = 0; i < cells; i++) {
+            if (root[base + i] == target) out[count++] = i;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the non-empty cells within a radius of a point, as y * width + x.
+     *
+     * @param x      X-coordinate of the centre
+     * @param y      Y-coordinate of the centre
+     * @param radius Radius in cells
+     * @param out    Buffer of at least width * height cells
+     * @return Number of cells written.
+     */
+    public int getCellsInRadius(int x, int y, double radius, int[] out) {
+        if (radius != cachedRadius) buildRadiusOffsets(radius);
+
+        int count = 0;
+        for (int k = 0; k < radiusX.length; k++) {
+            int tx = x + radiusX[k], ty = y + radiusY[k];
+            if (tx < 0 || tx >= width || ty < 0 || ty >= height) continue;
+            int i = (ty * width) + tx;
+            if (colours[i] > Block.BLOCK_COLOR_NONE) out[count++] = i;
+        }
+        return count;
+    }
+
+    private void buildRadiusOffsets(double radius) {
+        final int reach = (int) Math.floor(radius);
+        int count = 0;
+        int[] bufX = new int[((2 * reach) + 1) * ((2 * reach) + 1)];
+        int[] bufY = new int[bufX.length];
+
+        // Row-major order, so callers see cells in the same order as a field scan.
+        for (int dY = -reach; dY <= reach; dY++) {
+            for (int dX = -reach; dX <= reach; dX++) {
+                if (Math.sqrt((dX * dX) + (dY * dY)) <= radius) {
+                    bufX[count] = dX;
+                    bufY[count] = dY;
+                    count++;
+                }
+            }
+        }
+
+        radiusX = Arrays.copyOf(bufX, count);
+        radiusY = Arrays.copyOf(bufY, count);
+        cachedRadius = radius;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
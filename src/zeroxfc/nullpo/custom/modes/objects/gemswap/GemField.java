@@ -1,6 +1,5 @@
 package zeroxfc.nullpo.custom.modes.objects.gemswap;
 
-import java.util.ArrayList;
 import java.util.Random;
 import mu.nu.nullpo.game.component.Block;
 import mu.nu.nullpo.game.component.Field;
@@ -35,6 +34,28 @@ public class GemField {
     };
     public static final int MAX_GEM_COLOURS = 7;
     private static final double randomCoefficient = (2.0 / 3.0);
+    /**
+     * Swap patterns used by <code>possibleMatches</code>: a gem plus the two cells at
+     * (dx1, dy1) and (dx2, dy2) from it that must share its colour.
+     */
+    private static final int[][] MATCH_PATTERNS = {
+        { -2, 0, -3, 0 },
+        { 2, 0, 3, 0 },
+        { 0, -2, 0, -3 },
+        { 0, 2, 0, 3 },
+        { -1, -1, -2, -1 },
+        { 1, -1, 2, -1 },
+        { -1, 1, -2, 1 },
+        { 1, 1, 2, 1 },
+        { 1, -1, 1, -2 },
+        { 1, 1, 1, 2 },
+        { -1, 1, -1, 2 },
+        { -1, -1, -1, -2 },
+        { -1, -1, 1, -1 },
+        { 1, -1, 1, 1 },
+        { -1, -1, -1, 1 },
+        { -1, 1, 1, 1 }
+    };
     private static final Logger log = Logger.getLogger(GemField.class);
     private final int fieldWidth;
     private final int fieldHeight;
@@ -43,8 +64,25 @@ public class GemField {
     private final long randSeed;
     private int[][] fieldHorizontalMatchValues;
     private int[][] fieldVerticalMatchValues;
+    /*
+     * Bitboards: one mask per colour per row, bit x set when the gem at (x, y) has that colour.
+     * Rows and columns whose contents changed since the last check are flagged dirty, so the bitboards
+     * and match check only revisit those lines.
+     */
+    private final long[][] colourRows;
+    private final long[] hypercubeRows;
+    private final long rowMask;
+    private final boolean[] staleRows;
+    private final boolean[] dirtyRows;
+    private final boolean[] dirtyColumns;
+    private boolean bitboardsDirty;
+    private boolean matchCheckDirty;
+    private int possibleMatchesCache;
 
     public GemField(int width, int height, long seed) {
+        // Rows and columns are scanned as 64-bit masks.
+        if (width > 64 || height > 64) throw new IllegalArgumentException("GemField supports at most 64x64 gems, got " + width + "x" + height + ".");
+
         fieldContents = new Gem[height][width];
         fieldHorizontalMatchValues = new int[height][width];
         fieldVerticalMatchValues = new int[height][width];
@@ -55,11 +93,20 @@ public class GemField {
         randSeed = seed;
         randEngine = new Random(seed);
 
+        colourRows = new long[MAX_GEM_COLOURS][height];
+        hypercubeRows = new long[height];
+        rowMask = (width >= 64) ? -1L : (1L << width) - 1;
+        staleRows = new boolean[height];
+        dirtyRows = new boolean[height];
+        dirtyColumns = new boolean[width];
+
         for (int i = 0; i < fieldContents.length; i++) {
             for (int j = 0; j < fieldContents[i].length; j++) {
                 fieldContents[i][j] = new EmptyGem(j, i);
             }
         }
+
+        markAllDirty();
     }
 
     public GemField(GemField field) {
@@ -70,12 +117,21 @@ public class GemField {
         fieldHorizontalMatchValues = field.getFieldHorizontalMatchValues();
         fieldVerticalMatchValues = field.getFieldVerticalMatchValues();
 
+        colourRows = new long[MAX_GEM_COLOURS][fieldHeight];
+        hypercubeRows = new long[fieldHeight];
+        rowMask = (fieldWidth >= 64) ? -1L : (1L << fieldWidth) - 1;
+        staleRows = new boolean[fieldHeight];
+        dirtyRows = new boolean[fieldHeight];
+        dirtyColumns = new boolean[fieldWidth];
+
         fieldContents = new Gem[fieldHeight][fieldWidth];
         for (int y = 0; y < fieldHeight; y++) {
             for (int x = 0; x < fieldWidth; x++) {
                 fieldContents[y][x] = field.getCell(x, y).getSelf();
             }
         }
+
+        markAllDirty();
     }
 
     public void resetMatchArrays() {
@@ -113,6 +169,8 @@ public class GemField {
                 }
             }
         }
+
+        markAllDirty();
     }
 
     public int getSurrounding(int x, int y) {
@@ -155,107 +213,44 @@ public class GemField {
         return loc;
     }
 
+    /**
+     * Counts the swaps that would make a match, in the same way as scanning every gem against every
+     * two-gem pattern around it. Answered from the colour bitboards and cached until the field changes.
+     *
+     * @return Number of (gem, pattern) pairs that can be completed by one swap.
+     */
     public int possibleMatches() {
+        refreshBitboards();
+        if (possibleMatchesCache >= 0) return possibleMatchesCache;
+
         int patternMatches = 0;
 
-        int[][][] testLocationPairs = {
-            {
-                { -2, 0 },
-                { -3, 0 }
-            },
-            {
-                { 2, 0 },
-                { 3, 0 }
-            },
-            {
-                { 0, -2 },
-                { 0, -3 }
-            },
-            {
-                { 0, 2 },
-                { 0, 3 }
-            },
-            {
-                { -1, -1 },
-                { -2, -1 }
-            },
-            {
-                { 1, -1 },
-                { 2, -1 }
-            },
-            {
-                { -1, 1 },
-                { -2, 1 }
-            },
-            {
-                { 1, 1 },
-                { 2, 1 }
-            },
-            {
-                { 1, -1 },
-                { 1, -2 }
-            },
-            {
-                { 1, 1 },
-                { 1, 2 }
-            },
-            {
-                { -1, 1 },
-                { -1, 2 }
-            },
-            {
-                { -1, -1 },
-                { -1, -2 }
-            },
-            {
-                { -1, -1 },
-                { 1, -1 }
-            },
-            {
-                { 1, -1 },
-                { 1, 1 }
-            },
-            {
-                { -1, -1 },
-                { -1, 1 }
-            },
-            {
-                { -1, 1 },
-                { 1, 1 }
+        for (int y = 0; y < fieldHeight; y++) {
+            long hypercubes = hypercubeRows[y];
+            if (hypercubes != 0) {
+                // Each hypercube counts once per in-bounds neighbour.
+                int count = Long.bitCount(hypercubes);
+                patternMatches += 4 * count;
+                patternMatches -= Long.bitCount(hypercubes & 1L);
+                patternMatches -= Long.bitCount(hypercubes & (1L << (fieldWidth - 1)));
+                if (y == 0) patternMatches -= count;
+                if (y == fieldHeight - 1) patternMatches -= count;
             }
-        };
 
-        for (int y = 0; y < fieldHeight; y++) {
-            for (int x = 0; x < fieldWidth; x++) {
-                if (fieldContents[y][x].getID() == GEMID_HYPERCUBE) {
-                    patternMatches += getSurrounding(x, y);
-                } else {
-                    int colour = fieldContents[y][x].getColour();
-
-                    for (int[][] coordPairSet : testLocationPairs) {
-                        boolean match = true;
-
-                        for (int[] coordPair : coordPairSet) {
-                            int tX = x + coordPair[0];
-                            int tY = y + coordPair[1];
-
-                            if (tX >= 0 && tX < fieldWidth && tY >= 0 && tY < fieldHeight) {
-                                if (colour != fieldContents[tY][tX].getColour()) {
-                                    match = false;
-                                    break;
-                                }
-                            } else {
-                                match = false;
-                                break;
-                            }
-                        }
-
-                        if (match) patternMatches++;
-                    }
+            for (long[] rows : colourRows) {
+                long row = rows[y];
+                if (row == 0) continue;
+
+                for (int[] pattern : MATCH_PATTERNS) {
+                    long bits = row & shiftedRow(rows, y + pattern[1], pattern[0]);
+                    if (bits == 0) continue;
+                    bits &= shiftedRow(rows, y + pattern[3], pattern[2]);
+                    patternMatches += Long.bitCount(bits);
                 }
             }
         }
 
+        possibleMatchesCache = patternMatches;
         return patternMatches;
     }
 
@@ -274,122 +269,168 @@ public class GemField {
         }
     }
 
+    /**
+     * Flags every run of three or more same-coloured gems for destruction.
+     * Only rows and columns that changed since the previous check are examined; lines that did not
+     * change cannot hold a new match.
+     */
     public void matchCheck() {
-        // 1: Vertical match check.
-        for (int y = 0; y < fieldHeight; y++) {
-            for (int x = 0; x < fieldWidth; x++) {
-                if (fieldContents[y][x].getID() == GEMID_HYPERCUBE || fieldContents[y][x].getMatchedVertical()) {
-                    continue;
-                } else {
-                    ArrayList<int[]> coordList = new ArrayList<int[]>();
-                    coordList.add(new int[] { x, y });
+        refreshBitboards();
+        if (!matchCheckDirty) return;
 
-                    int colour = fieldContents[y][x].getColour();
+        // 1: Vertical match check.
+        for (int x = 0; x < fieldWidth; x++) {
+            if (!dirtyColumns[x]) continue;
 
-                    int yOffset = -1;
-                    while (y + yOffset >= 0) {
-                        if (fieldContents[y + yOffset][x].getColour() == colour) {
-                            coordList.add(new int[] { x, y + yOffset });
-                        } else {
-                            break;
-                        }
+            for (long[] rows : colourRows) {
+                long column = 0;
+                for (int y = 0; y < fieldHeight; y++) {
+                    column |= ((rows[y] >>> x) & 1L) << y;
+                }
 
-                        yOffset--;
-                    }
+                long runs = column & (column >>> 1) & (column >>> 2);
+                runs |= (runs << 1) | (runs << 2);
 
-                    yOffset = 1;
-                    while (y + yOffset < fieldHeight) {
-                        if (fieldContents[y + yOffset][x].getColour() == colour) {
-                            coordList.add(new int[] { x, y + yOffset });
-                        } else {
-                            break;
-                        }
+                while (runs != 0) {
+                    int start = Long.numberOfTrailingZeros(runs);
+                    int length = Long.numberOfTrailingZeros(~(runs >>> start));
 
-                        yOffset++;
+                    for (int y2 = start; y2 < start + length; y2++) {
+                        fieldContents[y2][x].setMatchedVertical(true);
+                        fieldContents[y2][x].setDestroy(true);
+                        fieldVerticalMatchValues[y2][x] = length;
                     }
 
-                    if (coordList.size() >= 3) {
-                        for (int[] is : coordList) {
-                            int x2 = is[0];
-                            int y2 = is[1];
-
-                            log.debug(coordList.size() + "-MATCH AT " + x2 + ", " + y2);
-
-                            fieldContents[y2][x2].setMatchedVertical(true);
-                            fieldContents[y2][x2].setDestroy(true);
-                            fieldVerticalMatchValues[y2][x2] = coordList.size();
-                        }
-                    }
+                    runs &= ~(runMask(length) << start);
                 }
             }
         }
 
         // 2: Horizontal match check.
         for (int y = 0; y < fieldHeight; y++) {
-            for (int x = 0; x < fieldWidth; x++) {
-                if (fieldContents[y][x].getID() == GEMID_HYPERCUBE || fieldContents[y][x].getMatchedHorizontal()) {
-                    continue;
-                } else {
-                    ArrayList<int[]> coordList = new ArrayList<int[]>();
-                    coordList.add(new int[] { x, y });
+            if (!dirtyRows[y]) continue;
 
-                    int colour = fieldContents[y][x].getColour();
+            for (long[] rows : colourRows) {
+                long row = rows[y];
+                long runs = row & (row >>> 1) & (row >>> 2);
+                runs |= (runs << 1) | (runs << 2);
 
-                    int xOffset = -1;
-                    while (x + xOffset >= 0) {
-                        if (fieldContents[y][x + xOffset].getColour() == colour) {
-                            coordList.add(new int[] { x + xOffset, y });
-                        } else {
-                            break;
-                        }
+                while (runs != 0) {
+                    int start = Long.numberOfTrailingZeros(runs);
+                    int length = Long.numberOfTrailingZeros(~(runs >>> start));
 
-                        xOffset--;
+                    for (int x2 = start; x2 < start + length; x2++) {
+                        fieldContents[y][x2].setMatchedHorizontal(true);
+                        fieldContents[y][x2].setDestroy(true);
+                        fieldHorizontalMatchValues[y][x2] = length;
                     }
 
-                    xOffset = 1;
-                    while (x + xOffset < fieldWidth) {
-                        if (fieldContents[y][x + xOffset].getColour() == colour) {
-                            coordList.add(new int[] { x + xOffset, y });
-                        } else {
-                            break;
-                        }
+                    runs &= ~(runMask(length) << start);
+                }
+            }
+        }
+
+        for (int y = 0; y < fieldHeight; y++) {
+            dirtyRows[y] = false;
+        }
+        for (int x = 0; x < fieldWidth; x++) {
+            dirtyColumns[x] = false;
+        }
+        matchCheckDirty = false;
 
-                        xOffset++;
-                    }
+        if (log.isDebugEnabled()) {
+            for (int y = 0; y < fieldHeight; y++) {
+                StringBuilder debugString = new StringBuilder();
 
-                    if (coordList.size() >= 3) {
-                        for (int[] is : coordList) {
-                            int x2 = is[0];
-                            int y2 = is[1];
+                for (int x = 0; x < fieldWidth; x++) {
+                    debugString.append(fieldHorizontalMatchValues[y][x]).append(' ');
+                }
+                log.debug(debugString.toString());
+            }
 
-                            log.debug(coordList.size() + "-MATCH AT " + x2 + ", " + y2);
+            for (int y = 0; y < fieldHeight; y++) {
+                StringBuilder debugString = new StringBuilder();
 
-                            fieldContents[y2][x2].setMatchedHorizontal(true);
-                            fieldContents[y2][x2].setDestroy(true);
-                            fieldHorizontalMatchValues[y2][x2] = coordList.size();
-                        }
-                    }
+                for (int x = 0; x < fieldWidth; x++) {
+                    debugString.append(fieldVerticalMatchValues[y][x]).append(' ');
                 }
+                log.debug(debugString.toString());
             }
         }
+    }
 
+    /**
+     * Flags every row and column as changed, forcing the next match check to examine the whole field.
+     */
+    public void markAllDirty() {
         for (int y = 0; y < fieldHeight; y++) {
-            String debugString = "";
-
-            for (int x = 0; x < fieldWidth; x++) {
-                debugString += fieldHorizontalMatchValues[y][x] + " ";
-            }
-            log.debug(debugString);
+            staleRows[y] = true;
+            dirtyRows[y] = true;
+        }
+        for (int x = 0; x < fieldWidth; x++) {
+            dirtyColumns[x] = true;
         }
+        bitboardsDirty = true;
+        matchCheckDirty = true;
+        possibleMatchesCache = -1;
+    }
+
+    private void markCellDirty(int x, int y) {
+        staleRows[y] = true;
+        dirtyRows[y] = true;
+        dirtyColumns[x] = true;
+        bitboardsDirty = true;
+        matchCheckDirty = true;
+        possibleMatchesCache = -1;
+    }
+
+    /*
+     * Rebuilds the bitboards of every row that changed since the last rebuild.
+     */
+    private void refreshBitboards() {
+        if (!bitboardsDirty) return;
 
         for (int y = 0; y < fieldHeight; y++) {
-            String debugString = "";
+            if (!staleRows[y]) continue;
+
+            for (long[] rows : colourRows) {
+                rows[y] = 0;
+            }
+            hypercubeRows[y] = 0;
 
             for (int x = 0; x < fieldWidth; x++) {
-                debugString += fieldVerticalMatchValues[y][x] + " ";
+                Gem gem = fieldContents[y][x];
+                if (gem.getID() == GEMID_HYPERCUBE) {
+                    hypercubeRows[y] |= 1L << x;
+                } else {
+                    int index = getColourIndex(gem.getColour());
+                    if (index >= 0) colourRows[index][y] |= 1L << x;
+                }
             }
-            log.debug(debugString);
+
+            staleRows[y] = false;
         }
+
+        bitboardsDirty = false;
+    }
+
+    /*
+     * Gets a colour's row y shifted so that bit x holds the gem at (x + dx, y). Out-of-range rows are empty.
+     */
+    private long shiftedRow(long[] rows, int y, int dx) {
+        if (y < 0 || y >= fieldHeight) return 0;
+        return ((dx >= 0) ? (rows[y] >>> dx) : (rows[y] << -dx)) & rowMask;
+    }
+
+    private static long runMask(int length) {
+        return (length >= 64) ? -1L : (1L << length) - 1;
+    }
+
+    private static int getColourIndex(int colour) {
+        for (int i = 0; i < MAX_GEM_COLOURS; i++) {
+            if (GEM_COLOURS[i] == colour) return i;
+        }
+        return -1;
     }
 
     public void createGemsOnTopRow() {
@@ -416,6 +457,8 @@ public class GemField {
 
                     fieldContents[0][x] = new NormalGem(x, 0, c);
                 }
+
+                markCellDirty(x, 0);
             }
         }
     }
@@ -497,6 +540,7 @@ public class GemField {
             for (int x = 0; x < fieldWidth; x++) {
                 if (fieldContents[y][x].getDestroy()) {
                     fieldContents[y][x] = new EmptyGem(x, y);
+                    markCellDirty(x, y);
                 }
             }
         }
@@ -513,6 +557,8 @@ public class GemField {
                     fieldContents[y][x] = fieldContents[y - 1][x];
                     fieldContents[y][x].setRecentFall(true);
                     fieldContents[y - 1][x] = new EmptyGem(x, y - 1);
+                    markCellDirty(x, y);
+                    markCellDirty(x, y - 1);
 
                     dropped = true;
                 }
@@ -549,6 +595,8 @@ public class GemField {
 
         fieldContents[y1][x1] = getCell(x2, y2).getSelf();
         fieldContents[y2][x2] = old;
+        markCellDirty(x1, y1);
+        markCellDirty(x2, y2);
 
         getCell(x1, y1).setRecentSwap(true);
         getCell(x2, y2).setRecentSwap(true);
@@ -567,6 +615,8 @@ public class GemField {
     }
 
     public Gem[][] getContents() {
+        // The caller may replace gems directly, so nothing cached can be trusted afterwards.
+        markAllDirty();
         return fieldContents;
     }
 
@@ -597,6 +647,7 @@ public class GemField {
     public void setCell(Gem gem, int x, int y) {
         if (x < 0 || y < 0 || y >= fieldHeight || x >= fieldWidth) {
             fieldContents[y][x] = gem.getSelf();
+            markCellDirty(x, y);
         } else {
             return;
         }
@@ -605,6 +656,7 @@ public class GemField {
     public void setEmpty(int x, int y) {
         if (x < 0 || y < 0 || y >= fieldHeight || x >= fieldWidth) {
             fieldContents[y][x] = new EmptyGem(x, y);
+            markCellDirty(x, y);
         } else {
             return;
         }
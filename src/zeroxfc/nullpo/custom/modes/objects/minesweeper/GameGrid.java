@@ -6,6 +6,8 @@ public class GameGrid {
     public static final int STATE_SAFE = 0,
         STATE_MINE = 1,
         STATE_ALREADY_OPEN = 2;
+    private static final int[] NEIGHBOUR_X = { -1, 0, 1, -1, 1, -1, 0, 1 },
+        NEIGHBOUR_Y = { -1, -1, -1, 0, 0, 1, 1, 1 };
     private final int length;
     private final int height;
     private final int squares;
@@ -13,6 +15,9 @@ public class GameGrid {
     private final float minePercent;
     private final Random randomizer;
     public GridSpace[][] contents;
+    private int coveredSquares;
+    private int lastUncoveredCount;
+    private int[] uncoverQueue;
 
     public GameGrid() {
         this(10, 10, 0.1f, 0);
@@ -27,6 +32,8 @@ public class GameGrid {
         mines = (int) ((minePercent / 100f) * squares);
 
         contents = new GridSpace[height][length];
+        coveredSquares = squares;
+        lastUncoveredCount = 0;
 
         for (int y = 0; y < contents.length; y++) {
             for (int x = 0; x < contents[y].length; x++) {
@@ -64,13 +71,9 @@ public class GameGrid {
 
     public int getSurroundingMines(int x, int y) {
         int mine = 0;
-        int[][] testLocations = { { -1, -1 }, { 0, -1 }, { 1, -1 },
-            { -1, 0 }, { 1, 0 },
-            { -1, 1 }, { 0, 1 }, { 1, 1 } };
-
-        for (int[] loc : testLocations) {
-            int px = x + loc[0];
-            int py = y + loc[1];
+        for (int i = 0; i < NEIGHBOUR_X.length; i++) {
+            int px = x + NEIGHBOUR_X[i];
+            int py = y + NEIGHBOUR_Y[i];
 
             if (px < 0 || px >= length) continue;
             if (py < 0 || py >= height) continue;
@@ -83,13 +86,9 @@ public class GameGrid {
 
     public int getSurroundingFlags(int x, int y) {
         int flag = 0;
-        int[][] testLocations = { { -1, -1 }, { 0, -1 }, { 1, -1 },
-            { -1, 0 }, { 1, 0 },
-            { -1, 1 }, { 0, 1 }, { 1, 1 } };
-
-        for (int[] loc : testLocations) {
-            int px = x + loc[0];
-            int py = y + loc[1];
+        for (int i = 0; i < NEIGHBOUR_X.length; i++) {
+            int px = x + NEIGHBOUR_X[i];
+            int py = y + NEIGHBOUR_Y[i];
 
             if (px < 0 || px >= length) continue;
             if (py < 0 || py >= height) continue;
@@ -102,13 +101,9 @@ public class GameGrid {
 
     public int getSurroundingCovered(int x, int y) {
         int flag = 0;
-        int[][] testLocations = { { -1, -1 }, { 0, -1 }, { 1, -1 },
-            { -1, 0 }, { 1, 0 },
-            { -1, 1 }, { 0, 1 }, { 1, 1 } };
-
-        for (int[] loc : testLocations) {
-            int px = x + loc[0];
-            int py = y + loc[1];
+        for (int i = 0; i < NEIGHBOUR_X.length; i++) {
+            int px = x + NEIGHBOUR_X[i];
+            int py = y + NEIGHBOUR_Y[i];
 
             if (px < 0 || px >= length) continue;
             if (py < 0 || py >= height) continue;
@@ -122,8 +117,9 @@ public class GameGrid {
     public void uncoverAllMines() {
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < length; x++) {
-                if (contents[y][x].isMine) {
+                if (contents[y][x].isMine && !contents[y][x].uncovered) {
                     contents[y][x].uncovered = true;
+                    coveredSquares--;
                 }
             }
         }
@@ -132,8 +128,9 @@ public class GameGrid {
     public void uncoverNonMines() {
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < length; x++) {
-                if (!contents[y][x].isMine) {
+                if (!contents[y][x].isMine && !contents[y][x].uncovered) {
                     contents[y][x].uncovered = true;
+                    coveredSquares--;
                 }
             }
         }
@@ -151,33 +148,66 @@ public class GameGrid {
     }
 
     public int uncoverAt(int x, int y) {
+        lastUncoveredCount = 0;
         if (!contents[y][x].flagged && !contents[y][x].uncovered && !contents[y][x].question) {
             contents[y][x].uncovered = true;
+            coveredSquares--;
+            lastUncoveredCount = 1;
 
             if (contents[y][x].isMine) {
                 return STATE_MINE;
             } else {
-                if (contents[y][x].surroundingMines == 0) {
-                    int[][] testLocations = { { -1, -1 }, { 0, -1 }, { 1, -1 },
-                        { -1, 0 }, { 1, 0 },
-                        { -1, 1 }, { 0, 1 }, { 1, 1 } };
+                if (contents[y][x].surroundingMines == 0) floodUncover(x, y);
+
+                return STATE_SAFE;
+            }
+        }
 
-                    for (int[] loc : testLocations) {
-                        int px = x + loc[0];
-                        int py = y + loc[1];
+        return STATE_ALREADY_OPEN;
+    }
 
-                        if (px < 0 || px >= length) continue;
-                        if (py < 0 || py >= height) continue;
+    /*
+     * Breadth-first uncover of the zero-count region around (x, y).
+     * Every square is marked uncovered as it is queued, so each one enters the queue at most once
+     * and the queue never needs more than one slot per square on the board.
+     */
+    private void floodUncover(int x, int y) {
+        if (uncoverQueue == null) uncoverQueue = new int[squares];
 
-                        if (!contents[py][px].uncovered) uncoverAt(px, py);
-                    }
-                }
+        int head = 0, tail = 0;
+        uncoverQueue[tail++] = y * length + x;
 
-                return STATE_SAFE;
+        while (head < tail) {
+            int cx = uncoverQueue[head] % length;
+            int cy = uncoverQueue[head] / length;
+            head++;
+
+            for (int i = 0; i < NEIGHBOUR_X.length; i++) {
+                int px = cx + NEIGHBOUR_X[i];
+                int py = cy + NEIGHBOUR_Y[i];
+
+                if (px < 0 || px >= length) continue;
+                if (py < 0 || py >= height) continue;
+
+                GridSpace space = contents[py][px];
+                if (space.uncovered || space.flagged || space.question) continue;
+
+                space.uncovered = true;
+                coveredSquares--;
+                lastUncoveredCount++;
+
+                if (!space.isMine && space.surroundingMines == 0) uncoverQueue[tail++] = py * length + px;
             }
         }
+    }
 
-        return STATE_ALREADY_OPEN;
+    /**
+     * Gets the number of squares opened by the last call to <code>uncoverAt</code>.
+     *
+     * @return Size of the uncovered region, or 0 if nothing was opened.
+     */
+    public int getLastUncoveredCount() {
+        return lastUncoveredCount;
     }
 
     public int cycleState(int x, int y) {
@@ -204,15 +234,7 @@ public class GameGrid {
     }
 
     public int getCoveredSquares() {
-        int amt = 0;
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < length; x++) {
-                if (!contents[y][x].uncovered) {
-                    amt++;
-                }
-            }
-        }
-        return amt;
+        return coveredSquares;
     }
 
     public int getFlaggedSquares() {
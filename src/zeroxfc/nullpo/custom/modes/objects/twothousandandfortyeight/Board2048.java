@@ -0,0 +1,301 @@
+package zeroxfc.nullpo.custom.modes.objects.twothousandandfortyeight;
+
+/**
+ * Packed 4x4 2048 board.
+ * <p>
+ * A board is a <code>long</code> holding one nibble per cell: the base-2 logarithm of the tile (0 = empty, 1 = 2, 2 = 4, ...).
+ * Cell (x, y) is nibble <code>y * 4 + x</code>, so each row is one 16-bit chunk.
+ * Every possible row is slid once when the class loads; a whole-board move is then four table lookups,
+ * with columns handled by transposing the board.
+ * <p>
+ * A nibble tops out at 15 (32768), so two 32768 tiles do not merge.
+ */
+public final class Board2048 {
+    public static final int SIZE = 4;
+    public static final int MAX_EXPONENT = 15;
+
+    /**
+     * Directions, matching {@link NumberGrid}.
+     */
+    public static final int DIRECTION_UP = 0,
+        DIRECTION_DOWN = 1,
+        DIRECTION_LEFT = 2,
+        DIRECTION_RIGHT = 3;
+
+    private static final long ROW_MASK = 0xFFFFL;
+    private static final int ROWS = 1 << 16;
+
+    /*
+     * Row tables: the row after sliding towards x = 0 (left) or x = 3 (right), and the points scored by doing so.
+     */
+    private static final char[] ROW_LEFT = new char[ROWS], ROW_RIGHT = new char[ROWS];
+    private static final int[] SCORE_LEFT = new int[ROWS], SCORE_RIGHT = new int[ROWS];
+    /*
+     * Per-row evaluation used by the expectimax search.
+     */
+    private static final float[] ROW_HEURISTIC = new float[ROWS];
+
+    /*
+     * Expectimax tuning.
+     */
+    private static final double PROBABILITY_CUTOFF = 0.0001;
+    private static final double TWO_CHANCE = 0.9;
+    private static final float HEURISTIC_BASE = 200000f, HEURISTIC_EMPTY = 270f, HEURISTIC_MERGES = 700f,
+        HEURISTIC_MONOTONICITY = 47f, HEURISTIC_SUM = 11f;
+
+    static {
+        int[] cells = new int[SIZE];
+        int[] reversed = new int[SIZE];
+        for (int row = 0; row < ROWS; row++) {
+            for (int i = 0; i < SIZE; i++) cells[i] = (row >>> (4 * i)) & 0xF;
+
+            SCORE_LEFT[row] = slide(cells, reversed);
+            ROW_LEFT[row] = (char) pack(reversed);
+
+            for (int i = 0; i < SIZE; i++) cells[i] = (row >>> (4 * (SIZE - 1 - i))) & 0xF;
+            SCORE_RIGHT[row] = slide(cells, reversed);
+            int packed = 0;
+            for (int i = 0; i < SIZE; i++) packed |= reversed[i] << (4 * (SIZE - 1 - i));
+            ROW_RIGHT[row] = (char) packed;
+
+            for (int i = 0; i < SIZE; i++) cells[i] = (row >>> (4 * i)) & 0xF;
+            ROW_HEURISTIC[row] = evaluateRow(cells);
+        }
+    }
+
+    private Board2048() {
+    }
+
+    /**
+     * Slides a line towards index 0, merging equal neighbours once each.
+     *
+     * @return Points scored.
+     */
+    private static int slide(int[] line, int[] out) {
+        int written = 0, pending = 0, score = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int c = line[i];
+            if (c == 0) continue;
+
+            if (pending == c && c < MAX_EXPONENT) {
+                out[written++] = c + 1;
+                score += 1 << (c + 1);
+                pending = 0;
+            } else {
+                if (pending != 0) out[written++] = pending;
+                pending = c;
+            }
+        }
+        if (pending != 0) out[written++] = pending;
+        while (written < SIZE) out[written++] = 0;
+        return score;
+    }
+
+    private static int pack(int[] line) {
+        int packed = 0;
+        for (int i = 0; i < SIZE; i++) packed |= line[i] << (4 * i);
+        return packed;
+    }
+
+    private static float evaluateRow(int[] line) {
+        int empty = 0, merges = 0, previous = 0, counter = 0;
+        float sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int rank = line[i];
+            sum += (float) Math.pow(rank, 3.5);
+            if (rank == 0) {
+                empty++;
+            } else {
+                if (previous == rank) {
+                    counter++;
+                } else if (counter > 0) {
+                    merges += 1 + counter;
+                    counter = 0;
+                }
+                previous = rank;
+            }
+        }
+        if (counter > 0) merges += 1 + counter;
+
+        float monotonicLeft = 0, monotonicRight = 0;
+        for (int i = 1; i < SIZE; i++) {
+            float a = (float) Math.pow(line[i - 1], 4), b = (float) Math.pow(line[i], 4);
+            if (line[i - 1] > line[i]) monotonicLeft += a - b;
+            else monotonicRight += b - a;
+        }
+
+        return HEURISTIC_BASE + (HEURISTIC_EMPTY * empty) + (HEURISTIC_MERGES * merges)
+            - (HEURISTIC_MONOTONICITY * Math.min(monotonicLeft, monotonicRight)) - (HEURISTIC_SUM * sum);
+    }
+
+    /**
+     * Swaps rows and columns.
+     */
+    public static long transpose(long board) {
+        long a1 = board & 0xF0F00F0FF0F00F0FL;
+        long a2 = board & 0x0000F0F00000F0F0L;
+        long a3 = board & 0x0F0F00000F0F0000L;
+        long a = a1 | (a2 << 12) | (a3 >>> 12);
+        long b1 = a & 0xFF00FF0000FF00FFL;
+        long b2 = a & 0x00FF00FF00000000L;
+        long b3 = a & 0x00000000FF00FF00L;
+        return b1 | (b2 >>> 24) | (b3 << 24);
+    }
+
+    public static int getExponent(long board, int x, int y) {
+        return (int) ((board >>> (4 * ((y * SIZE) + x))) & 0xF);
+    }
+
+    public static long setExponent(long board, int x, int y, int exponent) {
+        int shift = 4 * ((y * SIZE) + x);
+        return (board & ~(0xFL << shift)) | ((long) (exponent & 0xF) << shift);
+    }
+
+    public static int countEmpty(long board) {
+        int empty = 0;
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            if (((board >>> (4 * i)) & 0xF) == 0) empty++;
+        }
+        return empty;
+    }
+
+    public static int getMaxExponent(long board) {
+        int max = 0;
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            max = Math.max(max, (int) ((board >>> (4 * i)) & 0xF));
+        }
+        return max;
+    }
+
+    /**
+     * Moves every tile as far as it goes in a direction.
+     *
+     * @param board     Board
+     * @param direction Direction
+     * @return The board after the move. Equal to <code>board</code> if nothing moved.
+     */
+    public static long move(long board, int direction) {
+        switch (direction) {
+            case DIRECTION_LEFT:
+                return applyRows(board, ROW_LEFT);
+            case DIRECTION_RIGHT:
+                return applyRows(board, ROW_RIGHT);
+            case DIRECTION_UP:
+                return transpose(applyRows(transpose(board), ROW_LEFT));
+            case DIRECTION_DOWN:
+                return transpose(applyRows(transpose(board), ROW_RIGHT));
+            default:
+                return board;
+        }
+    }
+
+    /**
+     * Gets the points a move would score.
+     *
+     * @param board     Board
+     * @param direction Direction
+     * @return Sum of the merged tiles' values.
+     */
+    public static int getMoveScore(long board, int direction) {
+        switch (direction) {
+            case DIRECTION_LEFT:
+                return sumRows(board, SCORE_LEFT);
+            case DIRECTION_RIGHT:
+                return sumRows(board, SCORE_RIGHT);
+            case DIRECTION_UP:
+                return sumRows(transpose(board), SCORE_LEFT);
+            case DIRECTION_DOWN:
+                return sumRows(transpose(board), SCORE_RIGHT);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Checks if any move would change the board.
+     *
+     * @param board Board
+     * @return <code>true</code> if there is a move left.
+     */
+    public static boolean canMove(long board) {
+        if (applyRows(board, ROW_LEFT) != board || applyRows(board, ROW_RIGHT) != board) return true;
+        long transposed = transpose(board);
+        return applyRows(transposed, ROW_LEFT) != transposed || applyRows(transposed, ROW_RIGHT) != transposed;
+    }
+
+    private static long applyRows(long board, char[] table) {
+        long result = 0;
+        for (int r = 0; r < SIZE; r++) {
+            result |= (long) table[(int) ((board >>> (16 * r)) & ROW_MASK)] << (16 * r);
+        }
+        return result;
+    }
+
+    private static int sumRows(long board, int[] table) {
+        int sum = 0;
+        for (int r = 0; r < SIZE; r++) sum += table[(int) ((board >>> (16 * r)) & ROW_MASK)];
+        return sum;
+    }
+
+    private static float evaluate(long board) {
+        long transposed = transpose(board);
+        float value = 0;
+        for (int r = 0; r < SIZE; r++) {
+            value += ROW_HEURISTIC[(int) ((board >>> (16 * r)) & ROW_MASK)];
+            value += ROW_HEURISTIC[(int) ((transposed >>> (16 * r)) & ROW_MASK)];
+        }
+        return value;
+    }
+
+    /**
+     * Picks a move with an expectimax search: the player takes the best move, then a 2 (90%) or a 4 (10%) appears
+     * in a random empty cell. Unlikely branches are cut off early.
+     *
+     * @param board Board
+     * @param depth Number of moves to look ahead (at least 1)
+     * @return Best direction, or -1 if no move is possible.
+     */
+    public static int getBestMove(long board, int depth) {
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int direction = 0; direction < 4; direction++) {
+            long moved = move(board, direction);
+            if (moved == board) continue;
+
+            double value = chanceNode(moved, Math.max(1, depth) - 1, 1.0);
+            if (value > bestValue) {
+                bestValue = value;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    private static double moveNode(long board, int depth, double probability) {
+        double best = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            long moved = move(board, direction);
+            if (moved == board) continue;
+            best = Math.max(best, chanceNode(moved, depth, probability));
+        }
+        return best;
+    }
+
+    private static double chanceNode(long board, int depth, double probability) {
+        if (depth <= 0 || probability < PROBABILITY_CUTOFF) return evaluate(board);
+
+        int empty = countEmpty(board);
+        if (empty == 0) return evaluate(board);
+
+        final double cellProbability = probability / empty;
+        double total = 0;
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            int shift = 4 * i;
+            if (((board >>> shift) & 0xF) != 0) continue;
+
+            total += TWO_CHANCE * moveNode(board | (1L << shift), depth - 1, cellProbability * TWO_CHANCE);
+            total += (1 - TWO_CHANCE) * moveNode(board | (2L << shift), depth - 1, cellProbability * (1 - TWO_CHANCE));
+        }
+        return total / empty;
+    }
+}
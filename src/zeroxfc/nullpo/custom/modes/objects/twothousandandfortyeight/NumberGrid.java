@@ -1,20 +1,32 @@
 package zeroxfc.nullpo.custom.modes.objects.twothousandandfortyeight;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Random;
 import mu.nu.nullpo.game.component.Block;
 import mu.nu.nullpo.game.event.EventReceiver;
 import mu.nu.nullpo.game.play.GameEngine;
 import zeroxfc.nullpo.custom.libs.ValueWrapper;
 
+/**
+ * 2048 grid.
+ * <p>
+ * The tiles are stored as a packed {@link Board2048} board, so only 4x4 grids are supported.
+ * Tiles can go up to 32768.
+ */
+/**
+ * 2048 grid stored as a packed {@link Board2048}.<br />
+ * Moves made in play still go through {@link #moveSquares}, which shifts tiles one cell per call so each step
+ * can be animated. Board2048's row lookup tables are only used to check for possible moves and to search for hints.
+ */
 public class NumberGrid {
     // region Static Fields
-    public static final int DIRECTION_UP = 0,
-        DIRECTION_DOWN = 1,
-        DIRECTION_LEFT = 2,
-        DIRECTION_RIGHT = 3;
+    public static final int DIRECTION_UP = Board2048.DIRECTION_UP,
+        DIRECTION_DOWN = Board2048.DIRECTION_DOWN,
+        DIRECTION_LEFT = Board2048.DIRECTION_LEFT,
+        DIRECTION_RIGHT = Board2048.DIRECTION_RIGHT;
 
+    /**
+     * Block colours, indexed by tile exponent. Higher tiles are rainbow.
+     */
     private static final int[] COLOUR_VALUES = {
         Block.BLOCK_COLOR_NONE,
         Block.BLOCK_COLOR_ORANGE,
@@ -30,99 +42,144 @@ public class NumberGrid {
         Block.BLOCK_COLOR_RAINBOW
     };
 
-    private static final int[] COLOUR_NUMBERS = {
-        0,
-        2,
-        4,
-        8,
-        16,
-        32,
-        64,
-        128,
-        256,
-        512,
-        1024,
-        2048
-    };
+    /**
+     * Look-ahead depth of the hint search.
+     */
+    private static final int HINT_DEPTH = 3;
 
     private static final double TWO_CHANCE = 0.9;
-    private final HashMap<Integer, Integer> colourAssign;
     private final int height;
     private final int width;
     private final Random localRandom;
     // endregion Static Fields
-    public GridSpace2048[][] grid;
+
+    /*
+     * Tile exponents, see Board2048, and one bit per cell for tiles merged during the current move.
+     */
+    private long board;
+    private int mergedMask;
+
+    /*
+     * Cached hint for the board it was calculated on.
+     */
+    private long hintBoard;
+    private int hint;
 
     public NumberGrid(int width, int height, long randSeed) {
+        if (width != Board2048.SIZE || height != Board2048.SIZE) {
+            throw new IllegalArgumentException("NumberGrid only supports a " + Board2048.SIZE + "x" + Board2048.SIZE + " grid.");
+        }
+
         this.height = height;
         this.width = width;
-        this.grid = new GridSpace2048[height][width];
-        this.colourAssign = new HashMap<>(11);
         this.localRandom = new Random(randSeed);
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                this.grid[y][x] = new GridSpace2048(0);
-            }
-        }
-
-        for (int i = 0; i < COLOUR_VALUES.length; i++) {
-            colourAssign.put(COLOUR_NUMBERS[i], COLOUR_VALUES[i]);
-        }
+        this.board = 0;
+        this.mergedMask = 0;
+        this.hintBoard = -1;
+        this.hint = -1;
 
         createSquare();
         createSquare();
     }
 
+    private static int getColour(int exponent) {
+        return exponent < COLOUR_VALUES.length ? COLOUR_VALUES[exponent] : Block.BLOCK_COLOR_RAINBOW;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private int getExponent(int x, int y) {
+        return Board2048.getExponent(board, x, y);
+    }
+
+    private boolean isMerged(int x, int y) {
+        return (mergedMask & (1 << ((y * width) + x))) != 0;
+    }
+
+    private void setSpace(int x, int y, int exponent, boolean merged) {
+        board = Board2048.setExponent(board, x, y, exponent);
+        int bit = 1 << ((y * width) + x);
+        if (merged) mergedMask |= bit;
+        else mergedMask &= ~bit;
+    }
+
     /**
      * Gets a cell. Returns null if index out of bounds.
+     * The returned space is a copy; use {@link #setCell(GridSpace2048, int, int)} to change the grid.
      *
      * @param x x-coordinate of cell
      * @param y y-coordicate of cell
      * @return GridCell2048 instance in grid cell
      */
     public GridSpace2048 getCell(int x, int y) {
-        if (x >= 0 && x < width && y >= 0 && y < height) {
-            return grid[y][x];
+        if (inBounds(x, y)) {
+            return new GridSpace2048(getValue(x, y), isMerged(x, y));
         } else {
             return null;
         }
     }
 
+    /**
+     * Gets the value of a cell without creating any objects.
+     *
+     * @param x x-coordinate of cell
+     * @param y y-coordicate of cell
+     * @return Tile value, 0 if the cell is empty or out of bounds.
+     */
+    public int getValue(int x, int y) {
+        if (!inBounds(x, y)) return 0;
+        int exponent = getExponent(x, y);
+        return exponent == 0 ? 0 : 1 << exponent;
+    }
+
+    /**
+     * Sets a cell. The value is rounded down to a power of two.
+     *
+     * @param space New contents
+     * @param x     x-coordinate of cell
+     * @param y     y-coordicate of cell
+     */
     public void setCell(GridSpace2048 space, int x, int y) {
-        if (x >= 0 && x < width && y >= 0 && y < height) {
-            grid[y][x] = space.clone();
+        if (inBounds(x, y)) {
+            int value = space.getValue();
+            int exponent = value <= 1 ? 0 : Math.min(31 - Integer.numberOfLeadingZeros(value), Board2048.MAX_EXPONENT);
+            setSpace(x, y, exponent, space.getMerged());
         }
     }
 
+    /**
+     * Clears every cell's merged flag. Call at the start of each move.
+     */
+    public void clearMerged() {
+        mergedMask = 0;
+    }
+
+    /**
+     * Gets the packed board.
+     *
+     * @return Board in {@link Board2048} format.
+     */
+    public long getBoard() {
+        return board;
+    }
+
     public boolean movesPossible() {
-        int[][] testLocations = {
-            { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 }
-        };
+        return Board2048.canMove(board);
+    }
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (getCell(x, y) != null) {
-                    if (getCell(x, y).getValue() == 0) {
-                        return true;  // If cell is 0, there is obviously a move.
-                    } else {
-                        for (int[] is : testLocations) {
-                            int tX, tY;
-                            tX = x + is[0];
-                            tY = y + is[1];
-
-                            if (getCell(tX, tY) != null) {
-                                if (getCell(x, y).getValue() == getCell(tX, tY).getValue()) {
-                                    return true;  // If an adjacent cell has an equal value, it must be a move.
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+    /**
+     * Gets the suggested next move. The result is cached until the board changes.
+     *
+     * @return One of the DIRECTION constants, or -1 if no move is possible.
+     */
+    public int getHint() {
+        if (hintBoard != board) {
+            hint = Board2048.getBestMove(board, HINT_DEPTH);
+            hintBoard = board;
         }
-
-        return false;
+        return hint;
     }
 
     public Block[][] getDrawGrid(GameEngine engine) {
@@ -130,172 +187,112 @@ public class NumberGrid {
 
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                int cellValue = getCell(x, y).getValue();
-                int colour = colourAssign.getOrDefault(cellValue, Block.BLOCK_COLOR_RAINBOW);
-
-                Block blk = new Block(colour, engine.getSkin(), Block.BLOCK_ATTRIBUTE_VISIBLE);
+                Block blk = new Block(getColour(getExponent(x, y)), engine.getSkin(), Block.BLOCK_ATTRIBUTE_VISIBLE);
                 blk.setAttribute(Block.BLOCK_ATTRIBUTE_OUTLINE, false);
 
-                localField[y][x] = new Block(blk);
+                localField[y][x] = blk;
             }
         }
 
         return localField;
     }
 
+    /**
+     * Moves every tile one cell in a direction, merging into equal tiles that have not merged this move.
+     *
+     * @return <code>true</code> if anything moved.
+     */
     public boolean moveSquares(GameEngine engine, EventReceiver receiver, int playerID, int direction, ValueWrapper counter) {
-        boolean moved = false;
-        boolean merged = false;
-
-        ArrayList<Integer[]> exclusion = new ArrayList<>();
+        int startX = 0, endX = width, startY = 0, endY = height, stepX = 1, stepY = 1, dx = 0, dy = 0;
 
         switch (direction) {
             case DIRECTION_UP:
-                for (int y = 1; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        int tY = y - 1;
-                        if (getCell(x, y).getValue() != 0 && getCell(x, tY).getValue() == 0 && !exclusion.contains(new Integer[] { x, y })) {
-                            setCell(getCell(x, y), x, tY);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                        } else if (getCell(x, y).getValue() != 0 && getCell(x, tY).isEqual(getCell(x, y)) && !getCell(x, y).getMerged() && !getCell(x, tY).getMerged()) {
-                            setCell(new GridSpace2048(getCell(x, y).getValue() * 2, true), x, tY);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                            merged = true;
-                            counter.valueInt += getCell(x, tY).getValue();
-                            receiver.blockBreak(engine, playerID, x * 2, tY * 2, getBlock(getCell(x, tY).getValue()));
-                            receiver.blockBreak(engine, playerID, x * 2 + 1, tY * 2, getBlock(getCell(x, tY).getValue()));
-                            receiver.blockBreak(engine, playerID, x * 2, tY * 2 + 1, getBlock(getCell(x, tY).getValue()));
-                            receiver.blockBreak(engine, playerID, x * 2 + 1, tY * 2 + 1, getBlock(getCell(x, tY).getValue()));
-                            exclusion.add(new Integer[] { x, tY });
-                        }
-                    }
-                }
+                startY = 1;
+                dy = -1;
                 break;
             case DIRECTION_DOWN:
-                for (int y = height - 2; y >= 0; y--) {
-                    for (int x = 0; x < width; x++) {
-                        int tY = y + 1;
-                        if (getCell(x, y).getValue() != 0 && getCell(x, tY).getValue() == 0 && !exclusion.contains(new Integer[] { x, y })) {
-                            setCell(getCell(x, y), x, tY);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                        } else if (getCell(x, y).getValue() != 0 && getCell(x, tY).isEqual(getCell(x, y)) && !getCell(x, y).getMerged() && !getCell(x, tY).getMerged()) {
-                            setCell(new GridSpace2048(getCell(x, y).getValue() * 2, true), x, tY);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                            merged = true;
-                            counter.valueInt += getCell(x, tY).getValue();
-                            receiver.blockBreak(engine, playerID, x * 2, tY * 2, getBlock(getCell(x, tY).getValue()));
-                            receiver.blockBreak(engine, playerID, x * 2 + 1, tY * 2, getBlock(getCell(x, tY).getValue()));
-                            receiver.blockBreak(engine, playerID, x * 2, tY * 2 + 1, getBlock(getCell(x, tY).getValue()));
-                            receiver.blockBreak(engine, playerID, x * 2 + 1, tY * 2 + 1, getBlock(getCell(x, tY).getValue()));
-                            exclusion.add(new Integer[] { x, tY });
-                        }
-                    }
-                }
+                startY = height - 2;
+                endY = -1;
+                stepY = -1;
+                dy = 1;
                 break;
             case DIRECTION_LEFT:
-                for (int y = 0; y < height; y++) {
-                    for (int x = 1; x < width; x++) {
-                        int tX = x - 1;
-                        if (getCell(x, y).getValue() != 0 && getCell(tX, y).getValue() == 0 && !exclusion.contains(new Integer[] { x, y })) {
-                            setCell(getCell(x, y), tX, y);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                        } else if (getCell(x, y).getValue() != 0 && getCell(tX, y).isEqual(getCell(x, y)) && !getCell(x, y).getMerged() && !getCell(tX, y).getMerged()) {
-                            setCell(new GridSpace2048(getCell(x, y).getValue() * 2, true), tX, y);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                            merged = true;
-                            counter.valueInt += getCell(tX, y).getValue();
-                            receiver.blockBreak(engine, playerID, tX * 2, y * 2, getBlock(getCell(tX, y).getValue()));
-                            receiver.blockBreak(engine, playerID, tX + 1, y * 2, getBlock(getCell(tX, y).getValue()));
-                            receiver.blockBreak(engine, playerID, tX * 2, y * 2 + 1, getBlock(getCell(tX, y).getValue()));
-                            receiver.blockBreak(engine, playerID, tX * 2 + 1, y * 2 + 1, getBlock(getCell(tX, y).getValue()));
-                            exclusion.add(new Integer[] { tX, y });
-                        }
-                    }
-                }
+                startX = 1;
+                dx = -1;
                 break;
             case DIRECTION_RIGHT:
-                for (int y = 0; y < height; y++) {
-                    for (int x = width - 2; x >= 0; x--) {
-                        int tX = x + 1;
-                        if (getCell(x, y).getValue() != 0 && getCell(tX, y).getValue() == 0 && !exclusion.contains(new Integer[] { x, y })) {
-                            setCell(getCell(x, y), tX, y);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                        } else if (getCell(x, y).getValue() != 0 && getCell(tX, y).isEqual(getCell(x, y)) && !getCell(x, y).getMerged() && !getCell(tX, y).getMerged()) {
-                            setCell(new GridSpace2048(getCell(x, y).getValue() * 2, true), tX, y);
-                            setCell(new GridSpace2048(0), x, y);
-
-                            moved = true;
-                            merged = true;
-                            counter.valueInt += getCell(tX, y).getValue();
-                            receiver.blockBreak(engine, playerID, tX * 2, y * 2, getBlock(getCell(tX, y).getValue()));
-                            receiver.blockBreak(engine, playerID, tX + 1, y * 2, getBlock(getCell(tX, y).getValue()));
-                            receiver.blockBreak(engine, playerID, tX * 2, y * 2 + 1, getBlock(getCell(tX, y).getValue()));
-                            receiver.blockBreak(engine, playerID, tX * 2 + 1, y * 2 + 1, getBlock(getCell(tX, y).getValue()));
-                            exclusion.add(new Integer[] { tX, y });
-                        }
-                    }
-                }
+                startX = width - 2;
+                endX = -1;
+                stepX = -1;
+                dx = 1;
                 break;
             default:
+                endX = startX;
                 break;
         }
 
+        boolean moved = false;
+        boolean merged = false;
+
+        for (int y = startY; y != endY; y += stepY) {
+            for (int x = startX; x != endX; x += stepX) {
+                int exponent = getExponent(x, y);
+                if (exponent == 0) continue;
+
+                int tX = x + dx, tY = y + dy;
+                int target = getExponent(tX, tY);
+                if (target == 0) {
+                    setSpace(tX, tY, exponent, isMerged(x, y));
+                    setSpace(x, y, 0, false);
+
+                    moved = true;
+                } else if (target == exponent && exponent < Board2048.MAX_EXPONENT && !isMerged(x, y) && !isMerged(tX, tY)) {
+                    setSpace(tX, tY, exponent + 1, true);
+                    setSpace(x, y, 0, false);
+
+                    moved = true;
+                    merged = true;
+                    counter.valueInt += 1 << (exponent + 1);
+                    receiver.blockBreak(engine, playerID, tX * 2, tY * 2, getBlock(exponent + 1));
+                    receiver.blockBreak(engine, playerID, tX * 2 + 1, tY * 2, getBlock(exponent + 1));
+                    receiver.blockBreak(engine, playerID, tX * 2, tY * 2 + 1, getBlock(exponent + 1));
+                    receiver.blockBreak(engine, playerID, tX * 2 + 1, tY * 2 + 1, getBlock(exponent + 1));
+                }
+            }
+        }
+
         if (moved) engine.playSE("move");
-        else if (!moved) engine.playSE("linefall");
+        else engine.playSE("linefall");
         if (merged) engine.playSE("square_g");
 
         return moved;
     }
 
     public int getMaxSquare() {
-        int max = 0;
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (getCell(x, y).getValue() > max) max = getCell(x, y).getValue();
-            }
-        }
-
-        return max;
+        int max = Board2048.getMaxExponent(board);
+        return max == 0 ? 0 : 1 << max;
     }
 
     public void createSquare() {
-        int x, y;
+        int empty = Board2048.countEmpty(board);
+        if (empty == 0) return;
 
-        ArrayList<int[]> locations = new ArrayList<>();
+        // Same draws as picking from a row-major list of empty cells.
+        int index = localRandom.nextInt(empty);
+        double coeff = localRandom.nextDouble();
 
-        for (int y2 = 0; y2 < height; y2++) {
-            for (int x2 = 0; x2 < width; x2++) {
-                if (getCell(x2, y2).getValue() == 0) locations.add(new int[] { x2, y2 });
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (getExponent(x, y) != 0) continue;
+                if (index-- == 0) {
+                    setSpace(x, y, coeff < TWO_CHANCE ? 1 : 2, false);
+                    return;
+                }
             }
         }
-
-
-        if (locations.size() > 0) {
-            int[] is = locations.get(localRandom.nextInt(locations.size()));
-            x = is[0];
-            y = is[1];
-
-            double coeff = localRandom.nextDouble();
-            setCell(new GridSpace2048(coeff < TWO_CHANCE ? 2 : 4), x, y);
-        }
     }
 
-    private Block getBlock(int value) {
-        return new Block(colourAssign.getOrDefault(value, Block.BLOCK_COLOR_RAINBOW));
+    private Block getBlock(int exponent) {
+        return new Block(getColour(exponent));
     }
 }
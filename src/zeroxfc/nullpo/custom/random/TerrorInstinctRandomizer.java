@@ -1,34 +1,50 @@
 package zeroxfc.nullpo.custom.random;
 
-import java.util.ArrayList;
 import mu.nu.nullpo.game.component.Piece;
 import net.omegaboshi.nullpomino.game.subsystem.randomizer.Randomizer;
 
 public class TerrorInstinctRandomizer extends Randomizer {
     private static final int MAX_ROLLS = 6;
+    private static final int POOL_COPIES = 5;
+    private static final int HISTORY_SIZE = 4;
 
-    private ArrayList<Integer> piecePool;
-    private ArrayList<Integer> history;
+    /*
+     * The pool keeps its original ordering (removals shift the tail down) so that a seed always produces
+     * the same sequence as before and old replays stay valid. It never holds more than 5 copies per piece,
+     * so the shift is a short array copy.
+     */
+    private int[] piecePool;
+    private int poolSize;
+
+    /*
+     * History is a ring buffer; historyMask has bit n set while piece n is anywhere in it.
+     */
+    private int[] history;
+    private int historyStart;
+    private long historyMask;
 
     private int count;
 
     @Override
     public void init() {
-        piecePool = new ArrayList<>();
-        history = new ArrayList<>();
+        piecePool = new int[pieces.length * POOL_COPIES];
+        poolSize = 0;
+        history = new int[HISTORY_SIZE];
+        historyStart = 0;
 
         count = 0;
 
         for (int i : pieces) {
-            for (int j = 0; j < 5; j++) {
-                piecePool.add(i);
+            for (int j = 0; j < POOL_COPIES; j++) {
+                piecePool[poolSize++] = i;
             }
         }
 
-        for (int i = 0; i < 4; i++) {
-            if (i % 2 == 0) history.add(Piece.PIECE_S);
-            else history.add(Piece.PIECE_Z);
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            if (i % 2 == 0) history[i] = Piece.PIECE_S;
+            else history[i] = Piece.PIECE_Z;
         }
+        updateHistoryMask();
     }
 
     /**
@@ -60,11 +76,11 @@ public class TerrorInstinctRandomizer extends Randomizer {
         int idx, id, rolls = 0;
 
         do {
-            idx = r.nextInt(piecePool.size());
-            id = piecePool.get(idx);
+            idx = r.nextInt(poolSize);
+            id = piecePool[idx];
 
             rolls++;
-        } while ((history.contains(id) && rolls < MAX_ROLLS) || (count == 0 && id == Piece.PIECE_O));
+        } while ((((historyMask >>> id) & 1L) != 0 && rolls < MAX_ROLLS) || (count == 0 && id == Piece.PIECE_O));
 
         count++;
         appendHistory(id, idx);
@@ -73,12 +89,23 @@ public class TerrorInstinctRandomizer extends Randomizer {
     }
 
     private void appendHistory(int id, int idx) {
-        int temp = history.remove(0);
-        history.add(id);
-        piecePool.remove(idx);
+        int temp = history[historyStart];
+        history[historyStart] = id;
+        historyStart = (historyStart + 1) % HISTORY_SIZE;
+        updateHistoryMask();
+
+        System.arraycopy(piecePool, idx + 1, piecePool, idx, poolSize - idx - 1);
+        poolSize--;
 
         if (count > 4) {
-            piecePool.add(temp);
+            piecePool[poolSize++] = temp;
+        }
+    }
+
+    private void updateHistoryMask() {
+        historyMask = 0;
+        for (int piece : history) {
+            historyMask |= 1L << piece;
         }
     }
 }
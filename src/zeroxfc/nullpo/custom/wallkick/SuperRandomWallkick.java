@@ -8,26 +8,33 @@ import mu.nu.nullpo.game.subsystem.wallkick.StandardWallkick;
 import zeroxfc.nullpo.custom.libs.ArrayRandomiser;
 
 public class SuperRandomWallkick extends StandardWallkick {
+    /*
+     * Kick order cache. Each slot holds the shuffled kick order for one (seed, kick count) pair; a slot is picked by
+     * hashing the seed and overwritten on a miss.
+     */
+    private static final int CACHE_BITS = 6;
+    private final int[] cachedSeeds = new int[1 << CACHE_BITS];
+    private final int[][] cachedOrders = new int[1 << CACHE_BITS][];
+
+    /*
+     * Used to fill cache misses. Reseeding gives the same order as a new randomiser with that seed.
+     */
+    private final ArrayRandomiser randomiser = new ArrayRandomiser(0);
+
     /*
      * Wallkick
      */
     public WallkickResult executeWallkick(int x, int y, int rtDir, int rtOld, int rtNew, boolean allowUpward, Piece piece, Field field, Controller ctrl) {
         int[][][] kicktable = getKickTable(x, y, rtDir, rtOld, rtNew, allowUpward, piece, field, ctrl);
 
-        int[] arr = new int[kicktable[rtOld].length];
-        for (int i = 0; i < arr.length; i++) {
-            arr[i] = i;
-        }
-
         int v = 0;
         for (int i : ctrl.buttonTime) {
             v += i;
         }
 
-        ArrayRandomiser randomiser = new ArrayRandomiser(rtOld + rtNew + piece.id + field.getHighestBlockY() + v);
-        arr = randomiser.permute(arr);
+        int[] order = getKickOrder(rtOld + rtNew + piece.id + field.getHighestBlockY() + v, kicktable[rtOld].length);
 
-        for (int i : arr) {
+        for (int i : order) {
             int x2 = kicktable[rtOld][i][0];
             int y2 = kicktable[rtOld][i][1];
 
@@ -45,4 +52,30 @@ public class SuperRandomWallkick extends StandardWallkick {
 
         return null;
     }
+
+    /**
+     * Gets the kick order for a seed. The returned array is shared and must not be modified.
+     *
+     * @param seed  Random seed
+     * @param kicks Number of kicks in the table
+     * @return Indices 0 to kicks - 1, shuffled with the seed.
+     */
+    private int[] getKickOrder(int seed, int kicks) {
+        int slot = (seed * 0x9E3779B9) >>> (32 - CACHE_BITS);
+        int[] order = cachedOrders[slot];
+        if (order != null && order.length == kicks && cachedSeeds[slot] == seed) return order;
+
+        if (order == null || order.length != kicks) {
+            order = new int[kicks];
+            cachedOrders[slot] = order;
+        }
+        for (int i = 0; i < kicks; i++) {
+            order[i] = i;
+        }
+
+        randomiser.setSeed(seed);
+        randomiser.shuffle(order);
+        cachedSeeds[slot] = seed;
+        return order;
+    }
 }